@@ -0,0 +1,128 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.LogLevel;
+import com.dynatrace.openkit.core.util.DefaultLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi threaded throughput benchmark for inserting data into the {@link BeaconCache}.
+ *
+ * <p>
+ * Each benchmark thread simulates sessions reporting events. After {@link #recordsPerBeacon} records a session
+ * is ended and its cache entry is deleted, so that the next insert has to create a new cache entry.
+ * The {@code concurrent} cache type is the {@link BeaconCacheImpl} as it is used by OpenKit,
+ * the {@code globalLock} cache type is the {@link GlobalLockBeaconCache} baseline.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BeaconCacheBenchmark {
+
+    private static final String EVENT_DATA = "et=13&na=Some%20event&it=1&pa=1&s0=2&t0=123";
+
+    @Param({"concurrent", "globalLock"})
+    public String cacheType;
+
+    @Param({"1", "50"})
+    public int recordsPerBeacon;
+
+    private BeaconCacheImpl beaconCache;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        DefaultLogger logger = new DefaultLogger(LogLevel.WARN);
+        if ("globalLock".equals(cacheType)) {
+            beaconCache = new GlobalLockBeaconCache(logger);
+        } else {
+            beaconCache = new BeaconCacheImpl(logger);
+        }
+    }
+
+    /**
+     * Session reporting data from a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class SessionState {
+
+        private static final AtomicInteger NEXT_BEACON_ID = new AtomicInteger(0);
+
+        private BeaconKey beaconKey;
+        private int numRecords;
+
+        BeaconKey getBeaconKey(BeaconCache beaconCache, int recordsPerBeacon) {
+            if (beaconKey == null || numRecords >= recordsPerBeacon) {
+                if (beaconKey != null) {
+                    beaconCache.deleteCacheEntry(beaconKey);
+                }
+                beaconKey = new BeaconKey(NEXT_BEACON_ID.incrementAndGet(), 0);
+                numRecords = 0;
+            }
+            numRecords++;
+
+            return beaconKey;
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void addEventData(SessionState session) {
+        beaconCache.addEventData(session.getBeaconKey(beaconCache, recordsPerBeacon), 1000L, EVENT_DATA);
+    }
+
+    @Benchmark
+    @Group("insertWhileEvicting")
+    @GroupThreads(7)
+    public void insert(SessionState session) {
+        beaconCache.addActionData(session.getBeaconKey(beaconCache, recordsPerBeacon), 1000L, EVENT_DATA);
+    }
+
+    @Benchmark
+    @Group("insertWhileEvicting")
+    @GroupThreads(1)
+    public int evict() {
+        // mimics the time eviction strategy, which iterates over a snapshot of all beacon keys
+        int numRecordsRemoved = 0;
+        for (BeaconKey beaconKey : beaconCache.getBeaconKeys()) {
+            numRecordsRemoved += beaconCache.evictRecordsByAge(beaconKey, 0L);
+        }
+
+        return numRecordsRemoved;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.LogLevel;
+import com.dynatrace.openkit.core.util.DefaultLogger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Measures the heap retained by the {@link BeaconCacheImpl} per byte of cached beacon data.
+ *
+ * <p>
+ * The benchmark fills a cache with {@link #numSessions} sessions each holding {@link #recordsPerSession} event
+ * records and compares the used heap before and after filling it. The result is reported as the
+ * {@code heapBytesPerCachedByte} secondary result, where a cached byte is one byte of the records' data.
+ * The primary (time) result of this benchmark is not meaningful.
+ * </p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class BeaconCacheFootprintBenchmark {
+
+    private static final String EVENT_DATA_PREFIX = "et=13&na=Some%20event&it=1&pa=1&s0=2&t0=";
+
+    @Param({"10000"})
+    public int numSessions;
+
+    @Param({"200"})
+    public int recordsPerSession;
+
+    private BeaconCacheImpl beaconCache;
+
+    /**
+     * Secondary result reported by JMH.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public double heapBytesPerCachedByte;
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // release the previous iteration's cache before measuring the baseline
+        beaconCache = null;
+    }
+
+    @Benchmark
+    public BeaconCache fillCache(Footprint footprint) {
+        MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+        long heapBefore = usedHeapAfterGC(memoryBean);
+
+        beaconCache = new BeaconCacheImpl(new DefaultLogger(LogLevel.WARN));
+        long numCachedBytes = 0;
+        for (int session = 0; session < numSessions; session++) {
+            BeaconKey beaconKey = new BeaconKey(session, 0);
+            for (int record = 0; record < recordsPerSession; record++) {
+                String data = EVENT_DATA_PREFIX + record;
+                beaconCache.addEventData(beaconKey, record, data);
+                numCachedBytes += data.length(); // the data consists of ASCII characters only
+            }
+        }
+
+        long heapAfter = usedHeapAfterGC(memoryBean);
+
+        footprint.heapBytesPerCachedByte = (double) (heapAfter - heapBefore) / numCachedBytes;
+
+        return beaconCache;
+    }
+
+    private static long usedHeapAfterGC(MemoryMXBean memoryBean) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryBean.getHeapMemoryUsage().getUsed();
+    }
+}
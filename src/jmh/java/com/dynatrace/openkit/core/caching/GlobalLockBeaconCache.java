@@ -0,0 +1,93 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * {@link BeaconCacheImpl} guarding all beacon entries by a single, cache wide {@link ReadWriteLock}.
+ *
+ * <p>
+ * This is how the beacon entries were stored before {@link BeaconCacheImpl} made use of a concurrent map
+ * and serves as baseline for the benchmarks.
+ * </p>
+ */
+class GlobalLockBeaconCache extends BeaconCacheImpl {
+
+    private final ReadWriteLock globalCacheLock = new ReentrantReadWriteLock();
+    private final Map<BeaconKey, BeaconCacheEntry> beacons = new HashMap<BeaconKey, BeaconCacheEntry>();
+
+    GlobalLockBeaconCache(Logger logger) {
+        super(logger);
+    }
+
+    @Override
+    BeaconCacheEntry getCachedEntry(BeaconKey key) {
+        try {
+            globalCacheLock.readLock().lock();
+            return beacons.get(key);
+        } finally {
+            globalCacheLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    BeaconCacheEntry getCachedEntryOrInsert(BeaconKey key) {
+        BeaconCacheEntry entry = getCachedEntry(key);
+        if (entry == null) {
+            try {
+                globalCacheLock.writeLock().lock();
+                entry = beacons.get(key);
+                if (entry == null) {
+                    entry = new BeaconCacheEntry();
+                    beacons.put(key, entry);
+                }
+            } finally {
+                globalCacheLock.writeLock().unlock();
+            }
+        }
+
+        return entry;
+    }
+
+    @Override
+    BeaconCacheEntry removeCachedEntry(BeaconKey key) {
+        try {
+            globalCacheLock.writeLock().lock();
+            return beacons.remove(key);
+        } finally {
+            globalCacheLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<BeaconKey> getBeaconKeys() {
+        try {
+            globalCacheLock.readLock().lock();
+            return new HashSet<BeaconKey>(beacons.keySet());
+        } finally {
+            globalCacheLock.readLock().unlock();
+        }
+    }
+}
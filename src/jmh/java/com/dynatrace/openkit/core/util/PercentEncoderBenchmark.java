@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for percent encoding an event name, as it is done when serializing beacon data.
+ *
+ * <p>
+ * The interesting metric is the allocation rate, reported when running the benchmark with the GC profiler
+ * ({@code gradlew jmh -Pjmh.include=PercentEncoderBenchmark -Pjmh.profilers=gc}).
+ * Encoding into a reused {@link StringBuilder} is expected to allocate nothing.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PercentEncoderBenchmark {
+
+    private static final char[] RESERVED_CHARACTERS = {'_'};
+    private static final PercentEncoder PERCENT_ENCODER = new PercentEncoder(RESERVED_CHARACTERS);
+
+    @Param({"loginButtonClicked", "Some event name", "Größe ändern €"})
+    public String eventName;
+
+    private final StringBuilder builder = new StringBuilder(256);
+
+    @Benchmark
+    public String urlEncoder() throws UnsupportedEncodingException {
+        return URLEncoder.encode(eventName, "UTF-8");
+    }
+
+    @Benchmark
+    public String encodeToString() {
+        return PERCENT_ENCODER.encode(eventName);
+    }
+
+    @Benchmark
+    public int encodeIntoBuilder() {
+        builder.setLength(0);
+        builder.append("na=");
+        PERCENT_ENCODER.encode(eventName, builder);
+
+        return builder.length();
+    }
+}
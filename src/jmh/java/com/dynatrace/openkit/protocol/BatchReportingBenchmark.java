@@ -0,0 +1,174 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.DynatraceOpenKitBuilder;
+import com.dynatrace.openkit.api.LogLevel;
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.caching.BeaconCache;
+import com.dynatrace.openkit.core.caching.BeaconCacheImpl;
+import com.dynatrace.openkit.core.configuration.BeaconConfiguration;
+import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
+import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.configuration.ServerConfiguration;
+import com.dynatrace.openkit.core.util.DefaultLogger;
+import com.dynatrace.openkit.core.util.NameDictionary;
+import com.dynatrace.openkit.providers.DefaultRandomNumberGenerator;
+import com.dynatrace.openkit.providers.DefaultSessionIDProvider;
+import com.dynatrace.openkit.providers.DefaultThreadIDProvider;
+import com.dynatrace.openkit.providers.DefaultTimingProvider;
+import com.dynatrace.openkit.providers.RandomNumberGenerator;
+import com.dynatrace.openkit.providers.SessionIDProvider;
+import com.dynatrace.openkit.providers.ThreadIDProvider;
+import com.dynatrace.openkit.providers.TimingProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi threaded throughput benchmark comparing reporting values one by one against reporting them as batch.
+ *
+ * <p>
+ * All benchmark threads report into the same {@link Beacon}, as multiple threads reporting on the same session would.
+ * Each operation reports {@link #batchSize} int values and clears the beacon's data afterwards,
+ * to keep the cache size bounded.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchReportingBenchmark {
+
+    private static final int ACTION_ID = 1;
+
+    @Param({"10", "100"})
+    public int batchSize;
+
+    private Beacon beacon;
+    private String[] valueNames;
+    private int[] values;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        DynatraceOpenKitBuilder builder = new DynatraceOpenKitBuilder("https://localhost", "appID", 42L);
+        OpenKitConfiguration openKitConfiguration = OpenKitConfiguration.from(builder);
+        PrivacyConfiguration privacyConfiguration = PrivacyConfiguration.from(builder);
+        final Beacon.SharedBeaconData sharedBeaconData =
+            Beacon.createSharedBeaconData(openKitConfiguration, privacyConfiguration);
+        BeaconConfiguration configuration = BeaconConfiguration.from(openKitConfiguration, privacyConfiguration, 1);
+        configuration.initializeServerConfiguration(ServerConfiguration.DEFAULT);
+        configuration.enableCapture();
+
+        final Logger logger = new DefaultLogger(LogLevel.WARN);
+        final BeaconCacheImpl beaconCache = new BeaconCacheImpl(logger);
+        beacon = new Beacon(new BeaconInitializer() {
+            private final SessionIDProvider sessionIDProvider = new DefaultSessionIDProvider();
+            private final ThreadIDProvider threadIDProvider = new DefaultThreadIDProvider();
+            private final TimingProvider timingProvider = new DefaultTimingProvider();
+            private final RandomNumberGenerator randomNumberGenerator = new DefaultRandomNumberGenerator();
+            private final NameDictionary nameDictionary = Beacon.createNameDictionary();
+
+            @Override
+            public Logger getLogger() {
+                return logger;
+            }
+
+            @Override
+            public BeaconCache getBeaconCache() {
+                return beaconCache;
+            }
+
+            @Override
+            public String getClientIpAddress() {
+                return null;
+            }
+
+            @Override
+            public SessionIDProvider getSessionIdProvider() {
+                return sessionIDProvider;
+            }
+
+            @Override
+            public int getSessionSequenceNumber() {
+                return 0;
+            }
+
+            @Override
+            public ThreadIDProvider getThreadIdProvider() {
+                return threadIDProvider;
+            }
+
+            @Override
+            public TimingProvider getTimingProvider() {
+                return timingProvider;
+            }
+
+            @Override
+            public RandomNumberGenerator getRandomNumberGenerator() {
+                return randomNumberGenerator;
+            }
+
+            @Override
+            public NameDictionary getNameDictionary() {
+                return nameDictionary;
+            }
+
+            @Override
+            public Beacon.SharedBeaconData getSharedBeaconData() {
+                return sharedBeaconData;
+            }
+        }, configuration);
+
+        valueNames = new String[batchSize];
+        values = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            valueNames[i] = "value" + i;
+            values[i] = i;
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void reportValue() {
+        for (int i = 0; i < valueNames.length; i++) {
+            beacon.reportValue(ACTION_ID, valueNames[i], values[i]);
+        }
+        beacon.clearData();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void reportValues() {
+        beacon.reportValues(ACTION_ID, valueNames, values);
+        beacon.clearData();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark comparing the reused {@link GzipCompressor} against a new {@link GZIPOutputStream} per beacon,
+ * as it was used by the {@link HTTPClient} before.
+ *
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation rate per operation.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BeaconCompressionBenchmark {
+
+    @Param({"1024", "32768"})
+    public int beaconSize;
+
+    @Param({"-1", "1"})
+    public int compressionLevel;
+
+    private byte[] data;
+    private GzipCompressor compressor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws UnsupportedEncodingException {
+        StringBuilder builder = new StringBuilder(beaconSize);
+        for (int i = 0; builder.length() < beaconSize; i++) {
+            builder.append("&et=").append(i % 20).append("&na=action").append(i % 100).append("&it=1&pa=0&s0=").append(i);
+        }
+        data = builder.substring(0, beaconSize).getBytes(Beacon.CHARSET);
+        compressor = new GzipCompressor(compressionLevel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        compressor.end();
+    }
+
+    @Benchmark
+    public int reusedCompressor() {
+        compressor.compress(data);
+        return compressor.getLength();
+    }
+
+    @Benchmark
+    public int gzipOutputStream() throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream) {
+            {
+                def.setLevel(compressionLevel == -1 ? Deflater.DEFAULT_COMPRESSION : compressionLevel);
+            }
+        };
+        gzipOutputStream.write(data);
+        gzipOutputStream.close();
+        return byteArrayOutputStream.toByteArray().length;
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.api.LogLevel;
+import com.dynatrace.openkit.api.SSLTrustManager;
+import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
+import com.dynatrace.openkit.core.util.DefaultLogger;
+import com.dynatrace.openkit.protocol.ssl.SSLBlindTrustManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.X509TrustManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency benchmark for HTTPS status requests sent by the {@link HTTPClient} to a local {@link TLSStubServer}.
+ *
+ * <p>
+ * With the {@code shared} trust manager all requests use the same cached socket factory, therefore connections
+ * are kept alive and TLS sessions are resumed. The {@code perRequest} mode uses a new trust manager for each request,
+ * which forces a new socket factory and a full handshake per request, as it happened before socket factories were cached.
+ * The number of TLS handshakes per request is reported as {@code handshakes}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HTTPClientTLSBenchmark {
+
+    @Param({"shared", "perRequest"})
+    public String trustManagerMode;
+
+    private final DefaultLogger logger = new DefaultLogger(LogLevel.WARN);
+
+    private TLSStubServer server;
+    private SSLTrustManager blindTrustManager;
+    private HTTPClientConfiguration sharedConfiguration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new TLSStubServer();
+        blindTrustManager = new SSLBlindTrustManager();
+        sharedConfiguration = createConfiguration(blindTrustManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    /**
+     * Number of TLS handshakes performed by the benchmark thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Handshakes {
+
+        public long handshakes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            handshakes = 0;
+        }
+    }
+
+    @Benchmark
+    public StatusResponse sendStatusRequest(Handshakes counter) {
+        HTTPClientConfiguration configuration = "perRequest".equals(trustManagerMode)
+            ? createConfiguration(new DelegatingTrustManager(blindTrustManager))
+            : sharedConfiguration;
+
+        int numHandshakesBefore = server.getNumHandshakes();
+        StatusResponse response = new HTTPClient(logger, configuration).sendStatusRequest(null);
+        counter.handshakes += server.getNumHandshakes() - numHandshakesBefore;
+
+        return response;
+    }
+
+    private HTTPClientConfiguration createConfiguration(SSLTrustManager trustManager) {
+        return new HTTPClientConfiguration.Builder()
+            .withBaseURL(server.getEndpointURL())
+            .withApplicationID("appID")
+            .withServerID(1)
+            .withSSLTrustManager(trustManager)
+            .build();
+    }
+
+    /**
+     * Trust manager delegating to another one, used to get a distinct trust manager instance per request.
+     */
+    private static final class DelegatingTrustManager implements SSLTrustManager {
+
+        private final SSLTrustManager delegate;
+
+        private DelegatingTrustManager(SSLTrustManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public X509TrustManager getX509TrustManager() {
+            return delegate.getX509TrustManager();
+        }
+
+        @Override
+        public HostnameVerifier getHostnameVerifier() {
+            return delegate.getHostnameVerifier();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal HTTPS server answering every request with a status response, used as in-process endpoint for benchmarks.
+ *
+ * <p>
+ * The server supports HTTP keep-alive and counts the accepted connections and the completed TLS handshakes.
+ * A self-signed certificate for {@code localhost} is generated with the JDK's {@code keytool} on startup.
+ * </p>
+ */
+class TLSStubServer implements Closeable {
+
+    private static final char[] PASSWORD = "openkit".toCharArray();
+    private static final byte[] RESPONSE = ("HTTP/1.1 200 OK\r\n"
+        + "Content-Type: text/plain\r\n"
+        + "Content-Length: 6\r\n"
+        + "\r\n"
+        + "type=m").getBytes();
+
+    private final SSLServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final AtomicInteger numConnections = new AtomicInteger(0);
+    private final AtomicInteger numHandshakes = new AtomicInteger(0);
+
+    TLSStubServer() throws IOException, GeneralSecurityException, InterruptedException {
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(createKeyManagerFactory().getKeyManagers(), null, null);
+
+        serverSocket = (SSLServerSocket) context.getServerSocketFactory()
+            .createServerSocket(0, 50, InetAddress.getByName("localhost"));
+
+        acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }, TLSStubServer.class.getSimpleName());
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Get the URL of the beacon endpoint served by this server.
+     */
+    String getEndpointURL() {
+        return "https://localhost:" + serverSocket.getLocalPort() + "/mbeacon";
+    }
+
+    int getNumConnections() {
+        return numConnections.get();
+    }
+
+    int getNumHandshakes() {
+        return numHandshakes.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptThread.interrupt();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            numConnections.incrementAndGet();
+
+            Thread connectionThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    handleConnection((SSLSocket) socket);
+                }
+            });
+            connectionThread.setDaemon(true);
+            connectionThread.start();
+        }
+    }
+
+    private void handleConnection(SSLSocket socket) {
+        try {
+            // handshake before reading the request, so that it is counted before the client gets a response
+            socket.setTcpNoDelay(true);
+            socket.startHandshake();
+            numHandshakes.incrementAndGet();
+
+            InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+            OutputStream outputStream = socket.getOutputStream();
+            while (readRequest(inputStream)) {
+                // write the response at once, to not measure delayed acknowledgements
+                outputStream.write(RESPONSE);
+                outputStream.flush();
+            }
+        } catch (IOException e) {
+            // connection closed by the client
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // intentionally left empty
+            }
+        }
+    }
+
+    /**
+     * Read the request header and the request body, if any.
+     *
+     * @return {@code true} if a request was read, {@code false} if the connection was closed.
+     */
+    private static boolean readRequest(InputStream inputStream) throws IOException {
+        int contentLength = 0;
+        String line;
+        boolean isFirstLine = true;
+        while ((line = readLine(inputStream)) != null) {
+            if (line.isEmpty()) {
+                if (isFirstLine) {
+                    continue;
+                }
+                for (int i = 0; i < contentLength; i++) {
+                    if (inputStream.read() < 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            isFirstLine = false;
+            if (line.toLowerCase(Locale.US).startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring("content-length:".length()).trim());
+            }
+        }
+
+        return false;
+    }
+
+    private static String readLine(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = inputStream.read()) >= 0) {
+            if (b == '\n') {
+                return line.toString("US-ASCII").trim();
+            }
+            line.write(b);
+        }
+
+        return null;
+    }
+
+    private static KeyManagerFactory createKeyManagerFactory()
+            throws IOException, GeneralSecurityException, InterruptedException {
+        File keyStoreFile = File.createTempFile("openkit-tls-stub", ".jks");
+        if (!keyStoreFile.delete()) {
+            throw new IOException("Failed to delete " + keyStoreFile);
+        }
+        try {
+            String keytool = System.getProperty("java.home") + File.separator + "bin" + File.separator + "keytool";
+            Process process = new ProcessBuilder(keytool, "-genkeypair",
+                "-alias", "localhost", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                "-dname", "CN=localhost", "-storetype", "JKS", "-keystore", keyStoreFile.getAbsolutePath(),
+                "-storepass", new String(PASSWORD), "-keypass", new String(PASSWORD))
+                .redirectErrorStream(true)
+                .start();
+            InputStream processOutput = process.getInputStream();
+            while (processOutput.read() >= 0) {
+                // drain the output
+            }
+            if (process.waitFor() != 0) {
+                throw new IOException("keytool failed to generate " + keyStoreFile);
+            }
+
+            KeyStore keyStore = KeyStore.getInstance("JKS");
+            FileInputStream keyStoreInputStream = new FileInputStream(keyStoreFile);
+            try {
+                keyStore.load(keyStoreInputStream, PASSWORD);
+            } finally {
+                keyStoreInputStream.close();
+            }
+
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, PASSWORD);
+            return keyManagerFactory;
+        } finally {
+            // the key store is loaded, the file is no longer needed
+            keyStoreFile.delete();
+        }
+    }
+}
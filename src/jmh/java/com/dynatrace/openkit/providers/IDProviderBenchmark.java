@@ -0,0 +1,135 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi threaded benchmark for the session ID and thread ID providers.
+ *
+ * <p>
+ * Session IDs are obtained from 64 threads, as it happens when many request threads of a server create sessions.
+ * The {@code cas} session ID provider is the {@link DefaultSessionIDProvider}, the {@code synchronized}
+ * provider is a lock based baseline.
+ * The {@code direct} thread ID provider is the {@link DefaultThreadIDProvider}, the {@code threadLocal}
+ * provider is a baseline caching the thread ID per thread.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IDProviderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SessionIDProviderState {
+
+        @Param({"cas", "synchronized"})
+        public String providerType;
+
+        private SessionIDProvider sessionIDProvider;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            if ("synchronized".equals(providerType)) {
+                sessionIDProvider = new SynchronizedSessionIDProvider();
+            } else {
+                sessionIDProvider = new DefaultSessionIDProvider(0);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ThreadIDProviderState {
+
+        @Param({"direct", "threadLocal"})
+        public String providerType;
+
+        private ThreadIDProvider threadIDProvider;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            if ("threadLocal".equals(providerType)) {
+                threadIDProvider = new ThreadLocalThreadIDProvider();
+            } else {
+                threadIDProvider = new DefaultThreadIDProvider();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(64)
+    public int getNextSessionID(SessionIDProviderState state) {
+        return state.sessionIDProvider.getNextSessionID();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int getThreadID(ThreadIDProviderState state) {
+        return state.threadIDProvider.getThreadID();
+    }
+
+    /**
+     * Baseline session ID provider guarding the session ID with a lock.
+     */
+    private static class SynchronizedSessionIDProvider implements SessionIDProvider {
+
+        private int lastSessionID;
+
+        @Override
+        public synchronized int getNextSessionID() {
+            if (lastSessionID == Integer.MAX_VALUE) {
+                lastSessionID = 0;
+            }
+            lastSessionID = lastSessionID + 1;
+            return lastSessionID;
+        }
+    }
+
+    /**
+     * Baseline thread ID provider caching the converted thread ID per thread.
+     */
+    private static class ThreadLocalThreadIDProvider implements ThreadIDProvider {
+
+        private final ThreadLocal<Integer> threadID = new ThreadLocal<Integer>() {
+            @Override
+            protected Integer initialValue() {
+                return DefaultThreadIDProvider.convertNativeThreadIDToPositiveInteger(Thread.currentThread().getId());
+            }
+        };
+
+        @Override
+        public int getThreadID() {
+            return threadID.get();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for obtaining a timestamp from the {@link TimingProvider} implementations.
+ *
+ * <p>
+ * The {@code wallClock} provider is the {@link DefaultTimingProvider}, the {@code monotonic} provider the
+ * {@link MonotonicTimingProvider} and the {@code coarse} provider the {@link CoarseTimingProvider}.
+ * The timestamp is obtained several times per reported event, therefore the single and multi threaded
+ * cost per call is of interest.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingProviderBenchmark {
+
+    @Param({"wallClock", "monotonic", "coarse"})
+    public String providerType;
+
+    private TimingProvider timingProvider;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("coarse".equals(providerType)) {
+            timingProvider = new CoarseTimingProvider();
+        } else if ("monotonic".equals(providerType)) {
+            timingProvider = new MonotonicTimingProvider();
+        } else {
+            timingProvider = new DefaultTimingProvider();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (timingProvider instanceof CoarseTimingProvider) {
+            ((CoarseTimingProvider) timingProvider).close();
+        }
+    }
+
+    @Benchmark
+    public long provideTimestamp() {
+        return timingProvider.provideTimestampInMilliseconds();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long provideTimestampConcurrently() {
+        return timingProvider.provideTimestampInMilliseconds();
+    }
+}
@@ -28,6 +28,9 @@ import com.dynatrace.openkit.core.util.DefaultLogger;
 import com.dynatrace.openkit.core.util.StringUtil;
 import com.dynatrace.openkit.protocol.ssl.SSLStrictTrustManager;
 
+import java.io.File;
+import java.util.Arrays;
+
 /**
  * Abstract base class for concrete builder. Using the builder a OpenKit instance can be created
  */
@@ -49,6 +52,29 @@ public abstract class AbstractOpenKitBuilder {
     private long beaconCacheMaxRecordAge = ConfigurationDefaults.DEFAULT_MAX_RECORD_AGE_IN_MILLIS;
     private long beaconCacheLowerMemoryBoundary = ConfigurationDefaults.DEFAULT_LOWER_MEMORY_BOUNDARY_IN_BYTES;
     private long beaconCacheUpperMemoryBoundary = ConfigurationDefaults.DEFAULT_UPPER_MEMORY_BOUNDARY_IN_BYTES;
+    private SpaceEvictionMode beaconCacheSpaceEvictionMode = ConfigurationDefaults.DEFAULT_SPACE_EVICTION_MODE;
+    private int beaconCacheMinRecordsPerSession = ConfigurationDefaults.DEFAULT_MIN_RECORDS_PER_SESSION;
+    private double beaconCacheMemoryPressureHighWatermark = ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_HIGH_WATERMARK;
+    private double beaconCacheMemoryPressureLowWatermark = ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_LOW_WATERMARK;
+    private double beaconCacheMemoryPressureBoundaryFactor = ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_BOUNDARY_FACTOR;
+    private File beaconCacheSpillDirectory = ConfigurationDefaults.DEFAULT_SPILL_DIRECTORY;
+    private long beaconCacheSpillIdleTime = ConfigurationDefaults.DEFAULT_SPILL_IDLE_TIME_IN_MILLIS;
+    private long beaconCacheSpillSessionQuota = ConfigurationDefaults.DEFAULT_SPILL_SESSION_QUOTA_IN_BYTES;
+    private long beaconCacheSpillFileSize = ConfigurationDefaults.DEFAULT_SPILL_FILE_SIZE_IN_BYTES;
+    private File beaconSpoolDirectory = ConfigurationDefaults.DEFAULT_SPOOL_DIRECTORY;
+    private long beaconSpoolReplayInterval = ConfigurationDefaults.DEFAULT_SPOOL_REPLAY_INTERVAL_IN_MILLIS;
+    private long beaconSpoolMaxSize = ConfigurationDefaults.DEFAULT_SPOOL_MAX_SIZE_IN_BYTES;
+    private long beaconSpoolMaxRecordAge = ConfigurationDefaults.DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS;
+    private boolean deferredBeaconSerialization = false;
+    private boolean valueAggregation = false;
+    private double[] valueAggregationBuckets = new double[0];
+    private long deduplicationWindow = ConfigurationDefaults.DEFAULT_DEDUPLICATION_WINDOW_IN_MILLIS;
+    private int maxErrorsAndEventsPerSecond = ConfigurationDefaults.DEFAULT_MAX_ERRORS_AND_EVENTS_PER_SECOND;
+    private TimingMode timingMode = ConfigurationDefaults.DEFAULT_TIMING_MODE;
+    private int beaconCompressionLevel = ConfigurationDefaults.DEFAULT_BEACON_COMPRESSION_LEVEL;
+    private int minBeaconCompressionSize = ConfigurationDefaults.DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES;
+    private int beaconSendingParallelism = ConfigurationDefaults.DEFAULT_BEACON_SENDING_PARALLELISM;
+    private HTTPTransportMode httpTransportMode = ConfigurationDefaults.DEFAULT_HTTP_TRANSPORT_MODE;
     private DataCollectionLevel dataCollectionLevel = ConfigurationDefaults.DEFAULT_DATA_COLLECTION_LEVEL;
     private CrashReportingLevel crashReportLevel = ConfigurationDefaults.DEFAULT_CRASH_REPORTING_LEVEL;
 
@@ -242,6 +268,428 @@ public abstract class AbstractOpenKitBuilder {
         return this;
     }
 
+    /**
+     * Sets how the memory based eviction strategy evicts records from the beacon cache.
+     *
+     * Default value: {@code ROUND_ROBIN}
+     *
+     * @param spaceEvictionMode The eviction mode to apply.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheSpaceEvictionMode(SpaceEvictionMode spaceEvictionMode) {
+        if (spaceEvictionMode != null) {
+            this.beaconCacheSpaceEvictionMode = spaceEvictionMode;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the number of records per session which are kept, when the memory based eviction strategy
+     * runs with {@link SpaceEvictionMode#OLDEST_FIRST}.
+     *
+     * <p>
+     * These records are only evicted, if evicting all other records is not sufficient to
+     * reach the lower memory boundary. As records of a lower priority are evicted first, the records of the
+     * highest priority are kept, e.g. old crashes and errors instead of newer actions or events.
+     * Within the same priority the newest records are kept.
+     * </p>
+     *
+     * @param minRecordsPerSession The number of records kept per session or {@code 0} to treat all records equally.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheMinRecordsPerSession(int minRecordsPerSession) {
+        this.beaconCacheMinRecordsPerSession = Math.max(0, minRecordsPerSession);
+        return this;
+    }
+
+    /**
+     * Enables the memory pressure based eviction strategy of the beacon cache.
+     *
+     * <p>
+     * The watermarks are fractions of the maximum size of the JVM's tenured heap memory pool.
+     * Once the pool's usage after a garbage collection exceeds the high watermark, the beacon cache's memory boundaries
+     * are temporarily lowered, see {@link #withBeaconCacheMemoryPressureBoundaryFactor(double)}.
+     * They are restored, as soon as the pool's usage after a garbage collection drops below the low watermark.
+     * </p>
+     *
+     * <p>
+     * Default value: {@code 0} for both watermarks, which disables the strategy.
+     * </p>
+     *
+     * @param highWatermark Fraction in range (0, 1] of the tenured pool, at which memory pressure is assumed.
+     * @param lowWatermark Fraction in range (0, highWatermark] of the tenured pool, at which memory pressure is gone.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheMemoryPressureWatermarks(double highWatermark, double lowWatermark) {
+        this.beaconCacheMemoryPressureHighWatermark = highWatermark;
+        this.beaconCacheMemoryPressureLowWatermark = lowWatermark;
+        return this;
+    }
+
+    /**
+     * Sets the factor applied to the beacon cache's memory boundaries, while the JVM is under memory pressure.
+     *
+     * <p>
+     * This setting only has an effect, if the memory pressure based eviction strategy is enabled
+     * via {@link #withBeaconCacheMemoryPressureWatermarks(double, double)}.
+     * </p>
+     *
+     * <p>
+     * Default value: {@code 0.5}
+     * </p>
+     *
+     * @param boundaryFactor Factor in range [0, 1] applied to the lower and upper memory boundary.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheMemoryPressureBoundaryFactor(double boundaryFactor) {
+        this.beaconCacheMemoryPressureBoundaryFactor = boundaryFactor;
+        return this;
+    }
+
+    /**
+     * Enables spilling the records of cold sessions from the heap to a memory mapped file in the given directory.
+     *
+     * <p>
+     * The records of a session are spilled, if the session did not get any new record for the configured idle time
+     * or if it exceeds the configured quota. Spilled records are read back transparently, when the session's data
+     * is sent. Additionally, if the beacon cache exceeds its upper memory boundary, the least recently used sessions
+     * are spilled, before records are evicted. The memory boundaries therefore only apply to the records kept on the heap.
+     * </p>
+     *
+     * <p>
+     * The file gets a unique name and is deleted, when OpenKit is shut down.
+     * Default value: {@code null}, which disables spilling.
+     * </p>
+     *
+     * @param spillDirectory The directory in which the spill file is created.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheSpillDirectory(File spillDirectory) {
+        this.beaconCacheSpillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the time without new records, after which the records of a session are spilled.
+     *
+     * <p>
+     * This setting only applies, if spilling is enabled via {@link #withBeaconCacheSpillDirectory(File)}.
+     * </p>
+     *
+     * @param idleTimeInMilliseconds The idle time in milliseconds or a non-positive value to disable idle spilling.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheSpillIdleTime(long idleTimeInMilliseconds) {
+        this.beaconCacheSpillIdleTime = idleTimeInMilliseconds;
+        return this;
+    }
+
+    /**
+     * Sets the number of bytes a session may store on the heap, before its records are spilled.
+     *
+     * <p>
+     * This setting only applies, if spilling is enabled via {@link #withBeaconCacheSpillDirectory(File)}.
+     * </p>
+     *
+     * @param sessionQuotaInBytes The quota per session or a non-positive value for an unlimited quota.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheSpillSessionQuota(long sessionQuotaInBytes) {
+        this.beaconCacheSpillSessionQuota = sessionQuotaInBytes;
+        return this;
+    }
+
+    /**
+     * Sets the size of the spill file.
+     *
+     * <p>
+     * The file is mapped into memory at once, therefore the size is limited to {@link Integer#MAX_VALUE} bytes.
+     * This setting only applies, if spilling is enabled via {@link #withBeaconCacheSpillDirectory(File)}.
+     * </p>
+     *
+     * @param fileSizeInBytes The size of the spill file in bytes.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCacheSpillFileSize(long fileSizeInBytes) {
+        if (fileSizeInBytes > 0) {
+            this.beaconCacheSpillFileSize = Math.min(fileSizeInBytes, Integer.MAX_VALUE);
+        }
+        return this;
+    }
+
+    /**
+     * Enables spooling beacon data, which could not be sent when OpenKit is shut down, to a file in the given directory.
+     *
+     * <p>
+     * When OpenKit is shut down, it tries to send all remaining data once. If the server is not reachable or rejects
+     * the data (e.g. due to too many requests), the remaining data is written to the spool file instead of discarding it.
+     * The next OpenKit instance using the same directory and application ID replays the spooled data, as soon as
+     * capturing is turned on, at the pace configured with {@link #withBeaconSpoolReplayInterval(long)}.
+     * </p>
+     *
+     * <p>
+     * Default value: {@code null}, which disables spooling.
+     * </p>
+     *
+     * @param spoolDirectory The directory in which the spool file is stored.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconSpoolDirectory(File spoolDirectory) {
+        this.beaconSpoolDirectory = spoolDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the minimum time between two beacon chunks replayed from the spool.
+     *
+     * <p>
+     * This setting only applies, if spooling is enabled via {@link #withBeaconSpoolDirectory(File)}.
+     * </p>
+     *
+     * @param replayIntervalInMilliseconds The replay interval in milliseconds.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconSpoolReplayInterval(long replayIntervalInMilliseconds) {
+        if (replayIntervalInMilliseconds >= 0) {
+            this.beaconSpoolReplayInterval = replayIntervalInMilliseconds;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum size of the beacon spool file.
+     *
+     * <p>
+     * When the spooled data exceeds this size, the oldest spooled sessions are discarded. The size also limits the
+     * memory used for replaying the spooled data.
+     * This setting only applies, if spooling is enabled via {@link #withBeaconSpoolDirectory(File)}.
+     * </p>
+     *
+     * @param maxSizeInBytes The maximum size of the spool file in bytes.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconSpoolMaxSize(long maxSizeInBytes) {
+        if (maxSizeInBytes > 0) {
+            this.beaconSpoolMaxSize = maxSizeInBytes;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum age of spooled beacon data.
+     *
+     * <p>
+     * Data spooled longer ago than the given age is discarded instead of being replayed.
+     * This setting only applies, if spooling is enabled via {@link #withBeaconSpoolDirectory(File)}.
+     * </p>
+     *
+     * @param maxRecordAgeInMilliseconds The maximum age of spooled data in milliseconds.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconSpoolMaxRecordAge(long maxRecordAgeInMilliseconds) {
+        if (maxRecordAgeInMilliseconds > 0) {
+            this.beaconSpoolMaxRecordAge = maxRecordAgeInMilliseconds;
+        }
+        return this;
+    }
+
+    /**
+     * Enables deferred serialization of beacon data.
+     *
+     * <p>
+     * By default reported data (e.g. events, values, errors, actions and web requests) is serialized into the
+     * beacon protocol format on the thread reporting it. If deferred serialization is enabled, the reporting thread
+     * only captures the data, which is serialized by the beacon sending thread when the data is sent.
+     * This moves the serialization work off the reporting threads, at the cost of keeping the captured data
+     * in memory until it is serialized.
+     * </p>
+     *
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder enableDeferredBeaconSerialization() {
+        this.deferredBeaconSerialization = true;
+        return this;
+    }
+
+    /**
+     * Enables client side aggregation of reported int and double values.
+     *
+     * <p>
+     * By default every value reported on an action is sent individually. If value aggregation is enabled,
+     * all int and double values with the same name reported on an action are combined into a summary,
+     * which is reported when the action is left. For a value named {@code name} the summary consists of
+     * the values {@code name.count}, {@code name.sum}, {@code name.min} and {@code name.max}.
+     * At most 100 value names are aggregated per action, values with further names are sent individually.
+     * String values are not aggregated.
+     * </p>
+     *
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder enableValueAggregation() {
+        this.valueAggregation = true;
+        return this;
+    }
+
+    /**
+     * Sets the upper bounds of the histogram buckets reported with aggregated values.
+     *
+     * <p>
+     * This setting only applies, if value aggregation is enabled via {@link #enableValueAggregation()}.
+     * For each bucket bound {@code b} the number of values less than or equal to {@code b} is reported
+     * as {@code name.le_b} in addition to the summary.
+     * </p>
+     *
+     * @param upperBounds The bucket upper bounds, {@code NaN} values are ignored.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withValueAggregationBuckets(double... upperBounds) {
+        if (upperBounds != null) {
+            double[] buckets = new double[upperBounds.length];
+            int numBuckets = 0;
+            for (double upperBound : upperBounds) {
+                if (!Double.isNaN(upperBound)) {
+                    buckets[numBuckets++] = upperBound;
+                }
+            }
+            buckets = Arrays.copyOf(buckets, numBuckets);
+            Arrays.sort(buckets);
+            this.valueAggregationBuckets = buckets;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the window, in which identical errors and events are coalesced.
+     *
+     * <p>
+     * Errors with the same name, code and reason, and events with the same name, reported on the same action
+     * within the window, are sent as a single record. The record is sent after the window has been closed,
+     * followed by an int value named {@code <name>.occurrences} carrying the number of occurrences.
+     * This value is only sent, if the data collection level allows reporting values.
+     * </p>
+     *
+     * @param windowInMilliseconds The deduplication window in milliseconds, {@code 0} disables deduplication.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withErrorAndEventDeduplicationWindow(long windowInMilliseconds) {
+        if (windowInMilliseconds >= 0) {
+            this.deduplicationWindow = windowInMilliseconds;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of error and event records per second and session.
+     *
+     * <p>
+     * Further errors and events reported within the same second are dropped. Duplicates coalesced
+     * via {@link #withErrorAndEventDeduplicationWindow(long)} do not count towards this limit.
+     * </p>
+     *
+     * @param maxRecordsPerSecond The maximum number of records per second, {@code 0} disables the limit.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withMaxErrorsAndEventsPerSecond(int maxRecordsPerSecond) {
+        if (maxRecordsPerSecond >= 0) {
+            this.maxErrorsAndEventsPerSecond = maxRecordsPerSecond;
+        }
+        return this;
+    }
+
+    /**
+     * Sets how OpenKit obtains the timestamps of reported data.
+     *
+     * Default value: {@code WALL_CLOCK}
+     *
+     * @param timingMode The timing mode to apply.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withTimingMode(TimingMode timingMode) {
+        if (timingMode != null) {
+            this.timingMode = timingMode;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of sessions, whose beacons are sent concurrently.
+     *
+     * <p>
+     *     The data of one session is still sent in order. Values less than {@code 1} are ignored.
+     * </p>
+     *
+     * Default value: {@code 1}, which sends all sessions one after another
+     *
+     * @param parallelism Maximum number of concurrently sent sessions.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconSendingParallelism(int parallelism) {
+        if (parallelism >= 1) {
+            this.beaconSendingParallelism = parallelism;
+        }
+        return this;
+    }
+
+    /**
+     * Sets how OpenKit sends its HTTP requests.
+     *
+     * <p>
+     *     With {@link HTTPTransportMode#NIO} concurrently sent sessions, see {@link #withBeaconSendingParallelism(int)},
+     *     share a few keep-alive connections to {@code http} endpoints instead of opening one connection each.
+     * </p>
+     *
+     * Default value: {@code BLOCKING}
+     *
+     * @param httpTransportMode The HTTP transport mode to apply.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withHTTPTransportMode(HTTPTransportMode httpTransportMode) {
+        if (httpTransportMode != null) {
+            this.httpTransportMode = httpTransportMode;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the compression level used for gzip compressing beacon data before it's sent.
+     *
+     * <p>
+     *     Valid levels are {@code 0} (no compression) to {@code 9} (best compression),
+     *     or {@code -1} for the default level. Other values are ignored.
+     * </p>
+     *
+     * Default value: {@code -1}
+     *
+     * @param compressionLevel The compression level to apply.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withBeaconCompressionLevel(int compressionLevel) {
+        if (compressionLevel >= -1 && compressionLevel <= 9) {
+            this.beaconCompressionLevel = compressionLevel;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the minimum size in bytes of beacon data, which is gzip compressed before it's sent.
+     *
+     * <p>
+     *     Smaller beacon data is sent uncompressed, since the gzip header and trailer would outweigh the savings.
+     *     Negative values are ignored.
+     * </p>
+     *
+     * Default value: {@code 0}, which compresses all beacon data
+     *
+     * @param minCompressionSize Minimum size of beacon data in bytes to compress.
+     * @return {@code this}
+     */
+    public AbstractOpenKitBuilder withMinBeaconCompressionSize(int minCompressionSize) {
+        if (minCompressionSize >= 0) {
+            this.minBeaconCompressionSize = minCompressionSize;
+        }
+        return this;
+    }
+
     /**
      * Sets the data collection level.
      *
@@ -462,6 +910,241 @@ public abstract class AbstractOpenKitBuilder {
         return beaconCacheUpperMemoryBoundary;
     }
 
+    /**
+     * Get the beacon cache space eviction mode that has been set with
+     * {@link #withBeaconCacheSpaceEvictionMode(SpaceEvictionMode)}.
+     *
+     * @return Previously set space eviction mode or
+     *         {@link ConfigurationDefaults#DEFAULT_SPACE_EVICTION_MODE} if none has been set.
+     */
+    public SpaceEvictionMode getBeaconCacheSpaceEvictionMode() {
+        return beaconCacheSpaceEvictionMode;
+    }
+
+    /**
+     * Get the number of records per session kept by the space eviction that has been set with
+     * {@link #withBeaconCacheMinRecordsPerSession(int)}.
+     *
+     * @return Previously set number of records or
+     *         {@link ConfigurationDefaults#DEFAULT_MIN_RECORDS_PER_SESSION} if none has been set.
+     */
+    public int getBeaconCacheMinRecordsPerSession() {
+        return beaconCacheMinRecordsPerSession;
+    }
+
+    /**
+     * Get the high watermark of the memory pressure based eviction that has been set with
+     * {@link #withBeaconCacheMemoryPressureWatermarks(double, double)}.
+     *
+     * @return Previously set high watermark or
+     *         {@link ConfigurationDefaults#DEFAULT_MEMORY_PRESSURE_HIGH_WATERMARK} if none has been set.
+     */
+    public double getBeaconCacheMemoryPressureHighWatermark() {
+        return beaconCacheMemoryPressureHighWatermark;
+    }
+
+    /**
+     * Get the low watermark of the memory pressure based eviction that has been set with
+     * {@link #withBeaconCacheMemoryPressureWatermarks(double, double)}.
+     *
+     * @return Previously set low watermark or
+     *         {@link ConfigurationDefaults#DEFAULT_MEMORY_PRESSURE_LOW_WATERMARK} if none has been set.
+     */
+    public double getBeaconCacheMemoryPressureLowWatermark() {
+        return beaconCacheMemoryPressureLowWatermark;
+    }
+
+    /**
+     * Get the factor applied to the memory boundaries under memory pressure that has been set with
+     * {@link #withBeaconCacheMemoryPressureBoundaryFactor(double)}.
+     *
+     * @return Previously set boundary factor or
+     *         {@link ConfigurationDefaults#DEFAULT_MEMORY_PRESSURE_BOUNDARY_FACTOR} if none has been set.
+     */
+    public double getBeaconCacheMemoryPressureBoundaryFactor() {
+        return beaconCacheMemoryPressureBoundaryFactor;
+    }
+
+    /**
+     * Get the directory of the beacon cache's spill file that has been set with
+     * {@link #withBeaconCacheSpillDirectory(File)}.
+     *
+     * @return Previously set directory or {@link ConfigurationDefaults#DEFAULT_SPILL_DIRECTORY} if none has been set.
+     */
+    public File getBeaconCacheSpillDirectory() {
+        return beaconCacheSpillDirectory;
+    }
+
+    /**
+     * Get the idle time, after which sessions are spilled, that has been set with
+     * {@link #withBeaconCacheSpillIdleTime(long)}.
+     *
+     * @return Previously set idle time or
+     *         {@link ConfigurationDefaults#DEFAULT_SPILL_IDLE_TIME_IN_MILLIS} if none has been set.
+     */
+    public long getBeaconCacheSpillIdleTime() {
+        return beaconCacheSpillIdleTime;
+    }
+
+    /**
+     * Get the quota per session, after which sessions are spilled, that has been set with
+     * {@link #withBeaconCacheSpillSessionQuota(long)}.
+     *
+     * @return Previously set quota or
+     *         {@link ConfigurationDefaults#DEFAULT_SPILL_SESSION_QUOTA_IN_BYTES} if none has been set.
+     */
+    public long getBeaconCacheSpillSessionQuota() {
+        return beaconCacheSpillSessionQuota;
+    }
+
+    /**
+     * Get the size of the beacon cache's spill file that has been set with {@link #withBeaconCacheSpillFileSize(long)}.
+     *
+     * @return Previously set size or
+     *         {@link ConfigurationDefaults#DEFAULT_SPILL_FILE_SIZE_IN_BYTES} if none has been set.
+     */
+    public long getBeaconCacheSpillFileSize() {
+        return beaconCacheSpillFileSize;
+    }
+
+    /**
+     * Get the directory of the beacon spool that has been set with {@link #withBeaconSpoolDirectory(File)}.
+     *
+     * @return Previously set directory or {@link ConfigurationDefaults#DEFAULT_SPOOL_DIRECTORY} if none has been set.
+     */
+    public File getBeaconSpoolDirectory() {
+        return beaconSpoolDirectory;
+    }
+
+    /**
+     * Get the replay interval of the beacon spool that has been set with {@link #withBeaconSpoolReplayInterval(long)}.
+     *
+     * @return Previously set replay interval or
+     *         {@link ConfigurationDefaults#DEFAULT_SPOOL_REPLAY_INTERVAL_IN_MILLIS} if none has been set.
+     */
+    public long getBeaconSpoolReplayInterval() {
+        return beaconSpoolReplayInterval;
+    }
+
+    /**
+     * Get the maximum size of the beacon spool file that has been set with {@link #withBeaconSpoolMaxSize(long)}.
+     *
+     * @return Previously set maximum size or
+     *         {@link ConfigurationDefaults#DEFAULT_SPOOL_MAX_SIZE_IN_BYTES} if none has been set.
+     */
+    public long getBeaconSpoolMaxSize() {
+        return beaconSpoolMaxSize;
+    }
+
+    /**
+     * Get the maximum age of spooled beacon data that has been set with {@link #withBeaconSpoolMaxRecordAge(long)}.
+     *
+     * @return Previously set maximum age or
+     *         {@link ConfigurationDefaults#DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS} if none has been set.
+     */
+    public long getBeaconSpoolMaxRecordAge() {
+        return beaconSpoolMaxRecordAge;
+    }
+
+    /**
+     * Get a flag indicating whether deferred beacon serialization has been enabled with
+     * {@link #enableDeferredBeaconSerialization()}.
+     *
+     * @return {@code true} if deferred beacon serialization is enabled, {@code false} otherwise.
+     */
+    public boolean isDeferredBeaconSerializationEnabled() {
+        return deferredBeaconSerialization;
+    }
+
+    /**
+     * Get a flag indicating whether value aggregation has been enabled with {@link #enableValueAggregation()}.
+     *
+     * @return {@code true} if value aggregation is enabled, {@code false} otherwise.
+     */
+    public boolean isValueAggregationEnabled() {
+        return valueAggregation;
+    }
+
+    /**
+     * Get the histogram bucket bounds that have been set with {@link #withValueAggregationBuckets(double...)}.
+     *
+     * @return Previously set bucket bounds in ascending order or an empty array if none have been set.
+     */
+    public double[] getValueAggregationBuckets() {
+        return valueAggregationBuckets.clone();
+    }
+
+    /**
+     * Get the deduplication window that has been set with {@link #withErrorAndEventDeduplicationWindow(long)}.
+     *
+     * @return Previously set deduplication window or
+     *         {@link ConfigurationDefaults#DEFAULT_DEDUPLICATION_WINDOW_IN_MILLIS} if none has been set.
+     */
+    public long getErrorAndEventDeduplicationWindow() {
+        return deduplicationWindow;
+    }
+
+    /**
+     * Get the maximum number of error and event records per second that has been set with
+     * {@link #withMaxErrorsAndEventsPerSecond(int)}.
+     *
+     * @return Previously set limit or {@link ConfigurationDefaults#DEFAULT_MAX_ERRORS_AND_EVENTS_PER_SECOND}
+     *         if none has been set.
+     */
+    public int getMaxErrorsAndEventsPerSecond() {
+        return maxErrorsAndEventsPerSecond;
+    }
+
+    /**
+     * Get the timing mode that has been set with {@link #withTimingMode(TimingMode)}.
+     *
+     * @return Previously set timing mode or {@link ConfigurationDefaults#DEFAULT_TIMING_MODE} if none has been set.
+     */
+    public TimingMode getTimingMode() {
+        return timingMode;
+    }
+
+    /**
+     * Get the maximum number of concurrently sent sessions that has been set with
+     * {@link #withBeaconSendingParallelism(int)}.
+     *
+     * @return Previously set parallelism or {@link ConfigurationDefaults#DEFAULT_BEACON_SENDING_PARALLELISM}
+     *         if none has been set.
+     */
+    public int getBeaconSendingParallelism() {
+        return beaconSendingParallelism;
+    }
+
+    /**
+     * Get the HTTP transport mode that has been set with {@link #withHTTPTransportMode(HTTPTransportMode)}.
+     *
+     * @return Previously set HTTP transport mode or {@link ConfigurationDefaults#DEFAULT_HTTP_TRANSPORT_MODE}
+     *         if none has been set.
+     */
+    public HTTPTransportMode getHTTPTransportMode() {
+        return httpTransportMode;
+    }
+
+    /**
+     * Get the beacon compression level that has been set with {@link #withBeaconCompressionLevel(int)}.
+     *
+     * @return Previously set compression level or {@link ConfigurationDefaults#DEFAULT_BEACON_COMPRESSION_LEVEL}
+     *         if none has been set.
+     */
+    public int getBeaconCompressionLevel() {
+        return beaconCompressionLevel;
+    }
+
+    /**
+     * Get the minimum size of compressed beacon data that has been set with {@link #withMinBeaconCompressionSize(int)}.
+     *
+     * @return Previously set size or {@link ConfigurationDefaults#DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES}
+     *         if none has been set.
+     */
+    public int getMinBeaconCompressionSize() {
+        return minBeaconCompressionSize;
+    }
+
     /**
      * Get data collection level that has been set with {@link #withDataCollectionLevel(DataCollectionLevel)}.
      *
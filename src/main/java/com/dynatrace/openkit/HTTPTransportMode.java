@@ -0,0 +1,40 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit;
+
+/**
+ * Specifies how OpenKit sends its HTTP requests.
+ */
+public enum HTTPTransportMode {
+    /**
+     * Each request is sent with a blocking {@link java.net.HttpURLConnection}.
+     */
+    BLOCKING,
+    /**
+     * Requests to {@code http} endpoints are sent by a non-blocking transport, which pipelines concurrently sent requests
+     * on a few keep-alive connections served by a single background thread.
+     *
+     * <p>
+     * Requests to {@code https} endpoints are still sent like with {@link #BLOCKING}.
+     * </p>
+     */
+    NIO;
+
+    public static HTTPTransportMode defaultValue() {
+        return BLOCKING;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit;
+
+/**
+ * Specifies how the beacon cache evicts records, once its upper memory boundary is exceeded.
+ */
+public enum SpaceEvictionMode {
+    /**
+     * The oldest record of each session is evicted, one session after the other, until the cache size
+     * falls below the lower memory boundary.
+     */
+    ROUND_ROBIN,
+    /**
+     * The number of bytes exceeding the lower memory boundary is evicted at once, starting with the oldest
+     * records of all sessions.
+     *
+     * <p>
+     * The number of records per session configured with
+     * {@link AbstractOpenKitBuilder#withBeaconCacheMinRecordsPerSession(int)} is only evicted if this is not sufficient.
+     * Since lower priority records are evicted first, these are the records of the highest priority, e.g. old crashes
+     * and errors are kept instead of newer actions or events. Within the same priority the newest records are kept.
+     * </p>
+     */
+    OLDEST_FIRST;
+
+    public static SpaceEvictionMode defaultValue() {
+        return ROUND_ROBIN;
+    }
+}
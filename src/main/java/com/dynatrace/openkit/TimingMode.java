@@ -0,0 +1,52 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit;
+
+/**
+ * Specifies how OpenKit obtains the timestamps of actions, events and other reported data.
+ */
+public enum TimingMode {
+    /**
+     * Each timestamp is read from the system's wall clock.
+     *
+     * <p>
+     * Adjustments of the wall clock, e.g. by NTP, are reflected immediately and might yield negative durations.
+     * </p>
+     */
+    WALL_CLOCK,
+    /**
+     * The wall clock is read once and timestamps are derived from the monotonic {@code System.nanoTime()}.
+     *
+     * <p>
+     * Timestamps never move backwards, but later adjustments of the wall clock are not reflected.
+     * </p>
+     */
+    MONOTONIC,
+    /**
+     * Like {@link #MONOTONIC}, but timestamps are read from a cached clock, which is updated by a background thread
+     * about every millisecond.
+     *
+     * <p>
+     * This is the cheapest mode for high-frequency instrumentation, at the cost of millisecond accuracy.
+     * </p>
+     */
+    MONOTONIC_COARSE;
+
+    public static TimingMode defaultValue() {
+        return WALL_CLOCK;
+    }
+}
@@ -63,6 +63,47 @@ public interface Action extends Closeable {
      */
     Action reportValue(String valueName, String value);
 
+    /**
+     * Reports multiple events with specified names (but without any value) at once.
+     *
+     * <p>
+     *     Names which are {@code null} or empty are skipped.
+     *     If given {@code eventNames} is {@code null} then no event is reported to the system.
+     * </p>
+     *
+     * @param eventNames names of the events
+     * @return this Action (for usage as fluent API)
+     */
+    Action reportEvents(String[] eventNames);
+
+    /**
+     * Reports multiple int values with specified names at once.
+     *
+     * <p>
+     *     Names which are {@code null} or empty are skipped.
+     *     If either array is {@code null} or the arrays differ in length then no value is reported to the system.
+     * </p>
+     *
+     * @param valueNames names of the values
+     * @param values     values themselves, in the same order as {@code valueNames}
+     * @return this Action (for usage as fluent API)
+     */
+    Action reportValues(String[] valueNames, int[] values);
+
+    /**
+     * Reports multiple double values with specified names at once.
+     *
+     * <p>
+     *     Names which are {@code null} or empty are skipped.
+     *     If either array is {@code null} or the arrays differ in length then no value is reported to the system.
+     * </p>
+     *
+     * @param valueNames names of the values
+     * @param values     values themselves, in the same order as {@code valueNames}
+     * @return this Action (for usage as fluent API)
+     */
+    Action reportValues(String[] valueNames, double[] values);
+
     /**
      * Reports an error with a specified name, error code and reason.
      *
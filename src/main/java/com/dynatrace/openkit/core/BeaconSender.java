@@ -17,6 +17,7 @@
 package com.dynatrace.openkit.core;
 
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
 import com.dynatrace.openkit.core.communication.BeaconSendingContext;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
@@ -24,6 +25,10 @@ import com.dynatrace.openkit.core.objects.SessionImpl;
 import com.dynatrace.openkit.providers.HTTPClientProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,6 +52,23 @@ public class BeaconSender {
      * Context in terms of the State Design Pattern
      */
     private final BeaconSendingContext context;
+    /**
+     * Provider of the HTTP clients, which is closed after the thread terminated if it's {@link Closeable}
+     */
+    private final HTTPClientProvider clientProvider;
+
+    /**
+     * Lock guarding {@link #threadRunning} and {@link #resourcesToClose}.
+     */
+    private final Object terminationLock = new Object();
+    /**
+     * Flag indicating whether the beacon sending thread was started and did not terminate so far.
+     */
+    private boolean threadRunning = false;
+    /**
+     * Resources closed as soon as the beacon sending thread has terminated.
+     */
+    private final List<Closeable> resourcesToClose = new ArrayList<Closeable>();
 
     /**
      * Create a new BeaconSender.
@@ -60,8 +82,45 @@ public class BeaconSender {
      * @param timingProvider Used for some timing related things.
      */
     public BeaconSender(Logger logger, HTTPClientConfiguration httpClientConfiguration, HTTPClientProvider clientProvider, TimingProvider timingProvider) {
+        this(logger, httpClientConfiguration, clientProvider, timingProvider, null);
+    }
+
+    /**
+     * Create a new BeaconSender, which spools the data that could not be sent at shutdown.
+     * <p>
+     *     To start the beacon sending the {@link #initialize()} method must be called.
+     * </p>
+     *
+     * @param logger Logger for logging messages
+     * @param httpClientConfiguration  Initial HTTP client configuration.
+     * @param clientProvider Used for retrieving an {@link com.dynatrace.openkit.protocol.HTTPClient} instance.
+     * @param timingProvider Used for some timing related things.
+     * @param beaconSpool Spool for data that could not be sent at shutdown or {@code null} to discard such data.
+     */
+    public BeaconSender(Logger logger, HTTPClientConfiguration httpClientConfiguration, HTTPClientProvider clientProvider,
+                        TimingProvider timingProvider, BeaconSpool beaconSpool) {
+        this(logger, httpClientConfiguration, clientProvider, timingProvider, beaconSpool, 1);
+    }
+
+    /**
+     * Create a new BeaconSender, which sends the beacons of multiple sessions concurrently.
+     * <p>
+     *     To start the beacon sending the {@link #initialize()} method must be called.
+     * </p>
+     *
+     * @param logger Logger for logging messages
+     * @param httpClientConfiguration  Initial HTTP client configuration.
+     * @param clientProvider Used for retrieving an {@link com.dynatrace.openkit.protocol.HTTPClient} instance.
+     * @param timingProvider Used for some timing related things.
+     * @param beaconSpool Spool for data that could not be sent at shutdown or {@code null} to discard such data.
+     * @param sendingParallelism Maximum number of sessions sent concurrently.
+     */
+    public BeaconSender(Logger logger, HTTPClientConfiguration httpClientConfiguration, HTTPClientProvider clientProvider,
+                        TimingProvider timingProvider, BeaconSpool beaconSpool, int sendingParallelism) {
         this.logger = logger;
-        this.context = new BeaconSendingContext(logger, httpClientConfiguration, clientProvider, timingProvider);
+        this.clientProvider = clientProvider;
+        this.context = new BeaconSendingContext(logger, httpClientConfiguration, clientProvider, timingProvider, beaconSpool,
+                sendingParallelism);
     }
 
     /**
@@ -82,11 +141,18 @@ public class BeaconSender {
                 if (logger.isDebugEnabled()) {
                     logger.debug(className + " initialize() - thread started");
                 }
-                while (!context.isInTerminalState()) {
-                    context.executeCurrentState();
+                try {
+                    while (!context.isInTerminalState()) {
+                        context.executeCurrentState();
+                    }
+                } finally {
+                    onThreadTerminated();
                 }
             }
         });
+        synchronized (terminationLock) {
+            threadRunning = true;
+        }
         beaconSenderThread.setDaemon(true);
         beaconSenderThread.setName(THREAD_NAME);
         beaconSenderThread.start();
@@ -136,7 +202,10 @@ public class BeaconSender {
             beaconSenderThread.interrupt();
             try {
                 beaconSenderThread.join(SHUTDOWN_TIMEOUT);
-                if (logger.isDebugEnabled()) {
+                if (beaconSenderThread.isAlive()) {
+                    logger.warning(getClass().getSimpleName() + " shutdown() - thread did not stop within "
+                        + SHUTDOWN_TIMEOUT + " milliseconds");
+                } else if (logger.isDebugEnabled()) {
                     logger.debug(getClass().getSimpleName() + " shutdown() - thread stopped");
                 }
             } catch (InterruptedException e) {
@@ -147,6 +216,55 @@ public class BeaconSender {
             }
             beaconSenderThread = null;
         }
+
+        if (clientProvider instanceof Closeable) {
+            // release connections held by the clients, once the sending thread stopped using them
+            closeAfterTermination((Closeable) clientProvider);
+        }
+    }
+
+    /**
+     * Close the given resource as soon as the beacon sending thread has terminated.
+     *
+     * <p>
+     * If the thread was not started or already terminated, the resource is closed immediately.
+     * Otherwise it's closed by the thread itself, when it terminates after {@link #shutdown()} timed out,
+     * so that the thread can still access the resource while flushing the remaining data.
+     * </p>
+     *
+     * @param resource The resource to close.
+     */
+    public void closeAfterTermination(Closeable resource) {
+        synchronized (terminationLock) {
+            if (threadRunning) {
+                resourcesToClose.add(resource);
+                return;
+            }
+        }
+        close(resource);
+    }
+
+    /**
+     * Called by the beacon sending thread, when it terminates.
+     */
+    private void onThreadTerminated() {
+        List<Closeable> resources;
+        synchronized (terminationLock) {
+            threadRunning = false;
+            resources = new ArrayList<Closeable>(resourcesToClose);
+            resourcesToClose.clear();
+        }
+        for (Closeable resource : resources) {
+            close(resource);
+        }
+    }
+
+    private void close(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException e) {
+            logger.error(getClass().getSimpleName() + " - Caught IOException while closing " + resource, e);
+        }
     }
 
     /**
@@ -16,7 +16,8 @@
 
 package com.dynatrace.openkit.core.caching;
 
-import java.util.Observer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -25,17 +26,17 @@ import java.util.Set;
 public interface BeaconCache {
 
     /**
-     * Add an {@link Observer} which gets notified after a new event data or action data got inserted.
+     * Add a {@link DataAddedCallback} which gets notified after a new event data or action data got inserted.
      *
-     * @param o Observer to add.
+     * @param callback Callback to add.
      */
-    void addObserver(Observer o);
+    void addDataAddedCallback(DataAddedCallback callback);
 
     /**
      * Add event data for a given {@code key} to this cache.
      *
      * <p>
-     * All registered observers are notified, after the event data has been added.
+     * All registered callbacks are notified, after the event data has been added.
      * </p>
      *
      * @param key The key of the beacon (aka Session ID and Session seq. no.) for which to add event data.
@@ -44,6 +45,36 @@ public interface BeaconCache {
      */
     void addEventData(BeaconKey key, long timestamp, String data);
 
+    /**
+     * Add event data having the given {@link RecordPriority priority} for a given {@code key} to this cache.
+     *
+     * <p>
+     * All registered callbacks are notified, after the event data has been added.
+     * </p>
+     *
+     * @param key The key of the beacon (aka Session ID and Session seq. no.) for which to add event data.
+     * @param timestamp The data's timestamp.
+     * @param data serialized event data to add.
+     * @param priority The priority used when records need to be evicted.
+     */
+    void addEventData(BeaconKey key, long timestamp, String data, RecordPriority priority);
+
+    /**
+     * Add multiple event data records having the same timestamp and {@link RecordPriority priority}
+     * for a given {@code key} to this cache.
+     *
+     * <p>
+     * All records are added while holding the beacon's lock once and all registered callbacks
+     * are notified only once, after the event data has been added.
+     * </p>
+     *
+     * @param key The key of the beacon (aka Session ID and Session seq. no.) for which to add event data.
+     * @param timestamp The timestamp of all records.
+     * @param data serialized event data records to add.
+     * @param priority The priority used when records need to be evicted.
+     */
+    void addEventData(BeaconKey key, long timestamp, List<String> data, RecordPriority priority);
+
     /**
      * Add action data for a given {@code beaconID} to this cache.
      *
@@ -53,6 +84,16 @@ public interface BeaconCache {
      */
     void addActionData(BeaconKey key, long timestamp, String data);
 
+    /**
+     * Add action data having the given {@link RecordPriority priority} for a given {@code beaconID} to this cache.
+     *
+     * @param key The key of the beacon (aka Session ID and Session seq. no.) for which to add action data.
+     * @param timestamp The data's timestamp.
+     * @param data serialized action data to add.
+     * @param priority The priority used when records need to be evicted.
+     */
+    void addActionData(BeaconKey key, long timestamp, String data, RecordPriority priority);
+
     /**
      * Delete a cache entry for a given {@code key}.
      *
@@ -69,20 +110,20 @@ public interface BeaconCache {
      *
      * @param key The key of the beacon for which to get the next chunk.
      * @param chunkPrefix Prefix to append to the beginning of the chunk.
-     * @param maxSize Maximum chunk size. As soon as chunk's size is greater than or equal to maxSize result is returned.
-     * @param delimiter Delimiter between consecutive chunks.
+     * @param maxSize Maximum chunk size in bytes. As soon as chunk's size is greater than or equal to maxSize result is returned.
+     * @param delimiter Delimiter between consecutive chunks, which must be an ASCII character.
      *
-     * @return {@code null} if given {@code key} does not exist, an empty string, if there is no more data to send
-     * or the next chunk to send.
+     * @return {@code null} if given {@code key} does not exist, an empty array, if there is no more data to send
+     * or the next chunk to send, encoded as UTF-8.
      */
-    String getNextBeaconChunk(BeaconKey key, String chunkPrefix, int maxSize, char delimiter);
+    byte[] getNextBeaconChunk(BeaconKey key, CharSequence chunkPrefix, int maxSize, char delimiter);
 
     /**
      * Remove all data that was previously included in chunks.
      *
      * <p>
-     * This method must be called, when data retrieved via {@link #getNextBeaconChunk(BeaconKey, String, int, char)}
-     * was successfully sent to the backend, otherwise subsequent calls to {@link #getNextBeaconChunk(BeaconKey, String, int, char)}
+     * This method must be called, when data retrieved via {@link #getNextBeaconChunk(BeaconKey, CharSequence, int, char)}
+     * was successfully sent to the backend, otherwise subsequent calls to {@link #getNextBeaconChunk(BeaconKey, CharSequence, int, char)}
      * will retrieve the same data again and again.
      * </p>
      *
@@ -117,6 +158,35 @@ public interface BeaconCache {
      */
     Set<BeaconKey> getBeaconKeys();
 
+    /**
+     * Get a Set of {@link BeaconKey}s, which might have records older than {@code minTimestamp}.
+     *
+     * <p>
+     * Beacons are indexed in coarse time buckets, therefore the returned Set might also contain beacons
+     * whose records are all younger than {@code minTimestamp}, but it contains all beacons with expired records.
+     * Time buckets older than {@code minTimestamp} are dropped by this call, therefore
+     * {@link #evictRecordsByAge(BeaconKey, long)} or {@link #reindexBeacons(Collection)} must be invoked
+     * for each returned key.
+     * </p>
+     *
+     * @param minTimestamp The minimum timestamp allowed.
+     *
+     * @return Snapshot of all beacon keys which might have expired records.
+     */
+    Set<BeaconKey> pollBeaconKeysWithRecordsOlderThan(long minTimestamp);
+
+    /**
+     * Register the given beacons again by the timestamp of their oldest record, without evicting any records.
+     *
+     * <p>
+     * This method must be invoked for all keys returned by {@link #pollBeaconKeysWithRecordsOlderThan(long)},
+     * which are not passed to {@link #evictRecordsByAge(BeaconKey, long)}.
+     * </p>
+     *
+     * @param keys The keys identifying the beacons.
+     */
+    void reindexBeacons(Collection<BeaconKey> keys);
+
     /**
      * Evict {@link BeaconCacheRecord beacon cache records} by age for a given beacon.
      *
@@ -130,6 +200,10 @@ public interface BeaconCache {
     /**
      * Evict {@link BeaconCacheRecord beacon cache records} by number for given beacon.
      *
+     * <p>
+     * Records of a lower {@link RecordPriority priority} are evicted before records of a higher priority.
+     * </p>
+     *
      * @param key   The key identifying a beacon beacon.
      * @param numRecords The maximum number of records to evict.
      *
@@ -137,6 +211,42 @@ public interface BeaconCache {
      */
     int evictRecordsByNumber(BeaconKey key, int numRecords);
 
+    /**
+     * Evict {@link BeaconCacheRecord beacon cache records} by number for given beacon,
+     * considering only records up to the given {@link RecordPriority priority}.
+     *
+     * <p>
+     * Records of a lower {@link RecordPriority priority} are evicted before records of a higher priority.
+     * </p>
+     *
+     * @param key   The key identifying a beacon beacon.
+     * @param numRecords The maximum number of records to evict.
+     * @param maxPriority Only records having a priority less than or equal to this value are evicted.
+     *
+     * @return Returns the number of evicted cache records.
+     */
+    int evictRecordsByNumber(BeaconKey key, int numRecords, RecordPriority maxPriority);
+
+    /**
+     * Evict the globally oldest {@link BeaconCacheRecord beacon cache records}, until at least {@code numBytes}
+     * have been evicted or no more records can be evicted.
+     *
+     * <p>
+     * Records of a lower {@link RecordPriority priority} are evicted before records of a higher priority.
+     * </p>
+     *
+     * <p>
+     * Records are evicted in batches per beacon, so that a beacon is only locked a few times,
+     * even if many of its records are evicted.
+     * </p>
+     *
+     * @param numBytes The number of bytes to evict.
+     * @param minRecordsPerBeacon The number of records which are kept for each beacon.
+     *
+     * @return Returns the number of evicted cache records.
+     */
+    int evictOldestRecords(long numBytes, int minRecordsPerBeacon);
+
     /**
      * Get number of bytes currently stored in cache.
      *
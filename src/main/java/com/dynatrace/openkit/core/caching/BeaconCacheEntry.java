@@ -16,9 +16,8 @@
 
 package com.dynatrace.openkit.core.caching;
 
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -30,18 +29,33 @@ import java.util.concurrent.locks.ReentrantLock;
  * The caller is responsible to lock this element, before the first method is invoked using
  * {@link #lock()} and after the last operation is invoked {@link #unlock()} must be called.
  * </p>
+ *
+ * <p>
+ * Records are stored in {@link BeaconCacheRecordBuffer ring buffers}, therefore chunking and eviction
+ * operate on index ranges instead of record objects.
+ * </p>
  */
 class BeaconCacheEntry {
 
     /**
-     * List storing all active event data.
+     * Chunk returned, if there is no more data to send.
+     */
+    private static final byte[] EMPTY_CHUNK = new byte[0];
+
+    /**
+     * Returned by {@link #getOldestRemovableTimestamp(int)} if there is no record which could be removed.
      */
-    private LinkedList<BeaconCacheRecord> eventData = new LinkedList<BeaconCacheRecord>();
+    static final long NO_REMOVABLE_RECORD = Long.MAX_VALUE;
 
     /**
-     * List storing all active session data.
+     * Buffer storing all active event data.
      */
-    private LinkedList<BeaconCacheRecord> actionData = new LinkedList<BeaconCacheRecord>();
+    private BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+
+    /**
+     * Buffer storing all active session data.
+     */
+    private BeaconCacheRecordBuffer actionData = new BeaconCacheRecordBuffer();
 
     /**
      * Lock object for locking access to session & event data.
@@ -49,17 +63,23 @@ class BeaconCacheEntry {
     private final Lock lock = new ReentrantLock();
 
     /**
-     * List storing all event data being sent.
+     * Buffer storing all event data being sent.
      */
-    private LinkedList<BeaconCacheRecord> eventDataBeingSent;
+    private BeaconCacheRecordBuffer eventDataBeingSent;
     /**
-     * List storing all action data being sent.
+     * Buffer storing all action data being sent.
      */
-    private LinkedList<BeaconCacheRecord> actionDataBeingSent;
+    private BeaconCacheRecordBuffer actionDataBeingSent;
+
     /**
-     * Total number of bytes consumed by this entry.
+     * Bucket of the {@link BeaconCacheTimeIndex} in which this entry is registered.
      */
-    private long totalNumBytes = 0;
+    private long timeBucket = BeaconCacheTimeIndex.NOT_INDEXED;
+
+    /**
+     * Timestamp of the newest record, which has been added to this entry.
+     */
+    private long newestRecordTimestamp = Long.MIN_VALUE;
 
     /**
      * Lock this {@link BeaconCacheEntry} for reading & writing.
@@ -89,8 +109,8 @@ class BeaconCacheEntry {
      * @param record The new record to add.
      */
     void addEventData(BeaconCacheRecord record) {
-        eventData.add(record);
-        totalNumBytes += record.getDataSizeInBytes();
+        eventData.add(record.getTimestamp(), record.getData(), record.getPriority());
+        newestRecordTimestamp = Math.max(newestRecordTimestamp, record.getTimestamp());
     }
 
     /**
@@ -99,8 +119,8 @@ class BeaconCacheEntry {
      * @param record The new record to add.
      */
     void addActionData(BeaconCacheRecord record) {
-        actionData.add(record);
-        totalNumBytes += record.getDataSizeInBytes();
+        actionData.add(record.getTimestamp(), record.getData(), record.getPriority());
+        newestRecordTimestamp = Math.max(newestRecordTimestamp, record.getTimestamp());
     }
 
     /**
@@ -118,9 +138,8 @@ class BeaconCacheEntry {
     void copyDataForChunking() {
         actionDataBeingSent = actionData;
         eventDataBeingSent = eventData;
-        actionData = new LinkedList<BeaconCacheRecord>();
-        eventData = new LinkedList<BeaconCacheRecord>();
-        totalNumBytes = 0; // data which is being sent is not counted
+        actionData = new BeaconCacheRecordBuffer();
+        eventData = new BeaconCacheRecordBuffer();
     }
 
     /**
@@ -131,18 +150,18 @@ class BeaconCacheEntry {
      * </p>
      *
      * @param chunkPrefix The prefix to add to each chunk.
-     * @param maxSize     The maximum size in characters for one chunk.
-     * @param delimiter   The delimiter between data chunks.
+     * @param maxSize     The maximum size in bytes for one chunk.
+     * @param delimiter   The delimiter between data chunks, which must be an ASCII character.
      *
-     * @return The string to send or an empty string if there is no more data to send.
+     * @return The encoded bytes to send or an empty array if there is no more data to send.
      */
-    String getChunk(String chunkPrefix, int maxSize, char delimiter) {
+    byte[] getChunk(CharSequence chunkPrefix, int maxSize, char delimiter) {
 
         if (!hasDataToSend()) {
             // nothing to send - reset to null, so next time lists get copied again
             eventDataBeingSent = null;
             actionDataBeingSent = null;
-            return "";
+            return EMPTY_CHUNK;
         }
         return getNextChunk(chunkPrefix, maxSize, delimiter);
     }
@@ -161,44 +180,106 @@ class BeaconCacheEntry {
     /**
      * Get the next chunk.
      *
+     * <p>
+     * The records' encoded data is copied directly into the resulting array, which is allocated with the
+     * exact chunk size. A plain ASCII prefix, like the percent encoded beacon prefix, is written directly
+     * into the resulting array as well.
+     * </p>
+     *
      * @param chunkPrefix The prefix to add to each chunk.
-     * @param maxSize     The maximum size in characters for one chunk.
+     * @param maxSize     The maximum size in bytes for one chunk.
      * @param delimiter   The delimiter between data chunks.
      *
-     * @return The string to send or an empty string if there is no more data to send.
+     * @return The encoded bytes to send.
      */
-    private String getNextChunk(String chunkPrefix, int maxSize, char delimiter) {
+    private byte[] getNextChunk(CharSequence chunkPrefix, int maxSize, char delimiter) {
 
-        // create the string builder
-        StringBuilder beaconBuilder = new StringBuilder(maxSize);
+        byte[] encodedPrefix = isAscii(chunkPrefix) ? null : BeaconCacheRecord.encode(chunkPrefix.toString());
+        int prefixSize = encodedPrefix == null ? chunkPrefix.length() : encodedPrefix.length;
 
-        // append the chunk prefix
-        beaconBuilder.append(chunkPrefix);
-
-        // append data from both lists
+        // determine the records to send from both lists
         // note the order is currently important -> event data goes first, then action data
-        chunkifyDataList(beaconBuilder, eventDataBeingSent, maxSize, delimiter);
-        chunkifyDataList(beaconBuilder, actionDataBeingSent, maxSize, delimiter);
+        int chunkSize = prefixSize;
+        int numEvents = markRecordsForChunk(eventDataBeingSent, chunkSize, maxSize);
+        chunkSize += getChunkedDataSize(eventDataBeingSent, numEvents);
+        int numActions = markRecordsForChunk(actionDataBeingSent, chunkSize, maxSize);
+        chunkSize += getChunkedDataSize(actionDataBeingSent, numActions);
+
+        byte[] chunk = new byte[chunkSize];
+        if (encodedPrefix == null) {
+            for (int i = 0; i < prefixSize; i++) {
+                chunk[i] = (byte) chunkPrefix.charAt(i);
+            }
+        } else {
+            System.arraycopy(encodedPrefix, 0, chunk, 0, prefixSize);
+        }
+        int offset = copyChunkedData(eventDataBeingSent, numEvents, chunk, prefixSize, (byte) delimiter);
+        copyChunkedData(actionDataBeingSent, numActions, chunk, offset, (byte) delimiter);
 
-        return beaconBuilder.toString();
+        return chunk;
     }
 
-    private static void chunkifyDataList(StringBuilder chunkBuilder, LinkedList<BeaconCacheRecord> dataBeingSent, int maxSize, char delimiter) {
+    /**
+     * Test if the given characters are plain ASCII, which is the same in UTF-8 encoding.
+     */
+    private static boolean isAscii(CharSequence characters) {
+
+        for (int i = 0; i < characters.length(); i++) {
+            if (characters.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
 
-        Iterator<BeaconCacheRecord> iterator = dataBeingSent.iterator();
-        while (iterator.hasNext() && chunkBuilder.length() <= maxSize) {
+        return true;
+    }
+
+    /**
+     * Mark records for sending, as long as the chunk size does not exceed {@code maxSize}.
+     *
+     * @return The number of records marked for sending.
+     */
+    private static int markRecordsForChunk(BeaconCacheRecordBuffer dataBeingSent, int chunkSize, int maxSize) {
+
+        int index = 0;
+        while (index < dataBeingSent.size() && chunkSize <= maxSize) {
 
             // mark the record for sending
-            BeaconCacheRecord record = iterator.next();
-            record.markForSending();
+            dataBeingSent.markForSending(index);
 
-            // append delimiter & data
-            chunkBuilder.append(delimiter).append(record.getData());
+            // account for delimiter & data
+            chunkSize += 1 + (int) dataBeingSent.getDataSizeInBytes(index);
+            index++;
         }
+
+        return index;
+    }
+
+    private static int getChunkedDataSize(BeaconCacheRecordBuffer dataBeingSent, int numRecords) {
+
+        int numBytes = 0;
+        for (int i = 0; i < numRecords; i++) {
+            numBytes += 1 + (int) dataBeingSent.getDataSizeInBytes(i);
+        }
+
+        return numBytes;
+    }
+
+    private static int copyChunkedData(BeaconCacheRecordBuffer dataBeingSent, int numRecords, byte[] chunk, int offset, byte delimiter) {
+
+        for (int i = 0; i < numRecords; i++) {
+            chunk[offset++] = delimiter;
+            byte[] data = dataBeingSent.getData(i);
+            if (data != null) {
+                System.arraycopy(data, 0, chunk, offset, data.length);
+                offset += data.length;
+            }
+        }
+
+        return offset;
     }
 
     /**
-     * Remove data that was previously marked for sending when {@link #getNextChunk(String, int, char)} was called.
+     * Remove data that was previously marked for sending when {@link #getNextChunk(CharSequence, int, char)} was called.
      */
     void removeDataMarkedForSending() {
 
@@ -207,17 +288,11 @@ class BeaconCacheEntry {
             return;
         }
 
-        Iterator<BeaconCacheRecord> iterator = eventDataBeingSent.iterator();
-        while (iterator.hasNext() && iterator.next().isMarkedForSending()) {
-            iterator.remove();
-        }
+        eventDataBeingSent.removeFirst(eventDataBeingSent.getNumLeadingMarkedForSending());
 
-        if (!iterator.hasNext()) {
+        if (eventDataBeingSent.isEmpty()) {
             // only check action data, if all event data has been traversed, otherwise it's just waste of cpu time
-            iterator = actionDataBeingSent.iterator();
-            while (iterator.hasNext() && iterator.next().isMarkedForSending()) {
-                iterator.remove();
-            }
+            actionDataBeingSent.removeFirst(actionDataBeingSent.getNumLeadingMarkedForSending());
         }
     }
 
@@ -231,17 +306,9 @@ class BeaconCacheEntry {
             return;
         }
 
-        // reset the "sending marks" and in the same traversal count the bytes which are added back
-        long numBytes = 0;
-        for (BeaconCacheRecord record : eventDataBeingSent) {
-            record.unsetSending();
-            numBytes += record.getDataSizeInBytes();
-        }
-
-        for (BeaconCacheRecord record : actionDataBeingSent) {
-            record.unsetSending();
-            numBytes += record.getDataSizeInBytes();
-        }
+        // reset the "sending marks"
+        eventDataBeingSent.unsetAllSending();
+        actionDataBeingSent.unsetAllSending();
 
         // merge data
         eventDataBeingSent.addAll(eventData);
@@ -250,10 +317,85 @@ class BeaconCacheEntry {
         actionData = actionDataBeingSent;
         eventDataBeingSent = null;
         actionDataBeingSent = null;
+    }
+
+
+    /**
+     * Remove all active event and action data.
+     *
+     * <p>
+     * Data which is currently being sent is not affected.
+     * </p>
+     */
+    void removeAllRecords() {
+        eventData = new BeaconCacheRecordBuffer();
+        actionData = new BeaconCacheRecordBuffer();
+    }
+
+    /**
+     * Write all active event and action data to the given spill file and remove it from this entry.
+     *
+     * <p>
+     * Data which is currently being sent is not affected.
+     * </p>
+     *
+     * @param spillFile The file to which the records are written.
+     *
+     * @return The segment containing the records or {@code null} if there is no active record
+     *         or not enough space in the spill file.
+     */
+    BeaconCacheSpillFile.Segment spillRecords(BeaconCacheSpillFile spillFile) {
+
+        if (eventData.isEmpty() && actionData.isEmpty()) {
+            return null;
+        }
+
+        BeaconCacheSpillFile.Segment segment = spillFile.append(eventData, actionData);
+        if (segment != null) {
+            removeAllRecords();
+        }
+
+        return segment;
+    }
+
+    /**
+     * Read the records of the given segments and prepend them to the active event and action data.
+     *
+     * <p>
+     * The segments must be given in the order they were spilled, since records spilled earlier
+     * are older than records spilled later on.
+     * </p>
+     *
+     * @param spillFile The file from which the records are read.
+     * @param segments  The segments to read.
+     */
+    void restoreRecords(BeaconCacheSpillFile spillFile, Iterable<BeaconCacheSpillFile.Segment> segments) {
+
+        BeaconCacheRecordBuffer restoredEventData = new BeaconCacheRecordBuffer();
+        BeaconCacheRecordBuffer restoredActionData = new BeaconCacheRecordBuffer();
+        for (BeaconCacheSpillFile.Segment segment : segments) {
+            spillFile.read(segment, restoredEventData, restoredActionData);
+        }
 
-        totalNumBytes += numBytes;
+        // merge data
+        restoredEventData.addAll(eventData);
+        restoredActionData.addAll(actionData);
+        eventData = restoredEventData;
+        actionData = restoredActionData;
     }
 
+    /**
+     * Get the timestamp of the newest record, which has been added to this entry.
+     *
+     * <p>
+     * Records which were removed in the meantime are still taken into account.
+     * </p>
+     *
+     * @return The newest record's timestamp or {@link Long#MIN_VALUE} if no record has been added so far.
+     */
+    long getNewestRecordTimestamp() {
+        return newestRecordTimestamp;
+    }
 
     /**
      * Get total number of bytes used.
@@ -268,7 +410,7 @@ class BeaconCacheEntry {
      */
     long getTotalNumberOfBytes() {
 
-        return totalNumBytes;
+        return eventData.getTotalDataSizeInBytes() + actionData.getTotalDataSizeInBytes();
     }
 
     /**
@@ -285,97 +427,194 @@ class BeaconCacheEntry {
      */
     int removeRecordsOlderThan(long minTimestamp) {
 
-
-        int numRecordsRemoved = removeRecordsOlderThan(eventData, minTimestamp);
-        numRecordsRemoved += removeRecordsOlderThan(actionData, minTimestamp);
+        int numRecordsRemoved = eventData.removeOlderThan(minTimestamp);
+        numRecordsRemoved += actionData.removeOlderThan(minTimestamp);
 
         return numRecordsRemoved;
     }
 
     /**
-     * Remove all {@link BeaconCacheRecord beacon cache records} from {@code records}.
+     * Remove up to {@code numRecords} records from event & action data, compared by their priority and age.
      *
-     * @param minTimestamp The minimum timestamp allowed.
+     * <p>
+     * Records having a lower {@link RecordPriority} are removed first. Within the same priority, the first action
+     * data & first event data of that priority are compared against each other, which one to remove first.
+     * Note not all event/action data entries are compared by their timestamp. If the first action's timestamp
+     * and first event's timestamp are equal, the first event is removed.
+     * </p>
+     *
+     * @param numRecords The number of records.
      *
-     * @return The number of records removed from {@code records}.
+     * @return Number of actually removed records.
      */
-    private static int removeRecordsOlderThan(List<BeaconCacheRecord> records, long minTimestamp) {
-
-        int numRecordsRemoved = 0;
-
-        Iterator<BeaconCacheRecord> iterator = records.iterator();
-        while (iterator.hasNext()) {
-            BeaconCacheRecord record = iterator.next();
-            if (record.getTimestamp() < minTimestamp) {
-                iterator.remove();
-                numRecordsRemoved++;
-            }
-        }
+    int removeOldestRecords(int numRecords) {
 
-        return numRecordsRemoved;
+        return removeOldestRecords(numRecords, Long.MAX_VALUE, RecordPriority.CRITICAL, Long.MAX_VALUE, 0);
     }
 
     /**
-     * Remove up to {@code numRecords} records from event & action data, compared by their age.
+     * Remove the oldest records from event & action data, compared by their priority and age, until one of the
+     * given limits is reached.
      *
      * <p>
-     * Note not all event/action data entries are traversed, only the first action data & first event
-     * data is removed and compared against each other, which one to remove first. If the first action's timestamp and
-     * first event's timestamp are equal, the first event is removed.
+     * The same ordering as in {@link #removeOldestRecords(int)} applies.
      * </p>
      *
-     * @param numRecords The number of records.
+     * @param maxRecords       The maximum number of records to remove.
+     * @param maxBytes         The number of bytes to remove. The record exceeding this limit is still removed.
+     * @param maxPriority      Only records having a priority less than or equal to this value are removed.
+     * @param maxTimestamp     Records having priority {@code maxPriority} are only removed,
+     *                         if their timestamp is less than or equal to this value.
+     * @param numRecordsToKeep The number of records which are not removed from this entry.
      *
      * @return Number of actually removed records.
      */
-    int removeOldestRecords(int numRecords) {
+    int removeOldestRecords(int maxRecords, long maxBytes, RecordPriority maxPriority, long maxTimestamp, int numRecordsToKeep) {
+
+        int numRemovableRecords = Math.min(maxRecords, eventData.size() + actionData.size() - numRecordsToKeep);
+        if (numRemovableRecords <= 0) {
+            return 0;
+        }
 
+        // merge both buffers by priority & timestamp and determine which records to remove from each of them
+        BitSet eventsToRemove = new BitSet();
+        BitSet actionsToRemove = new BitSet();
         int numRecordsRemoved = 0;
+        long numBytesRemoved = 0;
 
-        Iterator<BeaconCacheRecord> eventsIterator = eventData.iterator();
-        Iterator<BeaconCacheRecord> actionsIterator = actionData.iterator();
-        BeaconCacheRecord currentEvent = eventsIterator.hasNext() ? eventsIterator.next() : null;
-        BeaconCacheRecord currentAction = actionsIterator.hasNext() ? actionsIterator.next() : null;
-
-        while (numRecordsRemoved < numRecords && (currentEvent != null || currentAction != null)) {
-
-            if (currentEvent == null) {
-                // actions is not null -> remove action
-                currentAction = removeAndAdvanceIterator(actionsIterator);
-            } else if (currentAction == null) {
-                // events is not null -> remove event
-                currentEvent = removeAndAdvanceIterator(eventsIterator);
-            } else {
-                // both are not null -> compare by timestamp and take the older one
-                if (currentAction.getTimestamp() < currentEvent.getTimestamp()) {
-                    // first action is older than first event
-                    currentAction = removeAndAdvanceIterator(actionsIterator);
+        for (RecordPriority priority : RecordPriority.values()) {
+            if (priority.compareTo(maxPriority) > 0) {
+                break;
+            }
+            boolean isMaxPriority = priority == maxPriority;
+
+            int eventIndex = eventData.indexOf(priority, 0);
+            int actionIndex = actionData.indexOf(priority, 0);
+            while (numRecordsRemoved < numRemovableRecords && numBytesRemoved < maxBytes
+                && (eventIndex >= 0 || actionIndex >= 0)) {
+
+                // first action of this priority is older than first event -> remove action, otherwise remove event
+                boolean removeAction = eventIndex < 0
+                    || (actionIndex >= 0 && actionData.getTimestamp(actionIndex) < eventData.getTimestamp(eventIndex));
+
+                if (removeAction) {
+                    if (isMaxPriority && actionData.getTimestamp(actionIndex) > maxTimestamp) {
+                        break;
+                    }
+                    actionsToRemove.set(actionIndex);
+                    numBytesRemoved += actionData.getDataSizeInBytes(actionIndex);
+                    actionIndex = actionData.indexOf(priority, actionIndex + 1);
                 } else {
-                    // first event is older than first action
-                    currentEvent = removeAndAdvanceIterator(eventsIterator);
+                    if (isMaxPriority && eventData.getTimestamp(eventIndex) > maxTimestamp) {
+                        break;
+                    }
+                    eventsToRemove.set(eventIndex);
+                    numBytesRemoved += eventData.getDataSizeInBytes(eventIndex);
+                    eventIndex = eventData.indexOf(priority, eventIndex + 1);
                 }
+                numRecordsRemoved++;
             }
 
-            numRecordsRemoved++;
+            if (numRecordsRemoved >= numRemovableRecords || numBytesRemoved >= maxBytes) {
+                break;
+            }
         }
 
+        eventData.remove(eventsToRemove);
+        actionData.remove(actionsToRemove);
+
         return numRecordsRemoved;
     }
 
-    private static <E> E removeAndAdvanceIterator(Iterator<E> iterator) {
-        iterator.remove();
-        return iterator.hasNext() ? iterator.next() : null;
+    /**
+     * Get the priority of the record which is removed next by
+     * {@link #removeOldestRecords(int, long, RecordPriority, long, int)}.
+     *
+     * @param numRecordsToKeep The number of records which are not removed from this entry.
+     *
+     * @return The lowest priority of all records or {@code null}, if there is no removable record.
+     */
+    RecordPriority getLowestRemovablePriority(int numRecordsToKeep) {
+
+        if (eventData.size() + actionData.size() <= numRecordsToKeep) {
+            return null;
+        }
+        for (RecordPriority priority : RecordPriority.values()) {
+            if (eventData.getNumRecords(priority) > 0 || actionData.getNumRecords(priority) > 0) {
+                return priority;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the timestamp of the record which is removed next by
+     * {@link #removeOldestRecords(int, long, RecordPriority, long, int)}.
+     *
+     * @param numRecordsToKeep The number of records which are not removed from this entry.
+     *
+     * @return The timestamp of the oldest removable record or {@link #NO_REMOVABLE_RECORD}, if there is none.
+     */
+    long getOldestRemovableTimestamp(int numRecordsToKeep) {
+
+        RecordPriority priority = getLowestRemovablePriority(numRecordsToKeep);
+        if (priority == null) {
+            return NO_REMOVABLE_RECORD;
+        }
+
+        int eventIndex = eventData.indexOf(priority, 0);
+        int actionIndex = actionData.indexOf(priority, 0);
+        if (eventIndex < 0) {
+            return actionData.getTimestamp(actionIndex);
+        }
+        if (actionIndex < 0) {
+            return eventData.getTimestamp(eventIndex);
+        }
+
+        return Math.min(eventData.getTimestamp(eventIndex), actionData.getTimestamp(actionIndex));
+    }
+
+    /**
+     * Get the smallest timestamp of all active event and action data.
+     *
+     * <p>
+     * Data which is currently being sent is not taken into account.
+     * </p>
+     *
+     * @return The smallest timestamp or {@link #NO_REMOVABLE_RECORD} if there is no active record.
+     */
+    long getMinTimestamp() {
+        return Math.min(eventData.getMinTimestamp(), actionData.getMinTimestamp());
+    }
+
+    /**
+     * Get the bucket of the {@link BeaconCacheTimeIndex} in which this entry is registered.
+     *
+     * @return The bucket or {@link BeaconCacheTimeIndex#NOT_INDEXED}.
+     */
+    long getTimeBucket() {
+        return timeBucket;
+    }
+
+    /**
+     * Set the bucket of the {@link BeaconCacheTimeIndex} in which this entry is registered.
+     *
+     * @param timeBucket The bucket or {@link BeaconCacheTimeIndex#NOT_INDEXED}.
+     */
+    void setTimeBucket(long timeBucket) {
+        this.timeBucket = timeBucket;
     }
 
     /**
-     * Get a shallow copy of event data.
+     * Get a snapshot of event data.
      *
      * <p>
      * This method shall only be used for testing purposes.
      * </p>
      */
     List<BeaconCacheRecord> getEventData() {
-        return new LinkedList<BeaconCacheRecord>(eventData);
+        return eventData.toRecords();
     }
 
     /**
@@ -386,7 +625,7 @@ class BeaconCacheEntry {
      * </p>
      */
     List<BeaconCacheRecord> getActionData() {
-        return new LinkedList<BeaconCacheRecord>(actionData);
+        return actionData.toRecords();
     }
 
     /**
@@ -397,7 +636,7 @@ class BeaconCacheEntry {
      * </p>
      */
     List<BeaconCacheRecord> getEventDataBeingSent() {
-        return eventDataBeingSent == null ? null : Collections.unmodifiableList(eventDataBeingSent);
+        return eventDataBeingSent == null ? null : Collections.unmodifiableList(eventDataBeingSent.toRecords());
     }
 
     /**
@@ -408,6 +647,6 @@ class BeaconCacheEntry {
      * </p>
      */
     List<BeaconCacheRecord> getActionDataBeingSent() {
-        return actionDataBeingSent == null ? null : Collections.unmodifiableList(actionDataBeingSent);
+        return actionDataBeingSent == null ? null : Collections.unmodifiableList(actionDataBeingSent.toRecords());
     }
 }
@@ -20,9 +20,9 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 import com.dynatrace.openkit.providers.TimingProvider;
 
-import java.util.Observable;
-import java.util.Observer;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Class responsible for handling an eviction thread, to ensure BeaconCache stays in configured boundaries.
@@ -37,7 +37,7 @@ public class BeaconCacheEvictor {
 
     /**
      * Public constructor, initializing the eviction thread with the default
-     * {@link TimeEvictionStrategy} and {@link SpaceEvictionStrategy} strategies.
+     * {@link TimeEvictionStrategy}, {@link SpaceEvictionStrategy} and {@link MemoryPressureEvictionStrategy} strategies.
      *
      * @param logger         Logger to write some debug output
      * @param beaconCache    The Beacon cache to check if entries need to be evicted
@@ -45,7 +45,25 @@ public class BeaconCacheEvictor {
      * @param timingProvider Timing provider required for time retrieval
      */
     public BeaconCacheEvictor(Logger logger, BeaconCache beaconCache, BeaconCacheConfiguration configuration, TimingProvider timingProvider) {
-        this(logger, beaconCache, new TimeEvictionStrategy(logger, beaconCache, configuration, timingProvider), new SpaceEvictionStrategy(logger, beaconCache, configuration));
+        this(logger, beaconCache, new TimeEvictionStrategy(logger, beaconCache, configuration, timingProvider),
+            new SpaceEvictionStrategy(logger, beaconCache, configuration),
+            new MemoryPressureEvictionStrategy(logger, beaconCache, configuration));
+    }
+
+    /**
+     * Public constructor, initializing the eviction thread with the default strategies and a {@link SpillEvictionStrategy},
+     * which moves the records of cold beacons to the tiered cache's spill file before records are evicted.
+     *
+     * @param logger         Logger to write some debug output
+     * @param beaconCache    The tiered Beacon cache to check if entries need to be spilled or evicted
+     * @param configuration  Beacon cache configuration
+     * @param timingProvider Timing provider required for time retrieval
+     */
+    public BeaconCacheEvictor(Logger logger, TieredBeaconCache beaconCache, BeaconCacheConfiguration configuration, TimingProvider timingProvider) {
+        this(logger, beaconCache, new TimeEvictionStrategy(logger, beaconCache, configuration, timingProvider),
+            new SpillEvictionStrategy(logger, beaconCache, configuration, timingProvider),
+            new SpaceEvictionStrategy(logger, beaconCache, configuration),
+            new MemoryPressureEvictionStrategy(logger, beaconCache, configuration));
     }
 
     /**
@@ -130,12 +148,18 @@ public class BeaconCacheEvictor {
 
     /**
      * Beacon cache eviction thread runnable.
+     *
+     * <p>
+     * Adding data to the beacon cache only raises a flag and unparks the eviction thread if the flag was not raised
+     * before. Therefore all records added while the eviction strategies are running are coalesced into a single
+     * wakeup and application threads never block on a monitor when notifying this runnable.
+     * </p>
      */
-    private static final class CacheEvictionRunnable implements Runnable, Observer {
+    private static final class CacheEvictionRunnable implements Runnable, DataAddedCallback {
 
         private final Logger logger;
-        private final Object lockObject = new Object();
-        private boolean recordAdded = false;
+        private final AtomicBoolean recordAdded = new AtomicBoolean(false);
+        private volatile Thread evictionThread;
         private final BeaconCache beaconCache;
         private final BeaconCacheEvictionStrategy[] strategies;
 
@@ -152,25 +176,11 @@ public class BeaconCacheEvictor {
             }
 
             // first register ourselves
-            beaconCache.addObserver(this);
+            evictionThread = Thread.currentThread();
+            beaconCache.addDataAddedCallback(this);
 
             // run
-            while (!Thread.currentThread().isInterrupted()) {
-                synchronized (lockObject) {
-                    try {
-                        while (!recordAdded) {
-                            lockObject.wait();
-                        }
-                    } catch (InterruptedException e) {
-                        // re-interrupt the current thread
-                        Thread.currentThread().interrupt();
-                        break;
-                    }
-
-                    // reset the added flag
-                    recordAdded = false;
-                }
-
+            while (awaitRecordAdded()) {
                 // a new record has been added to the cache
                 // run all eviction strategies, to perform cache cleanup
                 for (BeaconCacheEvictionStrategy strategy : strategies) {
@@ -183,11 +193,28 @@ public class BeaconCacheEvictor {
             }
         }
 
+        /**
+         * Park the eviction thread until a record has been added and reset the added flag.
+         *
+         * @return {@code true} if a record has been added, {@code false} if the eviction thread was interrupted.
+         */
+        private boolean awaitRecordAdded() {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (recordAdded.getAndSet(false)) {
+                    return true;
+                }
+                // spurious wakeups are handled by re-checking the flag
+                LockSupport.park(this);
+            }
+
+            return false;
+        }
+
         @Override
-        public void update(Observable o, Object arg) {
-            synchronized (lockObject) {
-                recordAdded = true;
-                lockObject.notifyAll();
+        public void onDataAdded() {
+            // the volatile read avoids the CAS, if the flag was already raised by another thread
+            if (!recordAdded.get() && recordAdded.compareAndSet(false, true)) {
+                LockSupport.unpark(evictionThread);
             }
         }
     }
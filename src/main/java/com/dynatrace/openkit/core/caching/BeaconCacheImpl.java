@@ -20,15 +20,16 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.protocol.Beacon;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Observable;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Class used in OpenKit to cache serialized {@link Beacon} data.
@@ -39,13 +40,29 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *
  * Furthermore two OpenKit internal threads are also accessing the cache.
  * </p>
+ *
+ * <p>
+ * Beacon entries are kept in a {@link ConcurrentMap}, therefore looking up or inserting an entry does not
+ * require any cache wide lock. Only the {@link BeaconCacheEntry} itself is locked while its data is modified.
+ * </p>
+ *
+ * <p>
+ * Additionally each beacon is registered in a {@link BeaconCacheTimeIndex}, by the timestamp of its oldest record,
+ * so that the time based eviction only needs to visit beacons having expired records.
+ * </p>
  */
-public class BeaconCacheImpl extends Observable implements BeaconCache {
+public class BeaconCacheImpl implements BeaconCache {
+
+    /**
+     * Maximum number of records removed from a single entry, while holding its lock in {@link #evictOldestRecords(long, int)}.
+     */
+    static final int EVICTION_BATCH_SIZE = 512;
 
     private final Logger logger;
-    private final ReadWriteLock globalCacheLock;
-    private final Map<BeaconKey, BeaconCacheEntry> beacons;
+    private final ConcurrentMap<BeaconKey, BeaconCacheEntry> beacons;
     private final AtomicLong cacheSizeInBytes;
+    private final List<DataAddedCallback> dataAddedCallbacks;
+    private final BeaconCacheTimeIndex timeIndex;
 
     /**
      * Create BeaconCache.
@@ -54,28 +71,42 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
      */
     public BeaconCacheImpl(Logger logger) {
         this.logger = logger;
-        globalCacheLock = new ReentrantReadWriteLock();
-        beacons = new HashMap<BeaconKey, BeaconCacheEntry>();
+        beacons = new ConcurrentHashMap<BeaconKey, BeaconCacheEntry>();
         cacheSizeInBytes = new AtomicLong(0L);
+        dataAddedCallbacks = new CopyOnWriteArrayList<DataAddedCallback>();
+        timeIndex = new BeaconCacheTimeIndex(BeaconCacheTimeIndex.DEFAULT_BUCKET_WIDTH_IN_MILLIS);
+    }
+
+    @Override
+    public void addDataAddedCallback(DataAddedCallback callback) {
+        if (callback != null) {
+            dataAddedCallbacks.add(callback);
+        }
     }
 
 
     @Override
     public void addEventData(BeaconKey key, long timestamp, String data) {
+        addEventData(key, timestamp, data, RecordPriority.defaultValue());
+    }
+
+    @Override
+    public void addEventData(BeaconKey key, long timestamp, String data, RecordPriority priority) {
         if (logger.isDebugEnabled()) {
             logger.debug(getClass().getSimpleName()
                     + " addEventData(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
-                    + ", timestamp=" + timestamp + ", data='" + data + "')");
+                    + ", timestamp=" + timestamp + ", data='" + data + "', priority=" + priority + ")");
         }
         // get a reference to the cache entry
         BeaconCacheEntry entry = getCachedEntryOrInsert(key);
 
-        BeaconCacheRecord record = new BeaconCacheRecord(timestamp, data);
+        BeaconCacheRecord record = new BeaconCacheRecord(timestamp, data, priority);
 
         try {
             // lock and add the data
             entry.lock();
             entry.addEventData(record);
+            indexRecord(key, entry, timestamp);
         } finally {
             entry.unlock();
         }
@@ -83,26 +114,72 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
         // update cache stats
         cacheSizeInBytes.addAndGet(record.getDataSizeInBytes());
 
-        // notify observers
+        // notify callbacks
+        onDataAdded();
+    }
+
+    @Override
+    public void addEventData(BeaconKey key, long timestamp, List<String> data, RecordPriority priority) {
+        if (data.isEmpty()) {
+            return;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName()
+                    + " addEventData(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
+                    + ", timestamp=" + timestamp + ", data=" + data + ", priority=" + priority + ")");
+        }
+        // get a reference to the cache entry
+        BeaconCacheEntry entry = getCachedEntryOrInsert(key);
+
+        // create the records up front to keep the time holding the lock short
+        List<BeaconCacheRecord> records = new ArrayList<BeaconCacheRecord>(data.size());
+        long numBytes = 0;
+        for (String recordData : data) {
+            BeaconCacheRecord record = new BeaconCacheRecord(timestamp, recordData, priority);
+            records.add(record);
+            numBytes += record.getDataSizeInBytes();
+        }
+
+        try {
+            // lock once and add all the data
+            entry.lock();
+            for (BeaconCacheRecord record : records) {
+                entry.addEventData(record);
+            }
+            indexRecord(key, entry, timestamp);
+        } finally {
+            entry.unlock();
+        }
+
+        // update cache stats
+        cacheSizeInBytes.addAndGet(numBytes);
+
+        // notify callbacks
         onDataAdded();
     }
 
     @Override
     public void addActionData(BeaconKey key, long timestamp, String data) {
+        addActionData(key, timestamp, data, RecordPriority.defaultValue());
+    }
+
+    @Override
+    public void addActionData(BeaconKey key, long timestamp, String data, RecordPriority priority) {
         if (logger.isDebugEnabled()) {
             logger.debug(getClass().getSimpleName()
                     + " addActionData(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
-                    + ", timestamp=" + timestamp + ", data='" + data + "')");
+                    + ", timestamp=" + timestamp + ", data='" + data + "', priority=" + priority + ")");
         }
         BeaconCacheEntry entry = getCachedEntryOrInsert(key);
 
         // add event data for that beacon
-        BeaconCacheRecord record = new BeaconCacheRecord(timestamp, data);
+        BeaconCacheRecord record = new BeaconCacheRecord(timestamp, data, priority);
 
         try {
             // lock and add the data
             entry.lock();
             entry.addActionData(record);
+            indexRecord(key, entry, timestamp);
         } finally {
             entry.unlock();
         }
@@ -110,7 +187,7 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
         // update cache stats
         cacheSizeInBytes.addAndGet(record.getDataSizeInBytes());
 
-        // notify observers
+        // notify callbacks
         onDataAdded();
     }
 
@@ -120,23 +197,27 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
             logger.debug(getClass().getSimpleName()
                     + " deleteCacheEntry(sn=" + key.beaconId + ", seq=" +key.beaconSeqNo+ ")");
         }
-        BeaconCacheEntry entry;
-        try {
-            globalCacheLock.writeLock().lock();
-            entry = beacons.remove(key);
-
-        } finally {
-            globalCacheLock.writeLock().unlock();
+        BeaconCacheEntry entry = removeCachedEntry(key);
+        if (entry == null) {
+            return;
         }
 
-        if (entry != null) {
-            cacheSizeInBytes.addAndGet(-1L * entry.getTotalNumberOfBytes());
+        long numBytes;
+        try {
+            // clear the entry, so that an eviction strategy still holding a reference does not count its records twice
+            entry.lock();
+            numBytes = entry.getTotalNumberOfBytes();
+            entry.removeAllRecords();
+            updateTimeIndex(key, entry);
+        } finally {
+            entry.unlock();
         }
+        cacheSizeInBytes.addAndGet(-1L * numBytes);
     }
 
 
     @Override
-    public String getNextBeaconChunk(BeaconKey key, String chunkPrefix, int maxSize, char delimiter) {
+    public byte[] getNextBeaconChunk(BeaconKey key, CharSequence chunkPrefix, int maxSize, char delimiter) {
 
         BeaconCacheEntry entry = getCachedEntry(key);
         if (entry == null) {
@@ -151,6 +232,8 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
                 entry.lock();
                 numBytes = entry.getTotalNumberOfBytes();
                 entry.copyDataForChunking();
+                // data being sent is not subject to time based eviction
+                updateTimeIndex(key, entry);
 
             } finally {
                 entry.unlock();
@@ -190,6 +273,7 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
             entry.lock();
             long oldSize = entry.getTotalNumberOfBytes();
             entry.resetDataMarkedForSending();
+            updateTimeIndex(key, entry);
             long newSize = entry.getTotalNumberOfBytes();
             numBytes = newSize - oldSize;
         } finally {
@@ -198,10 +282,150 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
 
         cacheSizeInBytes.addAndGet(numBytes);
 
-        // notify observers
+        // notify callbacks
         onDataAdded();
     }
 
+    /**
+     * Move all active records of the given beacon to the given spill file.
+     *
+     * <p>
+     * The spilled records no longer count towards {@link #getNumBytesInCache()}.
+     * </p>
+     *
+     * @param key       The key of the beacon.
+     * @param spillFile The file to which the records are written.
+     *
+     * @return The segment containing the records or {@code null} if nothing has been spilled.
+     */
+    BeaconCacheSpillFile.Segment spillRecords(BeaconKey key, BeaconCacheSpillFile spillFile) {
+
+        BeaconCacheEntry entry = getCachedEntry(key);
+        if (entry == null) {
+            // already removed
+            return null;
+        }
+
+        BeaconCacheSpillFile.Segment segment;
+        try {
+            entry.lock();
+            segment = entry.spillRecords(spillFile);
+            if (segment != null) {
+                updateTimeIndex(key, entry);
+            }
+        } finally {
+            entry.unlock();
+        }
+
+        if (segment != null) {
+            cacheSizeInBytes.addAndGet(-1L * segment.getNumDataBytes());
+        }
+        return segment;
+    }
+
+    /**
+     * Move the records of the given segments back into the given beacon.
+     *
+     * <p>
+     * The segments are not released from the spill file.
+     * </p>
+     *
+     * @param key       The key of the beacon.
+     * @param spillFile The file from which the records are read.
+     * @param segments  The segments to restore, in the order they were spilled.
+     *
+     * @return {@code true} if the records have been restored, {@code false} if the beacon has been removed.
+     */
+    boolean restoreRecords(BeaconKey key, BeaconCacheSpillFile spillFile, Iterable<BeaconCacheSpillFile.Segment> segments) {
+
+        BeaconCacheEntry entry = getCachedEntry(key);
+        if (entry == null) {
+            // already removed
+            return false;
+        }
+
+        long numBytes;
+        try {
+            entry.lock();
+            long oldSize = entry.getTotalNumberOfBytes();
+            entry.restoreRecords(spillFile, segments);
+            updateTimeIndex(key, entry);
+            numBytes = entry.getTotalNumberOfBytes() - oldSize;
+        } finally {
+            entry.unlock();
+        }
+        cacheSizeInBytes.addAndGet(numBytes);
+
+        return true;
+    }
+
+    /**
+     * Register the beacon in the time index, if the newly added record is older than all other records.
+     *
+     * <p>
+     * This method must be called while holding the entry's lock.
+     * Since records are usually added in chronological order, this is a cheap comparison in most cases.
+     * </p>
+     *
+     * @param key The key of the beacon.
+     * @param entry The beacon's entry.
+     * @param timestamp The timestamp of the record just added.
+     */
+    private void indexRecord(BeaconKey key, BeaconCacheEntry entry, long timestamp) {
+        long bucket = timeIndex.getBucket(timestamp);
+        long indexedBucket = entry.getTimeBucket();
+        if (indexedBucket == BeaconCacheTimeIndex.NOT_INDEXED || bucket < indexedBucket) {
+            moveInTimeIndex(key, entry, bucket);
+        }
+    }
+
+    /**
+     * Register the beacon in the time index by the timestamp of its oldest active record.
+     *
+     * <p>
+     * If the beacon does not have any active record, it's removed from the time index.
+     * This method must be called while holding the entry's lock.
+     * </p>
+     *
+     * @param key The key of the beacon.
+     * @param entry The beacon's entry.
+     */
+    private void updateTimeIndex(BeaconKey key, BeaconCacheEntry entry) {
+        long bucket = getTimeBucket(entry);
+        if (bucket != entry.getTimeBucket()) {
+            moveInTimeIndex(key, entry, bucket);
+        }
+    }
+
+    private long getTimeBucket(BeaconCacheEntry entry) {
+        long minTimestamp = entry.getMinTimestamp();
+        return minTimestamp == BeaconCacheEntry.NO_REMOVABLE_RECORD
+                ? BeaconCacheTimeIndex.NOT_INDEXED
+                : timeIndex.getBucket(minTimestamp);
+    }
+
+    private void moveInTimeIndex(BeaconKey key, BeaconCacheEntry entry, long bucket) {
+        long indexedBucket = entry.getTimeBucket();
+        if (indexedBucket != BeaconCacheTimeIndex.NOT_INDEXED) {
+            timeIndex.remove(key, indexedBucket);
+        }
+        if (bucket != BeaconCacheTimeIndex.NOT_INDEXED) {
+            timeIndex.add(key, bucket);
+        }
+        entry.setTimeBucket(bucket);
+    }
+
+    /**
+     * Get the time index of this cache.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    BeaconCacheTimeIndex getTimeIndex() {
+        return timeIndex;
+    }
+
     /**
      * Get cached {@link BeaconCacheEntry} or insert new one if nothing exists for given {@code key}.
      *
@@ -209,30 +433,35 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
      *
      * @return The already cached entry or newly created one.
      */
-    private BeaconCacheEntry getCachedEntryOrInsert(BeaconKey key) {
+    BeaconCacheEntry getCachedEntryOrInsert(BeaconKey key) {
 
         // get the appropriate cache entry
         BeaconCacheEntry entry = getCachedEntry(key);
 
         if (entry == null) {
-            try {
-                // does not exist, and needs to be inserted
-                globalCacheLock.writeLock().lock();
-                if (!beacons.containsKey(key)) {
-                    // double check since this could have been added in the mean time
-                    entry = new BeaconCacheEntry();
-                    beacons.put(key, entry);
-                } else {
-                    entry = beacons.get(key);
-                }
-            } finally {
-                globalCacheLock.writeLock().unlock();
+            // does not exist, and needs to be inserted
+            // another thread might insert an entry in the mean time, in this case the other one wins
+            BeaconCacheEntry newEntry = new BeaconCacheEntry();
+            entry = beacons.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                entry = newEntry;
             }
         }
 
         return entry;
     }
 
+    /**
+     * Remove the cached {@link BeaconCacheEntry} for given {@code key}.
+     *
+     * @param key The key of the beacon to remove.
+     *
+     * @return The removed entry or {@code null} if nothing was cached for given {@code key}.
+     */
+    BeaconCacheEntry removeCachedEntry(BeaconKey key) {
+        return beacons.remove(key);
+    }
+
     /**
      * Get a shallow copy of events collected so far.
      *
@@ -324,7 +553,7 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
     private static String[] extractData(List<BeaconCacheRecord> eventData) {
         List<String> result = new ArrayList<String>(eventData.size());
         for (BeaconCacheRecord record : eventData) {
-            result.add(record.getData());
+            result.add(BeaconCacheRecord.decode(record.getData()));
         }
 
         return result.toArray(new String[0]);
@@ -337,33 +566,37 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
      *
      * @return The cached entry or {@code null}.
      */
-    private BeaconCacheEntry getCachedEntry(BeaconKey key) {
-
-        BeaconCacheEntry entry;
+    BeaconCacheEntry getCachedEntry(BeaconKey key) {
+        return beacons.get(key);
+    }
 
-        // acquire read lock and get the entry
-        try {
-            globalCacheLock.readLock().lock();
-            entry = beacons.get(key);
-        } finally {
-            globalCacheLock.readLock().unlock();
-        }
+    @Override
+    public Set<BeaconKey> getBeaconKeys() {
+        return new HashSet<BeaconKey>(beacons.keySet());
+    }
 
-        return entry;
+    @Override
+    public Set<BeaconKey> pollBeaconKeysWithRecordsOlderThan(long minTimestamp) {
+        return timeIndex.pollKeysOlderThan(minTimestamp);
     }
 
     @Override
-    public Set<BeaconKey> getBeaconKeys() {
+    public void reindexBeacons(Collection<BeaconKey> keys) {
+        for (BeaconKey key : keys) {
+            BeaconCacheEntry entry = getCachedEntry(key);
+            if (entry == null) {
+                // already removed
+                continue;
+            }
 
-        Set<BeaconKey> result;
-        try {
-            globalCacheLock.readLock().lock();
-            result = new HashSet<BeaconKey>(beacons.keySet());
-        } finally {
-            globalCacheLock.readLock().unlock();
+            try {
+                entry.lock();
+                // the entry's bucket might have been dropped by pollBeaconKeysWithRecordsOlderThan, therefore register again
+                moveInTimeIndex(key, entry, getTimeBucket(entry));
+            } finally {
+                entry.unlock();
+            }
         }
-
-        return result;
     }
 
 
@@ -377,12 +610,18 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
         }
 
         int numRecordsRemoved;
+        long numBytesRemoved;
         try {
             entry.lock();
+            long oldSize = entry.getTotalNumberOfBytes();
             numRecordsRemoved = entry.removeRecordsOlderThan(minTimestamp);
+            numBytesRemoved = oldSize - entry.getTotalNumberOfBytes();
+            // the entry's bucket might have been dropped by pollBeaconKeysWithRecordsOlderThan, therefore register again
+            moveInTimeIndex(key, entry, getTimeBucket(entry));
         } finally {
             entry.unlock();
         }
+        cacheSizeInBytes.addAndGet(-1L * numBytesRemoved);
 
         if (logger.isDebugEnabled()) {
             logger.debug(getClass().getSimpleName()
@@ -395,6 +634,11 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
 
     @Override
     public int evictRecordsByNumber(BeaconKey key, int numRecords) {
+        return evictRecordsByNumber(key, numRecords, RecordPriority.CRITICAL);
+    }
+
+    @Override
+    public int evictRecordsByNumber(BeaconKey key, int numRecords, RecordPriority maxPriority) {
 
         BeaconCacheEntry entry = getCachedEntry(key);
         if (entry == null) {
@@ -403,21 +647,97 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
         }
 
         int numRecordsRemoved;
+        long numBytesRemoved;
         try {
             entry.lock();
-            numRecordsRemoved = entry.removeOldestRecords(numRecords);
+            long oldSize = entry.getTotalNumberOfBytes();
+            numRecordsRemoved = entry.removeOldestRecords(numRecords, Long.MAX_VALUE, maxPriority, Long.MAX_VALUE, 0);
+            numBytesRemoved = oldSize - entry.getTotalNumberOfBytes();
         } finally {
             entry.unlock();
         }
+        cacheSizeInBytes.addAndGet(-1L * numBytesRemoved);
 
         if (logger.isDebugEnabled()) {
             logger.debug(getClass().getSimpleName()
                     + " evictRecordsByNumber(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
-                    + ", numRecords=" + numRecords + ") has evicted " + numRecordsRemoved + " records");
+                    + ", numRecords=" + numRecords + ", maxPriority=" + maxPriority
+                    + ") has evicted " + numRecordsRemoved + " records");
         }
         return numRecordsRemoved;
     }
 
+    @Override
+    public int evictOldestRecords(long numBytes, int minRecordsPerBeacon) {
+
+        // min-heap of all entries, ordered by the priority and timestamp of their next removable record
+        PriorityQueue<EvictionCandidate> candidates = new PriorityQueue<EvictionCandidate>();
+        for (Map.Entry<BeaconKey, BeaconCacheEntry> beacon : beacons.entrySet()) {
+            EvictionCandidate candidate = new EvictionCandidate(beacon.getKey(), beacon.getValue());
+            try {
+                candidate.entry.lock();
+                candidate.update(minRecordsPerBeacon);
+            } finally {
+                candidate.entry.unlock();
+            }
+            if (candidate.hasRemovableRecord()) {
+                candidates.add(candidate);
+            }
+        }
+
+        int numRecordsRemoved = 0;
+        long numBytesRemoved = 0;
+        while (numBytesRemoved < numBytes && !candidates.isEmpty() && !Thread.currentThread().isInterrupted()) {
+
+            EvictionCandidate candidate = candidates.poll();
+
+            // remove all records of this entry, which would be removed before the next record of any other entry
+            EvictionCandidate nextCandidate = candidates.peek();
+            RecordPriority maxPriority = nextCandidate == null ? RecordPriority.CRITICAL : nextCandidate.priority;
+            long maxTimestamp = nextCandidate == null ? Long.MAX_VALUE : nextCandidate.oldestTimestamp;
+
+            int numRecordsRemovedFromEntry;
+            long numBytesRemovedFromEntry;
+            try {
+                candidate.entry.lock();
+                long oldSize = candidate.entry.getTotalNumberOfBytes();
+                numRecordsRemovedFromEntry = candidate.entry.removeOldestRecords(EVICTION_BATCH_SIZE,
+                    numBytes - numBytesRemoved, maxPriority, maxTimestamp, minRecordsPerBeacon);
+                numBytesRemovedFromEntry = oldSize - candidate.entry.getTotalNumberOfBytes();
+                candidate.update(minRecordsPerBeacon);
+            } finally {
+                candidate.entry.unlock();
+            }
+            cacheSizeInBytes.addAndGet(-1L * numBytesRemovedFromEntry);
+
+            numRecordsRemoved += numRecordsRemovedFromEntry;
+            numBytesRemoved += numBytesRemovedFromEntry;
+            candidate.numRecordsRemoved += numRecordsRemovedFromEntry;
+
+            if (candidate.hasRemovableRecord()) {
+                candidates.add(candidate);
+            } else if (logger.isDebugEnabled()) {
+                logEvictedRecords(candidate);
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            for (EvictionCandidate candidate : candidates) {
+                logEvictedRecords(candidate);
+            }
+        }
+
+        return numRecordsRemoved;
+    }
+
+    private void logEvictedRecords(EvictionCandidate candidate) {
+        if (candidate.numRecordsRemoved > 0) {
+            logger.debug(getClass().getSimpleName()
+                + " evictOldestRecords(sn=" + candidate.key.beaconId + ", seq=" + candidate.key.beaconSeqNo
+                + ") has evicted " + candidate.numRecordsRemoved + " records");
+        }
+    }
+
     @Override
     public long getNumBytesInCache() {
         return cacheSizeInBytes.get();
@@ -425,10 +745,16 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
 
     /**
      * Call this method when something was added (size of cache increased).
+     *
+     * <p>
+     * Iterating the callbacks does not require any lock, so that application threads adding data
+     * are not serialized here.
+     * </p>
      */
     private void onDataAdded() {
-        setChanged();
-        notifyObservers();
+        for (DataAddedCallback callback : dataAddedCallbacks) {
+            callback.onDataAdded();
+        }
     }
 
     @Override
@@ -450,4 +776,42 @@ public class BeaconCacheImpl extends Observable implements BeaconCache {
 
         return isEmpty;
     }
+
+    /**
+     * Entry taking part in {@link #evictOldestRecords(long, int)}.
+     */
+    private static final class EvictionCandidate implements Comparable<EvictionCandidate> {
+
+        private final BeaconKey key;
+        private final BeaconCacheEntry entry;
+        private RecordPriority priority;
+        private long oldestTimestamp;
+        private int numRecordsRemoved = 0;
+
+        private EvictionCandidate(BeaconKey key, BeaconCacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+
+        /**
+         * Update priority and timestamp of the next removable record, while holding the entry's lock.
+         */
+        private void update(int minRecordsPerBeacon) {
+            priority = entry.getLowestRemovablePriority(minRecordsPerBeacon);
+            oldestTimestamp = entry.getOldestRemovableTimestamp(minRecordsPerBeacon);
+        }
+
+        private boolean hasRemovableRecord() {
+            return priority != null;
+        }
+
+        @Override
+        public int compareTo(EvictionCandidate other) {
+            int result = priority.compareTo(other.priority);
+            if (result != 0) {
+                return result;
+            }
+            return oldestTimestamp < other.oldestTimestamp ? -1 : (oldestTimestamp == other.oldestTimestamp ? 0 : 1);
+        }
+    }
 }
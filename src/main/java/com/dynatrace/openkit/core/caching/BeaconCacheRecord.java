@@ -16,6 +16,7 @@
 
 package com.dynatrace.openkit.core.caching;
 
+import java.nio.charset.Charset;
 import java.util.Arrays;
 
 /**
@@ -25,27 +26,70 @@ import java.util.Arrays;
  * A record is described by
  * <ol>
  * <li>The timestamp when it was created/ended</li>
- * <li>Serialized data</li>
+ * <li>Serialized data, encoded with {@link #CHARSET}</li>
+ * <li>The {@link RecordPriority priority} used for eviction</li>
  * </ol>
  * </p>
+ *
+ * <p>
+ * Records are not retained by the {@link BeaconCacheEntry}, which stores the record's attributes in a
+ * {@link BeaconCacheRecordBuffer} instead.
+ * </p>
  */
 class BeaconCacheRecord {
 
-    private static final long CHAR_SIZE_BYTES = 2L;
+    /**
+     * Charset used to encode the record's data, which is the charset used for sending beacon data.
+     */
+    static final Charset CHARSET = Charset.forName("UTF-8");
 
     private final long timestamp;
-    private final String data;
+    private final byte[] data;
+    private final RecordPriority priority;
     private boolean markedForSending = false;
 
     /**
-     * Create a new {@link BeaconCacheRecord}
+     * Create a new {@link BeaconCacheRecord} with the {@link RecordPriority#defaultValue() default priority}.
      *
      * @param timestamp Timestamp for this record.
-     * @param data      Data to store for this record.
+     * @param data      Data to store for this record, which is encoded with {@link #CHARSET}.
      */
     BeaconCacheRecord(long timestamp, String data) {
+        this(timestamp, data, RecordPriority.defaultValue());
+    }
+
+    /**
+     * Create a new {@link BeaconCacheRecord}
+     *
+     * @param timestamp Timestamp for this record.
+     * @param data      Data to store for this record, which is encoded with {@link #CHARSET}.
+     * @param priority  Priority of this record.
+     */
+    BeaconCacheRecord(long timestamp, String data, RecordPriority priority) {
+        this(timestamp, encode(data), priority);
+    }
+
+    /**
+     * Create a new {@link BeaconCacheRecord} with the {@link RecordPriority#defaultValue() default priority}.
+     *
+     * @param timestamp Timestamp for this record.
+     * @param data      Already encoded data to store for this record.
+     */
+    BeaconCacheRecord(long timestamp, byte[] data) {
+        this(timestamp, data, RecordPriority.defaultValue());
+    }
+
+    /**
+     * Create a new {@link BeaconCacheRecord}
+     *
+     * @param timestamp Timestamp for this record.
+     * @param data      Already encoded data to store for this record.
+     * @param priority  Priority of this record.
+     */
+    BeaconCacheRecord(long timestamp, byte[] data, RecordPriority priority) {
         this.timestamp = timestamp;
         this.data = data;
+        this.priority = priority;
     }
 
     /**
@@ -56,31 +100,70 @@ class BeaconCacheRecord {
     }
 
     /**
-     * Get data.
+     * Get priority.
      */
-    String getData() {
+    RecordPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Get encoded data.
+     */
+    byte[] getData() {
         return data;
     }
 
     /**
-     * Get data size estimation of this record.
+     * Get data size of this record.
      *
      * <p>
-     * Note that this is just a very rough estimation required for cache eviction.
-     *
-     * It's sufficient to approximate the bytes required by the string and omit any other information like
-     * the timestamp, any references and so on.
+     * This is the number of bytes of the encoded data, which is the number of bytes sent to the backend.
+     * Any other information like the timestamp, any references and so on is omitted.
      * </p>
      *
      * @return Data size in bytes.
      */
     long getDataSizeInBytes() {
-        if (getData() == null) {
+        return getDataSizeInBytes(getData());
+    }
+
+    /**
+     * Get data size of the given encoded record data.
+     *
+     * @param data The record's encoded data.
+     *
+     * @return Data size in bytes.
+     *
+     * @see #getDataSizeInBytes()
+     */
+    static long getDataSizeInBytes(byte[] data) {
+        if (data == null) {
             return 0;
         }
-        return getData().length() * CHAR_SIZE_BYTES;
+        return data.length;
+    }
+
+    /**
+     * Encode the given record data with {@link #CHARSET}.
+     *
+     * @param data The record's data.
+     *
+     * @return The encoded data or {@code null} if {@code data} is {@code null}.
+     */
+    static byte[] encode(String data) {
+        return data == null ? null : data.getBytes(CHARSET);
     }
 
+    /**
+     * Decode the given encoded record data.
+     *
+     * @param data The record's encoded data.
+     *
+     * @return The decoded data or {@code null} if {@code data} is {@code null}.
+     */
+    static String decode(byte[] data) {
+        return data == null ? null : new String(data, CHARSET);
+    }
     /**
      * Test if this record is already marked for sending.
      *
@@ -114,13 +197,13 @@ class BeaconCacheRecord {
             return false;
         }
         BeaconCacheRecord record = (BeaconCacheRecord) o;
-        return getTimestamp() == record.getTimestamp() && isMarkedForSending() == record.isMarkedForSending() && getData()
-            .equals(record.getData());
+        return getTimestamp() == record.getTimestamp() && isMarkedForSending() == record.isMarkedForSending()
+            && getPriority() == record.getPriority() && Arrays.equals(getData(), record.getData());
     }
 
     @Override
     public int hashCode() {
 
-        return Arrays.hashCode(new Object[]{getTimestamp(), getData(), isMarkedForSending()});
+        return Arrays.hashCode(new Object[]{getTimestamp(), Arrays.hashCode(getData()), getPriority(), isMarkedForSending()});
     }
 }
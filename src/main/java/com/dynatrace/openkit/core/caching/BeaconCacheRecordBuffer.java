@@ -0,0 +1,512 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Growable ring buffer storing the records of a {@link BeaconCacheEntry}.
+ *
+ * <p>
+ * Instead of keeping one {@link BeaconCacheRecord} object per cached record, the record's attributes are
+ * stored in parallel arrays. Records are addressed by their logical index, where index {@code 0} is the oldest
+ * record (the one which was added first). Appending records and removing the oldest records are {@code O(1)}
+ * operations.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe, the owning {@link BeaconCacheEntry} is responsible for synchronization.
+ * </p>
+ */
+class BeaconCacheRecordBuffer {
+
+    /**
+     * Initial capacity used when the first record is added.
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    private static final long[] EMPTY_TIMESTAMPS = new long[0];
+    private static final byte[][] EMPTY_DATA = new byte[0][];
+    private static final byte[] EMPTY_PRIORITIES = new byte[0];
+    private static final RecordPriority[] PRIORITIES = RecordPriority.values();
+
+    /**
+     * Timestamps of the records.
+     */
+    private long[] timestamps = EMPTY_TIMESTAMPS;
+    /**
+     * Serialized and encoded data of the records.
+     */
+    private byte[][] data = EMPTY_DATA;
+    /**
+     * Ordinals of the records' {@link RecordPriority priorities}.
+     */
+    private byte[] priorities = EMPTY_PRIORITIES;
+    /**
+     * Number of records per {@link RecordPriority}, indexed by the priority's ordinal.
+     */
+    private final int[] numRecordsPerPriority = new int[PRIORITIES.length];
+    /**
+     * Lower bound of the logical index of the first record per {@link RecordPriority}, indexed by the priority's ordinal.
+     *
+     * <p>
+     * No record of the given priority is stored before this index, which allows {@link #indexOf(RecordPriority, int)}
+     * to skip records of other priorities when records are repeatedly removed one by one.
+     * </p>
+     */
+    private final int[] firstIndexHints = new int[PRIORITIES.length];
+    /**
+     * Marked for sending flags, indexed by the physical slot of the record.
+     */
+    private final BitSet markedForSending = new BitSet();
+    /**
+     * Physical slot of the oldest record.
+     */
+    private int head = 0;
+    /**
+     * Number of records stored in this buffer.
+     */
+    private int size = 0;
+    /**
+     * Sum of the data sizes of all records stored in this buffer.
+     */
+    private long totalDataSizeInBytes = 0;
+    /**
+     * Flag indicating whether the records are stored in ascending timestamp order.
+     *
+     * <p>
+     * Records are usually added in chronological order, which allows removing expired records
+     * without visiting the records which are still valid.
+     * </p>
+     */
+    private boolean timestampsOrdered = true;
+
+    /**
+     * Get the number of records stored in this buffer.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Test if this buffer does not contain any record.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append a new record with the {@link RecordPriority#defaultValue() default priority} to the end of this buffer.
+     *
+     * @param timestamp The record's timestamp.
+     * @param recordData The record's serialized and encoded data.
+     */
+    void add(long timestamp, byte[] recordData) {
+        add(timestamp, recordData, RecordPriority.defaultValue());
+    }
+
+    /**
+     * Append a new record to the end of this buffer.
+     *
+     * @param timestamp The record's timestamp.
+     * @param recordData The record's serialized and encoded data.
+     * @param priority The record's priority.
+     */
+    void add(long timestamp, byte[] recordData, RecordPriority priority) {
+        ensureCapacity(size + 1);
+
+        if (size > 0 && timestamp < getTimestamp(size - 1)) {
+            timestampsOrdered = false;
+        }
+
+        if (numRecordsPerPriority[priority.ordinal()] == 0) {
+            firstIndexHints[priority.ordinal()] = size;
+        }
+
+        int slot = slotOf(size);
+        timestamps[slot] = timestamp;
+        data[slot] = recordData;
+        priorities[slot] = (byte) priority.ordinal();
+        markedForSending.clear(slot);
+        size++;
+        totalDataSizeInBytes += BeaconCacheRecord.getDataSizeInBytes(recordData);
+        numRecordsPerPriority[priority.ordinal()]++;
+    }
+
+    /**
+     * Append all records from {@code other} to the end of this buffer, preserving their marks.
+     *
+     * @param other The buffer whose records are appended.
+     */
+    void addAll(BeaconCacheRecordBuffer other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        ensureCapacity(size + other.size);
+
+        if (!other.timestampsOrdered || (size > 0 && other.getTimestamp(0) < getTimestamp(size - 1))) {
+            timestampsOrdered = false;
+        }
+        for (int i = 0; i < firstIndexHints.length; i++) {
+            if (numRecordsPerPriority[i] == 0) {
+                firstIndexHints[i] = size + other.firstIndexHints[i];
+            }
+        }
+
+        for (int i = 0; i < other.size; i++) {
+            int otherSlot = other.slotOf(i);
+            int slot = slotOf(size);
+            timestamps[slot] = other.timestamps[otherSlot];
+            data[slot] = other.data[otherSlot];
+            priorities[slot] = other.priorities[otherSlot];
+            markedForSending.set(slot, other.markedForSending.get(otherSlot));
+            size++;
+        }
+        totalDataSizeInBytes += other.totalDataSizeInBytes;
+        for (int i = 0; i < numRecordsPerPriority.length; i++) {
+            numRecordsPerPriority[i] += other.numRecordsPerPriority[i];
+        }
+    }
+
+    /**
+     * Get the timestamp of the record at the given logical index.
+     */
+    long getTimestamp(int index) {
+        return timestamps[slotOf(index)];
+    }
+
+    /**
+     * Get the smallest timestamp of all records in this buffer.
+     *
+     * <p>
+     * If the records were added in chronological order, this is the timestamp of the oldest record,
+     * otherwise all records need to be visited.
+     * </p>
+     *
+     * @return The smallest timestamp or {@link Long#MAX_VALUE} if this buffer is empty.
+     */
+    long getMinTimestamp() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (timestampsOrdered) {
+            return getTimestamp(0);
+        }
+
+        long minTimestamp = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minTimestamp = Math.min(minTimestamp, timestamps[slotOf(i)]);
+        }
+        return minTimestamp;
+    }
+
+    /**
+     * Get the encoded data of the record at the given logical index.
+     */
+    byte[] getData(int index) {
+        return data[slotOf(index)];
+    }
+
+    /**
+     * Get the priority of the record at the given logical index.
+     */
+    RecordPriority getPriority(int index) {
+        return PRIORITIES[priorities[slotOf(index)]];
+    }
+
+    /**
+     * Get the number of records having the given priority.
+     */
+    int getNumRecords(RecordPriority priority) {
+        return numRecordsPerPriority[priority.ordinal()];
+    }
+
+    /**
+     * Get the logical index of the first record having the given priority, starting the search at {@code fromIndex}.
+     *
+     * @param priority The priority to search for.
+     * @param fromIndex The logical index to start searching from.
+     *
+     * @return The logical index of the record or {@code -1} if there is no such record.
+     */
+    int indexOf(RecordPriority priority, int fromIndex) {
+        if (numRecordsPerPriority[priority.ordinal()] == 0) {
+            return -1;
+        }
+
+        byte ordinal = (byte) priority.ordinal();
+        boolean searchesFirst = fromIndex <= firstIndexHints[ordinal];
+        for (int i = Math.max(fromIndex, firstIndexHints[ordinal]); i < size; i++) {
+            if (priorities[slotOf(i)] == ordinal) {
+                if (searchesFirst) {
+                    firstIndexHints[ordinal] = i;
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the data size of the record at the given logical index.
+     *
+     * @see BeaconCacheRecord#getDataSizeInBytes()
+     */
+    long getDataSizeInBytes(int index) {
+        return BeaconCacheRecord.getDataSizeInBytes(data[slotOf(index)]);
+    }
+
+    /**
+     * Get the sum of the data sizes of all records in this buffer.
+     */
+    long getTotalDataSizeInBytes() {
+        return totalDataSizeInBytes;
+    }
+
+    /**
+     * Test if the record at the given logical index is marked for sending.
+     */
+    boolean isMarkedForSending(int index) {
+        return markedForSending.get(slotOf(index));
+    }
+
+    /**
+     * Mark the record at the given logical index for sending.
+     */
+    void markForSending(int index) {
+        markedForSending.set(slotOf(index));
+    }
+
+    /**
+     * Reset the marked for sending flag of all records.
+     */
+    void unsetAllSending() {
+        markedForSending.clear();
+    }
+
+    /**
+     * Get the number of consecutive records, starting with the oldest one, which are marked for sending.
+     */
+    int getNumLeadingMarkedForSending() {
+        int numMarked = 0;
+        while (numMarked < size && isMarkedForSending(numMarked)) {
+            numMarked++;
+        }
+        return numMarked;
+    }
+
+    /**
+     * Remove the {@code numRecords} oldest records.
+     *
+     * @param numRecords The number of records to remove, must not be greater than {@link #size()}.
+     */
+    void removeFirst(int numRecords) {
+        for (int i = 0; i < numRecords; i++) {
+            int slot = slotOf(i);
+            totalDataSizeInBytes -= BeaconCacheRecord.getDataSizeInBytes(data[slot]);
+            numRecordsPerPriority[priorities[slot]]--;
+            data[slot] = null; // allow GC to collect the data
+            markedForSending.clear(slot);
+        }
+        head = size == numRecords ? 0 : slotOf(numRecords);
+        size -= numRecords;
+        for (int i = 0; i < firstIndexHints.length; i++) {
+            firstIndexHints[i] = Math.max(0, firstIndexHints[i] - numRecords);
+        }
+        if (size == 0) {
+            timestampsOrdered = true;
+        }
+    }
+
+    /**
+     * Remove all records having a timestamp less than {@code minTimestamp}.
+     *
+     * <p>
+     * If the records are stored in chronological order, only the expired records are visited.
+     * Otherwise the remaining records are compacted towards the head of the buffer in a single pass.
+     * </p>
+     *
+     * @param minTimestamp The minimum timestamp allowed.
+     *
+     * @return The number of removed records.
+     */
+    int removeOlderThan(long minTimestamp) {
+        if (timestampsOrdered) {
+            int numExpired = 0;
+            while (numExpired < size && getTimestamp(numExpired) < minTimestamp) {
+                numExpired++;
+            }
+            removeFirst(numExpired);
+            return numExpired;
+        }
+
+        BitSet expiredRecords = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            if (getTimestamp(i) < minTimestamp) {
+                expiredRecords.set(i);
+            }
+        }
+
+        return remove(expiredRecords);
+    }
+
+    /**
+     * Remove all records whose logical index is set in {@code recordsToRemove}.
+     *
+     * <p>
+     * If only the oldest records are removed, this is equivalent to {@link #removeFirst(int)}.
+     * Otherwise the remaining records are compacted towards the head of the buffer in a single pass.
+     * </p>
+     *
+     * @param recordsToRemove The logical indices of the records to remove.
+     *
+     * @return The number of removed records.
+     */
+    int remove(BitSet recordsToRemove) {
+        int numToRemove = Math.min(recordsToRemove.cardinality(), size);
+        if (recordsToRemove.nextClearBit(0) >= numToRemove) {
+            removeFirst(numToRemove);
+            return numToRemove;
+        }
+
+        // records before the first removed one keep their position, they are only visited to re-check an unordered buffer
+        int firstRemovedIndex = recordsToRemove.nextSetBit(0);
+        int startIndex = timestampsOrdered ? firstRemovedIndex : 0;
+        int numRetained = startIndex;
+        boolean retainedOrdered = true;
+        for (int i = startIndex; i < size; i++) {
+            int slot = slotOf(i);
+            if (recordsToRemove.get(i)) {
+                totalDataSizeInBytes -= BeaconCacheRecord.getDataSizeInBytes(data[slot]);
+                numRecordsPerPriority[priorities[slot]]--;
+                continue;
+            }
+            if (numRetained > 0 && timestamps[slot] < timestamps[slotOf(numRetained - 1)]) {
+                retainedOrdered = false;
+            }
+            if (numRetained != i) {
+                int targetSlot = slotOf(numRetained);
+                timestamps[targetSlot] = timestamps[slot];
+                data[targetSlot] = data[slot];
+                priorities[targetSlot] = priorities[slot];
+                markedForSending.set(targetSlot, markedForSending.get(slot));
+            }
+            numRetained++;
+        }
+
+        int numRemoved = size - numRetained;
+        for (int i = 0; i < firstIndexHints.length; i++) {
+            if (firstIndexHints[i] > firstRemovedIndex) {
+                // retained records are moved by at most the number of removed records
+                firstIndexHints[i] = Math.max(firstRemovedIndex, firstIndexHints[i] - numRemoved);
+            }
+        }
+        for (int i = numRetained; i < size; i++) {
+            int slot = slotOf(i);
+            data[slot] = null;
+            markedForSending.clear(slot);
+        }
+        size = numRetained;
+        if (size == 0) {
+            head = 0;
+        }
+        timestampsOrdered = retainedOrdered;
+
+        return numRemoved;
+    }
+
+    /**
+     * Create {@link BeaconCacheRecord} objects for all records in this buffer, oldest record first.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    List<BeaconCacheRecord> toRecords() {
+        List<BeaconCacheRecord> records = new ArrayList<BeaconCacheRecord>(size);
+        for (int i = 0; i < size; i++) {
+            BeaconCacheRecord record = new BeaconCacheRecord(getTimestamp(i), getData(i), getPriority(i));
+            if (isMarkedForSending(i)) {
+                record.markForSending();
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Test if the records are stored in ascending timestamp order.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    boolean isTimestampsOrdered() {
+        return timestampsOrdered;
+    }
+
+    /**
+     * Get the current capacity of this buffer.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    int getCapacity() {
+        return timestamps.length;
+    }
+
+    private int slotOf(int index) {
+        int slot = head + index;
+        return slot < timestamps.length ? slot : slot - timestamps.length;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= timestamps.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(INITIAL_CAPACITY, timestamps.length + (timestamps.length >> 1));
+        if (newCapacity < minCapacity) {
+            newCapacity = minCapacity;
+        }
+
+        // unwrap the records, so that the oldest record is stored in slot 0
+        long[] newTimestamps = new long[newCapacity];
+        byte[][] newData = new byte[newCapacity][];
+        byte[] newPriorities = new byte[newCapacity];
+        BitSet newMarks = new BitSet();
+        for (int i = 0; i < size; i++) {
+            int slot = slotOf(i);
+            newTimestamps[i] = timestamps[slot];
+            newData[i] = data[slot];
+            newPriorities[i] = priorities[slot];
+            if (markedForSending.get(slot)) {
+                newMarks.set(i);
+            }
+        }
+
+        timestamps = newTimestamps;
+        data = newData;
+        priorities = newPriorities;
+        markedForSending.clear();
+        markedForSending.or(newMarks);
+        head = 0;
+    }
+}
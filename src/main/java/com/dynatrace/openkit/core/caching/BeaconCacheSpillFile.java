@@ -0,0 +1,383 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Memory mapped file, storing records spilled from a {@link TieredBeaconCache}.
+ *
+ * <p>
+ * The file has a fixed capacity and is used as append only log of {@link Segment segments}.
+ * Each segment contains the records of one beacon, which were spilled at once. The memory of released
+ * segments is reclaimed, when there is no more space at the end of the file, by moving all live segments
+ * towards the beginning of the file.
+ * </p>
+ *
+ * <p>
+ * A record is stored as
+ * <ul>
+ *     <li>kind (1 byte, event or action)</li>
+ *     <li>priority ordinal (1 byte)</li>
+ *     <li>timestamp (8 bytes)</li>
+ *     <li>data length (4 bytes, {@code -1} if there is no data)</li>
+ *     <li>encoded data</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * All methods are synchronized, since segments are written by the eviction thread and read by the
+ * beacon sending thread.
+ * </p>
+ */
+class BeaconCacheSpillFile {
+
+    /**
+     * Number of bytes preceding the data of each record.
+     */
+    static final int RECORD_HEADER_SIZE = 1 + 1 + 8 + 4;
+
+    private static final String FILE_PREFIX = "openkit-beacon-cache-";
+    private static final String FILE_SUFFIX = ".spill";
+    private static final int MOVE_BUFFER_SIZE = 8 * 1024;
+    private static final byte EVENT_RECORD = 0;
+    private static final byte ACTION_RECORD = 1;
+    private static final int NO_DATA = -1;
+    private static final RecordPriority[] PRIORITIES = RecordPriority.values();
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    /**
+     * All live segments, in ascending order of their offset.
+     */
+    private final Set<Segment> segments = new LinkedHashSet<Segment>();
+    private int writePosition = 0;
+    private int numLiveBytes = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructor mapping the given file.
+     *
+     * @param file     The file to map, which is created if it does not exist.
+     * @param capacity The size of the file in bytes.
+     *
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    BeaconCacheSpillFile(File file, int capacity) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new spill file in the given directory.
+     *
+     * <p>
+     * The file gets a unique name, so that multiple OpenKit instances can use the same directory.
+     * </p>
+     *
+     * @param directory The directory in which to create the file.
+     * @param capacity  The size of the file in bytes.
+     *
+     * @return The newly created spill file.
+     *
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    static BeaconCacheSpillFile create(File directory, int capacity) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create directory " + directory);
+        }
+
+        File file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+        file.deleteOnExit();
+
+        return new BeaconCacheSpillFile(file, capacity);
+    }
+
+    /**
+     * Get the number of bytes required to store the given records.
+     */
+    static long getSizeInBytes(BeaconCacheRecordBuffer records) {
+        return records.size() * (long) RECORD_HEADER_SIZE + records.getTotalDataSizeInBytes();
+    }
+
+    /**
+     * Append the given event and action records as new segment.
+     *
+     * @param eventData  The event records to write.
+     * @param actionData The action records to write.
+     *
+     * @return The segment or {@code null} if there is not enough space left in this file or the file is closed.
+     */
+    synchronized Segment append(BeaconCacheRecordBuffer eventData, BeaconCacheRecordBuffer actionData) {
+        long length = getSizeInBytes(eventData) + getSizeInBytes(actionData);
+        if (closed || length > capacity - numLiveBytes) {
+            return null;
+        }
+        if (length > capacity - writePosition) {
+            compact();
+        }
+
+        Segment segment = new Segment(writePosition, (int) length);
+        buffer.position(writePosition);
+        writeRecords(EVENT_RECORD, eventData, segment);
+        writeRecords(ACTION_RECORD, actionData, segment);
+
+        writePosition += segment.length;
+        numLiveBytes += segment.length;
+        segments.add(segment);
+
+        return segment;
+    }
+
+    private void writeRecords(byte kind, BeaconCacheRecordBuffer records, Segment segment) {
+        for (int i = 0; i < records.size(); i++) {
+            long timestamp = records.getTimestamp(i);
+            byte[] data = records.getData(i);
+
+            buffer.put(kind);
+            buffer.put((byte) records.getPriority(i).ordinal());
+            buffer.putLong(timestamp);
+            if (data == null) {
+                buffer.putInt(NO_DATA);
+            } else {
+                buffer.putInt(data.length);
+                buffer.put(data);
+            }
+
+            segment.numRecords++;
+            segment.numDataBytes += BeaconCacheRecord.getDataSizeInBytes(data);
+            segment.minTimestamp = Math.min(segment.minTimestamp, timestamp);
+            segment.maxTimestamp = Math.max(segment.maxTimestamp, timestamp);
+        }
+    }
+
+    /**
+     * Read all records of the given segment and append them to the given buffers.
+     *
+     * <p>
+     * The segment is not released.
+     * </p>
+     *
+     * @param segment    The segment to read.
+     * @param eventData  The buffer to which event records are appended.
+     * @param actionData The buffer to which action records are appended.
+     *
+     * @return {@code true} if the records have been read, {@code false} if the segment is no longer available.
+     */
+    synchronized boolean read(Segment segment, BeaconCacheRecordBuffer eventData, BeaconCacheRecordBuffer actionData) {
+        if (closed || !segments.contains(segment)) {
+            return false;
+        }
+
+        buffer.position(segment.offset);
+        for (int i = 0; i < segment.numRecords; i++) {
+            byte kind = buffer.get();
+            RecordPriority priority = PRIORITIES[buffer.get()];
+            long timestamp = buffer.getLong();
+            int dataLength = buffer.getInt();
+            byte[] data = null;
+            if (dataLength != NO_DATA) {
+                data = new byte[dataLength];
+                buffer.get(data);
+            }
+
+            if (kind == EVENT_RECORD) {
+                eventData.add(timestamp, data, priority);
+            } else {
+                actionData.add(timestamp, data, priority);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Release the given segment, so that its space can be reused.
+     *
+     * @param segment The segment to release.
+     */
+    synchronized void release(Segment segment) {
+        if (!segments.remove(segment)) {
+            return;
+        }
+
+        numLiveBytes -= segment.length;
+        if (segments.isEmpty()) {
+            // cheap case, the whole file is free again
+            writePosition = 0;
+        }
+    }
+
+    /**
+     * Move all live segments towards the beginning of the file, so that all free space is located at its end.
+     */
+    private void compact() {
+        byte[] moveBuffer = new byte[MOVE_BUFFER_SIZE];
+        int targetOffset = 0;
+
+        // segments are ordered by their offset, therefore the source is always located behind the target
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            Segment segment = iterator.next();
+            if (segment.offset != targetOffset) {
+                int numBytesMoved = 0;
+                while (numBytesMoved < segment.length) {
+                    int numBytes = Math.min(moveBuffer.length, segment.length - numBytesMoved);
+                    buffer.position(segment.offset + numBytesMoved);
+                    buffer.get(moveBuffer, 0, numBytes);
+                    buffer.position(targetOffset + numBytesMoved);
+                    buffer.put(moveBuffer, 0, numBytes);
+                    numBytesMoved += numBytes;
+                }
+                segment.offset = targetOffset;
+            }
+            targetOffset += segment.length;
+        }
+
+        writePosition = targetOffset;
+    }
+
+    /**
+     * Get the size of this file in bytes.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the number of bytes occupied by live segments.
+     */
+    synchronized int getNumLiveBytes() {
+        return numLiveBytes;
+    }
+
+    /**
+     * Get the offset at which the next segment is written.
+     */
+    synchronized int getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Get the underlying file.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Close and delete the underlying file.
+     *
+     * <p>
+     * All segments are released. Subsequent appends and reads fail.
+     * </p>
+     *
+     * @throws IOException If closing the file fails.
+     */
+    synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segments.clear();
+        numLiveBytes = 0;
+        writePosition = 0;
+
+        try {
+            randomAccessFile.close();
+        } finally {
+            if (!file.delete()) {
+                // the mapping might still prevent deletion on some platforms
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Records of one beacon stored in the {@link BeaconCacheSpillFile}.
+     *
+     * <p>
+     * The offset is guarded by the spill file, since it changes when the file is compacted.
+     * All other fields are only written before the segment is returned from {@link BeaconCacheSpillFile#append}.
+     * </p>
+     */
+    static final class Segment {
+
+        private int offset;
+        private final int length;
+        private int numRecords = 0;
+        private long numDataBytes = 0;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        private Segment(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Get the number of bytes this segment occupies in the spill file.
+         */
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * Get the number of records stored in this segment.
+         */
+        int getNumRecords() {
+            return numRecords;
+        }
+
+        /**
+         * Get the sum of the data sizes of all records, like {@link BeaconCacheRecordBuffer#getTotalDataSizeInBytes()}.
+         */
+        long getNumDataBytes() {
+            return numDataBytes;
+        }
+
+        /**
+         * Get the smallest timestamp of all records in this segment.
+         */
+        long getMinTimestamp() {
+            return minTimestamp;
+        }
+
+        /**
+         * Get the largest timestamp of all records in this segment.
+         */
+        long getMaxTimestamp() {
+            return maxTimestamp;
+        }
+    }
+}
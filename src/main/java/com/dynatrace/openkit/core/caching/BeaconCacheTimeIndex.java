@@ -0,0 +1,205 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coarse timing wheel, indexing the beacons of the {@link BeaconCacheImpl} by the timestamp of their oldest record.
+ *
+ * <p>
+ * Timestamps are grouped into buckets of a fixed width. Each beacon is registered in the bucket
+ * containing its oldest record, which allows the time based eviction to visit only those beacons
+ * which actually have expired records, and to drop all buckets older than the maximum record age at once.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe. Registering and unregistering a single beacon must be done while holding the lock
+ * of the beacon's {@link BeaconCacheEntry}. Each bucket is guarded by its own monitor, so that a beacon registered
+ * concurrently is never lost when an empty bucket is dropped.
+ * </p>
+ */
+class BeaconCacheTimeIndex {
+
+    /**
+     * Default width of a single time bucket in milliseconds.
+     */
+    static final long DEFAULT_BUCKET_WIDTH_IN_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * Bucket value used for beacons which are not registered in any bucket.
+     */
+    static final long NOT_INDEXED = Long.MIN_VALUE;
+
+    private final long bucketWidthInMillis;
+    private final ConcurrentNavigableMap<Long, Bucket> buckets;
+
+    /**
+     * Constructor.
+     *
+     * @param bucketWidthInMillis The width of a single time bucket in milliseconds.
+     */
+    BeaconCacheTimeIndex(long bucketWidthInMillis) {
+        this.bucketWidthInMillis = bucketWidthInMillis;
+        buckets = new ConcurrentSkipListMap<Long, Bucket>();
+    }
+
+    /**
+     * Get the bucket for the given timestamp.
+     *
+     * @param timestamp The timestamp in milliseconds.
+     *
+     * @return The number of the bucket containing {@code timestamp}.
+     */
+    long getBucket(long timestamp) {
+        long bucket = timestamp / bucketWidthInMillis;
+        // round towards negative infinity for negative timestamps
+        return (timestamp % bucketWidthInMillis < 0) ? bucket - 1 : bucket;
+    }
+
+    /**
+     * Register the beacon identified by {@code key} in the given {@code bucket}.
+     *
+     * @param key The key of the beacon to register.
+     * @param bucket The bucket, as returned by {@link #getBucket(long)}.
+     */
+    void add(BeaconKey key, long bucket) {
+        while (true) {
+            Bucket indexBucket = buckets.get(bucket);
+            if (indexBucket == null) {
+                Bucket newBucket = new Bucket();
+                indexBucket = buckets.putIfAbsent(bucket, newBucket);
+                if (indexBucket == null) {
+                    indexBucket = newBucket;
+                }
+            }
+
+            synchronized (indexBucket) {
+                if (!indexBucket.isDropped) {
+                    indexBucket.keys.add(key);
+                    return;
+                }
+            }
+            // the bucket was dropped concurrently, register again
+        }
+    }
+
+    /**
+     * Unregister the beacon identified by {@code key} from the given {@code bucket}.
+     *
+     * @param key The key of the beacon to unregister.
+     * @param bucket The bucket, as returned by {@link #getBucket(long)}.
+     */
+    void remove(BeaconKey key, long bucket) {
+        Bucket indexBucket = buckets.get(bucket);
+        if (indexBucket == null) {
+            return;
+        }
+
+        synchronized (indexBucket) {
+            indexBucket.keys.remove(key);
+            if (indexBucket.keys.isEmpty()) {
+                drop(bucket, indexBucket);
+            }
+        }
+    }
+
+    /**
+     * Get the keys of all beacons which might have records older than {@code minTimestamp}.
+     *
+     * <p>
+     * All buckets which only cover timestamps older than {@code minTimestamp} are dropped from this index.
+     * The caller is responsible for evicting the returned beacons and registering them again.
+     * The bucket containing {@code minTimestamp} is retained, since it also covers records which are not yet expired.
+     * </p>
+     *
+     * @param minTimestamp The minimum timestamp allowed.
+     *
+     * @return The keys of all beacons which might have expired records.
+     */
+    Set<BeaconKey> pollKeysOlderThan(long minTimestamp) {
+        long boundaryBucket = getBucket(minTimestamp);
+        Set<BeaconKey> result = new HashSet<BeaconKey>();
+
+        Map.Entry<Long, Bucket> bucketEntry = buckets.firstEntry();
+        while (bucketEntry != null && bucketEntry.getKey() < boundaryBucket) {
+            Bucket indexBucket = bucketEntry.getValue();
+            synchronized (indexBucket) {
+                if (!indexBucket.isDropped) {
+                    result.addAll(indexBucket.keys);
+                    drop(bucketEntry.getKey(), indexBucket);
+                }
+            }
+            bucketEntry = buckets.firstEntry();
+        }
+
+        if (boundaryBucket * bucketWidthInMillis < minTimestamp) {
+            Bucket indexBucket = buckets.get(boundaryBucket);
+            if (indexBucket != null) {
+                synchronized (indexBucket) {
+                    result.addAll(indexBucket.keys);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Drop the given bucket from this index.
+     *
+     * <p>
+     * The caller must hold the bucket's monitor, so that no beacon is registered in the bucket concurrently.
+     * </p>
+     */
+    private void drop(long bucket, Bucket indexBucket) {
+        indexBucket.isDropped = true;
+        buckets.remove(bucket, indexBucket);
+    }
+
+    /**
+     * Get the number of buckets currently held by this index.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    int getNumberOfBuckets() {
+        return buckets.size();
+    }
+
+    /**
+     * Keys of the beacons registered in one bucket.
+     *
+     * <p>
+     * All access must be synchronized on the bucket. A dropped bucket is no longer part of the index
+     * and must not be used to register beacons.
+     * </p>
+     */
+    private static final class Bucket {
+
+        /** Keys of the registered beacons */
+        private final Set<BeaconKey> keys = new HashSet<BeaconKey>();
+        /** Flag indicating whether this bucket was dropped from the index */
+        private boolean isDropped = false;
+    }
+}
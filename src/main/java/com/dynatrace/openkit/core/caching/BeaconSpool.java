@@ -0,0 +1,892 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.ConfigurationDefaults;
+import com.dynatrace.openkit.providers.DefaultTimingProvider;
+import com.dynatrace.openkit.providers.TimingProvider;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append only file storing beacon data, which could not be sent when OpenKit was shut down.
+ *
+ * <p>
+ * At shutdown the remaining data of each session is {@link #spool(SpooledBeacon) spooled} and
+ * {@link #persist() persisted}, by appending it to the file. The next OpenKit instance using the same file
+ * loads the spooled beacons and replays them chunk by chunk. After each successfully replayed chunk, a small
+ * progress frame is appended, so that the replayed chunks are not sent again after a restart.
+ * Only the chunk being sent when the process is terminated abnormally might be sent twice.
+ * </p>
+ *
+ * <p>
+ * The file is only rewritten, to drop the replayed data, once all loaded beacons were replayed or when the
+ * replaying instance is shut down. Then the file is written to a temporary file, which is synced to disk and
+ * replaces the spool file, respectively the spool file is deleted if nothing is left to replay.
+ * </p>
+ *
+ * <p>
+ * The file consists of frames
+ * <ul>
+ *     <li>frame magic (4 bytes), either for a spooled beacon or for replay progress</li>
+ *     <li>payload length (4 bytes)</li>
+ *     <li>payload</li>
+ *     <li>CRC32 checksum of the payload (4 bytes)</li>
+ * </ul>
+ * Loading stops at the first truncated or corrupted frame, so that a partially written file
+ * never yields invalid beacon data. A truncated frame at the end of the file is cut off, before new frames are appended.
+ * </p>
+ *
+ * <p>
+ * The spool is bounded by a maximum size and a maximum age of the spooled beacons. Beacons spooled longer ago than
+ * the maximum age are dropped, and if the remaining beacons exceed the maximum size, the oldest ones are dropped.
+ * The bounds are applied when the file is loaded for replaying and when it is rewritten, which also happens when
+ * an instance not replaying the file appends its data, unless another instance is replaying it.
+ * The file is read frame by frame, so that at most the maximum size of spooled beacons is held in memory.
+ * </p>
+ *
+ * <p>
+ * Multiple processes might use the same spool file. All writes are guarded by a lock on a separate lock file,
+ * and only one OpenKit instance at a time, which holds the replay lock, loads and replays the spooled beacons.
+ * Instances not getting the replay lock only append their own data at shutdown.
+ * </p>
+ *
+ * <p>
+ * The spool is only accessed from the beacon sending thread, nevertheless all methods are synchronized.
+ * </p>
+ */
+public class BeaconSpool {
+
+    /**
+     * Magic number starting each frame storing a spooled beacon ({@code OKSP}).
+     */
+    static final int FRAME_MAGIC = 0x4F4B5350;
+    /**
+     * Magic number starting each frame storing the replay progress of a spooled beacon ({@code OKSR}).
+     */
+    static final int PROGRESS_FRAME_MAGIC = 0x4F4B5352;
+    /**
+     * Version of the frame's payload layout.
+     */
+    static final byte FORMAT_VERSION = 2;
+    /**
+     * Number of bytes preceding the payload of each frame.
+     */
+    static final int FRAME_HEADER_SIZE = 4 + 4;
+    /**
+     * Number of bytes following the payload of each frame.
+     */
+    static final int FRAME_TRAILER_SIZE = 4;
+
+    private static final String FILE_PREFIX = "openkit-beacon-spool-";
+    private static final String FILE_SUFFIX = ".spool";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    private final Logger logger;
+    private final File file;
+    private final long replayInterval;
+    private final long maxSize;
+    private final long maxRecordAge;
+    private final TimingProvider timingProvider;
+
+    /**
+     * Beacons loaded from the file, which were not completely replayed so far.
+     */
+    private final LinkedList<SpooledBeacon> beaconsToReplay = new LinkedList<SpooledBeacon>();
+    /**
+     * Beacons spooled by this instance, which are appended when the spool is persisted.
+     */
+    private final List<SpooledBeacon> spooledBeacons = new ArrayList<SpooledBeacon>();
+    private boolean loaded = false;
+    /**
+     * Flag indicating whether this instance holds the replay lock.
+     */
+    private boolean replaying = false;
+
+    /**
+     * Constructor using the default bounds of the spool.
+     *
+     * @param logger         Logger for logging messages.
+     * @param file           The spool file, which does not need to exist.
+     * @param replayInterval The minimum time in milliseconds between two replayed chunks.
+     */
+    public BeaconSpool(Logger logger, File file, long replayInterval) {
+        this(logger, file, replayInterval, ConfigurationDefaults.DEFAULT_SPOOL_MAX_SIZE_IN_BYTES,
+            ConfigurationDefaults.DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS, new DefaultTimingProvider());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param logger         Logger for logging messages.
+     * @param file           The spool file, which does not need to exist.
+     * @param replayInterval The minimum time in milliseconds between two replayed chunks.
+     * @param maxSize        The maximum number of bytes of spooled beacons.
+     * @param maxRecordAge   The maximum time in milliseconds since a beacon was spooled, after which it is dropped.
+     * @param timingProvider Provider for the time at which beacons are spooled.
+     */
+    public BeaconSpool(Logger logger, File file, long replayInterval, long maxSize, long maxRecordAge,
+                       TimingProvider timingProvider) {
+        this.logger = logger;
+        this.file = file;
+        this.replayInterval = replayInterval;
+        this.maxSize = maxSize;
+        this.maxRecordAge = maxRecordAge;
+        this.timingProvider = timingProvider;
+    }
+
+    /**
+     * Get the spool file for the given application in the given directory.
+     *
+     * <p>
+     * The file name is derived from the application ID, so that OpenKit instances of different applications
+     * can use the same directory.
+     * </p>
+     *
+     * @param directory     The spool directory.
+     * @param applicationID The application's ID.
+     *
+     * @return The spool file.
+     */
+    public static File getSpoolFile(File directory, String applicationID) {
+        String fileName = FILE_PREFIX + applicationID.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_SUFFIX;
+        return new File(directory, fileName);
+    }
+
+    /**
+     * Get the spool file.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the minimum time in milliseconds between two replayed chunks.
+     */
+    public long getReplayInterval() {
+        return replayInterval;
+    }
+
+    /**
+     * Get the maximum number of bytes of spooled beacons.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Get the maximum time in milliseconds since a beacon was spooled, after which it is dropped.
+     */
+    public long getMaxRecordAge() {
+        return maxRecordAge;
+    }
+
+    /**
+     * Get the next beacon, which needs to be replayed.
+     *
+     * <p>
+     * The spool file is loaded, when this method is called the first time.
+     * If another OpenKit instance is already replaying the file, this instance does not replay anything.
+     * </p>
+     *
+     * @return The next beacon to replay or {@code null} if all spooled beacons were replayed.
+     */
+    public synchronized SpooledBeacon getNextBeaconToReplay() {
+        ensureLoaded();
+        return beaconsToReplay.isEmpty() ? null : beaconsToReplay.getFirst();
+    }
+
+    /**
+     * Remove the chunk of the given beacon, which was replayed successfully.
+     *
+     * <p>
+     * The replay progress is appended to the file. Once all beacons were replayed, the file is rewritten
+     * without the replayed data, respectively deleted if there is nothing left to replay.
+     * </p>
+     *
+     * @param spooledBeacon The beacon returned by {@link #getNextBeaconToReplay()}.
+     */
+    public synchronized void removeReplayedChunk(SpooledBeacon spooledBeacon) {
+        if (!beaconsToReplay.contains(spooledBeacon)) {
+            return;
+        }
+
+        spooledBeacon.removeNextChunk();
+        if (spooledBeacon.isEmpty()) {
+            beaconsToReplay.remove(spooledBeacon);
+        }
+
+        try {
+            SpoolLock spoolLock = SpoolLock.forFile(getLockFile(file));
+            synchronized (spoolLock) {
+                FileLock writeLock = spoolLock.lockForWriting();
+                try {
+                    appendProgress(file, spooledBeacon);
+                    if (beaconsToReplay.isEmpty()) {
+                        compact();
+                    }
+                } finally {
+                    writeLock.release();
+                }
+            }
+        } catch (IOException e) {
+            logger.error(getClass().getSimpleName() + " removeReplayedChunk() - Failed to write spool file " + file, e);
+        }
+    }
+
+    /**
+     * Spool the given beacon, which is written when the spool is {@link #persist() persisted}.
+     *
+     * @param spooledBeacon The beacon to spool.
+     */
+    public synchronized void spool(SpooledBeacon spooledBeacon) {
+        if (!spooledBeacon.isEmpty()) {
+            spooledBeacon.setSpoolTime(timingProvider.provideTimestampInMilliseconds());
+            spooledBeacons.add(spooledBeacon);
+        }
+    }
+
+    /**
+     * Append all spooled beacons to the spool file and stop replaying.
+     *
+     * <p>
+     * This method is called when OpenKit is shut down. If this instance was replaying, the file is rewritten
+     * without the replayed data, respectively deleted if there is nothing left to replay,
+     * and the replay lock is released, so that the next OpenKit instance can replay the remaining data.
+     * If this instance was not replaying, but no other instance is replaying either, the replay lock is acquired
+     * to rewrite the file as well, so that the bounds of the spool are applied, even if the file is never replayed.
+     * </p>
+     *
+     * @return {@code true} if the file was written or deleted successfully, {@code false} otherwise.
+     */
+    public synchronized boolean persist() {
+        if (spooledBeacons.isEmpty() && !replaying) {
+            return true;
+        }
+
+        boolean result = true;
+        try {
+            SpoolLock spoolLock = SpoolLock.forFile(getLockFile(file));
+            synchronized (spoolLock) {
+                boolean compacting = replaying || spoolLock.tryLockForReplaying();
+                FileLock writeLock = spoolLock.lockForWriting();
+                try {
+                    if (!spooledBeacons.isEmpty()) {
+                        append(file, spooledBeacons);
+                        if (logger.isDebugEnabled()) {
+                            logger.debug(getClass().getSimpleName() + " persist() - Spooled " + spooledBeacons.size()
+                                + " beacons to " + file);
+                        }
+                        spooledBeacons.clear();
+                    }
+                    if (compacting) {
+                        compact();
+                    }
+                } finally {
+                    writeLock.release();
+                }
+                if (compacting) {
+                    spoolLock.releaseReplayLock();
+                    replaying = false;
+                    beaconsToReplay.clear();
+                }
+            }
+        } catch (IOException e) {
+            logger.error(getClass().getSimpleName() + " persist() - Failed to write spool file " + file, e);
+            result = false;
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the beacons loaded from the file, which were not completely replayed so far.
+     */
+    synchronized List<SpooledBeacon> getBeaconsToReplay() {
+        ensureLoaded();
+        return new ArrayList<SpooledBeacon>(beaconsToReplay);
+    }
+
+    /**
+     * Get the lock file guarding the given spool file.
+     */
+    static File getLockFile(File file) {
+        return new File(file.getPath() + LOCK_FILE_SUFFIX);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+        try {
+            SpoolLock spoolLock = SpoolLock.forFile(getLockFile(file));
+            synchronized (spoolLock) {
+                replaying = spoolLock.tryLockForReplaying();
+                if (!replaying) {
+                    if (logger.isInfoEnabled()) {
+                        logger.info(getClass().getSimpleName() + " - Spool file " + file
+                            + " is replayed by another OpenKit instance");
+                    }
+                    return;
+                }
+                if (!file.isFile()) {
+                    return;
+                }
+
+                FileLock writeLock = spoolLock.lockForWriting();
+                try {
+                    beaconsToReplay.addAll(read(logger, file, maxSize, getMinSpoolTime()));
+                } finally {
+                    writeLock.release();
+                }
+            }
+            if (logger.isInfoEnabled()) {
+                logger.info(getClass().getSimpleName() + " - Loaded " + beaconsToReplay.size() + " spooled beacons from " + file);
+            }
+        } catch (IOException e) {
+            logger.error(getClass().getSimpleName() + " - Failed to read spool file " + file, e);
+        }
+    }
+
+    /**
+     * Read all valid frames from the given file and apply the replay progress to the spooled beacons.
+     *
+     * <p>
+     * Reading stops at the first truncated or corrupted frame.
+     * </p>
+     *
+     * @param logger Logger for logging messages.
+     * @param file   The file to read.
+     *
+     * @return The beacons stored in the valid frames, which were not completely replayed so far.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    static List<SpooledBeacon> read(Logger logger, File file) throws IOException {
+        return read(logger, file, Long.MAX_VALUE, Long.MIN_VALUE);
+    }
+
+    /**
+     * Read all valid frames from the given file and apply the replay progress to the spooled beacons,
+     * dropping the beacons exceeding the given bounds.
+     *
+     * <p>
+     * The frames are read one after the other, so that at most {@code maxSize} bytes of beacons are held in memory.
+     * The size of a beacon is the size of its frame. Beacons spooled before {@code minSpoolTime} are dropped,
+     * and if the remaining beacons exceed {@code maxSize} the oldest ones are dropped.
+     * Reading stops at the first truncated or corrupted frame.
+     * </p>
+     *
+     * @param logger       Logger for logging messages.
+     * @param file         The file to read.
+     * @param maxSize      The maximum number of bytes of the returned beacons.
+     * @param minSpoolTime The minimum spool time of the returned beacons.
+     *
+     * @return The beacons stored in the valid frames, which were not completely replayed so far.
+     *
+     * @throws IOException If the file cannot be read.
+     */
+    static List<SpooledBeacon> read(Logger logger, File file, long maxSize, long minSpoolTime) throws IOException {
+        long fileLength = file.length();
+
+        // beacons and their frame sizes by frame offset, oldest first
+        Map<Long, SpooledBeacon> beacons = new LinkedHashMap<Long, SpooledBeacon>();
+        Map<Long, Long> frameSizes = new HashMap<Long, Long>();
+        long totalSize = 0;
+        int numExpired = 0;
+        int numDropped = 0;
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            long position = 0;
+            while (position < fileLength) {
+                long remaining = fileLength - position;
+                int magic = remaining < FRAME_HEADER_SIZE + FRAME_TRAILER_SIZE ? 0 : input.readInt();
+                if (magic != FRAME_MAGIC && magic != PROGRESS_FRAME_MAGIC) {
+                    logInvalidFrame(logger, file, position);
+                    break;
+                }
+
+                int payloadLength = input.readInt();
+                if (payloadLength < 0 || payloadLength > remaining - FRAME_HEADER_SIZE - FRAME_TRAILER_SIZE) {
+                    logInvalidFrame(logger, file, position);
+                    break;
+                }
+                long frameSize = FRAME_HEADER_SIZE + (long) payloadLength + FRAME_TRAILER_SIZE;
+
+                if (magic == FRAME_MAGIC && frameSize > maxSize) {
+                    // the beacon is dropped anyway, therefore it's only read to verify the checksum
+                    int checksum = checksum(input, payloadLength);
+                    if (input.readInt() != checksum) {
+                        logInvalidFrame(logger, file, position);
+                        break;
+                    }
+                    numDropped++;
+                    position += frameSize;
+                    continue;
+                }
+
+                byte[] payload = new byte[payloadLength];
+                input.readFully(payload);
+                int checksum = input.readInt();
+                if (checksum != checksum(payload)) {
+                    logInvalidFrame(logger, file, position);
+                    break;
+                }
+
+                if (magic == FRAME_MAGIC) {
+                    SpooledBeacon spooledBeacon = readPayload(payload);
+                    if (spooledBeacon == null) {
+                        logInvalidFrame(logger, file, position);
+                        break;
+                    }
+                    if (spooledBeacon.getSpoolTime() < minSpoolTime) {
+                        numExpired++;
+                    } else {
+                        spooledBeacon.setFrameOffset(position);
+                        beacons.put(position, spooledBeacon);
+                        frameSizes.put(position, frameSize);
+                        totalSize += frameSize;
+
+                        // drop the oldest beacons, which are the first ones in the file
+                        Iterator<Long> offsets = beacons.keySet().iterator();
+                        while (totalSize > maxSize) {
+                            totalSize -= frameSizes.remove(offsets.next());
+                            offsets.remove();
+                            numDropped++;
+                        }
+                    }
+                } else {
+                    long frameOffset = applyProgress(payload, beacons);
+                    if (frameOffset < 0) {
+                        logInvalidFrame(logger, file, position);
+                        break;
+                    }
+                    SpooledBeacon spooledBeacon = beacons.get(frameOffset);
+                    if (spooledBeacon != null && spooledBeacon.isEmpty()) {
+                        // completely replayed beacons do not count against the maximum size
+                        beacons.remove(frameOffset);
+                        totalSize -= frameSizes.remove(frameOffset);
+                    }
+                }
+
+                position += frameSize;
+            }
+        } finally {
+            input.close();
+        }
+
+        if (numExpired > 0 || numDropped > 0) {
+            logger.warning(BeaconSpool.class.getSimpleName() + " read() - Dropped " + numExpired
+                + " expired beacons and " + numDropped + " beacons exceeding the maximum size of " + maxSize
+                + " bytes from " + file);
+        }
+
+        List<SpooledBeacon> result = new ArrayList<SpooledBeacon>(beacons.size());
+        for (SpooledBeacon spooledBeacon : beacons.values()) {
+            if (!spooledBeacon.isEmpty()) {
+                result.add(spooledBeacon);
+            }
+        }
+
+        return result;
+    }
+
+    private static void logInvalidFrame(Logger logger, File file, long position) {
+        logger.warning(BeaconSpool.class.getSimpleName() + " read() - Discarding truncated or corrupted data in "
+            + file + " at offset " + position);
+    }
+
+    /**
+     * Write the given beacons to the given file, replacing its current content.
+     *
+     * <p>
+     * The frames are written to a temporary file, which is synced to disk and renamed afterwards.
+     * </p>
+     *
+     * @param file    The file to write.
+     * @param beacons The beacons to write.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(File file, Collection<SpooledBeacon> beacons) throws IOException {
+        File tempFile = new File(file.getPath() + TEMP_FILE_SUFFIX);
+
+        FileOutputStream fileOutput = new FileOutputStream(tempFile);
+        try {
+            DataOutputStream output = new DataOutputStream(fileOutput);
+            long position = 0;
+            for (SpooledBeacon spooledBeacon : beacons) {
+                byte[] frame = createFrame(FRAME_MAGIC, writePayload(spooledBeacon));
+                output.write(frame);
+                spooledBeacon.setFrameOffset(position);
+                position += frame.length;
+            }
+            output.flush();
+            fileOutput.getFD().sync();
+        } finally {
+            fileOutput.close();
+        }
+
+        // renaming fails on some platforms, if the target exists
+        if (!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+            tempFile.delete();
+            throw new IOException("Failed to rename " + tempFile + " to " + file);
+        }
+    }
+
+    /**
+     * Append the given beacons to the given file.
+     *
+     * @param file    The file to append to.
+     * @param beacons The beacons to append.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    static void append(File file, Collection<SpooledBeacon> beacons) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            long position = seekToEndOfValidFrames(randomAccessFile);
+            for (SpooledBeacon spooledBeacon : beacons) {
+                byte[] frame = createFrame(FRAME_MAGIC, writePayload(spooledBeacon));
+                randomAccessFile.write(frame);
+                spooledBeacon.setFrameOffset(position);
+                position += frame.length;
+            }
+            randomAccessFile.getFD().sync();
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Append the replay progress of the given beacon, which was read from the given file, to the file.
+     *
+     * @param file          The file to append to.
+     * @param spooledBeacon The partially replayed beacon.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    static void appendProgress(File file, SpooledBeacon spooledBeacon) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(payload);
+        output.writeByte(FORMAT_VERSION);
+        output.writeLong(spooledBeacon.getFrameOffset());
+        output.writeInt(spooledBeacon.getNumRemovedChunks());
+        output.flush();
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            seekToEndOfValidFrames(randomAccessFile);
+            randomAccessFile.write(createFrame(PROGRESS_FRAME_MAGIC, payload.toByteArray()));
+            randomAccessFile.getFD().sync();
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Get the minimum spool time of beacons, which are not dropped because of their age.
+     */
+    private long getMinSpoolTime() {
+        return timingProvider.provideTimestampInMilliseconds() - maxRecordAge;
+    }
+
+    /**
+     * Rewrite the spool file without the replayed data and the beacons exceeding the bounds of this spool,
+     * or delete it if there is nothing left to replay.
+     */
+    private void compact() throws IOException {
+        List<SpooledBeacon> beacons = file.isFile()
+            ? read(logger, file, maxSize, getMinSpoolTime())
+            : new ArrayList<SpooledBeacon>();
+        if (beacons.isEmpty()) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Failed to delete " + file);
+            }
+        } else {
+            write(file, beacons);
+        }
+    }
+
+    /**
+     * Move the file pointer behind the last complete frame and cut off a truncated frame following it.
+     *
+     * <p>
+     * Only the frame headers are read, the checksums are verified when the file is {@link #read(Logger, File, long, long) read}.
+     * </p>
+     *
+     * @return The position behind the last complete frame.
+     */
+    private static long seekToEndOfValidFrames(RandomAccessFile randomAccessFile) throws IOException {
+        long length = randomAccessFile.length();
+        long position = 0;
+        while (length - position >= FRAME_HEADER_SIZE + FRAME_TRAILER_SIZE) {
+            randomAccessFile.seek(position);
+            int magic = randomAccessFile.readInt();
+            int payloadLength = randomAccessFile.readInt();
+            if ((magic != FRAME_MAGIC && magic != PROGRESS_FRAME_MAGIC)
+                || payloadLength < 0
+                || payloadLength > length - position - FRAME_HEADER_SIZE - FRAME_TRAILER_SIZE) {
+                break;
+            }
+            position += FRAME_HEADER_SIZE + payloadLength + FRAME_TRAILER_SIZE;
+        }
+
+        if (position < length) {
+            randomAccessFile.setLength(position);
+        }
+        randomAccessFile.seek(position);
+        return position;
+    }
+
+    private static byte[] createFrame(int magic, byte[] payload) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(FRAME_HEADER_SIZE + payload.length + FRAME_TRAILER_SIZE);
+        DataOutputStream frameOutput = new DataOutputStream(frame);
+        frameOutput.writeInt(magic);
+        frameOutput.writeInt(payload.length);
+        frameOutput.write(payload);
+        frameOutput.writeInt(checksum(payload));
+        frameOutput.flush();
+        return frame.toByteArray();
+    }
+
+    private static byte[] writePayload(SpooledBeacon spooledBeacon) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(payload);
+
+        output.writeByte(FORMAT_VERSION);
+        output.writeLong(spooledBeacon.getSpoolTime());
+        output.writeInt(spooledBeacon.getBeaconKey().beaconId);
+        output.writeInt(spooledBeacon.getBeaconKey().beaconSeqNo);
+        output.writeLong(spooledBeacon.getSessionStartTime());
+        output.writeInt(spooledBeacon.getMultiplicity());
+        writeBytes(output, BeaconCacheRecord.encode(spooledBeacon.getClientIPAddress()));
+        writeBytes(output, BeaconCacheRecord.encode(spooledBeacon.getBeaconPrefix()));
+
+        List<byte[]> chunks = spooledBeacon.getChunks();
+        output.writeInt(chunks.size());
+        for (byte[] chunk : chunks) {
+            writeBytes(output, chunk);
+        }
+
+        output.flush();
+        return payload.toByteArray();
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] data) throws IOException {
+        output.writeInt(data.length);
+        output.write(data);
+    }
+
+    /**
+     * Read a beacon from the given payload.
+     *
+     * @return The beacon or {@code null} if the payload is invalid.
+     */
+    private static SpooledBeacon readPayload(byte[] payload) {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+            if (input.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+
+            long spoolTime = input.readLong();
+            BeaconKey beaconKey = new BeaconKey(input.readInt(), input.readInt());
+            long sessionStartTime = input.readLong();
+            int multiplicity = input.readInt();
+            String clientIPAddress = BeaconCacheRecord.decode(readBytes(input, payload.length));
+            String beaconPrefix = BeaconCacheRecord.decode(readBytes(input, payload.length));
+
+            int numChunks = input.readInt();
+            if (numChunks < 0 || numChunks > payload.length) {
+                return null;
+            }
+            List<byte[]> chunks = new ArrayList<byte[]>(numChunks);
+            for (int i = 0; i < numChunks; i++) {
+                chunks.add(readBytes(input, payload.length));
+            }
+
+            SpooledBeacon spooledBeacon = new SpooledBeacon(beaconKey, clientIPAddress, beaconPrefix, sessionStartTime,
+                multiplicity, chunks);
+            spooledBeacon.setSpoolTime(spoolTime);
+            return spooledBeacon;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Apply the replay progress stored in the given payload to the beacon it refers to.
+     *
+     * @return The frame offset of the beacon the progress refers to or {@code -1} if the payload is invalid.
+     */
+    private static long applyProgress(byte[] payload, Map<Long, SpooledBeacon> beacons) {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+            if (input.readByte() != FORMAT_VERSION) {
+                return -1L;
+            }
+
+            long frameOffset = input.readLong();
+            int numRemovedChunks = input.readInt();
+            SpooledBeacon spooledBeacon = beacons.get(frameOffset);
+            if (spooledBeacon != null) {
+                while (!spooledBeacon.isEmpty() && spooledBeacon.getNumRemovedChunks() < numRemovedChunks) {
+                    spooledBeacon.removeNextChunk();
+                }
+            }
+            return frameOffset < 0 ? -1L : frameOffset;
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input, int maxLength) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > maxLength) {
+            throw new IOException("Invalid length " + length);
+        }
+
+        byte[] data = new byte[length];
+        input.readFully(data);
+        return data;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Compute the checksum of the next {@code length} bytes of the given input, without keeping them in memory.
+     */
+    private static int checksum(DataInputStream input, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[Math.min(length, 8192)];
+        int remaining = length;
+        while (remaining > 0) {
+            int numBytes = Math.min(remaining, buffer.length);
+            input.readFully(buffer, 0, numBytes);
+            crc.update(buffer, 0, numBytes);
+            remaining -= numBytes;
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Lock file guarding a spool file against concurrent access.
+     *
+     * <p>
+     * The first byte of the lock file is locked while the spool file is read or written,
+     * the second byte is locked as long as an OpenKit instance replays the spool file.
+     * Locks are held per process, therefore all spools of this JVM share one instance per lock file,
+     * which needs to be synchronized on while writing.
+     * The lock file is never closed, since on some platforms closing any channel of a file releases all locks
+     * held on that file by the JVM.
+     * </p>
+     */
+    private static final class SpoolLock {
+
+        private static final long WRITE_LOCK_POSITION = 0L;
+        private static final long REPLAY_LOCK_POSITION = 1L;
+
+        private static final Map<String, SpoolLock> SPOOL_LOCKS = new HashMap<String, SpoolLock>();
+
+        private final FileChannel channel;
+        private FileLock replayLock;
+
+        private SpoolLock(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Get the lock for the given lock file, which is created if it does not exist.
+         */
+        static SpoolLock forFile(File lockFile) throws IOException {
+            String path = lockFile.getCanonicalPath();
+            synchronized (SPOOL_LOCKS) {
+                SpoolLock spoolLock = SPOOL_LOCKS.get(path);
+                if (spoolLock == null) {
+                    spoolLock = new SpoolLock(new RandomAccessFile(lockFile, "rw").getChannel());
+                    SPOOL_LOCKS.put(path, spoolLock);
+                }
+                return spoolLock;
+            }
+        }
+
+        /**
+         * Lock the spool file for reading or writing, blocking until other processes released the lock.
+         */
+        FileLock lockForWriting() throws IOException {
+            return channel.lock(WRITE_LOCK_POSITION, 1L, false);
+        }
+
+        /**
+         * Try to lock the spool file for replaying.
+         *
+         * @return {@code true} if the lock was acquired, {@code false} if another OpenKit instance is replaying.
+         */
+        boolean tryLockForReplaying() throws IOException {
+            if (replayLock != null) {
+                // replayed by another OpenKit instance of this JVM
+                return false;
+            }
+            try {
+                replayLock = channel.tryLock(REPLAY_LOCK_POSITION, 1L, false);
+            } catch (OverlappingFileLockException e) {
+                replayLock = null;
+            }
+            return replayLock != null;
+        }
+
+        /**
+         * Release the replay lock, so that the next OpenKit instance can replay the spool file.
+         */
+        void releaseReplayLock() throws IOException {
+            if (replayLock != null) {
+                replayLock.release();
+                replayLock = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+/**
+ * Defines a callback to be notified when new data was added to the {@link BeaconCache}.
+ *
+ * <p>
+ * The callback is invoked on the thread that added the data, which is most likely an application thread.
+ * Implementors must therefore return as fast as possible and must not block.
+ * </p>
+ */
+public interface DataAddedCallback {
+
+    /**
+     * Called after event data or action data was added to the {@link BeaconCache}.
+     */
+    void onDataAdded();
+}
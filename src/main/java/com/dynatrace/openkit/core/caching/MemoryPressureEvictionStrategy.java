@@ -0,0 +1,251 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+
+/**
+ * Memory pressure based eviction strategy for the beacon cache.
+ *
+ * <p>
+ * Each time this strategy is executed, it reads the usage of the JVM's tenured heap memory pool
+ * and compares it against the configured watermarks.
+ * Once the usage exceeds the high watermark, the cache's memory boundaries are temporarily lowered by
+ * the configured boundary factor. They are restored as soon as the usage drops below the low watermark.
+ * </p>
+ *
+ * <p>
+ * The usage after the last garbage collection is preferred over the current usage, since the latter also contains
+ * garbage. The pool's usage thresholds are never modified, since they are shared with the application
+ * and all other OpenKit instances running in the same JVM.
+ * </p>
+ *
+ * <p>
+ * Like all other strategies this one is executed by the eviction thread after records have been added to the cache.
+ * </p>
+ */
+class MemoryPressureEvictionStrategy implements BeaconCacheEvictionStrategy {
+
+    private final Logger logger;
+    private final BeaconCache beaconCache;
+    private final BeaconCacheConfiguration configuration;
+    private final MemoryPoolMXBean tenuredPool;
+
+    private boolean memoryPressure = false;
+    private boolean infoShown = false;
+
+    /**
+     * Constructor, using the platform's tenured memory pool.
+     *
+     * @param logger Instance implementing the {@link Logger} interface for writing some useful debug messages.
+     * @param beaconCache The beacon cache to evict if necessary.
+     * @param configuration The configuration providing the boundary settings and watermarks for this strategy.
+     */
+    MemoryPressureEvictionStrategy(Logger logger, BeaconCache beaconCache, BeaconCacheConfiguration configuration) {
+        this(logger, beaconCache, configuration, findTenuredPool(ManagementFactory.getMemoryPoolMXBeans()));
+    }
+
+    /**
+     * Internal testing constructor.
+     *
+     * @param logger Instance implementing the {@link Logger} interface for writing some useful debug messages.
+     * @param beaconCache The beacon cache to evict if necessary.
+     * @param configuration The configuration providing the boundary settings and watermarks for this strategy.
+     * @param tenuredPool The memory pool to monitor or {@code null} if there is no suitable pool.
+     */
+    MemoryPressureEvictionStrategy(Logger logger,
+                                   BeaconCache beaconCache,
+                                   BeaconCacheConfiguration configuration,
+                                   MemoryPoolMXBean tenuredPool) {
+        this.logger = logger;
+        this.beaconCache = beaconCache;
+        this.configuration = configuration;
+        this.tenuredPool = tenuredPool;
+    }
+
+    /**
+     * Find the heap memory pool, which supports both usage threshold and collection usage threshold.
+     *
+     * <p>
+     * With all garbage collectors shipped with the JDK this is the tenured (old generation) pool.
+     * </p>
+     *
+     * @param memoryPools All memory pools of the JVM.
+     *
+     * @return The tenured pool or {@code null} if no suitable pool exists.
+     */
+    static MemoryPoolMXBean findTenuredPool(List<MemoryPoolMXBean> memoryPools) {
+        for (MemoryPoolMXBean memoryPool : memoryPools) {
+            if (memoryPool.getType() == MemoryType.HEAP
+                && memoryPool.isUsageThresholdSupported()
+                && memoryPool.isCollectionUsageThresholdSupported()) {
+                return memoryPool;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void execute() {
+
+        if (isStrategyDisabled()) {
+            // immediately return if this strategy is disabled
+            if (!infoShown && logger.isInfoEnabled()) {
+                logger.info(getClass().getSimpleName() + " execute() - strategy is disabled");
+                // suppress any further log output
+                infoShown = true;
+            }
+            return;
+        }
+
+        updateMemoryPressure();
+
+        if (memoryPressure && shouldRun()) {
+            doExecute();
+        }
+    }
+
+    /**
+     * Checks if the strategy is disabled.
+     *
+     * <p>
+     * The strategy is disabled on purpose, if the high watermark is less than or equal to 0,
+     * or accidentally, if the watermarks are not in range (0, 1] or the low watermark exceeds the high watermark,
+     * or if the boundary factor is not in range [0, 1].
+     * It is also disabled if the JVM does not provide a suitable memory pool or the cache boundaries are disabled.
+     * </p>
+     *
+     * @return {@code true} if strategy is disabled, {@code false} otherwise.
+     */
+    boolean isStrategyDisabled() {
+        double highWatermark = configuration.getMemoryPressureHighWatermark();
+        double lowWatermark = configuration.getMemoryPressureLowWatermark();
+        double boundaryFactor = configuration.getMemoryPressureBoundaryFactor();
+
+        return highWatermark <= 0.0
+            || highWatermark > 1.0
+            || lowWatermark <= 0.0
+            || lowWatermark > highWatermark
+            || boundaryFactor < 0.0
+            || boundaryFactor > 1.0
+            || tenuredPool == null
+            || getMaxPoolSize() <= 0
+            || configuration.getCacheSizeLowerBound() <= 0
+            || configuration.getCacheSizeUpperBound() < configuration.getCacheSizeLowerBound();
+    }
+
+    /**
+     * Get a flag indicating whether the JVM is currently considered being under memory pressure.
+     */
+    boolean isUnderMemoryPressure() {
+        return memoryPressure;
+    }
+
+    /**
+     * Get the upper memory boundary applied while under memory pressure.
+     */
+    long getEffectiveUpperBound() {
+        return (long) (configuration.getCacheSizeUpperBound() * configuration.getMemoryPressureBoundaryFactor());
+    }
+
+    /**
+     * Get the lower memory boundary applied while under memory pressure.
+     */
+    long getEffectiveLowerBound() {
+        return (long) (configuration.getCacheSizeLowerBound() * configuration.getMemoryPressureBoundaryFactor());
+    }
+
+    /**
+     * Checks if the strategy should run.
+     *
+     * @return {@code true} if the number of cached bytes exceeds the lowered upper boundary, {@code false} otherwise.
+     */
+    boolean shouldRun() {
+        return beaconCache.getNumBytesInCache() > getEffectiveUpperBound();
+    }
+
+    /**
+     * Compare the tenured pool's usage against the watermarks and update the memory pressure flag accordingly.
+     */
+    private void updateMemoryPressure() {
+        long used = getUsedPoolSize();
+        long maxPoolSize = getMaxPoolSize();
+
+        if (!memoryPressure && used > maxPoolSize * configuration.getMemoryPressureHighWatermark()) {
+            memoryPressure = true;
+            if (logger.isDebugEnabled()) {
+                logger.debug(getClass().getSimpleName() + " execute() - memory pool " + tenuredPool.getName()
+                    + " uses " + used + " bytes, lowering boundaries");
+            }
+        } else if (memoryPressure && used < maxPoolSize * configuration.getMemoryPressureLowWatermark()) {
+            memoryPressure = false;
+            if (logger.isDebugEnabled()) {
+                logger.debug(getClass().getSimpleName() + " execute() - memory pressure is relieved, restoring boundaries");
+            }
+        }
+    }
+
+    private long getUsedPoolSize() {
+        // prefer the usage after the last collection, since the current usage also contains garbage
+        MemoryUsage usage = tenuredPool.getCollectionUsage();
+        if (usage == null) {
+            usage = tenuredPool.getUsage();
+        }
+
+        return usage.getUsed();
+    }
+
+    private long getMaxPoolSize() {
+        return tenuredPool.getUsage().getMax();
+    }
+
+    /**
+     * Evicts the globally oldest records, until the lowered lower boundary is reached.
+     */
+    private void doExecute() {
+
+        int numRecordsRemoved = 0;
+        long lowerBound = getEffectiveLowerBound();
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+            long numBytesToEvict = beaconCache.getNumBytesInCache() - lowerBound;
+            if (numBytesToEvict <= 0) {
+                break;
+            }
+
+            int numRecordsRemovedInPass = beaconCache.evictOldestRecords(numBytesToEvict, 0);
+            if (numRecordsRemovedInPass == 0) {
+                // nothing left to evict
+                break;
+            }
+            numRecordsRemoved += numRecordsRemovedInPass;
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName() + " doExecute() - Removed " + numRecordsRemoved + " records");
+        }
+    }
+}
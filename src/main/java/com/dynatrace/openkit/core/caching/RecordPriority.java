@@ -0,0 +1,56 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+/**
+ * Priority class of a {@link BeaconCacheRecord}.
+ *
+ * <p>
+ * When records need to be evicted because the cache exceeds its memory boundaries, records of a lower priority
+ * class are evicted before records of a higher priority class. Within the same priority class the oldest records
+ * are evicted first.
+ * </p>
+ *
+ * <p>
+ * The priorities are declared in ascending order.
+ * </p>
+ */
+public enum RecordPriority {
+    /**
+     * Named events and reported values.
+     */
+    LOW,
+    /**
+     * Actions, web requests and session related events.
+     */
+    NORMAL,
+    /**
+     * Reported errors.
+     */
+    HIGH,
+    /**
+     * Reported crashes.
+     */
+    CRITICAL;
+
+    /**
+     * Priority used for records, if no priority is given explicitly.
+     */
+    public static RecordPriority defaultValue() {
+        return NORMAL;
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.dynatrace.openkit.core.caching;
 
+import com.dynatrace.openkit.SpaceEvictionMode;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 
@@ -108,11 +109,71 @@ class SpaceEvictionStrategy implements BeaconCacheEvictionStrategy {
      */
     private void doExecute() {
 
+        if (configuration.getSpaceEvictionMode() == SpaceEvictionMode.OLDEST_FIRST) {
+            evictOldestFirst();
+        } else {
+            evictRoundRobin();
+        }
+    }
+
+    /**
+     * Evicts the bytes exceeding the lower bound at once, starting with the globally oldest records.
+     *
+     * <p>
+     * The configured number of records per beacon is kept, unless evicting all other records is not sufficient.
+     * </p>
+     */
+    private void evictOldestFirst() {
+
+        int numRecordsRemoved = 0;
+        int minRecordsPerBeacon = configuration.getMinRecordsPerBeacon();
+
+        while (!Thread.currentThread().isInterrupted()) {
+
+            long numBytesToEvict = beaconCache.getNumBytesInCache() - configuration.getCacheSizeLowerBound();
+            if (numBytesToEvict <= 0) {
+                break;
+            }
+
+            int numRecordsRemovedInPass = beaconCache.evictOldestRecords(numBytesToEvict, minRecordsPerBeacon);
+            numRecordsRemoved += numRecordsRemovedInPass;
+            if (numRecordsRemovedInPass == 0) {
+                if (minRecordsPerBeacon == 0) {
+                    // nothing left to evict
+                    break;
+                }
+                // evicting records exceeding the fairness floor was not sufficient
+                minRecordsPerBeacon = 0;
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName() + " doExecute()  - Removed " + numRecordsRemoved + " records");
+        }
+    }
+
+    /**
+     * Evicts one record per beacon in each pass, until the lower bound is reached.
+     *
+     * <p>
+     * Only records of the lowest priority class are evicted in a pass. The next higher priority class is taken into
+     * account after a pass did not evict any record, which means no beacon has records of the lower classes any more.
+     * This way a beacon only holding crashes and errors does not lose any record, as long as another beacon
+     * still holds events or values.
+     * </p>
+     */
+    private void evictRoundRobin() {
+
         Map<BeaconKey, Integer> removedRecordsPerBeacon = new HashMap<BeaconKey, Integer>();
+        RecordPriority[] priorities = RecordPriority.values();
+        int priorityIndex = 0;
 
         while (!Thread.currentThread().isInterrupted()
             && beaconCache.getNumBytesInCache() > configuration.getCacheSizeLowerBound()) {
 
+            RecordPriority maxPriority = priorities[priorityIndex];
+            int numRecordsRemovedInPass = 0;
+
             Set<BeaconKey> beaconKeys = beaconCache.getBeaconKeys();
 
             Iterator<BeaconKey> iterator = beaconKeys.iterator();
@@ -124,7 +185,8 @@ class SpaceEvictionStrategy implements BeaconCacheEvictionStrategy {
 
                 // remove 1 record from Beacon cache for given beaconKey
                 // the result is the number of records removed, which might be in range [0, numRecords=1]
-                int numRecordsRemoved = beaconCache.evictRecordsByNumber(beaconKey, 1);
+                int numRecordsRemoved = beaconCache.evictRecordsByNumber(beaconKey, 1, maxPriority);
+                numRecordsRemovedInPass += numRecordsRemoved;
 
                 if (logger.isDebugEnabled()) {
                     if (!removedRecordsPerBeacon.containsKey(beaconKey)) {
@@ -134,6 +196,15 @@ class SpaceEvictionStrategy implements BeaconCacheEvictionStrategy {
                     }
                 }
             }
+
+            if (numRecordsRemovedInPass == 0) {
+                if (priorityIndex == priorities.length - 1) {
+                    // nothing left to evict
+                    break;
+                }
+                // no beacon has records of this priority class any more
+                priorityIndex++;
+            }
         }
 
         if (logger.isDebugEnabled()) {
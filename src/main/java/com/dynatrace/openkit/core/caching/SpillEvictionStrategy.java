@@ -0,0 +1,116 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
+import com.dynatrace.openkit.providers.TimingProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy moving the records of cold beacons from the heap to the spill file of a {@link TieredBeaconCache}.
+ *
+ * <p>
+ * A beacon is spilled, if it did not get a new record for {@link BeaconCacheConfiguration#getSpillIdleTime()}
+ * or if it stores more than {@link BeaconCacheConfiguration#getSpillSessionQuota()} bytes on the heap.
+ * Beacons are checked at most once per {@link #SPILL_CHECK_INTERVAL_IN_MILLIS}.
+ * </p>
+ *
+ * <p>
+ * Additionally, if the cache exceeds its upper memory boundary, the least recently used beacons are spilled
+ * until the lower memory boundary is reached. This strategy must therefore run before the {@link SpaceEvictionStrategy},
+ * so that records are only deleted, if the spill file is full.
+ * </p>
+ */
+class SpillEvictionStrategy implements BeaconCacheEvictionStrategy {
+
+    /**
+     * Minimum interval between two checks for cold beacons.
+     */
+    static final long SPILL_CHECK_INTERVAL_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private final Logger logger;
+    private final TieredBeaconCache beaconCache;
+    private final BeaconCacheConfiguration configuration;
+    private final TimingProvider timingProvider;
+
+    private long lastRunTimestamp = -1;
+
+    /**
+     * Constructor.
+     *
+     * @param logger Instance implementing the {@link Logger} interface for writing some useful debug messages.
+     * @param beaconCache The tiered beacon cache whose beacons are spilled.
+     * @param configuration The configuration providing the spill settings for this strategy.
+     * @param timingProvider Timing provider required for time retrieval.
+     */
+    SpillEvictionStrategy(Logger logger, TieredBeaconCache beaconCache, BeaconCacheConfiguration configuration, TimingProvider timingProvider) {
+        this.logger = logger;
+        this.beaconCache = beaconCache;
+        this.configuration = configuration;
+        this.timingProvider = timingProvider;
+    }
+
+    @Override
+    public void execute() {
+
+        long currentTimestamp = timingProvider.provideTimestampInMilliseconds();
+        boolean upperBoundaryExceeded = isUpperBoundaryExceeded();
+        if (!upperBoundaryExceeded && lastRunTimestamp >= 0
+            && currentTimestamp - lastRunTimestamp < SPILL_CHECK_INTERVAL_IN_MILLIS) {
+            return;
+        }
+        lastRunTimestamp = currentTimestamp;
+
+        long minNewestRecordTimestamp = configuration.getSpillIdleTime() > 0
+            ? currentTimestamp - configuration.getSpillIdleTime()
+            : Long.MIN_VALUE;
+        long maxBytesPerBeacon = configuration.getSpillSessionQuota() > 0
+            ? configuration.getSpillSessionQuota()
+            : Long.MAX_VALUE;
+        int numBeaconsSpilled = beaconCache.spillColdBeacons(minNewestRecordTimestamp, maxBytesPerBeacon);
+
+        long numBytesToSpill = beaconCache.getNumBytesInCache() - configuration.getCacheSizeLowerBound();
+        if (upperBoundaryExceeded && numBytesToSpill > 0) {
+            numBeaconsSpilled += beaconCache.spillLeastRecentlyUsedBeacons(numBytesToSpill);
+        }
+
+        if (numBeaconsSpilled > 0 && logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName() + " execute() - Spilled " + numBeaconsSpilled + " beacons");
+        }
+    }
+
+    /**
+     * Checks if the number of bytes stored on the heap exceeds the upper memory boundary.
+     *
+     * <p>
+     * If the space based eviction is disabled, the boundary is never exceeded.
+     * </p>
+     */
+    private boolean isUpperBoundaryExceeded() {
+        return configuration.getCacheSizeLowerBound() > 0
+            && configuration.getCacheSizeUpperBound() >= configuration.getCacheSizeLowerBound()
+            && beaconCache.getNumBytesInCache() > configuration.getCacheSizeUpperBound();
+    }
+
+    /**
+     * Get the timestamp when this strategy checked for cold beacons last.
+     */
+    long getLastRunTimestamp() {
+        return lastRunTimestamp;
+    }
+}
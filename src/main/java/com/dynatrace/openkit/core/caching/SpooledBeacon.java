@@ -0,0 +1,187 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Beacon data, which could not be sent before OpenKit was shut down and which is replayed after a restart.
+ *
+ * <p>
+ * A spooled beacon consists of the beacon's prefix, which does not change over the session's lifetime,
+ * the data required to append the transmission related prefix data and the chunks, which were not sent so far.
+ * Each chunk starts with the delimiter, so that it only needs to be appended to the prefix.
+ * </p>
+ */
+public class SpooledBeacon {
+
+    private final BeaconKey beaconKey;
+    private final String clientIPAddress;
+    private final String beaconPrefix;
+    private final long sessionStartTime;
+    private final int multiplicity;
+    private final List<byte[]> chunks;
+
+    // time at which this beacon was spooled
+    private long spoolTime = 0L;
+    // offset of the frame storing this beacon in the spool file
+    private long frameOffset = -1L;
+    // number of chunks removed since this beacon was stored in the spool file
+    private int numRemovedChunks = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param beaconKey        The key of the spooled beacon.
+     * @param clientIPAddress  The client IP address used when sending the beacon.
+     * @param beaconPrefix     The immutable prefix of the beacon.
+     * @param sessionStartTime The start time of the beacon's session.
+     * @param multiplicity     The multiplicity of the beacon's session.
+     * @param chunks           The chunks, which were not sent so far.
+     */
+    public SpooledBeacon(BeaconKey beaconKey,
+                         String clientIPAddress,
+                         String beaconPrefix,
+                         long sessionStartTime,
+                         int multiplicity,
+                         List<byte[]> chunks) {
+        this.beaconKey = beaconKey;
+        this.clientIPAddress = clientIPAddress;
+        this.beaconPrefix = beaconPrefix;
+        this.sessionStartTime = sessionStartTime;
+        this.multiplicity = multiplicity;
+        this.chunks = new ArrayList<byte[]>(chunks);
+    }
+
+    /**
+     * Get the key of the spooled beacon.
+     */
+    public BeaconKey getBeaconKey() {
+        return beaconKey;
+    }
+
+    /**
+     * Get the client IP address used when sending the beacon.
+     */
+    public String getClientIPAddress() {
+        return clientIPAddress;
+    }
+
+    /**
+     * Get the immutable prefix of the beacon.
+     */
+    public String getBeaconPrefix() {
+        return beaconPrefix;
+    }
+
+    /**
+     * Get the start time of the beacon's session.
+     */
+    public long getSessionStartTime() {
+        return sessionStartTime;
+    }
+
+    /**
+     * Get the multiplicity of the beacon's session.
+     */
+    public int getMultiplicity() {
+        return multiplicity;
+    }
+
+    /**
+     * Get the chunks, which were not sent so far.
+     */
+    public List<byte[]> getChunks() {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * Get the next chunk to send, prefixed with the given chunk prefix.
+     *
+     * @param chunkPrefix The prefix to add to the chunk.
+     *
+     * @return The encoded bytes to send or {@code null} if there are no more chunks.
+     */
+    public byte[] getNextChunk(String chunkPrefix) {
+        if (chunks.isEmpty()) {
+            return null;
+        }
+
+        byte[] encodedPrefix = BeaconCacheRecord.encode(chunkPrefix);
+        byte[] data = chunks.get(0);
+
+        byte[] chunk = new byte[encodedPrefix.length + data.length];
+        System.arraycopy(encodedPrefix, 0, chunk, 0, encodedPrefix.length);
+        System.arraycopy(data, 0, chunk, encodedPrefix.length, data.length);
+
+        return chunk;
+    }
+
+    /**
+     * Remove the chunk previously retrieved with {@link #getNextChunk(String)}, after it was sent.
+     */
+    void removeNextChunk() {
+        if (!chunks.isEmpty()) {
+            chunks.remove(0);
+            numRemovedChunks++;
+        }
+    }
+
+    /**
+     * Get the time in milliseconds at which this beacon was spooled.
+     */
+    long getSpoolTime() {
+        return spoolTime;
+    }
+
+    /**
+     * Set the time in milliseconds at which this beacon was spooled.
+     */
+    void setSpoolTime(long spoolTime) {
+        this.spoolTime = spoolTime;
+    }
+
+    /**
+     * Get the offset of the frame storing this beacon in the spool file or {@code -1} if it's not stored.
+     */
+    long getFrameOffset() {
+        return frameOffset;
+    }
+
+    /**
+     * Set the offset of the frame storing this beacon with all its current chunks in the spool file.
+     */
+    void setFrameOffset(long frameOffset) {
+        this.frameOffset = frameOffset;
+        numRemovedChunks = 0;
+    }
+
+    /**
+     * Get the number of chunks removed since this beacon was stored in the spool file.
+     */
+    int getNumRemovedChunks() {
+        return numRemovedChunks;
+    }
+
+    /**
+     * Test if all chunks were sent.
+     */
+    boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+}
@@ -0,0 +1,671 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BeaconCache} keeping the records of recently used beacons on the heap and spilling the records
+ * of cold beacons to a memory mapped {@link BeaconCacheSpillFile}.
+ *
+ * <p>
+ * All records are added to an in-memory {@link BeaconCacheImpl}. The {@link SpillEvictionStrategy} regularly moves
+ * the records of beacons, which did not get any new record for a while or which exceed a memory quota,
+ * to the spill file. When a beacon is about to be sent, its spilled records are read back transparently,
+ * before the first chunk is created.
+ * </p>
+ *
+ * <p>
+ * {@link #getNumBytesInCache()} only reports the records kept on the heap, therefore the space based eviction
+ * bounds the heap footprint of this cache, while the spill file extends the number of records which can be cached.
+ * If the spill file is full, records are kept on the heap and are subject to the space based eviction.
+ * Spilled records are not evicted by {@link #evictOldestRecords(long, int)}, therefore the spill file is only bounded
+ * by its own capacity. Spilled records are removed when they are sent, by the time based eviction, or when the beacon
+ * is deleted.
+ * </p>
+ *
+ * <p>
+ * Like the in-memory cache, spilled beacons are registered in a {@link BeaconCacheTimeIndex} by the timestamp of their
+ * oldest spilled record, so that the time based eviction does not need to visit all spilled beacons.
+ * </p>
+ *
+ * <p>
+ * The spilled segments of a beacon are guarded by a per beacon monitor, which is always acquired before
+ * the lock of the {@link BeaconCacheEntry}.
+ * </p>
+ */
+public class TieredBeaconCache implements BeaconCache, Closeable {
+
+    private final Logger logger;
+    private final BeaconCacheImpl hotCache;
+    private final BeaconCacheSpillFile spillFile;
+    private final ConcurrentMap<BeaconKey, SpilledBeacon> spilledBeacons;
+    private final BeaconCacheTimeIndex spilledTimeIndex;
+    private final AtomicLong numBytesSpilled;
+
+    /**
+     * Create a tiered cache, whose spill file is created in the configured directory.
+     *
+     * @param logger        Logger to write some debug output
+     * @param configuration Beacon cache configuration providing the spill file's directory and size
+     *
+     * @throws IOException If the spill file cannot be created.
+     */
+    public TieredBeaconCache(Logger logger, BeaconCacheConfiguration configuration) throws IOException {
+        this(logger, new BeaconCacheImpl(logger), BeaconCacheSpillFile.create(configuration.getSpillDirectory(),
+            (int) Math.min(Integer.MAX_VALUE, configuration.getSpillFileSize())));
+    }
+
+    /**
+     * Internal testing constructor.
+     *
+     * @param logger    Logger to write some debug output
+     * @param hotCache  The cache storing records on the heap
+     * @param spillFile The file to which records of cold beacons are spilled
+     */
+    TieredBeaconCache(Logger logger, BeaconCacheImpl hotCache, BeaconCacheSpillFile spillFile) {
+        this.logger = logger;
+        this.hotCache = hotCache;
+        this.spillFile = spillFile;
+        spilledBeacons = new ConcurrentHashMap<BeaconKey, SpilledBeacon>();
+        spilledTimeIndex = new BeaconCacheTimeIndex(BeaconCacheTimeIndex.DEFAULT_BUCKET_WIDTH_IN_MILLIS);
+        numBytesSpilled = new AtomicLong(0L);
+    }
+
+    @Override
+    public void addDataAddedCallback(DataAddedCallback callback) {
+        hotCache.addDataAddedCallback(callback);
+    }
+
+    @Override
+    public void addEventData(BeaconKey key, long timestamp, String data) {
+        hotCache.addEventData(key, timestamp, data);
+    }
+
+    @Override
+    public void addEventData(BeaconKey key, long timestamp, String data, RecordPriority priority) {
+        hotCache.addEventData(key, timestamp, data, priority);
+    }
+
+    @Override
+    public void addEventData(BeaconKey key, long timestamp, List<String> data, RecordPriority priority) {
+        hotCache.addEventData(key, timestamp, data, priority);
+    }
+
+    @Override
+    public void addActionData(BeaconKey key, long timestamp, String data) {
+        hotCache.addActionData(key, timestamp, data);
+    }
+
+    @Override
+    public void addActionData(BeaconKey key, long timestamp, String data, RecordPriority priority) {
+        hotCache.addActionData(key, timestamp, data, priority);
+    }
+
+    @Override
+    public void deleteCacheEntry(BeaconKey key) {
+        hotCache.deleteCacheEntry(key);
+
+        SpilledBeacon spilledBeacon = spilledBeacons.remove(key);
+        if (spilledBeacon == null) {
+            return;
+        }
+        synchronized (spilledBeacon) {
+            spilledBeacon.removed = true;
+            releaseSegments(spilledBeacon);
+            updateSpilledTimeIndex(key, spilledBeacon);
+        }
+    }
+
+    @Override
+    public byte[] getNextBeaconChunk(BeaconKey key, CharSequence chunkPrefix, int maxSize, char delimiter) {
+
+        SpilledBeacon spilledBeacon = spilledBeacons.get(key);
+        if (spilledBeacon == null) {
+            return hotCache.getNextBeaconChunk(key, chunkPrefix, maxSize, delimiter);
+        }
+
+        // the monitor is held until the data has been copied for chunking, so that restored records are not spilled again
+        synchronized (spilledBeacon) {
+            if (!spilledBeacon.segments.isEmpty() && needsDataCopyBeforeChunking(key)) {
+                restoreSpilledRecords(key, spilledBeacon);
+            }
+            return hotCache.getNextBeaconChunk(key, chunkPrefix, maxSize, delimiter);
+        }
+    }
+
+    private boolean needsDataCopyBeforeChunking(BeaconKey key) {
+        BeaconCacheEntry entry = hotCache.getCachedEntry(key);
+        return entry != null && entry.needsDataCopyBeforeChunking();
+    }
+
+    /**
+     * Move all spilled records of the given beacon back to the heap.
+     *
+     * <p>
+     * This method must be called while holding the monitor of {@code spilledBeacon}.
+     * </p>
+     */
+    private void restoreSpilledRecords(BeaconKey key, SpilledBeacon spilledBeacon) {
+        hotCache.restoreRecords(key, spillFile, spilledBeacon.segments);
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName()
+                + " restoreSpilledRecords(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
+                + ") has restored " + getNumRecords(spilledBeacon) + " records");
+        }
+        releaseSegments(spilledBeacon);
+        updateSpilledTimeIndex(key, spilledBeacon);
+        removeIfEmpty(key, spilledBeacon);
+    }
+
+    @Override
+    public void removeChunkedData(BeaconKey key) {
+        hotCache.removeChunkedData(key);
+    }
+
+    @Override
+    public void resetChunkedData(BeaconKey key) {
+        hotCache.resetChunkedData(key);
+    }
+
+    @Override
+    public Set<BeaconKey> getBeaconKeys() {
+        Set<BeaconKey> beaconKeys = hotCache.getBeaconKeys();
+        beaconKeys.addAll(spilledBeacons.keySet());
+        return beaconKeys;
+    }
+
+    @Override
+    public Set<BeaconKey> pollBeaconKeysWithRecordsOlderThan(long minTimestamp) {
+        Set<BeaconKey> beaconKeys = hotCache.pollBeaconKeysWithRecordsOlderThan(minTimestamp);
+        beaconKeys.addAll(spilledTimeIndex.pollKeysOlderThan(minTimestamp));
+        return beaconKeys;
+    }
+
+    @Override
+    public void reindexBeacons(Collection<BeaconKey> keys) {
+        hotCache.reindexBeacons(keys);
+
+        for (BeaconKey key : keys) {
+            SpilledBeacon spilledBeacon = spilledBeacons.get(key);
+            if (spilledBeacon == null) {
+                continue;
+            }
+            synchronized (spilledBeacon) {
+                // the beacon's bucket might have been dropped by pollBeaconKeysWithRecordsOlderThan, therefore register again
+                moveInSpilledTimeIndex(key, spilledBeacon, getTimeBucket(spilledBeacon));
+            }
+        }
+    }
+
+    @Override
+    public int evictRecordsByAge(BeaconKey key, long minTimestamp) {
+        return hotCache.evictRecordsByAge(key, minTimestamp) + evictSpilledRecordsByAge(key, minTimestamp);
+    }
+
+    /**
+     * Evict spilled records of the given beacon, which are older than {@code minTimestamp}.
+     *
+     * <p>
+     * Segments whose records are all expired are released. Segments containing expired and valid records
+     * are rewritten without the expired records. If such a segment can't be read, it is kept as it is.
+     * </p>
+     */
+    private int evictSpilledRecordsByAge(BeaconKey key, long minTimestamp) {
+
+        SpilledBeacon spilledBeacon = spilledBeacons.get(key);
+        if (spilledBeacon == null) {
+            return 0;
+        }
+
+        int numRecordsRemoved = 0;
+        synchronized (spilledBeacon) {
+            ListIterator<BeaconCacheSpillFile.Segment> iterator = spilledBeacon.segments.listIterator();
+            while (iterator.hasNext()) {
+                BeaconCacheSpillFile.Segment segment = iterator.next();
+                if (segment.getMinTimestamp() >= minTimestamp) {
+                    continue;
+                }
+
+                BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+                BeaconCacheRecordBuffer actionData = new BeaconCacheRecordBuffer();
+                if (segment.getMaxTimestamp() >= minTimestamp) {
+                    if (!spillFile.read(segment, eventData, actionData)) {
+                        // don't release the valid records of a segment, which could not be read
+                        continue;
+                    }
+                    eventData.removeOlderThan(minTimestamp);
+                    actionData.removeOlderThan(minTimestamp);
+                }
+
+                iterator.remove();
+                release(segment);
+                numRecordsRemoved += segment.getNumRecords();
+
+                // the released segment is larger than the rewritten one, therefore there is enough space
+                BeaconCacheSpillFile.Segment rewrittenSegment = append(eventData, actionData);
+                if (rewrittenSegment != null) {
+                    iterator.add(rewrittenSegment);
+                    numRecordsRemoved -= rewrittenSegment.getNumRecords();
+                }
+            }
+            // the beacon's bucket might have been dropped by pollBeaconKeysWithRecordsOlderThan, therefore register again
+            moveInSpilledTimeIndex(key, spilledBeacon, getTimeBucket(spilledBeacon));
+            removeIfEmpty(key, spilledBeacon);
+        }
+
+        if (numRecordsRemoved > 0 && logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName()
+                + " evictSpilledRecordsByAge(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
+                + ", minTimestamp=" + minTimestamp + ") has evicted " + numRecordsRemoved + " records");
+        }
+        return numRecordsRemoved;
+    }
+
+    @Override
+    public int evictRecordsByNumber(BeaconKey key, int numRecords) {
+        return hotCache.evictRecordsByNumber(key, numRecords);
+    }
+
+    @Override
+    public int evictRecordsByNumber(BeaconKey key, int numRecords, RecordPriority maxPriority) {
+        return hotCache.evictRecordsByNumber(key, numRecords, maxPriority);
+    }
+
+    @Override
+    public int evictOldestRecords(long numBytes, int minRecordsPerBeacon) {
+        return hotCache.evictOldestRecords(numBytes, minRecordsPerBeacon);
+    }
+
+    /**
+     * Get number of bytes currently stored on the heap.
+     *
+     * <p>
+     * Spilled records are not taken into account, see {@link #getNumBytesSpilled()}.
+     * </p>
+     *
+     * @return Number of bytes currently stored on the heap.
+     */
+    @Override
+    public long getNumBytesInCache() {
+        return hotCache.getNumBytesInCache();
+    }
+
+    /**
+     * Get number of data bytes currently stored in the spill file.
+     *
+     * @return Number of bytes spilled.
+     */
+    public long getNumBytesSpilled() {
+        return numBytesSpilled.get();
+    }
+
+    @Override
+    public boolean isEmpty(BeaconKey key) {
+        if (!hotCache.isEmpty(key)) {
+            return false;
+        }
+
+        SpilledBeacon spilledBeacon = spilledBeacons.get(key);
+        if (spilledBeacon == null) {
+            return true;
+        }
+        synchronized (spilledBeacon) {
+            return spilledBeacon.segments.isEmpty();
+        }
+    }
+
+    /**
+     * Spill the records of all beacons, which did not get a new record since {@code minNewestRecordTimestamp}
+     * or which exceed {@code maxBytesPerBeacon}.
+     *
+     * @param minNewestRecordTimestamp Beacons whose newest record is older than this timestamp are spilled.
+     * @param maxBytesPerBeacon        Beacons storing more bytes on the heap are spilled.
+     *
+     * @return The number of spilled beacons.
+     */
+    int spillColdBeacons(long minNewestRecordTimestamp, long maxBytesPerBeacon) {
+
+        int numBeaconsSpilled = 0;
+        for (SpillCandidate candidate : getSpillCandidates()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (candidate.newestRecordTimestamp < minNewestRecordTimestamp || candidate.numBytes > maxBytesPerBeacon) {
+                if (spill(candidate.key)) {
+                    numBeaconsSpilled++;
+                }
+            }
+        }
+
+        return numBeaconsSpilled;
+    }
+
+    /**
+     * Spill the records of the least recently used beacons, until at least {@code numBytes} have been spilled.
+     *
+     * <p>
+     * Beacons are ordered by the timestamp of their newest record.
+     * </p>
+     *
+     * @param numBytes The number of bytes to move from the heap to the spill file.
+     *
+     * @return The number of spilled beacons.
+     */
+    int spillLeastRecentlyUsedBeacons(long numBytes) {
+
+        List<SpillCandidate> candidates = getSpillCandidates();
+        Collections.sort(candidates, new Comparator<SpillCandidate>() {
+            @Override
+            public int compare(SpillCandidate lhs, SpillCandidate rhs) {
+                return lhs.newestRecordTimestamp < rhs.newestRecordTimestamp ? -1
+                    : (lhs.newestRecordTimestamp == rhs.newestRecordTimestamp ? 0 : 1);
+            }
+        });
+
+        int numBeaconsSpilled = 0;
+        long numBytesBefore = hotCache.getNumBytesInCache();
+        for (SpillCandidate candidate : candidates) {
+            if (numBytesBefore - hotCache.getNumBytesInCache() >= numBytes || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (spill(candidate.key)) {
+                numBeaconsSpilled++;
+            }
+        }
+
+        return numBeaconsSpilled;
+    }
+
+    /**
+     * Get a snapshot of all beacons storing records on the heap.
+     */
+    private List<SpillCandidate> getSpillCandidates() {
+
+        Set<BeaconKey> beaconKeys = hotCache.getBeaconKeys();
+        List<SpillCandidate> candidates = new ArrayList<SpillCandidate>(beaconKeys.size());
+        for (BeaconKey key : beaconKeys) {
+            BeaconCacheEntry entry = hotCache.getCachedEntry(key);
+            if (entry == null) {
+                continue;
+            }
+
+            long newestRecordTimestamp;
+            long numBytes;
+            try {
+                entry.lock();
+                newestRecordTimestamp = entry.getNewestRecordTimestamp();
+                numBytes = entry.getTotalNumberOfBytes();
+            } finally {
+                entry.unlock();
+            }
+            if (numBytes > 0) {
+                candidates.add(new SpillCandidate(key, newestRecordTimestamp, numBytes));
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Move all records of the given beacon, which are stored on the heap, to the spill file.
+     *
+     * @param key The key of the beacon to spill.
+     *
+     * @return {@code true} if records have been spilled, {@code false} otherwise.
+     */
+    boolean spill(BeaconKey key) {
+
+        while (true) {
+            SpilledBeacon spilledBeacon = getOrCreateSpilledBeacon(key);
+            synchronized (spilledBeacon) {
+                if (spilledBeacon.removed) {
+                    // removed concurrently, retry with a new instance
+                    continue;
+                }
+
+                BeaconCacheSpillFile.Segment segment = hotCache.spillRecords(key, spillFile);
+                if (segment == null) {
+                    removeIfEmpty(key, spilledBeacon);
+                    return false;
+                }
+
+                spilledBeacon.segments.add(segment);
+                numBytesSpilled.addAndGet(segment.getNumDataBytes());
+                updateSpilledTimeIndex(key, spilledBeacon);
+                if (logger.isDebugEnabled()) {
+                    logger.debug(getClass().getSimpleName()
+                        + " spill(sn=" + key.beaconId + ", seq=" + key.beaconSeqNo
+                        + ") has spilled " + segment.getNumRecords() + " records");
+                }
+                return true;
+            }
+        }
+    }
+
+    private SpilledBeacon getOrCreateSpilledBeacon(BeaconKey key) {
+        SpilledBeacon spilledBeacon = spilledBeacons.get(key);
+        if (spilledBeacon == null) {
+            SpilledBeacon newSpilledBeacon = new SpilledBeacon();
+            spilledBeacon = spilledBeacons.putIfAbsent(key, newSpilledBeacon);
+            if (spilledBeacon == null) {
+                spilledBeacon = newSpilledBeacon;
+            }
+        }
+
+        return spilledBeacon;
+    }
+
+    /**
+     * Remove the given instance from the map of spilled beacons, if it does not have any segment.
+     *
+     * <p>
+     * This method must be called while holding the monitor of {@code spilledBeacon}.
+     * </p>
+     */
+    private void removeIfEmpty(BeaconKey key, SpilledBeacon spilledBeacon) {
+        if (spilledBeacon.segments.isEmpty()) {
+            spilledBeacon.removed = true;
+            spilledBeacons.remove(key, spilledBeacon);
+        }
+    }
+
+    /**
+     * Release all segments of the given beacon.
+     *
+     * <p>
+     * This method must be called while holding the monitor of {@code spilledBeacon}.
+     * </p>
+     */
+    private void releaseSegments(SpilledBeacon spilledBeacon) {
+        for (BeaconCacheSpillFile.Segment segment : spilledBeacon.segments) {
+            release(segment);
+        }
+        spilledBeacon.segments.clear();
+    }
+
+    private BeaconCacheSpillFile.Segment append(BeaconCacheRecordBuffer eventData, BeaconCacheRecordBuffer actionData) {
+        if (eventData.isEmpty() && actionData.isEmpty()) {
+            return null;
+        }
+
+        BeaconCacheSpillFile.Segment segment = spillFile.append(eventData, actionData);
+        if (segment != null) {
+            numBytesSpilled.addAndGet(segment.getNumDataBytes());
+        }
+        return segment;
+    }
+
+    private void release(BeaconCacheSpillFile.Segment segment) {
+        spillFile.release(segment);
+        numBytesSpilled.addAndGet(-1L * segment.getNumDataBytes());
+    }
+
+    /**
+     * Register the spilled beacon in the time index by the timestamp of its oldest spilled record.
+     *
+     * <p>
+     * If the beacon does not have any spilled segment, it's removed from the time index.
+     * This method must be called while holding the monitor of {@code spilledBeacon}.
+     * </p>
+     */
+    private void updateSpilledTimeIndex(BeaconKey key, SpilledBeacon spilledBeacon) {
+        long bucket = getTimeBucket(spilledBeacon);
+        if (bucket != spilledBeacon.timeBucket) {
+            moveInSpilledTimeIndex(key, spilledBeacon, bucket);
+        }
+    }
+
+    private long getTimeBucket(SpilledBeacon spilledBeacon) {
+        if (spilledBeacon.segments.isEmpty()) {
+            return BeaconCacheTimeIndex.NOT_INDEXED;
+        }
+
+        long minTimestamp = Long.MAX_VALUE;
+        for (BeaconCacheSpillFile.Segment segment : spilledBeacon.segments) {
+            minTimestamp = Math.min(minTimestamp, segment.getMinTimestamp());
+        }
+        return spilledTimeIndex.getBucket(minTimestamp);
+    }
+
+    private void moveInSpilledTimeIndex(BeaconKey key, SpilledBeacon spilledBeacon, long bucket) {
+        if (spilledBeacon.timeBucket != BeaconCacheTimeIndex.NOT_INDEXED) {
+            spilledTimeIndex.remove(key, spilledBeacon.timeBucket);
+        }
+        if (bucket != BeaconCacheTimeIndex.NOT_INDEXED) {
+            spilledTimeIndex.add(key, bucket);
+        }
+        spilledBeacon.timeBucket = bucket;
+    }
+
+    private static int getNumRecords(SpilledBeacon spilledBeacon) {
+        int numRecords = 0;
+        for (BeaconCacheSpillFile.Segment segment : spilledBeacon.segments) {
+            numRecords += segment.getNumRecords();
+        }
+        return numRecords;
+    }
+
+    /**
+     * Get the spill file of this cache.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    BeaconCacheSpillFile getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * Get the time index of the spilled beacons.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    BeaconCacheTimeIndex getSpilledTimeIndex() {
+        return spilledTimeIndex;
+    }
+
+    /**
+     * Get the in-memory cache of this cache.
+     *
+     * <p>
+     * This method shall only be used for testing purposes.
+     * </p>
+     */
+    BeaconCacheImpl getHotCache() {
+        return hotCache;
+    }
+
+    /**
+     * Close and delete the spill file.
+     *
+     * <p>
+     * All spilled records are discarded.
+     * </p>
+     */
+    @Override
+    public void close() throws IOException {
+        for (BeaconKey key : new HashSet<BeaconKey>(spilledBeacons.keySet())) {
+            SpilledBeacon spilledBeacon = spilledBeacons.remove(key);
+            if (spilledBeacon != null) {
+                synchronized (spilledBeacon) {
+                    spilledBeacon.removed = true;
+                    releaseSegments(spilledBeacon);
+                    updateSpilledTimeIndex(key, spilledBeacon);
+                }
+            }
+        }
+        spillFile.close();
+    }
+
+    /**
+     * Segments of a beacon, which have been spilled to the {@link BeaconCacheSpillFile}.
+     *
+     * <p>
+     * All fields are guarded by the instance's monitor.
+     * </p>
+     */
+    private static final class SpilledBeacon {
+
+        /**
+         * The segments in the order they were spilled.
+         */
+        private final List<BeaconCacheSpillFile.Segment> segments = new LinkedList<BeaconCacheSpillFile.Segment>();
+        /**
+         * Flag indicating whether this instance has been removed from the map of spilled beacons.
+         */
+        private boolean removed = false;
+        /**
+         * The bucket in which this beacon is registered in the time index of the spilled beacons.
+         */
+        private long timeBucket = BeaconCacheTimeIndex.NOT_INDEXED;
+    }
+
+    /**
+     * Snapshot of a beacon, which might be spilled.
+     */
+    private static final class SpillCandidate {
+
+        private final BeaconKey key;
+        private final long newestRecordTimestamp;
+        private final long numBytes;
+
+        private SpillCandidate(BeaconKey key, long newestRecordTimestamp, long numBytes) {
+            this.key = key;
+            this.newestRecordTimestamp = newestRecordTimestamp;
+            this.numBytes = numBytes;
+        }
+    }
+}
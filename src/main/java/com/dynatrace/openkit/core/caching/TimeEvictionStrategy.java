@@ -20,7 +20,9 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 import com.dynatrace.openkit.providers.TimingProvider;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -125,18 +127,18 @@ class TimeEvictionStrategy implements BeaconCacheEvictionStrategy {
      */
     private void doExecute() {
 
-        // first get a snapshot of all inserted beacons
-        Set<BeaconKey> beaconKeys = beaconCache.getBeaconKeys();
+        // retrieve the timestamp when we start with execution
+        long currentTimestamp = timingProvider.provideTimestampInMilliseconds();
+        long smallestAllowedBeaconTimestamp = currentTimestamp - configuration.getMaxRecordAge();
+
+        // get a snapshot of all beacons having expired records
+        Set<BeaconKey> beaconKeys = beaconCache.pollBeaconKeysWithRecordsOlderThan(smallestAllowedBeaconTimestamp);
         if (beaconKeys.isEmpty()) {
             // no beacons - set last run timestamp and return immediately
-            setLastRunTimestamp(timingProvider.provideTimestampInMilliseconds());
+            setLastRunTimestamp(currentTimestamp);
             return;
         }
 
-        // retrieve the timestamp when we start with execution
-        long currentTimestamp = timingProvider.provideTimestampInMilliseconds();
-        long smallestAllowedBeaconTimestamp = currentTimestamp - configuration.getMaxRecordAge();
-
         // iterate over the previously obtained set and evict for each beacon
         Iterator<BeaconKey> beaconKeyIterator = beaconKeys.iterator();
         while (!Thread.currentThread().isInterrupted() && beaconKeyIterator.hasNext()) {
@@ -147,6 +149,15 @@ class TimeEvictionStrategy implements BeaconCacheEvictionStrategy {
             }
         }
 
+        if (beaconKeyIterator.hasNext()) {
+            // interrupted - the time buckets of the remaining beacons were dropped, therefore register them again
+            List<BeaconKey> remainingBeaconKeys = new ArrayList<BeaconKey>();
+            while (beaconKeyIterator.hasNext()) {
+                remainingBeaconKeys.add(beaconKeyIterator.next());
+            }
+            beaconCache.reindexBeacons(remainingBeaconKeys);
+        }
+
         // last but not least update the last runtime
         setLastRunTimestamp(currentTimestamp);
     }
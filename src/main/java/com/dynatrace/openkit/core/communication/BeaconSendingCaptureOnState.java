@@ -16,11 +16,15 @@
 
 package com.dynatrace.openkit.core.communication;
 
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.caching.SpooledBeacon;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
 import com.dynatrace.openkit.core.objects.SessionImpl;
+import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.protocol.ResponseAttributes;
 import com.dynatrace.openkit.protocol.StatusResponse;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,6 +40,17 @@ import java.util.List;
  */
 class BeaconSendingCaptureOnState extends AbstractBeaconSendingState {
 
+    /**
+     * Stop sending finished sessions, if the server is overloaded or if sending did not work for a session.
+     */
+    private static final BeaconSendingWorkerPool.StopCondition FINISHED_SESSION_STOP_CONDITION =
+        new BeaconSendingWorkerPool.StopCondition() {
+            @Override
+            public boolean isMet(SessionImpl session, StatusResponse response) {
+                return isFinishedSessionToBeRetried(session, response);
+            }
+        };
+
     BeaconSendingCaptureOnState() {
         super(false);
     }
@@ -61,6 +76,14 @@ class BeaconSendingCaptureOnState extends AbstractBeaconSendingState {
             return;
         }
 
+        // replay data spooled by a previous OpenKit instance
+        StatusResponse spooledBeaconResponse = replaySpooledBeacon(context);
+        if (BeaconSendingResponseUtil.isTooManyRequestsResponse(spooledBeaconResponse)) {
+            // server is currently overloaded, temporarily switch to capture off
+            context.setNextState(new BeaconSendingCaptureOffState(spooledBeaconResponse.getRetryAfterInMilliseconds()));
+            return;
+        }
+
         // check if we need to send open sessions & do it if necessary
         StatusResponse openSessionsResponse = sendOpenSessions(context);
         if (BeaconSendingResponseUtil.isTooManyRequestsResponse(openSessionsResponse)) {
@@ -133,21 +156,115 @@ class BeaconSendingCaptureOnState extends AbstractBeaconSendingState {
         // check if there's finished Sessions to be sent -> immediately send beacon(s) of finished Sessions
         List<SessionImpl> finishedSessions = context.getAllFinishedAndConfiguredSessions();
 
+        if (context.getSendingParallelism() > 1) {
+            return sendFinishedSessionsConcurrently(context, finishedSessions);
+        }
+
         for (SessionImpl finishedSession : finishedSessions) {
             if (finishedSession.isDataSendingAllowed()) {
                 statusResponse = finishedSession.sendBeacon(context.getHTTPClientProvider(), context);
-                if (!BeaconSendingResponseUtil.isSuccessfulResponse(statusResponse)) {
-                    // something went wrong,
-                    if (BeaconSendingResponseUtil.isTooManyRequestsResponse(statusResponse) || !finishedSession.isEmpty()) {
-                        break; //  sending did not work, break out for now and retry it later
-                    }
+                if (isFinishedSessionToBeRetried(finishedSession, statusResponse)) {
+                    break; //  sending did not work, break out for now and retry it later
                 }
             }
 
             // session was sent/is not allowed to be sent - so remove it from beacon cache
-            context.removeSession(finishedSession); // remove the finished session from the cache
-            finishedSession.clearCapturedData();
-            finishedSession.close(); // The session is already closed/ended at this point. This call avoids a static code warning.
+            removeFinishedSession(context, finishedSession);
+        }
+
+        return statusResponse;
+    }
+
+    /**
+     * Send all sessions which have been finished previously, using the context's sending workers.
+     *
+     * <p>
+     * Sessions which could not be sent or were not sent at all, because sending was stopped, are retried later.
+     * </p>
+     *
+     * @param context          The state's context
+     * @param finishedSessions The finished sessions.
+     * @return The aggregated status response.
+     */
+    private static StatusResponse sendFinishedSessionsConcurrently(BeaconSendingContext context,
+                                                                   List<SessionImpl> finishedSessions) {
+
+        List<SessionImpl> sessionsToSend = new ArrayList<SessionImpl>(finishedSessions.size());
+        for (SessionImpl finishedSession : finishedSessions) {
+            if (finishedSession.isDataSendingAllowed()) {
+                sessionsToSend.add(finishedSession);
+            } else {
+                removeFinishedSession(context, finishedSession);
+            }
+        }
+
+        BeaconSendingResult result = context.sendBeacons(sessionsToSend, FINISHED_SESSION_STOP_CONDITION);
+        for (int i = 0; i < result.size(); i++) {
+            SessionImpl finishedSession = result.getSession(i);
+            if (result.isSent(i) && !isFinishedSessionToBeRetried(finishedSession, result.getResponse(i))) {
+                removeFinishedSession(context, finishedSession);
+            }
+        }
+
+        return result.getAggregatedResponse();
+    }
+
+    /**
+     * Check whether sending a finished session did not work and has to be retried later.
+     *
+     * @param finishedSession The finished session which was sent.
+     * @param statusResponse  The response received.
+     * @return {@code true} if sending has to be retried, {@code false} otherwise.
+     */
+    private static boolean isFinishedSessionToBeRetried(SessionImpl finishedSession, StatusResponse statusResponse) {
+        if (BeaconSendingResponseUtil.isSuccessfulResponse(statusResponse)) {
+            return false;
+        }
+
+        // something went wrong
+        return BeaconSendingResponseUtil.isTooManyRequestsResponse(statusResponse) || !finishedSession.isEmpty();
+    }
+
+    private static void removeFinishedSession(BeaconSendingContext context, SessionImpl finishedSession) {
+        context.removeSession(finishedSession); // remove the finished session from the cache
+        finishedSession.clearCapturedData();
+        finishedSession.close(); // The session is already closed/ended at this point. This call avoids a static code warning.
+    }
+
+    /**
+     * Replay the next chunk of data spooled by a previous OpenKit instance.
+     *
+     * <p>
+     * At most one chunk is sent per {@link BeaconSpool#getReplayInterval() replay interval}, so that replaying
+     * does not put additional load on the server.
+     * </p>
+     *
+     * @param context The state's context
+     * @return The status response received or {@code null} if no chunk was replayed.
+     */
+    private static StatusResponse replaySpooledBeacon(BeaconSendingContext context) {
+
+        BeaconSpool beaconSpool = context.getBeaconSpool();
+        if (beaconSpool == null) {
+            return null;
+        }
+
+        long currentTimestamp = context.getCurrentTimestamp();
+        if (currentTimestamp < context.getLastSpoolReplayTime() + beaconSpool.getReplayInterval()) {
+            return null;
+        }
+
+        SpooledBeacon spooledBeacon = beaconSpool.getNextBeaconToReplay();
+        if (spooledBeacon == null) {
+            return null;
+        }
+
+        context.setLastSpoolReplayTime(currentTimestamp);
+        byte[] chunk = spooledBeacon.getNextChunk(Beacon.createChunkPrefix(spooledBeacon, currentTimestamp));
+        StatusResponse statusResponse = context.getHTTPClient()
+            .sendBeaconRequest(spooledBeacon.getClientIPAddress(), chunk, context);
+        if (BeaconSendingResponseUtil.isSuccessfulResponse(statusResponse)) {
+            beaconSpool.removeReplayedChunk(spooledBeacon);
         }
 
         return statusResponse;
@@ -169,6 +286,12 @@ class BeaconSendingCaptureOnState extends AbstractBeaconSendingState {
         }
 
         List<SessionImpl> openSessions = context.getAllOpenAndConfiguredSessions();
+        if (context.getSendingParallelism() > 1) {
+            statusResponse = sendOpenSessionsConcurrently(context, openSessions);
+            context.setLastOpenSessionBeaconSendTime(currentTimestamp);
+            return statusResponse;
+        }
+
         for (SessionImpl session : openSessions) {
             if (session.isDataSendingAllowed()) {
                 statusResponse = session.sendBeacon(context.getHTTPClientProvider(), context);
@@ -186,6 +309,27 @@ class BeaconSendingCaptureOnState extends AbstractBeaconSendingState {
         return statusResponse;
     }
 
+    /**
+     * Send the given open sessions, using the context's sending workers.
+     *
+     * @param context      The state's context
+     * @param openSessions The open sessions.
+     * @return The aggregated status response.
+     */
+    private static StatusResponse sendOpenSessionsConcurrently(BeaconSendingContext context, List<SessionImpl> openSessions) {
+
+        List<SessionImpl> sessionsToSend = new ArrayList<SessionImpl>(openSessions.size());
+        for (SessionImpl session : openSessions) {
+            if (session.isDataSendingAllowed()) {
+                sessionsToSend.add(session);
+            } else {
+                session.clearCapturedData();
+            }
+        }
+
+        return context.sendBeacons(sessionsToSend, BeaconSendingWorkerPool.TOO_MANY_REQUESTS).getAggregatedResponse();
+    }
+
     private static void handleStatusResponse(BeaconSendingContext context, StatusResponse statusResponse) {
 
         if (statusResponse == null) {
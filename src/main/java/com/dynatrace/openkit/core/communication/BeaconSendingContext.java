@@ -17,6 +17,7 @@
 package com.dynatrace.openkit.core.communication;
 
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
 import com.dynatrace.openkit.core.objects.SessionImpl;
@@ -81,6 +82,19 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
     private HTTPClientConfiguration httpClientConfiguration;
     private final HTTPClientProvider httpClientProvider;
     private final TimingProvider timingProvider;
+    /**
+     * Spool storing beacon data, which could not be sent at shutdown, or {@code null} if spooling is disabled.
+     */
+    private final BeaconSpool beaconSpool;
+
+    /**
+     * Maximum number of sessions, whose beacons are sent concurrently.
+     */
+    private final int sendingParallelism;
+    /**
+     * Workers for sending sessions concurrently, created on first use.
+     */
+    private BeaconSendingWorkerPool sendingWorkerPool;
 
     /**
      * container storing all sessions
@@ -107,6 +121,10 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
      * timestamp when open sessions were last sent
      */
     private long lastOpenSessionBeaconSendTime;
+    /**
+     * timestamp when the last chunk was replayed from the beacon spool
+     */
+    private long lastSpoolReplayTime;
     /**
      * timestamp when last status check was done
      */
@@ -127,7 +145,44 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
                                 HTTPClientConfiguration httpClientConfiguration,
                                 HTTPClientProvider httpClientProvider,
                                 TimingProvider timingProvider) {
-        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, new BeaconSendingInitState());
+        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, (BeaconSpool) null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>
+     * The state is initialized to {@link BeaconSendingInitState},
+     * </p>
+     *
+     * @param beaconSpool Spool storing beacon data, which could not be sent at shutdown, or {@code null}.
+     */
+    public BeaconSendingContext(Logger logger,
+                                HTTPClientConfiguration httpClientConfiguration,
+                                HTTPClientProvider httpClientProvider,
+                                TimingProvider timingProvider,
+                                BeaconSpool beaconSpool) {
+        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, beaconSpool, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>
+     * The state is initialized to {@link BeaconSendingInitState},
+     * </p>
+     *
+     * @param beaconSpool Spool storing beacon data, which could not be sent at shutdown, or {@code null}.
+     * @param sendingParallelism Maximum number of sessions, whose beacons are sent concurrently.
+     */
+    public BeaconSendingContext(Logger logger,
+                                HTTPClientConfiguration httpClientConfiguration,
+                                HTTPClientProvider httpClientProvider,
+                                TimingProvider timingProvider,
+                                BeaconSpool beaconSpool,
+                                int sendingParallelism) {
+        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, beaconSpool, sendingParallelism,
+            new BeaconSendingInitState());
     }
 
     /**
@@ -142,11 +197,46 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
                          HTTPClientProvider httpClientProvider,
                          TimingProvider timingProvider,
                          AbstractBeaconSendingState initialState) {
+        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, null, initialState);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>
+     * The beacon spool and initial state are provided. This constructor is intended for unit testing.
+     * </p>
+     */
+    BeaconSendingContext(Logger logger,
+                         HTTPClientConfiguration httpClientConfiguration,
+                         HTTPClientProvider httpClientProvider,
+                         TimingProvider timingProvider,
+                         BeaconSpool beaconSpool,
+                         AbstractBeaconSendingState initialState) {
+        this(logger, httpClientConfiguration, httpClientProvider, timingProvider, beaconSpool, 1, initialState);
+    }
+
+    /**
+     * Constructor.
+     *
+     * <p>
+     * The beacon spool, sending parallelism and initial state are provided. This constructor is intended for unit testing.
+     * </p>
+     */
+    BeaconSendingContext(Logger logger,
+                         HTTPClientConfiguration httpClientConfiguration,
+                         HTTPClientProvider httpClientProvider,
+                         TimingProvider timingProvider,
+                         BeaconSpool beaconSpool,
+                         int sendingParallelism,
+                         AbstractBeaconSendingState initialState) {
         this.logger = logger;
+        this.sendingParallelism = Math.max(sendingParallelism, 1);
         this.httpClientConfiguration = httpClientConfiguration;
         this.serverConfiguration = ServerConfiguration.DEFAULT;
         this.httpClientProvider = httpClientProvider;
         this.timingProvider = timingProvider;
+        this.beaconSpool = beaconSpool;
         this.lastResponseAttributes = ResponseAttributesImpl.withUndefinedDefaults().build();
 
         currentState = initialState;
@@ -310,6 +400,48 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
         return httpClientProvider;
     }
 
+    /**
+     * Gets the maximum number of sessions, whose beacons are sent concurrently.
+     *
+     * @return The sending parallelism, {@code 1} if sessions are sent one after another.
+     */
+    int getSendingParallelism() {
+        return sendingParallelism;
+    }
+
+    /**
+     * Send the beacons of the given sessions concurrently, using up to {@link #getSendingParallelism()} workers.
+     *
+     * <p>
+     * This method is only allowed to be called from within the beacon sending thread
+     * and returns after all given sessions have been sent or sending has been stopped.
+     * </p>
+     *
+     * @param sessions      The sessions to send.
+     * @param stopCondition Condition when to stop sending the remaining sessions.
+     * @return The results of sending the sessions.
+     */
+    BeaconSendingResult sendBeacons(List<SessionImpl> sessions, BeaconSendingWorkerPool.StopCondition stopCondition) {
+        if (sendingWorkerPool == null) {
+            sendingWorkerPool = new BeaconSendingWorkerPool(logger, sendingParallelism);
+        }
+        return sendingWorkerPool.sendBeacons(sessions, httpClientProvider, this, stopCondition);
+    }
+
+    /**
+     * Shutdown the workers used for sending sessions concurrently, if any have been used.
+     *
+     * <p>
+     * This method is only allowed to be called from within the beacon sending thread.
+     * </p>
+     */
+    void shutdownSendingWorkers() {
+        if (sendingWorkerPool != null) {
+            sendingWorkerPool.shutdown();
+            sendingWorkerPool = null;
+        }
+    }
+
     /**
      * Convenience method to retrieve an {@link HTTPClient} instance with {@link #httpClientConfiguration}
      *
@@ -374,6 +506,29 @@ public class BeaconSendingContext implements AdditionalQueryParameters {
         lastOpenSessionBeaconSendTime = timestamp;
     }
 
+    /**
+     * Get the spool storing beacon data, which could not be sent at shutdown.
+     *
+     * @return The beacon spool or {@code null} if spooling is disabled.
+     */
+    BeaconSpool getBeaconSpool() {
+        return beaconSpool;
+    }
+
+    /**
+     * Get the timestamp when the last chunk was replayed from the beacon spool.
+     */
+    long getLastSpoolReplayTime() {
+        return lastSpoolReplayTime;
+    }
+
+    /**
+     * Set the timestamp when the last chunk was replayed from the beacon spool.
+     */
+    void setLastSpoolReplayTime(long timestamp) {
+        lastSpoolReplayTime = timestamp;
+    }
+
     /**
      * Get timestamp when last status check was performed.
      */
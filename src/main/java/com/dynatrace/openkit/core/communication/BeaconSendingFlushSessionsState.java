@@ -16,14 +16,19 @@
 
 package com.dynatrace.openkit.core.communication;
 
+import com.dynatrace.openkit.core.caching.BeaconSpool;
 import com.dynatrace.openkit.core.objects.SessionImpl;
 import com.dynatrace.openkit.protocol.StatusResponse;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * In this state open sessions are finished. After that all sessions are sent to the server.
  * <p>
+ *     If a beacon spool is configured, the data which could not be sent is spooled instead of being discarded.
+ * </p>
+ * <p>
  *     Transition to:
  *     <ul>
  *         <li>{@link BeaconSendingTerminalState}</li>
@@ -54,23 +59,65 @@ class BeaconSendingFlushSessionsState extends AbstractBeaconSendingState {
 
         // flush already finished (and previously ended) sessions
         boolean tooManyRequestsReceived = false;
+        BeaconSpool beaconSpool = context.getBeaconSpool();
         List<SessionImpl> finishedSessions = context.getAllFinishedAndConfiguredSessions();
+        boolean sentConcurrently = context.getSendingParallelism() > 1;
+        if (sentConcurrently) {
+            sendFinishedSessionsConcurrently(context, finishedSessions);
+        }
         for (SessionImpl finishedSession : finishedSessions) {
-            if (!tooManyRequestsReceived && finishedSession.isDataSendingAllowed()) {
+            if (!sentConcurrently && !tooManyRequestsReceived && finishedSession.isDataSendingAllowed()) {
                 StatusResponse response = finishedSession.sendBeacon(context.getHTTPClientProvider(), context);
                 if (BeaconSendingResponseUtil.isTooManyRequestsResponse(response)) {
                     tooManyRequestsReceived = true;
                 }
             }
+            if (beaconSpool != null && finishedSession.isDataSendingAllowed() && !finishedSession.isEmpty()) {
+                // sending did not work, keep the remaining data for the next OpenKit instance
+                finishedSession.spoolCapturedData(beaconSpool);
+            }
             finishedSession.clearCapturedData();
             finishedSession.close(); // The session is already closed/ended at this point. This call avoids a static code warning.
             context.removeSession(finishedSession);
         }
 
+        if (beaconSpool != null) {
+            // write the spooled data and the data not replayed so far
+            beaconSpool.persist();
+        }
+
+        // no more sessions are sent from now on
+        context.shutdownSendingWorkers();
+
         // make last state transition to terminal state
         context.setNextState(new BeaconSendingTerminalState());
     }
 
+    /**
+     * Send the finished sessions using the context's sending workers, until too many requests are received.
+     *
+     * @param context          The state's context
+     * @param finishedSessions The finished sessions to send.
+     */
+    private static void sendFinishedSessionsConcurrently(BeaconSendingContext context, List<SessionImpl> finishedSessions) {
+        List<SessionImpl> sessionsToSend = new ArrayList<SessionImpl>(finishedSessions.size());
+        for (SessionImpl finishedSession : finishedSessions) {
+            if (finishedSession.isDataSendingAllowed()) {
+                sessionsToSend.add(finishedSession);
+            }
+        }
+
+        // the interrupt signalling the shutdown stops sending workers, but the finished sessions shall still be flushed
+        boolean interrupted = Thread.interrupted();
+        try {
+            context.sendBeacons(sessionsToSend, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     @Override
     AbstractBeaconSendingState getShutdownState() {
         return new BeaconSendingTerminalState();
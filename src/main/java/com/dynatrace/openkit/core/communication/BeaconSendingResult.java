@@ -0,0 +1,97 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.communication;
+
+import com.dynatrace.openkit.core.objects.SessionImpl;
+import com.dynatrace.openkit.protocol.StatusResponse;
+
+/**
+ * Aggregated result of sending the beacons of multiple sessions with the {@link BeaconSendingWorkerPool}.
+ *
+ * <p>
+ * The results are in the same order as the sessions passed for sending.
+ * </p>
+ */
+class BeaconSendingResult {
+
+    private final SessionImpl[] sessions;
+    private final StatusResponse[] responses;
+    private final boolean[] sent;
+
+    BeaconSendingResult(SessionImpl[] sessions, StatusResponse[] responses, boolean[] sent) {
+        this.sessions = sessions;
+        this.responses = responses;
+        this.sent = sent;
+    }
+
+    /**
+     * Get the number of sessions.
+     */
+    int size() {
+        return sessions.length;
+    }
+
+    /**
+     * Get the session at the given index.
+     */
+    SessionImpl getSession(int index) {
+        return sessions[index];
+    }
+
+    /**
+     * Get a boolean indicating whether the session at the given index was sent.
+     *
+     * @return {@code true} if the session was sent, {@code false} if sending was stopped before or failed.
+     */
+    boolean isSent(int index) {
+        return sent[index];
+    }
+
+    /**
+     * Get the response received for the session at the given index.
+     *
+     * @return The response received or {@code null} if the session was not sent or had no data.
+     */
+    StatusResponse getResponse(int index) {
+        return responses[index];
+    }
+
+    /**
+     * Get the response aggregated over all sent sessions.
+     *
+     * <p>
+     * This is the first {@code 429 Too Many Requests} response, if any was received.
+     * Otherwise it's the response of the last sent session, like it's the case when sending sequentially.
+     * </p>
+     *
+     * @return The aggregated response or {@code null} if no session was sent.
+     */
+    StatusResponse getAggregatedResponse() {
+        StatusResponse lastResponse = null;
+        for (int i = 0; i < sessions.length; i++) {
+            if (!sent[i]) {
+                continue;
+            }
+            if (BeaconSendingResponseUtil.isTooManyRequestsResponse(responses[i])) {
+                return responses[i];
+            }
+            lastResponse = responses[i];
+        }
+
+        return lastResponse;
+    }
+}
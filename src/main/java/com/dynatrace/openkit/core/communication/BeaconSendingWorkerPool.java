@@ -0,0 +1,196 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.communication;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.objects.SessionImpl;
+import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
+import com.dynatrace.openkit.protocol.StatusResponse;
+import com.dynatrace.openkit.providers.HTTPClientProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the beacons of independent sessions concurrently, using a bounded number of worker threads.
+ *
+ * <p>
+ * Each session is sent by exactly one worker per {@link #sendBeacons} call, and the call only returns
+ * after all workers are done. Therefore the data of one session is still sent in order.
+ * Once a worker receives a response meeting the {@link StopCondition}, no further sessions are sent.
+ * </p>
+ *
+ * <p>
+ * The {@link #sendBeacons} and {@link #shutdown()} methods must only be called from the beacon sending thread.
+ * </p>
+ */
+class BeaconSendingWorkerPool {
+
+    /**
+     * Condition to stop sending the remaining sessions.
+     */
+    interface StopCondition {
+
+        /**
+         * Evaluate the condition for the response received when sending a session's beacon.
+         *
+         * <p>
+         * This method is called from the worker threads.
+         * </p>
+         *
+         * @param session  The session which was sent.
+         * @param response The response received, which might be {@code null}.
+         * @return {@code true} if no further sessions shall be sent, {@code false} otherwise.
+         */
+        boolean isMet(SessionImpl session, StatusResponse response);
+    }
+
+    /** Stop condition met by a {@code 429 Too Many Requests} response */
+    static final StopCondition TOO_MANY_REQUESTS = new StopCondition() {
+        @Override
+        public boolean isMet(SessionImpl session, StatusResponse response) {
+            return BeaconSendingResponseUtil.isTooManyRequestsResponse(response);
+        }
+    };
+
+    private static final String THREAD_NAME_PREFIX = "BeaconSenderWorker-";
+    /** Time in milliseconds after which idle workers terminate */
+    private static final long KEEP_ALIVE_TIME = TimeUnit.SECONDS.toMillis(60);
+
+    private final Logger logger;
+    private final int parallelism;
+    private final ThreadPoolExecutor executor;
+
+    BeaconSendingWorkerPool(Logger logger, int parallelism) {
+        this.logger = logger;
+        this.parallelism = parallelism;
+
+        final AtomicInteger threadCount = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get the maximum number of sessions sent concurrently.
+     */
+    int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Send the beacons of the given sessions concurrently.
+     *
+     * <p>
+     * If the calling thread is interrupted, no further sessions are sent, but this method still waits until
+     * the workers have finished the sessions currently sent, since a beacon request cannot be aborted.
+     * The interrupted flag is restored afterwards.
+     * </p>
+     *
+     * @param sessions             The sessions to send.
+     * @param clientProvider       Provider for the HTTP clients sending the beacons.
+     * @param additionalParameters Additional parameters sent with each beacon request.
+     * @param stopCondition        Condition when to stop sending the remaining sessions.
+     * @return The results of sending the sessions.
+     */
+    BeaconSendingResult sendBeacons(List<SessionImpl> sessions,
+                                    final HTTPClientProvider clientProvider,
+                                    final AdditionalQueryParameters additionalParameters,
+                                    final StopCondition stopCondition) {
+
+        final SessionImpl[] sessionsToSend = sessions.toArray(new SessionImpl[0]);
+        final StatusResponse[] responses = new StatusResponse[sessionsToSend.length];
+        final boolean[] sent = new boolean[sessionsToSend.length];
+
+        final AtomicInteger nextSessionIndex = new AtomicInteger(0);
+        final AtomicBoolean stopped = new AtomicBoolean(false);
+
+        int numWorkers = Math.min(parallelism, sessionsToSend.length);
+        List<Future<?>> workers = new ArrayList<Future<?>>(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    int index;
+                    while (!stopped.get() && (index = nextSessionIndex.getAndIncrement()) < sessionsToSend.length) {
+                        SessionImpl session = sessionsToSend[index];
+                        try {
+                            responses[index] = session.sendBeacon(clientProvider, additionalParameters);
+                            sent[index] = true;
+                        } catch (RuntimeException e) {
+                            logger.error(BeaconSendingWorkerPool.class.getSimpleName() + " sendBeacons() - sending session failed", e);
+                            continue;
+                        }
+                        if (stopCondition.isMet(session, responses[index])) {
+                            stopped.set(true);
+                        }
+                    }
+                }
+            }));
+        }
+
+        awaitWorkers(workers, stopped);
+
+        return new BeaconSendingResult(sessionsToSend, responses, sent);
+    }
+
+    /**
+     * Shutdown the worker threads.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void awaitWorkers(List<Future<?>> workers, AtomicBoolean stopped) {
+        boolean interrupted = false;
+        for (Future<?> worker : workers) {
+            while (true) {
+                try {
+                    worker.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // OpenKit is shut down, therefore don't send further sessions
+                    stopped.set(true);
+                    // the interrupted flag is cleared, thus the next get blocks again
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    logger.error(getClass().getSimpleName() + " sendBeacons() - worker failed", e.getCause());
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
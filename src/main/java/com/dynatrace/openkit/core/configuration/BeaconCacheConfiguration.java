@@ -17,6 +17,9 @@
 package com.dynatrace.openkit.core.configuration;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.SpaceEvictionMode;
+
+import java.io.File;
 
 /**
  * Configuration for beacon cache.
@@ -26,6 +29,19 @@ public class BeaconCacheConfiguration {
     private final long maxRecordAge;
     private final long cacheSizeLowerBound;
     private final long cacheSizeUpperBound;
+    private final SpaceEvictionMode spaceEvictionMode;
+    private final int minRecordsPerBeacon;
+    private final double memoryPressureHighWatermark;
+    private final double memoryPressureLowWatermark;
+    private final double memoryPressureBoundaryFactor;
+    private final File spillDirectory;
+    private final long spillIdleTime;
+    private final long spillSessionQuota;
+    private final long spillFileSize;
+    private final File spoolDirectory;
+    private final long spoolReplayInterval;
+    private final long spoolMaxSize;
+    private final long spoolMaxRecordAge;
 
     /**
      * Constructor
@@ -36,6 +52,19 @@ public class BeaconCacheConfiguration {
         this.maxRecordAge = builder.getBeaconCacheMaxRecordAge();
         this.cacheSizeLowerBound = builder.getBeaconCacheLowerMemoryBoundary();
         this.cacheSizeUpperBound = builder.getBeaconCacheUpperMemoryBoundary();
+        this.spaceEvictionMode = builder.getBeaconCacheSpaceEvictionMode();
+        this.minRecordsPerBeacon = builder.getBeaconCacheMinRecordsPerSession();
+        this.memoryPressureHighWatermark = builder.getBeaconCacheMemoryPressureHighWatermark();
+        this.memoryPressureLowWatermark = builder.getBeaconCacheMemoryPressureLowWatermark();
+        this.memoryPressureBoundaryFactor = builder.getBeaconCacheMemoryPressureBoundaryFactor();
+        this.spillDirectory = builder.getBeaconCacheSpillDirectory();
+        this.spillIdleTime = builder.getBeaconCacheSpillIdleTime();
+        this.spillSessionQuota = builder.getBeaconCacheSpillSessionQuota();
+        this.spillFileSize = builder.getBeaconCacheSpillFileSize();
+        this.spoolDirectory = builder.getBeaconSpoolDirectory();
+        this.spoolReplayInterval = builder.getBeaconSpoolReplayInterval();
+        this.spoolMaxSize = builder.getBeaconSpoolMaxSize();
+        this.spoolMaxRecordAge = builder.getBeaconSpoolMaxRecordAge();
     }
 
     /**
@@ -71,4 +100,95 @@ public class BeaconCacheConfiguration {
     public long getCacheSizeUpperBound() {
         return cacheSizeUpperBound;
     }
+
+    /**
+     * Get the mode used to evict records when the upper memory limit is exceeded.
+     */
+    public SpaceEvictionMode getSpaceEvictionMode() {
+        return spaceEvictionMode;
+    }
+
+    /**
+     * Get the number of records per beacon, which are only evicted if necessary.
+     */
+    public int getMinRecordsPerBeacon() {
+        return minRecordsPerBeacon;
+    }
+
+    /**
+     * Get the fraction of the tenured heap pool, at which the memory boundaries are lowered.
+     */
+    public double getMemoryPressureHighWatermark() {
+        return memoryPressureHighWatermark;
+    }
+
+    /**
+     * Get the fraction of the tenured heap pool, at which the memory boundaries are restored.
+     */
+    public double getMemoryPressureLowWatermark() {
+        return memoryPressureLowWatermark;
+    }
+
+    /**
+     * Get the factor applied to the memory boundaries, while the tenured heap pool exceeds the high watermark.
+     */
+    public double getMemoryPressureBoundaryFactor() {
+        return memoryPressureBoundaryFactor;
+    }
+
+    /**
+     * Get the directory in which the spill file is created or {@code null} if spilling is disabled.
+     */
+    public File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * Get the time without new records, after which a beacon is spilled.
+     */
+    public long getSpillIdleTime() {
+        return spillIdleTime;
+    }
+
+    /**
+     * Get the number of bytes a beacon may store on the heap, before it is spilled.
+     */
+    public long getSpillSessionQuota() {
+        return spillSessionQuota;
+    }
+
+    /**
+     * Get the size of the spill file.
+     */
+    public long getSpillFileSize() {
+        return spillFileSize;
+    }
+
+    /**
+     * Get the directory in which unsent beacon data is spooled at shutdown or {@code null} if spooling is disabled.
+     */
+    public File getSpoolDirectory() {
+        return spoolDirectory;
+    }
+
+    /**
+     * Get the minimum time between two beacon chunks replayed from the spool.
+     */
+    public long getSpoolReplayInterval() {
+        return spoolReplayInterval;
+    }
+
+    /**
+     * Get the maximum size of the spool file.
+     */
+    public long getSpoolMaxSize() {
+        return spoolMaxSize;
+    }
+
+    /**
+     * Get the maximum age of spooled data.
+     */
+    public long getSpoolMaxRecordAge() {
+        return spoolMaxRecordAge;
+    }
 }
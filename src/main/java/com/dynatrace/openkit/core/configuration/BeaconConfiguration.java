@@ -21,6 +21,9 @@ package com.dynatrace.openkit.core.configuration;
  */
 public class BeaconConfiguration {
 
+    /** Marker for a capture mask which needs to be evaluated again */
+    private static final int INVALID_CAPTURE_MASK = -1;
+
     /** OpenKit related configuration, that has been configured using the builder */
     private final OpenKitConfiguration openKitConfiguration;
     /** Privacy configuration, which has also been configured via the builder */
@@ -31,6 +34,8 @@ public class BeaconConfiguration {
     private ServerConfiguration serverConfiguration;
     /** indicator if the {@link ServerConfiguration} was set or not */
     private boolean isServerConfigurationSet;
+    /** {@link CaptureMask} for the current configuration, or {@link #INVALID_CAPTURE_MASK} if it needs to be evaluated */
+    private volatile int captureMask = INVALID_CAPTURE_MASK;
 
     /** callback when the server configuration is updated. */
     private ServerConfigurationUpdateCallback serverConfigUpdateCallback;
@@ -99,6 +104,30 @@ public class BeaconConfiguration {
         }
     }
 
+    /**
+     * Get the {@link CaptureMask} combining the privacy configuration and the current server configuration.
+     *
+     * <p>
+     * The mask is only evaluated again after the server configuration changed,
+     * otherwise this method performs a single volatile read.
+     * </p>
+     *
+     * @return The capture flags currently in effect.
+     */
+    public int getCaptureMask() {
+        int mask = captureMask;
+        if (mask != INVALID_CAPTURE_MASK) {
+            return mask;
+        }
+
+        synchronized (lockObject) {
+            if (captureMask == INVALID_CAPTURE_MASK) {
+                captureMask = CaptureMask.of(privacyConfiguration, getServerConfiguration());
+            }
+            return captureMask;
+        }
+    }
+
     /**
      * Enables the capturing and sets {@link #isServerConfigurationSet()}
      */
@@ -124,6 +153,7 @@ public class BeaconConfiguration {
             serverConfiguration = new ServerConfiguration.Builder(currentServerConfig)
                     .withCapture(captureState)
                     .build();
+            captureMask = INVALID_CAPTURE_MASK;
 
             isServerConfigurationSet = true;
         }
@@ -150,6 +180,7 @@ public class BeaconConfiguration {
             }
 
             serverConfiguration = initialServerConfiguration;
+            captureMask = INVALID_CAPTURE_MASK;
         }
 
         notifyServerConfigurationUpdate(initialServerConfiguration);
@@ -177,6 +208,7 @@ public class BeaconConfiguration {
                 newServerConfiguration = serverConfiguration.merge(newServerConfiguration);
             }
             serverConfiguration = newServerConfiguration;
+            captureMask = INVALID_CAPTURE_MASK;
             isServerConfigurationSet = true;
         }
 
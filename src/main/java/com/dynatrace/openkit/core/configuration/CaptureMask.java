@@ -0,0 +1,96 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.configuration;
+
+/**
+ * Bit flags describing which kind of data is captured, taking both the {@link PrivacyConfiguration} and the
+ * {@link ServerConfiguration} into account.
+ *
+ * <p>
+ * The combined mask is evaluated once per configuration change (see {@link BeaconConfiguration#getCaptureMask()}),
+ * so that data which would be dropped anyway can be rejected with a single bit test, before any serialization work
+ * is done.
+ * </p>
+ */
+public final class CaptureMask {
+
+    /** No data is captured */
+    public static final int NONE = 0;
+    /** Sending data is allowed by the server */
+    public static final int DATA = 1;
+    /** Session end events are captured */
+    public static final int SESSION_END = 1 << 1;
+    /** Actions are captured */
+    public static final int ACTION = 1 << 2;
+    /** Reported values are captured */
+    public static final int VALUE = 1 << 3;
+    /** Named events are captured */
+    public static final int EVENT = 1 << 4;
+    /** Errors are captured */
+    public static final int ERROR = 1 << 5;
+    /** Crashes are captured */
+    public static final int CRASH = 1 << 6;
+    /** Web requests are captured */
+    public static final int WEB_REQUEST = 1 << 7;
+    /** User identification is captured */
+    public static final int USER_IDENTIFICATION = 1 << 8;
+
+    private CaptureMask() {
+    }
+
+    /**
+     * Evaluate the capture mask for the given configurations.
+     *
+     * @param privacyConfiguration The privacy configuration.
+     * @param serverConfiguration  The server configuration.
+     *
+     * @return The combined capture flags.
+     */
+    public static int of(PrivacyConfiguration privacyConfiguration, ServerConfiguration serverConfiguration) {
+        if (!serverConfiguration.isSendingDataAllowed()) {
+            // neither capture is enabled nor multiplicity is greater than 0
+            return NONE;
+        }
+
+        int mask = DATA;
+        if (privacyConfiguration.isSessionReportingAllowed()) {
+            mask |= SESSION_END;
+        }
+        if (privacyConfiguration.isActionReportingAllowed()) {
+            mask |= ACTION;
+        }
+        if (privacyConfiguration.isValueReportingAllowed()) {
+            mask |= VALUE;
+        }
+        if (privacyConfiguration.isEventReportingAllowed()) {
+            mask |= EVENT;
+        }
+        if (privacyConfiguration.isErrorReportingAllowed() && serverConfiguration.isSendingErrorsAllowed()) {
+            mask |= ERROR;
+        }
+        if (privacyConfiguration.isCrashReportingAllowed() && serverConfiguration.isSendingCrashesAllowed()) {
+            mask |= CRASH;
+        }
+        if (privacyConfiguration.isWebRequestTracingAllowed()) {
+            mask |= WEB_REQUEST;
+        }
+        if (privacyConfiguration.isUserIdentificationAllowed()) {
+            mask |= USER_IDENTIFICATION;
+        }
+
+        return mask;
+    }
+}
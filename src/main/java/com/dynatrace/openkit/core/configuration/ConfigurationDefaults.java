@@ -18,7 +18,11 @@ package com.dynatrace.openkit.core.configuration;
 
 import com.dynatrace.openkit.CrashReportingLevel;
 import com.dynatrace.openkit.DataCollectionLevel;
+import com.dynatrace.openkit.SpaceEvictionMode;
+import com.dynatrace.openkit.HTTPTransportMode;
+import com.dynatrace.openkit.TimingMode;
 
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -50,6 +54,122 @@ public class ConfigurationDefaults {
      * </p>
      */
     public static final long DEFAULT_LOWER_MEMORY_BOUNDARY_IN_BYTES = 80L * 1024L * 1024L;              // 80 MiB
+    /**
+     * Defines how the {@link com.dynatrace.openkit.core.caching.BeaconCache} evicts records, once the upper
+     * memory boundary is exceeded.
+     */
+    public static final SpaceEvictionMode DEFAULT_SPACE_EVICTION_MODE = SpaceEvictionMode.defaultValue();
+    /**
+     * Defines the number of records per session, which are only evicted by the space eviction if necessary.
+     *
+     * <p>
+     *     By default all records are treated equally.
+     * </p>
+     */
+    public static final int DEFAULT_MIN_RECORDS_PER_SESSION = 0;
+    /**
+     * Defines the fraction of the tenured heap pool, at which the {@link com.dynatrace.openkit.core.caching.BeaconCache}
+     * lowers its memory boundaries.
+     *
+     * <p>
+     *     By default the memory pressure based eviction is disabled.
+     * </p>
+     */
+    public static final double DEFAULT_MEMORY_PRESSURE_HIGH_WATERMARK = 0.0;
+    /**
+     * Defines the fraction of the tenured heap pool, at which the {@link com.dynatrace.openkit.core.caching.BeaconCache}
+     * restores its memory boundaries.
+     */
+    public static final double DEFAULT_MEMORY_PRESSURE_LOW_WATERMARK = 0.0;
+    /**
+     * Defines the factor applied to the memory boundaries of the {@link com.dynatrace.openkit.core.caching.BeaconCache},
+     * while the tenured heap pool exceeds the high watermark.
+     */
+    public static final double DEFAULT_MEMORY_PRESSURE_BOUNDARY_FACTOR = 0.5;
+    /**
+     * Defines the directory, to which the {@link com.dynatrace.openkit.core.caching.BeaconCache} spills the records
+     * of cold sessions.
+     *
+     * <p>
+     *     By default no directory is set, which disables spilling.
+     * </p>
+     */
+    public static final File DEFAULT_SPILL_DIRECTORY = null;
+    /**
+     * Defines the time without new records, after which the records of a session are spilled.
+     */
+    public static final long DEFAULT_SPILL_IDLE_TIME_IN_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    /**
+     * Defines the number of bytes a session may store on the heap, before its records are spilled.
+     */
+    public static final long DEFAULT_SPILL_SESSION_QUOTA_IN_BYTES = 1024L * 1024L;                        // 1 MiB
+    /**
+     * Defines the size of the file, to which the records of cold sessions are spilled.
+     */
+    public static final long DEFAULT_SPILL_FILE_SIZE_IN_BYTES = 512L * 1024L * 1024L;                     // 512 MiB
+    /**
+     * Defines the directory, to which beacon data that could not be sent at shutdown is spooled.
+     *
+     * <p>
+     *     By default no directory is set, which disables spooling.
+     * </p>
+     */
+    public static final File DEFAULT_SPOOL_DIRECTORY = null;
+    /**
+     * Defines the minimum time between two beacon chunks replayed from the spool.
+     */
+    public static final long DEFAULT_SPOOL_REPLAY_INTERVAL_IN_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    /**
+     * Defines the maximum size of the beacon spool file.
+     */
+    public static final long DEFAULT_SPOOL_MAX_SIZE_IN_BYTES = 16L * 1024L * 1024L;                      // 16 MiB
+    /**
+     * Defines the maximum age of spooled beacon data, after which it is discarded instead of being replayed.
+     */
+    public static final long DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS = DEFAULT_MAX_RECORD_AGE_IN_MILLIS;
+
+    /**
+     * Defines the window, in which identical errors and events are coalesced into one record.
+     *
+     * <p>
+     *     By default the window is zero, which disables deduplication.
+     * </p>
+     */
+    public static final long DEFAULT_DEDUPLICATION_WINDOW_IN_MILLIS = 0L;
+    /**
+     * Defines the maximum number of error and event records per second and session.
+     *
+     * <p>
+     *     By default the limit is zero, which disables rate limiting.
+     * </p>
+     */
+    public static final int DEFAULT_MAX_ERRORS_AND_EVENTS_PER_SECOND = 0;
+
+    /** Default timing mode used, if no other value was specified */
+    public static final TimingMode DEFAULT_TIMING_MODE = TimingMode.defaultValue();
+
+    /**
+     * Defines the maximum number of sessions, whose beacons are sent concurrently.
+     *
+     * <p>
+     *     By default sessions are sent one after another.
+     * </p>
+     */
+    public static final int DEFAULT_BEACON_SENDING_PARALLELISM = 1;
+
+    /** Default HTTP transport mode used, if no other value was specified */
+    public static final HTTPTransportMode DEFAULT_HTTP_TRANSPORT_MODE = HTTPTransportMode.defaultValue();
+
+    /** Default compression level of beacon data, which is the default level of the {@link java.util.zip.Deflater} */
+    public static final int DEFAULT_BEACON_COMPRESSION_LEVEL = -1;
+    /**
+     * Defines the minimum size of beacon data in bytes, which is gzip compressed before sending.
+     *
+     * <p>
+     *     By default the size is zero, which means all beacon data is compressed.
+     * </p>
+     */
+    public static final int DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES = 0;
 
     /** Default data collection level used, if no other value was specified */
     public static final DataCollectionLevel DEFAULT_DATA_COLLECTION_LEVEL = DataCollectionLevel.defaultValue();
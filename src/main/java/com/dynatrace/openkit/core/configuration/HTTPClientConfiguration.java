@@ -27,12 +27,16 @@ public class HTTPClientConfiguration {
     private final int serverID;
     private final String applicationID;
     private final SSLTrustManager sslTrustManager;
+    private final int beaconCompressionLevel;
+    private final int minBeaconCompressionSize;
 
     private HTTPClientConfiguration(Builder builder) {
         this.baseURL = builder.baseURL;
         this.serverID = builder.serverID;
         this.applicationID = builder.applicationID;
         this.sslTrustManager = builder.sslTrustManager;
+        this.beaconCompressionLevel = builder.beaconCompressionLevel;
+        this.minBeaconCompressionSize = builder.minBeaconCompressionSize;
     }
 
     /**
@@ -57,7 +61,9 @@ public class HTTPClientConfiguration {
                 .withBaseURL(openKitConfig.getEndpointURL())
                 .withApplicationID(openKitConfig.getApplicationID())
                 .withSSLTrustManager(openKitConfig.getSSLTrustManager())
-                .withServerID(openKitConfig.getDefaultServerID());
+                .withServerID(openKitConfig.getDefaultServerID())
+                .withBeaconCompressionLevel(openKitConfig.getBeaconCompressionLevel())
+                .withMinBeaconCompressionSize(openKitConfig.getMinBeaconCompressionSize());
     }
 
     /**
@@ -71,7 +77,9 @@ public class HTTPClientConfiguration {
                 .withBaseURL(httpClientConfig.getBaseURL())
                 .withApplicationID(httpClientConfig.getApplicationID())
                 .withSSLTrustManager(httpClientConfig.getSSLTrustManager())
-                .withServerID(httpClientConfig.getServerID());
+                .withServerID(httpClientConfig.getServerID())
+                .withBeaconCompressionLevel(httpClientConfig.getBeaconCompressionLevel())
+                .withMinBeaconCompressionSize(httpClientConfig.getMinBeaconCompressionSize());
     }
 
     /**
@@ -108,6 +116,24 @@ public class HTTPClientConfiguration {
         return sslTrustManager;
     }
 
+    /**
+     * Returns the compression level used for gzip compressing beacon data.
+     *
+     * @return the compression level, {@code -1} for the default level
+     */
+    public int getBeaconCompressionLevel() {
+        return beaconCompressionLevel;
+    }
+
+    /**
+     * Returns the minimum size in bytes of beacon data, which is gzip compressed.
+     *
+     * @return the minimum size of compressed beacon data
+     */
+    public int getMinBeaconCompressionSize() {
+        return minBeaconCompressionSize;
+    }
+
     /**
      * Builder class for building {@link HTTPClientConfiguration}.
      */
@@ -117,6 +143,8 @@ public class HTTPClientConfiguration {
         private int serverID = -1;
         private String applicationID = null;
         private SSLTrustManager sslTrustManager = null;
+        private int beaconCompressionLevel = ConfigurationDefaults.DEFAULT_BEACON_COMPRESSION_LEVEL;
+        private int minBeaconCompressionSize = ConfigurationDefaults.DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES;
 
         public Builder withBaseURL(String baseURL) {
             this.baseURL = baseURL;
@@ -138,6 +166,16 @@ public class HTTPClientConfiguration {
             return this;
         }
 
+        public Builder withBeaconCompressionLevel(int beaconCompressionLevel) {
+            this.beaconCompressionLevel = beaconCompressionLevel;
+            return this;
+        }
+
+        public Builder withMinBeaconCompressionSize(int minBeaconCompressionSize) {
+            this.minBeaconCompressionSize = minBeaconCompressionSize;
+            return this;
+        }
+
         public HTTPClientConfiguration build() {
             return new HTTPClientConfiguration(this);
         }
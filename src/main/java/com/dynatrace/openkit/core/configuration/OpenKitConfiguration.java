@@ -17,6 +17,8 @@
 package com.dynatrace.openkit.core.configuration;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.HTTPTransportMode;
+import com.dynatrace.openkit.TimingMode;
 import com.dynatrace.openkit.api.SSLTrustManager;
 import com.dynatrace.openkit.core.util.PercentEncoder;
 
@@ -63,6 +65,26 @@ public class OpenKitConfiguration {
     private final int defaultServerID;
     /** SSL trust manager configured in OpenKit builder */
     private final SSLTrustManager sslTrustManager;
+    /** Flag indicating whether beacon data is serialized by the beacon sending thread */
+    private final boolean deferredBeaconSerializationEnabled;
+    /** Flag indicating whether int and double values are aggregated per action */
+    private final boolean valueAggregationEnabled;
+    /** Upper bounds of the histogram buckets reported with aggregated values */
+    private final double[] valueAggregationBuckets;
+    /** Window in milliseconds, in which identical errors and events are coalesced */
+    private final long deduplicationWindow;
+    /** Maximum number of error and event records per second and session */
+    private final int maxErrorsAndEventsPerSecond;
+    /** How timestamps of reported data are obtained */
+    private final TimingMode timingMode;
+    /** Maximum number of sessions, whose beacons are sent concurrently */
+    private final int beaconSendingParallelism;
+    /** How HTTP requests are sent */
+    private final HTTPTransportMode httpTransportMode;
+    /** Compression level of beacon data */
+    private final int beaconCompressionLevel;
+    /** Minimum size in bytes of beacon data, which is compressed */
+    private final int minBeaconCompressionSize;
 
     /**
      * Initialize this configuration.
@@ -83,6 +105,16 @@ public class OpenKitConfiguration {
         modelID = builder.getModelID();
         defaultServerID = builder.getDefaultServerID();
         sslTrustManager = builder.getTrustManager();
+        deferredBeaconSerializationEnabled = builder.isDeferredBeaconSerializationEnabled();
+        valueAggregationEnabled = builder.isValueAggregationEnabled();
+        valueAggregationBuckets = builder.getValueAggregationBuckets();
+        deduplicationWindow = builder.getErrorAndEventDeduplicationWindow();
+        maxErrorsAndEventsPerSecond = builder.getMaxErrorsAndEventsPerSecond();
+        timingMode = builder.getTimingMode();
+        beaconSendingParallelism = builder.getBeaconSendingParallelism();
+        httpTransportMode = builder.getHTTPTransportMode();
+        beaconCompressionLevel = builder.getBeaconCompressionLevel();
+        minBeaconCompressionSize = builder.getMinBeaconCompressionSize();
     }
 
     /**
@@ -214,4 +246,95 @@ public class OpenKitConfiguration {
     public SSLTrustManager getSSLTrustManager() {
         return sslTrustManager;
     }
+
+    /**
+     * Get a flag indicating whether beacon data is serialized by the beacon sending thread,
+     * instead of the thread reporting the data.
+     *
+     * @return {@code true} if beacon serialization is deferred, {@code false} otherwise.
+     */
+    public boolean isDeferredBeaconSerializationEnabled() {
+        return deferredBeaconSerializationEnabled;
+    }
+
+    /**
+     * Get a flag indicating whether int and double values reported on an action are aggregated.
+     *
+     * @return {@code true} if value aggregation is enabled, {@code false} otherwise.
+     */
+    public boolean isValueAggregationEnabled() {
+        return valueAggregationEnabled;
+    }
+
+    /**
+     * Get the upper bounds of the histogram buckets reported with aggregated values.
+     *
+     * @return The bucket bounds in ascending order, which might be empty.
+     */
+    public double[] getValueAggregationBuckets() {
+        return valueAggregationBuckets == null ? new double[0] : valueAggregationBuckets.clone();
+    }
+
+    /**
+     * Get the window, in which identical errors and events are coalesced into one record.
+     *
+     * @return The deduplication window in milliseconds, {@code 0} if deduplication is disabled.
+     */
+    public long getErrorAndEventDeduplicationWindow() {
+        return deduplicationWindow;
+    }
+
+    /**
+     * Get the maximum number of error and event records per second and session.
+     *
+     * @return The maximum number of records per second, {@code 0} if the number is not limited.
+     */
+    public int getMaxErrorsAndEventsPerSecond() {
+        return maxErrorsAndEventsPerSecond;
+    }
+
+    /**
+     * Get the mode, how timestamps of reported data are obtained.
+     *
+     * @return The configured timing mode or {@link TimingMode#defaultValue()} if none has been configured.
+     */
+    public TimingMode getTimingMode() {
+        return timingMode == null ? TimingMode.defaultValue() : timingMode;
+    }
+
+    /**
+     * Get the maximum number of sessions, whose beacons are sent concurrently.
+     *
+     * @return The maximum number of concurrently sent sessions, at least {@code 1}.
+     */
+    public int getBeaconSendingParallelism() {
+        return Math.max(beaconSendingParallelism, 1);
+    }
+
+    /**
+     * Get the mode, how HTTP requests are sent.
+     *
+     * @return The configured HTTP transport mode or {@link HTTPTransportMode#defaultValue()} if none has been configured.
+     */
+    public HTTPTransportMode getHTTPTransportMode() {
+        return httpTransportMode == null ? HTTPTransportMode.defaultValue() : httpTransportMode;
+    }
+
+    /**
+     * Get the compression level used for gzip compressing beacon data.
+     *
+     * @return The compression level, {@code -1} for the default level.
+     */
+    public int getBeaconCompressionLevel() {
+        return beaconCompressionLevel;
+    }
+
+    /**
+     * Get the minimum size in bytes of beacon data, which is gzip compressed.
+     *
+     * @return The minimum size of compressed beacon data, {@code 0} if all beacon data is compressed.
+     */
+    public int getMinBeaconCompressionSize() {
+        return minBeaconCompressionSize;
+    }
 }
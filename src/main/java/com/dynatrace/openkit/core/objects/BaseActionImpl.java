@@ -19,10 +19,12 @@ package com.dynatrace.openkit.core.objects;
 import com.dynatrace.openkit.api.Action;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.api.WebRequestTracer;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.protocol.Beacon;
 
 import java.io.IOException;
 import java.net.URLConnection;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -61,6 +63,9 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
     /** Beacon for sending data */
     final Beacon beacon;
 
+    /** Aggregator for int and double values, {@code null} if values are reported individually or none was reported */
+    private ValueAggregator valueAggregator;
+
     /**
      * Constructor for constructing the base action class.
      *
@@ -103,6 +108,9 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportEvent(" + eventName + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.EVENT)) {
+            return this;
+        }
         synchronized (lockObject) {
             if (!isActionLeft()) {
                 beacon.reportEvent(getID(), eventName);
@@ -120,9 +128,15 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportValue (int) (" + valueName + ", " + value + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.VALUE)) {
+            return this;
+        }
         synchronized (lockObject) {
             if (!isActionLeft()) {
-                beacon.reportValue(getID(), valueName, value);
+                // values exceeding the aggregator's capacity are reported directly
+                if (!beacon.isValueAggregationEnabled() || !getValueAggregator().add(valueName, value)) {
+                    beacon.reportValue(getID(), valueName, value);
+                }
             }
         }
         return this;
@@ -137,9 +151,15 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportValue (double) (" + valueName + ", " + value + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.VALUE)) {
+            return this;
+        }
         synchronized (lockObject) {
             if (!isActionLeft()) {
-                beacon.reportValue(getID(), valueName, value);
+                // values exceeding the aggregator's capacity are reported directly
+                if (!beacon.isValueAggregationEnabled() || !getValueAggregator().add(valueName, value)) {
+                    beacon.reportValue(getID(), valueName, value);
+                }
             }
         }
         return this;
@@ -154,6 +174,9 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportValue (String) (" + valueName + ", " + value + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.VALUE)) {
+            return this;
+        }
         synchronized (lockObject) {
             if (!isActionLeft()) {
                 beacon.reportValue(getID(), valueName, value);
@@ -162,6 +185,86 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         return this;
     }
 
+    @Override
+    public Action reportEvents(String[] eventNames) {
+        if (eventNames == null) {
+            logger.warning(this + "reportEvents: eventNames must not be null");
+            return this;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(this + "reportEvents(" + Arrays.toString(eventNames) + ")");
+        }
+        if (!beacon.isCaptureAllowed(CaptureMask.EVENT)) {
+            return this;
+        }
+        synchronized (lockObject) {
+            if (!isActionLeft()) {
+                beacon.reportEvents(getID(), eventNames);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, int[] values) {
+        if (valueNames == null || values == null || valueNames.length != values.length) {
+            logger.warning(this + "reportValues (int): valueNames and values must not be null and must have the same length");
+            return this;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(this + "reportValues (int) (" + Arrays.toString(valueNames) + ", " + Arrays.toString(values) + ")");
+        }
+        if (!beacon.isCaptureAllowed(CaptureMask.VALUE)) {
+            return this;
+        }
+        synchronized (lockObject) {
+            if (!isActionLeft()) {
+                if (beacon.isValueAggregationEnabled()) {
+                    ValueAggregator aggregator = getValueAggregator();
+                    for (int i = 0; i < valueNames.length; i++) {
+                        if (valueNames[i] != null && !valueNames[i].isEmpty() && !aggregator.add(valueNames[i], values[i])) {
+                            // values exceeding the aggregator's capacity are reported directly
+                            beacon.reportValue(getID(), valueNames[i], values[i]);
+                        }
+                    }
+                } else {
+                    beacon.reportValues(getID(), valueNames, values);
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, double[] values) {
+        if (valueNames == null || values == null || valueNames.length != values.length) {
+            logger.warning(this + "reportValues (double): valueNames and values must not be null and must have the same length");
+            return this;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(this + "reportValues (double) (" + Arrays.toString(valueNames) + ", " + Arrays.toString(values) + ")");
+        }
+        if (!beacon.isCaptureAllowed(CaptureMask.VALUE)) {
+            return this;
+        }
+        synchronized (lockObject) {
+            if (!isActionLeft()) {
+                if (beacon.isValueAggregationEnabled()) {
+                    ValueAggregator aggregator = getValueAggregator();
+                    for (int i = 0; i < valueNames.length; i++) {
+                        if (valueNames[i] != null && !valueNames[i].isEmpty() && !aggregator.add(valueNames[i], values[i])) {
+                            // values exceeding the aggregator's capacity are reported directly
+                            beacon.reportValue(getID(), valueNames[i], values[i]);
+                        }
+                    }
+                } else {
+                    beacon.reportValues(getID(), valueNames, values);
+                }
+            }
+        }
+        return this;
+    }
+
     @Override
     public Action reportError(String errorName, int errorCode, String reason) {
         if (errorName == null || errorName.isEmpty()) {
@@ -171,6 +274,9 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportError(" + errorName + ", " + errorCode + ", " + reason + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.ERROR)) {
+            return this;
+        }
         synchronized (lockObject) {
             if (!isActionLeft()) {
                 beacon.reportError(getID(), errorName, errorCode, reason);
@@ -251,6 +357,13 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
             }
         }
 
+        // report the aggregated values before the action ends
+        // Note: no further values are added, since the action has already been left
+        if (valueAggregator != null) {
+            valueAggregator.reportTo(beacon, getID());
+            valueAggregator = null;
+        }
+
         // set end time and end sequence number
         endTime = beacon.getCurrentTimestamp();
         endSequenceNo = beacon.createSequenceNumber();
@@ -265,6 +378,20 @@ public abstract class BaseActionImpl extends OpenKitComposite implements Action
         return getParentAction();
     }
 
+    /**
+     * Get the value aggregator of this action, which is created on first use.
+     *
+     * <p>
+     * This method must be called while holding {@link #lockObject}.
+     * </p>
+     */
+    private ValueAggregator getValueAggregator() {
+        if (valueAggregator == null) {
+            valueAggregator = new ValueAggregator(beacon.getValueAggregationBuckets());
+        }
+        return valueAggregator;
+    }
+
     /**
      * Get the parent {@link} Action, which might be {@code null} in case the parent does not implement {@link Action}.
      *
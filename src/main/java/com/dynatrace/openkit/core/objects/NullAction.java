@@ -58,6 +58,21 @@ class NullAction implements Action {
         return this;
     }
 
+    @Override
+    public Action reportEvents(String[] eventNames) {
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, int[] values) {
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, double[] values) {
+        return this;
+    }
+
     @Override
     public Action reportError(String errorName, int errorCode, String reason) {
         return this;
@@ -59,6 +59,21 @@ public enum NullRootAction implements RootAction {
         return this;
     }
 
+    @Override
+    public Action reportEvents(String[] eventNames) {
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, int[] values) {
+        return this;
+    }
+
+    @Override
+    public Action reportValues(String[] valueNames, double[] values) {
+        return this;
+    }
+
     @Override
     public Action reportError(String errorName, int errorCode, String reason) {
         return this;
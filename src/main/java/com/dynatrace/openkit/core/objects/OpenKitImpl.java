@@ -26,11 +26,13 @@ import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconCacheEvictor;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
 import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 
@@ -62,6 +64,10 @@ public class OpenKitImpl extends OpenKitComposite implements OpenKit, SessionCre
     private final BeaconSender beaconSender;
     /** watchdog thread to perform certain actions on a session after a specific time */
     private final SessionWatchdog sessionWatchdog;
+    /** dictionary caching the encoded names of all sessions created by this instance */
+    private final NameDictionary nameDictionary;
+    /** pre-encoded beacon data shared by all sessions created by this instance */
+    private final Beacon.SharedBeaconData sharedBeaconData;
 
     /** Boolean value, indicating whether this {@link OpenKit} instance is shutdown or not */
     private boolean isShutdown = false;
@@ -84,6 +90,8 @@ public class OpenKitImpl extends OpenKitComposite implements OpenKit, SessionCre
         this.beaconSender = initializer.getBeaconSender();
         this.beaconCacheEvictor = initializer.getBeaconCacheEvictor();
         this.sessionWatchdog = initializer.getSessionWatchdog();
+        this.nameDictionary = initializer.getNameDictionary();
+        this.sharedBeaconData = initializer.getSharedBeaconData();
 
         logOpenKitInstanceCreation(this.logger, this.openKitConfiguration);
     }
@@ -203,6 +211,28 @@ public class OpenKitImpl extends OpenKitComposite implements OpenKit, SessionCre
         beaconCacheEvictor.stop();
         sessionWatchdog.shutdown();
         beaconSender.shutdown();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName() + " shutdown() - name dictionary"
+                    + " size=" + nameDictionary.size()
+                    + ", hits=" + nameDictionary.getHitCount()
+                    + ", misses=" + nameDictionary.getMissCount()
+                    + ", evictions=" + nameDictionary.getEvictionCount());
+        }
+
+        if (beaconCache instanceof Closeable) {
+            // release resources like the spill file, after the sending thread has sent or spooled all remaining data
+            beaconSender.closeAfterTermination((Closeable) beaconCache);
+        }
+
+        if (timingProvider instanceof Closeable) {
+            // stop background threads like the coarse clock's ticker, after all threads using it have been stopped
+            try {
+                ((Closeable) timingProvider).close();
+            } catch (IOException e) {
+                logger.error(this + "Caught IOException while closing TimingProvider", e);
+            }
+        }
     }
 
     @Override
@@ -255,4 +285,14 @@ public class OpenKitImpl extends OpenKitComposite implements OpenKit, SessionCre
     public int getCurrentServerId() {
         return beaconSender.getCurrentServerId();
     }
+
+    @Override
+    public NameDictionary getNameDictionary() {
+        return nameDictionary;
+    }
+
+    @Override
+    public Beacon.SharedBeaconData getSharedBeaconData() {
+        return sharedBeaconData;
+    }
 }
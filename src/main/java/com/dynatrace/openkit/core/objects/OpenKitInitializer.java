@@ -23,6 +23,8 @@ import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconCacheEvictor;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
+import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
@@ -81,4 +83,14 @@ public interface OpenKitInitializer {
      * Watchdog thread to perform certain actions for sessions at/after a specific time.
      */
     SessionWatchdog getSessionWatchdog();
+
+    /**
+     * Dictionary caching the encoded action, event, value and error names of this OpenKit instance.
+     */
+    NameDictionary getNameDictionary();
+
+    /**
+     * Pre-encoded beacon data, which is the same for all beacons of this OpenKit instance.
+     */
+    Beacon.SharedBeaconData getSharedBeaconData();
 }
@@ -16,6 +16,8 @@
 package com.dynatrace.openkit.core.objects;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.HTTPTransportMode;
+import com.dynatrace.openkit.TimingMode;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.BeaconSender;
 import com.dynatrace.openkit.core.SessionWatchdog;
@@ -23,18 +25,29 @@ import com.dynatrace.openkit.core.SessionWatchdogContext;
 import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconCacheEvictor;
 import com.dynatrace.openkit.core.caching.BeaconCacheImpl;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.caching.TieredBeaconCache;
 import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
+import com.dynatrace.openkit.protocol.Beacon;
+import com.dynatrace.openkit.providers.CoarseTimingProvider;
 import com.dynatrace.openkit.providers.DefaultHTTPClientProvider;
 import com.dynatrace.openkit.providers.DefaultSessionIDProvider;
 import com.dynatrace.openkit.providers.DefaultThreadIDProvider;
 import com.dynatrace.openkit.providers.DefaultTimingProvider;
+import com.dynatrace.openkit.providers.HTTPClientProvider;
+import com.dynatrace.openkit.providers.MonotonicTimingProvider;
+import com.dynatrace.openkit.providers.NioHTTPClientProvider;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
 
+import java.io.File;
+import java.io.IOException;
+
 public class OpenKitInitializerImpl implements OpenKitInitializer {
 
     private final Logger logger;
@@ -47,24 +60,115 @@ public class OpenKitInitializerImpl implements OpenKitInitializer {
     private final BeaconCacheEvictor beaconCacheEvictor;
     private final BeaconSender beaconSender;
     private final SessionWatchdog sessionWatchdog;
+    private final NameDictionary nameDictionary;
+    private final Beacon.SharedBeaconData sharedBeaconData;
 
     public OpenKitInitializerImpl(AbstractOpenKitBuilder builder) {
         logger = builder.getLogger();
         privacyConfiguration = PrivacyConfiguration.from(builder);
         openKitConfiguration = OpenKitConfiguration.from(builder);
 
-        timingProvider = new DefaultTimingProvider();
+        timingProvider = createTimingProvider(openKitConfiguration.getTimingMode());
         threadIdProvider = new DefaultThreadIDProvider();
         sessionIdProvider = new DefaultSessionIDProvider();
 
-        beaconCache = new BeaconCacheImpl(logger);
-        beaconCacheEvictor = new BeaconCacheEvictor(logger, beaconCache, BeaconCacheConfiguration.from(builder), timingProvider);
+        BeaconCacheConfiguration beaconCacheConfiguration = BeaconCacheConfiguration.from(builder);
+        TieredBeaconCache tieredBeaconCache = createTieredBeaconCache(logger, beaconCacheConfiguration);
+        if (tieredBeaconCache != null) {
+            beaconCache = tieredBeaconCache;
+            beaconCacheEvictor = new BeaconCacheEvictor(logger, tieredBeaconCache, beaconCacheConfiguration, timingProvider);
+        } else {
+            beaconCache = new BeaconCacheImpl(logger);
+            beaconCacheEvictor = new BeaconCacheEvictor(logger, beaconCache, beaconCacheConfiguration, timingProvider);
+        }
 
         HTTPClientConfiguration httpClientConfig = HTTPClientConfiguration.from(openKitConfiguration);
-        beaconSender = new BeaconSender(logger, httpClientConfig, new DefaultHTTPClientProvider(logger), timingProvider);
+        BeaconSpool beaconSpool = createBeaconSpool(logger, beaconCacheConfiguration, openKitConfiguration,
+            timingProvider);
+        HTTPClientProvider httpClientProvider = createHTTPClientProvider(logger, openKitConfiguration.getHTTPTransportMode());
+        beaconSender = new BeaconSender(logger, httpClientConfig, httpClientProvider, timingProvider, beaconSpool,
+                openKitConfiguration.getBeaconSendingParallelism());
         sessionWatchdog = new SessionWatchdog(logger, new SessionWatchdogContext(timingProvider));
+        nameDictionary = Beacon.createNameDictionary();
+        sharedBeaconData = Beacon.createSharedBeaconData(openKitConfiguration, privacyConfiguration);
+    }
+
+    /**
+     * Create the {@link TimingProvider} for the given {@link TimingMode}.
+     *
+     * @return The timing provider, which is {@link java.io.Closeable} in case of a coarse timing mode.
+     */
+    private static TimingProvider createTimingProvider(TimingMode timingMode) {
+        switch (timingMode) {
+            case MONOTONIC:
+                return new MonotonicTimingProvider();
+            case MONOTONIC_COARSE:
+                return new CoarseTimingProvider();
+            default:
+                return new DefaultTimingProvider();
+        }
+    }
+
+    /**
+     * Create the {@link HTTPClientProvider} for the given {@link HTTPTransportMode}.
+     *
+     * @return The HTTP client provider, which is {@link java.io.Closeable} in case of the NIO transport mode.
+     */
+    private static HTTPClientProvider createHTTPClientProvider(Logger logger, HTTPTransportMode httpTransportMode) {
+        switch (httpTransportMode) {
+            case NIO:
+                return new NioHTTPClientProvider(logger);
+            default:
+                return new DefaultHTTPClientProvider(logger);
+        }
+    }
+
+    /**
+     * Create a {@link TieredBeaconCache}, if a spill directory is configured.
+     *
+     * @return The tiered cache or {@code null} if spilling is disabled or the spill file cannot be created.
+     */
+    private static TieredBeaconCache createTieredBeaconCache(Logger logger, BeaconCacheConfiguration configuration) {
+        if (configuration.getSpillDirectory() == null) {
+            return null;
+        }
+
+        try {
+            return new TieredBeaconCache(logger, configuration);
+        } catch (IOException e) {
+            logger.error(OpenKitInitializerImpl.class.getSimpleName() + " createTieredBeaconCache() - "
+                + "Failed to create spill file in " + configuration.getSpillDirectory() + ", records are kept on the heap", e);
+            return null;
+        }
     }
 
+    /**
+     * Create a {@link BeaconSpool}, if a spool directory is configured.
+     *
+     * @return The beacon spool or {@code null} if spooling is disabled.
+     */
+    private static BeaconSpool createBeaconSpool(Logger logger,
+                                                 BeaconCacheConfiguration beaconCacheConfiguration,
+                                                 OpenKitConfiguration openKitConfiguration,
+                                                 TimingProvider timingProvider) {
+        if (beaconCacheConfiguration.getSpoolDirectory() == null) {
+            return null;
+        }
+
+        File spoolDirectory = beaconCacheConfiguration.getSpoolDirectory();
+        if (!spoolDirectory.isDirectory() && !spoolDirectory.mkdirs()) {
+            logger.error(OpenKitInitializerImpl.class.getSimpleName() + " createBeaconSpool() - "
+                + "Failed to create spool directory " + spoolDirectory + ", unsent data is discarded at shutdown");
+            return null;
+        }
+
+        return new BeaconSpool(logger,
+            BeaconSpool.getSpoolFile(spoolDirectory, openKitConfiguration.getApplicationID()),
+            beaconCacheConfiguration.getSpoolReplayInterval(),
+            beaconCacheConfiguration.getSpoolMaxSize(),
+            beaconCacheConfiguration.getSpoolMaxRecordAge(),
+            timingProvider);
+    }
 
     @Override
     public Logger getLogger() {
@@ -115,4 +219,14 @@ public class OpenKitInitializerImpl implements OpenKitInitializer {
     public SessionWatchdog getSessionWatchdog() {
         return sessionWatchdog;
     }
+
+    @Override
+    public NameDictionary getNameDictionary() {
+        return nameDictionary;
+    }
+
+    @Override
+    public Beacon.SharedBeaconData getSharedBeaconData() {
+        return sharedBeaconData;
+    }
 }
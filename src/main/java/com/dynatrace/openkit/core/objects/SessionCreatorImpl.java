@@ -20,6 +20,7 @@ import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.configuration.BeaconConfiguration;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
 import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.protocol.BeaconInitializer;
 import com.dynatrace.openkit.providers.DefaultRandomNumberGenerator;
@@ -44,6 +45,10 @@ public class SessionCreatorImpl implements SessionCreator, BeaconInitializer {
     private final TimingProvider timingProvider;
     // cache for storing beacon data until it gets send
     private final BeaconCache beaconCache;
+    // dictionary caching encoded names, shared by all sessions of the OpenKit instance
+    private final NameDictionary nameDictionary;
+    // pre-encoded beacon data, shared by all sessions of the OpenKit instance
+    private final Beacon.SharedBeaconData sharedBeaconData;
 
     private final String clientIpAddress;
     private final int serverId;
@@ -65,6 +70,8 @@ public class SessionCreatorImpl implements SessionCreator, BeaconInitializer {
         this.beaconCache = input.getBeaconCache();
         this.threadIdProvider = input.getThreadIdProvider();
         this.timingProvider = input.getTimingProvider();
+        this.nameDictionary = input.getNameDictionary();
+        this.sharedBeaconData = input.getSharedBeaconData();
         this.clientIpAddress = clientIpAddress;
 
         this.serverId = input.getCurrentServerId();
@@ -144,4 +151,14 @@ public class SessionCreatorImpl implements SessionCreator, BeaconInitializer {
     public RandomNumberGenerator getRandomNumberGenerator() {
         return fixedRandomNumberGenerator;
     }
+
+    @Override
+    public NameDictionary getNameDictionary() {
+        return nameDictionary;
+    }
+
+    @Override
+    public Beacon.SharedBeaconData getSharedBeaconData() {
+        return sharedBeaconData;
+    }
 }
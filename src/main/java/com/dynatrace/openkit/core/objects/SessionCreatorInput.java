@@ -20,6 +20,8 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
+import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
@@ -68,4 +70,14 @@ public interface SessionCreatorInput {
      * Returns the current server ID.
      */
     int getCurrentServerId();
+
+    /**
+     * Returns the dictionary caching the encoded action, event, value and error names.
+     */
+    NameDictionary getNameDictionary();
+
+    /**
+     * Returns the pre-encoded beacon data, which is the same for all sessions.
+     */
+    Beacon.SharedBeaconData getSharedBeaconData();
 }
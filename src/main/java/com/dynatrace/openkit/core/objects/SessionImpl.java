@@ -20,6 +20,8 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.api.RootAction;
 import com.dynatrace.openkit.api.Session;
 import com.dynatrace.openkit.api.WebRequestTracer;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
 import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
 import com.dynatrace.openkit.protocol.Beacon;
@@ -101,6 +103,9 @@ public class SessionImpl extends OpenKitComposite implements Session {
         if (logger.isDebugEnabled()) {
             logger.debug(this + "identifyUser(" + userTag + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.USER_IDENTIFICATION)) {
+            return;
+        }
         synchronized (state) {
             if (!state.isFinishingOrFinished()) {
                 beacon.identifyUser(userTag);
@@ -117,6 +122,9 @@ public class SessionImpl extends OpenKitComposite implements Session {
         if (logger.isDebugEnabled()) {
             logger.debug(this + "reportCrash(" + errorName + ", " + reason + ", " + stacktrace + ")");
         }
+        if (!beacon.isCaptureAllowed(CaptureMask.CRASH)) {
+            return;
+        }
         synchronized (state) {
             if (!state.isFinishingOrFinished()) {
                 beacon.reportCrash(errorName, reason, stacktrace);
@@ -267,6 +275,19 @@ public class SessionImpl extends OpenKitComposite implements Session {
         beacon.clearData();
     }
 
+    /**
+     * Moves the data, which has not been sent so far, to the given spool.
+     *
+     * <p>
+     * This is called on shutdown, when the remaining data could not be sent.
+     * </p>
+     *
+     * @param spool The spool receiving the data.
+     */
+    public void spoolCapturedData(BeaconSpool spool) {
+        beacon.spoolData(spool);
+    }
+
     /**
      * Test if this Session is empty or not.
      *
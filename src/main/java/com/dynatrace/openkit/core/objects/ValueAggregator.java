@@ -0,0 +1,215 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.objects;
+
+import com.dynatrace.openkit.protocol.Beacon;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregates int and double values reported on an action into one summary per value name.
+ *
+ * <p>
+ * Each summary consists of the count, sum, minimum and maximum of the reported values and optionally
+ * the number of values per histogram bucket. The summaries are reported as regular values when the action is left.
+ * </p>
+ *
+ * <p>
+ * The summaries are kept on the heap until the action is left, where the beacon cache can't evict them.
+ * Therefore at most {@link #MAX_SUMMARIES} value names are aggregated, values with further names are not accepted
+ * and have to be reported directly.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe, callers must synchronize access.
+ * </p>
+ */
+class ValueAggregator {
+
+    static final String COUNT_SUFFIX = ".count";
+    static final String SUM_SUFFIX = ".sum";
+    static final String MIN_SUFFIX = ".min";
+    static final String MAX_SUFFIX = ".max";
+    static final String BUCKET_SUFFIX = ".le_";
+
+    /** Maximum number of distinct value names aggregated per action */
+    static final int MAX_SUMMARIES = 100;
+
+    /** Upper bounds of the histogram buckets in ascending order */
+    private final double[] bucketBounds;
+    /** Summaries by value name, in the order the values were reported first */
+    private final Map<String, ValueSummary> summaries = new LinkedHashMap<String, ValueSummary>();
+
+    /**
+     * Create a value aggregator.
+     *
+     * @param bucketBounds The upper bounds of the histogram buckets in ascending order.
+     */
+    ValueAggregator(double[] bucketBounds) {
+        this.bucketBounds = bucketBounds == null ? new double[0] : bucketBounds;
+    }
+
+    /**
+     * Add an int value.
+     *
+     * @param valueName The name of the value.
+     * @param value     The value to add.
+     * @return {@code true} if the value was added, {@code false} if the maximum number of summaries is reached.
+     */
+    boolean add(String valueName, int value) {
+        ValueSummary summary = getSummary(valueName);
+        if (summary == null) {
+            return false;
+        }
+        summary.add(value, true);
+        return true;
+    }
+
+    /**
+     * Add a double value.
+     *
+     * @param valueName The name of the value.
+     * @param value     The value to add.
+     * @return {@code true} if the value was added, {@code false} if the maximum number of summaries is reached.
+     */
+    boolean add(String valueName, double value) {
+        ValueSummary summary = getSummary(valueName);
+        if (summary == null) {
+            return false;
+        }
+        summary.add(value, false);
+        return true;
+    }
+
+    /**
+     * Test if no value has been added so far.
+     */
+    boolean isEmpty() {
+        return summaries.isEmpty();
+    }
+
+    /**
+     * Report all summaries to the given beacon and remove them from this aggregator.
+     *
+     * <p>
+     * If all values with the same name were int values, the count, minimum and maximum are reported as int values,
+     * as well as the sum, if it fits into an int. Otherwise the values are reported as double values.
+     * The value name is truncated, so that the suffixes are kept within the maximum name length.
+     * </p>
+     *
+     * @param beacon   The beacon to which the summaries are reported.
+     * @param actionID The ID of the action on which the values were reported.
+     */
+    void reportTo(Beacon beacon, int actionID) {
+        for (Map.Entry<String, ValueSummary> entry : summaries.entrySet()) {
+            String valueName = entry.getKey();
+            ValueSummary summary = entry.getValue();
+
+            reportCount(beacon, actionID, Beacon.appendSuffix(valueName, COUNT_SUFFIX), summary.count);
+            reportNumber(beacon, actionID, Beacon.appendSuffix(valueName, SUM_SUFFIX), summary.sum, summary.isIntegral);
+            reportNumber(beacon, actionID, Beacon.appendSuffix(valueName, MIN_SUFFIX), summary.min, summary.isIntegral);
+            reportNumber(beacon, actionID, Beacon.appendSuffix(valueName, MAX_SUFFIX), summary.max, summary.isIntegral);
+
+            // buckets are reported cumulative, like the number of values less than or equal to the bound
+            long numValues = 0;
+            for (int i = 0; i < bucketBounds.length; i++) {
+                numValues += summary.bucketCounts[i];
+                reportCount(beacon, actionID, Beacon.appendSuffix(valueName, BUCKET_SUFFIX + formatBound(bucketBounds[i])),
+                    numValues);
+            }
+        }
+        summaries.clear();
+    }
+
+    /**
+     * Get the summary of the given value name, which is created if it does not exist yet.
+     *
+     * @return The summary or {@code null} if the maximum number of summaries is reached.
+     */
+    private ValueSummary getSummary(String valueName) {
+        ValueSummary summary = summaries.get(valueName);
+        if (summary == null) {
+            if (summaries.size() >= MAX_SUMMARIES) {
+                return null;
+            }
+            summary = new ValueSummary(bucketBounds);
+            summaries.put(valueName, summary);
+        }
+        return summary;
+    }
+
+    private static void reportCount(Beacon beacon, int actionID, String valueName, long count) {
+        reportNumber(beacon, actionID, valueName, count, true);
+    }
+
+    private static void reportNumber(Beacon beacon, int actionID, String valueName, double value, boolean isIntegral) {
+        if (isIntegral && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            beacon.reportValue(actionID, valueName, (int) value);
+        } else {
+            beacon.reportValue(actionID, valueName, value);
+        }
+    }
+
+    /**
+     * Format a bucket bound for the value name, integral bounds are formatted without fraction digits.
+     */
+    static String formatBound(double bound) {
+        if (bound == Math.rint(bound) && Math.abs(bound) < Long.MAX_VALUE) {
+            return Long.toString((long) bound);
+        }
+        return Double.toString(bound);
+    }
+
+    /**
+     * Summary of the values reported with the same name.
+     */
+    private static final class ValueSummary {
+
+        private final double[] bucketBounds;
+        private final long[] bucketCounts;
+
+        private long count = 0;
+        private double sum = 0.0;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private boolean isIntegral = true;
+
+        private ValueSummary(double[] bucketBounds) {
+            this.bucketBounds = bucketBounds;
+            this.bucketCounts = new long[bucketBounds.length];
+        }
+
+        private void add(double value, boolean isIntegralValue) {
+            count++;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            isIntegral &= isIntegralValue;
+
+            int index = Arrays.binarySearch(bucketBounds, value);
+            if (index < 0) {
+                // not a bucket bound, determine the first bound greater than the value
+                index = -index - 1;
+            }
+            if (index < bucketCounts.length) {
+                bucketCounts[index]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread safe dictionary mapping raw names (e.g. action, event and value names) to their
+ * truncated and percent encoded form.
+ *
+ * <p>
+ *     Applications typically report a limited number of distinct names, which are encoded over and over again.
+ *     With this dictionary, encoding a known name is a single lookup, and all records using the same name
+ *     share the same encoded instance.
+ * </p>
+ *
+ * <p>
+ *     To stay bounded with a high number of distinct names, the names are kept in two generations.
+ *     New names are added to the current generation. Once the current generation reaches the configured capacity,
+ *     it becomes the previous generation and the former previous generation is dropped.
+ *     Names found in the previous generation are moved to the current generation, so that frequently used names
+ *     survive, while rarely used names are evicted. At most twice the capacity of names is kept.
+ * </p>
+ */
+public class NameDictionary {
+
+    /** Maximum number of names per generation */
+    private final int capacity;
+    /** Maximum length of a name, longer names are truncated */
+    private final int maxNameLength;
+    /** Encoder applied to the truncated names */
+    private final PercentEncoder encoder;
+
+    private volatile Generation currentGeneration = new Generation();
+    private volatile Generation previousGeneration = new Generation();
+
+    private final AtomicLong hitCount = new AtomicLong(0L);
+    private final AtomicLong missCount = new AtomicLong(0L);
+    private final AtomicLong evictionCount = new AtomicLong(0L);
+
+    /**
+     * Create a name dictionary.
+     *
+     * @param capacity      The maximum number of names per generation.
+     * @param maxNameLength The maximum length of a name, after trimming, longer names are truncated.
+     * @param encoder       The encoder applied to the trimmed and truncated names.
+     */
+    public NameDictionary(int capacity, int maxNameLength, PercentEncoder encoder) {
+        this.capacity = Math.max(1, capacity);
+        this.maxNameLength = maxNameLength;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Get the encoded form of the given name.
+     *
+     * <p>
+     *     The name is trimmed, truncated to the maximum name length and percent encoded.
+     * </p>
+     *
+     * @param name The raw name, which must not be {@code null}.
+     * @return The encoded name.
+     */
+    public String getEncodedName(String name) {
+        Generation current = currentGeneration;
+        String encodedName = current.names.get(name);
+        if (encodedName != null) {
+            hitCount.incrementAndGet();
+            return encodedName;
+        }
+
+        encodedName = previousGeneration.names.get(name);
+        if (encodedName != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            encodedName = encode(name);
+        }
+
+        String existingName = current.names.putIfAbsent(name, encodedName);
+        if (existingName != null) {
+            // another thread was faster, share its instance
+            return existingName;
+        }
+        if (current.size.incrementAndGet() >= capacity) {
+            startNewGeneration(current);
+        }
+
+        return encodedName;
+    }
+
+    /**
+     * Make the given generation the previous one and start a new current generation.
+     *
+     * @param fullGeneration The current generation, which reached the capacity.
+     */
+    private synchronized void startNewGeneration(Generation fullGeneration) {
+        if (currentGeneration != fullGeneration) {
+            // another thread already started a new generation
+            return;
+        }
+        evictionCount.addAndGet(previousGeneration.size.get());
+        previousGeneration = fullGeneration;
+        currentGeneration = new Generation();
+    }
+
+    private String encode(String name) {
+        name = name.trim();
+        if (name.length() > maxNameLength) {
+            name = name.substring(0, maxNameLength);
+        }
+        return encoder.encode(name);
+    }
+
+    /**
+     * Get the number of lookups, which found the name in the dictionary.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups, which had to encode the name.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the number of names, which were dropped together with the previous generation.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Get the number of names currently kept in the dictionary.
+     *
+     * <p>
+     *     Names moved from the previous to the current generation might be counted twice.
+     * </p>
+     */
+    public int size() {
+        return currentGeneration.size.get() + previousGeneration.size.get();
+    }
+
+    /**
+     * A generation of names.
+     */
+    private static final class Generation {
+        private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<String, String>();
+        private final AtomicInteger size = new AtomicInteger(0);
+    }
+}
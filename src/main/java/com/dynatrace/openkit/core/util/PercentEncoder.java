@@ -31,11 +31,19 @@ import java.util.BitSet;
  *     Unlike Java's {@code URLEncoder} this class uses RFC 3986 to determine
  *     the unreserved characters(see also <a href="https://tools.ietf.org/html/rfc3986#section-2.3">https://tools.ietf.org/html/rfc3986#section-2.3</a>)
  * </p>
+ *
+ * <p>
+ *     Instances of this class are immutable UTF-8 encoders, precomputing the set of unreserved characters once.
+ *     They append the encoded data directly to a given {@link StringBuilder}, without any temporary objects.
+ *     Instances are thread safe and should be kept in a constant.
+ * </p>
  */
 public class PercentEncoder {
 
+    private static final String UTF8 = "UTF-8";
     private static final int UNRESERVED_CHARACTERS_BITS = 128; // US-ASCII range
     private static final BitSet UNRESERVED_CHARACTERS = new BitSet(UNRESERVED_CHARACTERS_BITS);
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
     static {
         // initialize all unreserved characters
@@ -55,13 +63,99 @@ public class PercentEncoder {
     }
 
     /**
-     * Default constructor.
+     * Lookup table for US-ASCII characters, which are not percent encoded.
+     */
+    private final boolean[] unreservedCharacters = new boolean[UNRESERVED_CHARACTERS_BITS];
+
+    /**
+     * Create a UTF-8 percent encoder.
+     *
+     * @param additionalReservedChars Characters that should be unreserved, but need
+     *                                to be considered reserved too.
+     */
+    public PercentEncoder(char[] additionalReservedChars) {
+        for (int i = 0; i < UNRESERVED_CHARACTERS_BITS; i++) {
+            unreservedCharacters[i] = UNRESERVED_CHARACTERS.get(i);
+        }
+        if (additionalReservedChars != null) {
+            for (char c : additionalReservedChars) {
+                if (c < UNRESERVED_CHARACTERS_BITS) {
+                    unreservedCharacters[c] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Percent-encode a given input string using UTF-8.
+     *
+     * @param input The input string to percent-encode.
+     * @return Percent encoded string, which is the input string itself if nothing needs to be encoded.
+     */
+    public String encode(String input) {
+        int index = 0;
+        while (index < input.length() && isUnreserved(input.charAt(index))) {
+            index++;
+        }
+        if (index == input.length()) {
+            return input;
+        }
+
+        StringBuilder resultBuilder = new StringBuilder(input.length() + 16);
+        resultBuilder.append(input, 0, index);
+        encode(input, index, resultBuilder);
+
+        return resultBuilder.toString();
+    }
+
+    /**
+     * Percent-encode a given input using UTF-8 and append it to the given builder.
      *
-     * <p>
-     *     This constructor is private, since this class shall be used as utility class.
-     * </p>
+     * @param input The input to percent-encode.
+     * @param output The builder to which the percent encoded input is appended.
      */
-    private PercentEncoder() {
+    public void encode(CharSequence input, StringBuilder output) {
+        encode(input, 0, output);
+    }
+
+    private void encode(CharSequence input, int start, StringBuilder output) {
+        int length = input.length();
+        for (int index = start; index < length; index++) {
+            char c = input.charAt(index);
+            if (c < UNRESERVED_CHARACTERS_BITS) {
+                // US-ASCII fast path
+                if (unreservedCharacters[c]) {
+                    output.append(c);
+                } else {
+                    appendHexEncoded(output, c);
+                }
+            } else if (c < 0x800) {
+                appendHexEncoded(output, 0xC0 | (c >> 6));
+                appendHexEncoded(output, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && index + 1 < length && Character.isLowSurrogate(input.charAt(index + 1))) {
+                index++;
+                int codePoint = Character.toCodePoint(c, input.charAt(index));
+                appendHexEncoded(output, 0xF0 | (codePoint >> 18));
+                appendHexEncoded(output, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendHexEncoded(output, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendHexEncoded(output, 0x80 | (codePoint & 0x3F));
+            } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                // unpaired surrogate, which is replaced the same way as String.getBytes does
+                appendHexEncoded(output, '?');
+            } else {
+                appendHexEncoded(output, 0xE0 | (c >> 12));
+                appendHexEncoded(output, 0x80 | ((c >> 6) & 0x3F));
+                appendHexEncoded(output, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private boolean isUnreserved(char c) {
+        return c < UNRESERVED_CHARACTERS_BITS && unreservedCharacters[c];
+    }
+
+    private static void appendHexEncoded(StringBuilder output, int b) {
+        output.append('%').append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
     }
 
     /**
@@ -86,6 +180,10 @@ public class PercentEncoder {
      */
     public static String encode(String input, String encoding, char[] additionalReservedChars) {
 
+        if (UTF8.equalsIgnoreCase(encoding)) {
+            return new PercentEncoder(additionalReservedChars).encode(input);
+        }
+
         BitSet unreservedSet = buildUnreservedCharacters(additionalReservedChars);
         StringBuilder resultBuilder = new StringBuilder(input.length());
 
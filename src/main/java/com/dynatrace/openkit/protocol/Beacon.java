@@ -19,7 +19,11 @@ package com.dynatrace.openkit.protocol;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconKey;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.caching.RecordPriority;
+import com.dynatrace.openkit.core.caching.SpooledBeacon;
 import com.dynatrace.openkit.core.configuration.BeaconConfiguration;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
@@ -28,13 +32,17 @@ import com.dynatrace.openkit.core.objects.BaseActionImpl;
 import com.dynatrace.openkit.core.objects.SessionImpl;
 import com.dynatrace.openkit.core.objects.WebRequestTracerBaseImpl;
 import com.dynatrace.openkit.core.util.InetAddressValidator;
+import com.dynatrace.openkit.core.util.NameDictionary;
 import com.dynatrace.openkit.core.util.PercentEncoder;
 import com.dynatrace.openkit.providers.HTTPClientProvider;
 import com.dynatrace.openkit.providers.RandomNumberGenerator;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
 
-import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -86,6 +94,10 @@ public class Beacon {
     private static final String BEACON_KEY_ERROR_STACKTRACE = "st";
     private static final String BEACON_KEY_ERROR_TECHNOLOGY_TYPE = "tt";
 
+    // suffix of the value reporting the number of coalesced identical errors or events,
+    // distinct from the suffixes of aggregated values
+    static final String OCCURRENCES_SUFFIX = ".occurrences";
+
     // web request constants
     private static final String BEACON_KEY_WEBREQUEST_RESPONSECODE = "rc";
     private static final String BEACON_KEY_WEBREQUEST_BYTES_SENT = "bs";
@@ -102,9 +114,19 @@ public class Beacon {
 
     // web request tag reserved characters
     private static final char[] RESERVED_CHARACTERS = {'_'};
+    private static final PercentEncoder PERCENT_ENCODER = new PercentEncoder(RESERVED_CHARACTERS);
+
+    // maximum number of encoded names per generation of an OpenKit instance's name dictionary
+    private static final int NAME_DICTIONARY_CAPACITY = 1000;
 
     private static final char BEACON_DATA_DELIMITER = '&';
 
+    // initial capacity of the builder used for the chunk prefix
+    private static final int CHUNK_PREFIX_CAPACITY = 512;
+
+    // maximum number of captured records waiting for deferred serialization
+    static final int MAX_PENDING_RECORDS = 1000;
+
     // next ID and sequence number
     private final AtomicInteger nextID = new AtomicInteger(0);
     private final AtomicInteger nextSequenceNumber = new AtomicInteger(0);
@@ -121,8 +143,14 @@ public class Beacon {
     // client IP address
     private final String clientIPAddress;
 
-    // basic beacon data which does not change over time
-    private final String immutableBasicBeaconData;
+    // pre-encoded beacon data, which is the same for all beacons of an OpenKit instance
+    private final SharedBeaconData sharedBeaconData;
+
+    // encoded action, event, value and error names, shared by all beacons of an OpenKit instance
+    private final NameDictionary nameDictionary;
+
+    // pre-encoded session specific beacon data, which does not change over time
+    private final String sessionBeaconData;
 
     // Configuration object required for this Beacon
     private final BeaconConfiguration configuration;
@@ -131,6 +159,15 @@ public class Beacon {
 
     private final BeaconCache beaconCache;
 
+    // records captured on application threads, which are serialized by the beacon sending thread
+    private final boolean isSerializationDeferred;
+    private final Queue<CapturedBeaconRecord> pendingRecords = new ConcurrentLinkedQueue<CapturedBeaconRecord>();
+    private final AtomicInteger numPendingRecords = new AtomicInteger(0);
+
+    // storm suppression for errors and events, which is null if disabled
+    private final RecordDeduplicator deduplicator;
+    private final RecordRateLimiter rateLimiter;
+
     /**
      * Creates a new beacon instance
      *
@@ -149,6 +186,7 @@ public class Beacon {
 
         this.configuration = configuration;
         this.threadIDProvider = initializer.getThreadIdProvider();
+        this.nameDictionary = initializer.getNameDictionary();
         this.sessionStartTime = timingProvider.provideTimestampInMilliseconds();
 
         this.deviceID = createDeviceID(initializer.getRandomNumberGenerator(), configuration);
@@ -167,7 +205,15 @@ public class Beacon {
             this.clientIPAddress = "";
         }
 
-        immutableBasicBeaconData = createImmutableBasicBeaconData();
+        sharedBeaconData = getSharedBeaconData(initializer.getSharedBeaconData(), configuration);
+        sessionBeaconData = createSessionBeaconData();
+        OpenKitConfiguration openKitConfiguration = configuration.getOpenKitConfiguration();
+        isSerializationDeferred = openKitConfiguration.isDeferredBeaconSerializationEnabled();
+
+        long deduplicationWindow = openKitConfiguration.getErrorAndEventDeduplicationWindow();
+        deduplicator = deduplicationWindow > 0 ? new RecordDeduplicator(deduplicationWindow) : null;
+        int maxErrorsAndEventsPerSecond = openKitConfiguration.getMaxErrorsAndEventsPerSecond();
+        rateLimiter = maxErrorsAndEventsPerSecond > 0 ? new RecordRateLimiter(logger, maxErrorsAndEventsPerSecond) : null;
     }
 
     /**
@@ -278,26 +324,32 @@ public class Beacon {
      */
     public void addAction(BaseActionImpl action) {
 
-        if (!configuration.getPrivacyConfiguration().isActionReportingAllowed()) {
-            return;
-        }
-
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.ACTION)) {
             return;
         }
 
-        StringBuilder actionBuilder = new StringBuilder();
-
-        buildBasicEventData(actionBuilder, EventType.ACTION, action.getName());
-
-        addKeyValuePair(actionBuilder, BEACON_KEY_ACTION_ID, action.getID());
-        addKeyValuePair(actionBuilder, BEACON_KEY_PARENT_ACTION_ID, action.getParentID());
-        addKeyValuePair(actionBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, action.getStartSequenceNo());
-        addKeyValuePair(actionBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(action.getStartTime()));
-        addKeyValuePair(actionBuilder, BEACON_KEY_END_SEQUENCE_NUMBER, action.getEndSequenceNo());
-        addKeyValuePair(actionBuilder, BEACON_KEY_TIME_1, action.getEndTime() - action.getStartTime());
-
-        addActionData(action.getStartTime(), actionBuilder);
+        final String name = action.getName();
+        final int threadID = threadIDProvider.getThreadID();
+        final int actionID = action.getID();
+        final int parentActionID = action.getParentID();
+        final int startSequenceNumber = action.getStartSequenceNo();
+        final long startTime = action.getStartTime();
+        final int endSequenceNumber = action.getEndSequenceNo();
+        final long duration = action.getEndTime() - startTime;
+
+        addRecord(new CapturedBeaconRecord(EventType.ACTION, startTime) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildBasicEventData(builder, EventType.ACTION, name, threadID);
+
+                addKeyValuePair(builder, BEACON_KEY_ACTION_ID, actionID);
+                addKeyValuePair(builder, BEACON_KEY_PARENT_ACTION_ID, parentActionID);
+                addKeyValuePair(builder, BEACON_KEY_START_SEQUENCE_NUMBER, startSequenceNumber);
+                addKeyValuePair(builder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(startTime));
+                addKeyValuePair(builder, BEACON_KEY_END_SEQUENCE_NUMBER, endSequenceNumber);
+                addKeyValuePair(builder, BEACON_KEY_TIME_1, duration);
+            }
+        });
     }
 
     /**
@@ -313,15 +365,15 @@ public class Beacon {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
+        final int threadID = threadIDProvider.getThreadID();
+        final int sequenceNumber = createSequenceNumber();
 
-        buildBasicEventData(eventBuilder, EventType.SESSION_START, null);
-
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, 0);
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, 0L);
-
-        addEventData(sessionStartTime, eventBuilder);
+        addRecord(new CapturedBeaconRecord(EventType.SESSION_START, sessionStartTime) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.SESSION_START, null, threadID, 0, sequenceNumber, sessionStartTime);
+            }
+        });
     }
 
     /**
@@ -333,24 +385,23 @@ public class Beacon {
      */
     public void endSession() {
 
-        if (!configuration.getPrivacyConfiguration().isSessionReportingAllowed()) {
-            return;
-        }
+        // coalesced errors and events belong to the session, emit them before it ends
+        closeDeduplicationWindows(true);
 
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.SESSION_END)) {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
+        final int threadID = threadIDProvider.getThreadID();
+        final long sessionEndTime = getCurrentTimestamp();
+        final int sequenceNumber = createSequenceNumber();
 
-        buildBasicEventData(eventBuilder, EventType.SESSION_END, null);
-
-        long sessionEndTime = getCurrentTimestamp();
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, 0);
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(sessionEndTime));
-
-        addEventData(sessionEndTime, eventBuilder);
+        addRecord(new CapturedBeaconRecord(EventType.SESSION_END, sessionEndTime) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.SESSION_END, null, threadID, 0, sequenceNumber, sessionEndTime);
+            }
+        });
     }
 
     /**
@@ -364,22 +415,23 @@ public class Beacon {
      * @param valueName      Value's name.
      * @param value          Actual value to report.
      */
-    public void reportValue(int parentActionID, String valueName, int value) {
-
-        if (!configuration.getPrivacyConfiguration().isValueReportingAllowed()) {
-            return;
-        }
+    public void reportValue(final int parentActionID, final String valueName, final int value) {
 
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.VALUE)) {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
 
-        long eventTimestamp = buildEvent(eventBuilder, EventType.VALUE_INT, valueName, parentActionID);
-        addKeyValuePair(eventBuilder, BEACON_KEY_VALUE, value);
-
-        addEventData(eventTimestamp, eventBuilder);
+        addRecord(new CapturedBeaconRecord(EventType.VALUE_INT, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.VALUE_INT, valueName, threadID, parentActionID, sequenceNumber, timestamp);
+                addKeyValuePair(builder, BEACON_KEY_VALUE, value);
+            }
+        });
     }
 
     /**
@@ -393,22 +445,23 @@ public class Beacon {
      * @param valueName      Value's name.
      * @param value          Actual value to report.
      */
-    public void reportValue(int parentActionID, String valueName, double value) {
-
-        if (!configuration.getPrivacyConfiguration().isValueReportingAllowed()) {
-            return;
-        }
+    public void reportValue(final int parentActionID, final String valueName, final double value) {
 
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.VALUE)) {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
 
-        long eventTimestamp = buildEvent(eventBuilder, EventType.VALUE_DOUBLE, valueName, parentActionID);
-        addKeyValuePair(eventBuilder, BEACON_KEY_VALUE, value);
-
-        addEventData(eventTimestamp, eventBuilder);
+        addRecord(new CapturedBeaconRecord(EventType.VALUE_DOUBLE, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.VALUE_DOUBLE, valueName, threadID, parentActionID, sequenceNumber, timestamp);
+                addKeyValuePair(builder, BEACON_KEY_VALUE, value);
+            }
+        });
     }
 
     /**
@@ -422,51 +475,180 @@ public class Beacon {
      * @param valueName      Value's name.
      * @param value          Actual value to report.
      */
-    public void reportValue(int parentActionID, String valueName, String value) {
+    public void reportValue(final int parentActionID, final String valueName, final String value) {
 
-        if (!configuration.getPrivacyConfiguration().isValueReportingAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.VALUE)) {
             return;
         }
 
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
+
+        addRecord(new CapturedBeaconRecord(EventType.VALUE_STRING, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.VALUE_STRING, valueName, threadID, parentActionID, sequenceNumber, timestamp);
+                if (value != null) {
+                    addKeyValuePair(builder, BEACON_KEY_VALUE, truncate(value));
+                }
+            }
+        });
+    }
+
+    /**
+     * Add event (aka. named event) to Beacon.
+     *
+     * <p>
+     * The serialized data is added to {@link com.dynatrace.openkit.core.caching.BeaconCache}.
+     * </p>
+     *
+     * @param parentActionID The ID of the {@link com.dynatrace.openkit.api.Action} on which this event was reported.
+     * @param eventName      Event's name.
+     */
+    public void reportEvent(final int parentActionID, final String eventName) {
+
+        if (!isCaptureAllowed(CaptureMask.EVENT)) {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
+
+        addSuppressibleRecord(new SuppressibleRecord(EventType.NAMED_EVENT, timestamp, eventName, threadID, parentActionID) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.NAMED_EVENT, eventName, threadID, parentActionID, sequenceNumber, timestamp);
+            }
+        }, parentActionID, eventName, 0, null);
+    }
+
+    /**
+     * Add multiple key-value-pairs to Beacon.
+     *
+     * <p>
+     * The serialized data is added to {@link com.dynatrace.openkit.core.caching.BeaconCache} at once.
+     * Entries having a {@code null} or empty name are skipped.
+     * </p>
+     *
+     * @param parentActionID The ID of the {@link com.dynatrace.openkit.api.Action} on which the values were reported.
+     * @param valueNames     Values' names.
+     * @param values         Actual values to report, having the same length as {@code valueNames}.
+     */
+    public void reportValues(final int parentActionID, final String[] valueNames, final int[] values) {
 
-        long eventTimestamp = buildEvent(eventBuilder, EventType.VALUE_STRING, valueName, parentActionID);
-        if (value != null) {
-            addKeyValuePair(eventBuilder, BEACON_KEY_VALUE, truncate(value));
+        if (!isCaptureAllowed(CaptureMask.VALUE)) {
+            return;
         }
 
-        addEventData(eventTimestamp, eventBuilder);
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+
+        List<CapturedBeaconRecord> records = new ArrayList<CapturedBeaconRecord>(valueNames.length);
+        for (int i = 0; i < valueNames.length; i++) {
+            final String valueName = valueNames[i];
+            if (valueName == null || valueName.isEmpty()) {
+                continue;
+            }
+            final int value = values[i];
+            final int sequenceNumber = createSequenceNumber();
+
+            records.add(new CapturedBeaconRecord(EventType.VALUE_INT, timestamp) {
+                @Override
+                void serialize(StringBuilder builder) {
+                    buildEvent(builder, EventType.VALUE_INT, valueName, threadID, parentActionID, sequenceNumber, timestamp);
+                    addKeyValuePair(builder, BEACON_KEY_VALUE, value);
+                }
+            });
+        }
+        addRecords(records, timestamp, RecordPriority.LOW);
     }
 
     /**
-     * Add event (aka. named event) to Beacon.
+     * Add multiple key-value-pairs to Beacon.
      *
      * <p>
-     * The serialized data is added to {@link com.dynatrace.openkit.core.caching.BeaconCache}.
+     * The serialized data is added to {@link com.dynatrace.openkit.core.caching.BeaconCache} at once.
+     * Entries having a {@code null} or empty name are skipped.
      * </p>
      *
-     * @param parentActionID The ID of the {@link com.dynatrace.openkit.api.Action} on which this event was reported.
-     * @param eventName      Event's name.
+     * @param parentActionID The ID of the {@link com.dynatrace.openkit.api.Action} on which the values were reported.
+     * @param valueNames     Values' names.
+     * @param values         Actual values to report, having the same length as {@code valueNames}.
      */
-    public void reportEvent(int parentActionID, String eventName) {
+    public void reportValues(final int parentActionID, final String[] valueNames, final double[] values) {
 
-        if (!configuration.getPrivacyConfiguration().isEventReportingAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.VALUE)) {
             return;
         }
 
-        if (!configuration.getServerConfiguration().isSendingDataAllowed()) {
-            return;
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+
+        List<CapturedBeaconRecord> records = new ArrayList<CapturedBeaconRecord>(valueNames.length);
+        for (int i = 0; i < valueNames.length; i++) {
+            final String valueName = valueNames[i];
+            if (valueName == null || valueName.isEmpty()) {
+                continue;
+            }
+            final double value = values[i];
+            final int sequenceNumber = createSequenceNumber();
+
+            records.add(new CapturedBeaconRecord(EventType.VALUE_DOUBLE, timestamp) {
+                @Override
+                void serialize(StringBuilder builder) {
+                    buildEvent(builder, EventType.VALUE_DOUBLE, valueName, threadID, parentActionID, sequenceNumber, timestamp);
+                    addKeyValuePair(builder, BEACON_KEY_VALUE, value);
+                }
+            });
         }
+        addRecords(records, timestamp, RecordPriority.LOW);
+    }
 
-        StringBuilder eventBuilder = new StringBuilder();
+    /**
+     * Add multiple events (aka. named events) to Beacon.
+     *
+     * <p>
+     * The serialized data is added to {@link com.dynatrace.openkit.core.caching.BeaconCache} at once,
+     * unless deduplication or rate limiting is enabled, which requires to add the events one by one.
+     * Entries having a {@code null} or empty name are skipped.
+     * </p>
+     *
+     * @param parentActionID The ID of the {@link com.dynatrace.openkit.api.Action} on which the events were reported.
+     * @param eventNames     Events' names.
+     */
+    public void reportEvents(final int parentActionID, final String[] eventNames) {
 
-        long eventTimestamp = buildEvent(eventBuilder, EventType.NAMED_EVENT, eventName, parentActionID);
+        if (!isCaptureAllowed(CaptureMask.EVENT)) {
+            return;
+        }
 
-        addEventData(eventTimestamp, eventBuilder);
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final boolean isSuppressible = deduplicator != null || rateLimiter != null;
+
+        List<CapturedBeaconRecord> records = new ArrayList<CapturedBeaconRecord>(eventNames.length);
+        for (final String eventName : eventNames) {
+            if (eventName == null || eventName.isEmpty()) {
+                continue;
+            }
+            final int sequenceNumber = createSequenceNumber();
+
+            CapturedBeaconRecord record = new SuppressibleRecord(EventType.NAMED_EVENT, timestamp, eventName, threadID,
+                parentActionID) {
+                @Override
+                void serialize(StringBuilder builder) {
+                    buildEvent(builder, EventType.NAMED_EVENT, eventName, threadID, parentActionID, sequenceNumber, timestamp);
+                }
+            };
+            if (isSuppressible) {
+                addSuppressibleRecord(record, parentActionID, eventName, 0, null);
+            } else {
+                records.add(record);
+            }
+        }
+        addRecords(records, timestamp, RecordPriority.LOW);
     }
 
     /**
@@ -481,29 +663,25 @@ public class Beacon {
      * @param errorCode      Some error code.
      * @param reason         Reason for that error.
      */
-    public void reportError(int parentActionID, String errorName, int errorCode, String reason) {
+    public void reportError(final int parentActionID, final String errorName, final int errorCode, final String reason) {
 
-        if (!configuration.getPrivacyConfiguration().isErrorReportingAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.ERROR)) {
             return;
         }
 
-        if (!configuration.getServerConfiguration().isSendingErrorsAllowed()) {
-            return;
-        }
-
-        StringBuilder eventBuilder = new StringBuilder();
-
-        buildBasicEventData(eventBuilder, EventType.ERROR, errorName);
-
-        long timestamp = timingProvider.provideTimestampInMilliseconds();
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, parentActionID);
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(timestamp));
-        addKeyValuePair(eventBuilder, BEACON_KEY_ERROR_CODE, errorCode);
-        addKeyValuePairIfNotNull(eventBuilder, BEACON_KEY_ERROR_REASON, reason);
-        addKeyValuePair(eventBuilder, BEACON_KEY_ERROR_TECHNOLOGY_TYPE, ProtocolConstants.ERROR_TECHNOLOGY_TYPE);
-
-        addEventData(timestamp, eventBuilder);
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
+
+        addSuppressibleRecord(new SuppressibleRecord(EventType.ERROR, timestamp, errorName, threadID, parentActionID) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.ERROR, errorName, threadID, parentActionID, sequenceNumber, timestamp);
+                addKeyValuePair(builder, BEACON_KEY_ERROR_CODE, errorCode);
+                addKeyValuePairIfNotNull(builder, BEACON_KEY_ERROR_REASON, reason);
+                addKeyValuePair(builder, BEACON_KEY_ERROR_TECHNOLOGY_TYPE, ProtocolConstants.ERROR_TECHNOLOGY_TYPE);
+            }
+        }, parentActionID, errorName, errorCode, reason);
     }
 
     /**
@@ -517,29 +695,25 @@ public class Beacon {
      * @param reason     Reason for that error.
      * @param stacktrace Crash stacktrace.
      */
-    public void reportCrash(String errorName, String reason, String stacktrace) {
+    public void reportCrash(final String errorName, final String reason, final String stacktrace) {
 
-        if (!configuration.getPrivacyConfiguration().isCrashReportingAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.CRASH)) {
             return;
         }
 
-        if (!configuration.getServerConfiguration().isSendingCrashesAllowed()) {
-            return;
-        }
-
-        StringBuilder eventBuilder = new StringBuilder();
-
-        buildBasicEventData(eventBuilder, EventType.CRASH, errorName);
-
-        long timestamp = timingProvider.provideTimestampInMilliseconds();
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, 0);                                  // no parent action
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(timestamp));
-        addKeyValuePairIfNotNull(eventBuilder, BEACON_KEY_ERROR_REASON, reason);
-        addKeyValuePairIfNotNull(eventBuilder, BEACON_KEY_ERROR_STACKTRACE, stacktrace);
-        addKeyValuePair(eventBuilder, BEACON_KEY_ERROR_TECHNOLOGY_TYPE, ProtocolConstants.ERROR_TECHNOLOGY_TYPE);
-
-        addEventData(timestamp, eventBuilder);
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
+
+        addRecord(new CapturedBeaconRecord(EventType.CRASH, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.CRASH, errorName, threadID, 0, sequenceNumber, timestamp); // no parent action
+                addKeyValuePairIfNotNull(builder, BEACON_KEY_ERROR_REASON, reason);
+                addKeyValuePairIfNotNull(builder, BEACON_KEY_ERROR_STACKTRACE, stacktrace);
+                addKeyValuePair(builder, BEACON_KEY_ERROR_TECHNOLOGY_TYPE, ProtocolConstants.ERROR_TECHNOLOGY_TYPE);
+            }
+        });
     }
 
     /**
@@ -552,31 +726,34 @@ public class Beacon {
      * @param parentActionID   The id of the parent {@link com.dynatrace.openkit.api.Action} on which this web request was reported.
      * @param webRequestTracer Web request tracer to serialize.
      */
-    public void addWebRequest(int parentActionID, WebRequestTracerBaseImpl webRequestTracer) {
-
-        if (!configuration.getPrivacyConfiguration().isWebRequestTracingAllowed()) {
-            return;
-        }
+    public void addWebRequest(final int parentActionID, WebRequestTracerBaseImpl webRequestTracer) {
 
-        if (!isDataCapturingEnabled()) {
+        if (!isCaptureAllowed(CaptureMask.WEB_REQUEST)) {
             return;
         }
 
-        StringBuilder eventBuilder = new StringBuilder();
-
-        buildBasicEventData(eventBuilder, EventType.WEB_REQUEST, webRequestTracer.getURL());
-
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, parentActionID);
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, webRequestTracer.getStartSequenceNo());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(webRequestTracer.getStartTime()));
-        addKeyValuePair(eventBuilder, BEACON_KEY_END_SEQUENCE_NUMBER, webRequestTracer.getEndSequenceNo());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_1, webRequestTracer.getEndTime() - webRequestTracer.getStartTime());
-
-        addKeyValuePairIfNotNegative(eventBuilder, BEACON_KEY_WEBREQUEST_BYTES_SENT, webRequestTracer.getBytesSent());
-        addKeyValuePairIfNotNegative(eventBuilder, BEACON_KEY_WEBREQUEST_BYTES_RECEIVED, webRequestTracer.getBytesReceived());
-        addKeyValuePairIfNotNegative(eventBuilder, BEACON_KEY_WEBREQUEST_RESPONSECODE, webRequestTracer.getResponseCode());
-
-        addEventData(webRequestTracer.getStartTime(), eventBuilder);
+        final String url = webRequestTracer.getURL();
+        final int threadID = threadIDProvider.getThreadID();
+        final int startSequenceNumber = webRequestTracer.getStartSequenceNo();
+        final long startTime = webRequestTracer.getStartTime();
+        final int endSequenceNumber = webRequestTracer.getEndSequenceNo();
+        final long duration = webRequestTracer.getEndTime() - startTime;
+        final int bytesSent = webRequestTracer.getBytesSent();
+        final int bytesReceived = webRequestTracer.getBytesReceived();
+        final int responseCode = webRequestTracer.getResponseCode();
+
+        addRecord(new CapturedBeaconRecord(EventType.WEB_REQUEST, startTime) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.WEB_REQUEST, url, threadID, parentActionID, startSequenceNumber, startTime);
+                addKeyValuePair(builder, BEACON_KEY_END_SEQUENCE_NUMBER, endSequenceNumber);
+                addKeyValuePair(builder, BEACON_KEY_TIME_1, duration);
+
+                addKeyValuePairIfNotNegative(builder, BEACON_KEY_WEBREQUEST_BYTES_SENT, bytesSent);
+                addKeyValuePairIfNotNegative(builder, BEACON_KEY_WEBREQUEST_BYTES_RECEIVED, bytesReceived);
+                addKeyValuePairIfNotNegative(builder, BEACON_KEY_WEBREQUEST_RESPONSECODE, responseCode);
+            }
+        });
     }
 
     /**
@@ -588,26 +765,22 @@ public class Beacon {
      *
      * @param userTag User tag containing data to serialize.
      */
-    public void identifyUser(String userTag) {
+    public void identifyUser(final String userTag) {
 
-        if (!configuration.getPrivacyConfiguration().isUserIdentificationAllowed()) {
+        if (!isCaptureAllowed(CaptureMask.USER_IDENTIFICATION)) {
             return;
         }
 
-        if (!isDataCapturingEnabled()) {
-            return;
-        }
-
-        StringBuilder eventBuilder = new StringBuilder();
-
-        buildBasicEventData(eventBuilder, EventType.IDENTIFY_USER, userTag);
-
-        long timestamp = timingProvider.provideTimestampInMilliseconds();
-        addKeyValuePair(eventBuilder, BEACON_KEY_PARENT_ACTION_ID, 0);
-        addKeyValuePair(eventBuilder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(eventBuilder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(timestamp));
+        final int threadID = threadIDProvider.getThreadID();
+        final long timestamp = timingProvider.provideTimestampInMilliseconds();
+        final int sequenceNumber = createSequenceNumber();
 
-        addEventData(timestamp, eventBuilder);
+        addRecord(new CapturedBeaconRecord(EventType.IDENTIFY_USER, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                buildEvent(builder, EventType.IDENTIFY_USER, userTag, threadID, 0, sequenceNumber, timestamp);
+            }
+        });
     }
 
     /**
@@ -615,6 +788,7 @@ public class Beacon {
      *
      * <p>
      * This method tries to send all so far collected and serialized data.
+     * Data, which was captured but not serialized yet, is serialized before.
      * </p>
      *
      * @param provider             Provider for getting an {@link HTTPClient} required to send the data.
@@ -623,34 +797,31 @@ public class Beacon {
      */
     public StatusResponse send(HTTPClientProvider provider, AdditionalQueryParameters additionalParameters) {
 
+        closeDeduplicationWindows(false);
+        serializePendingRecords();
+
         HTTPClient httpClient = provider.createClient(configuration.getHTTPClientConfiguration());
         StatusResponse response = null;
+        StringBuilder prefix = new StringBuilder(CHUNK_PREFIX_CAPACITY);
 
         while (true) {
 
             // prefix for this chunk - must be built up newly, due to changing timestamps
-            String prefix = appendMutableBeaconData(immutableBasicBeaconData);
+            prefix.setLength(0);
+            appendBeaconPrefix(prefix);
+            appendChunkData(prefix, timingProvider.provideTimestampInMilliseconds(), sessionStartTime,
+                configuration.getServerConfiguration().getMultiplicity());
             // subtract 1024 to ensure that the chunk does not exceed the send size configured on server side?
             // i guess that was the original intention, but i'm not sure about this
             // TODO stefan.eberl - This is a quite uncool algorithm and should be improved, avoid subtracting some "magic" number
-            String chunk = beaconCache.getNextBeaconChunk(beaconKey, prefix, configuration.getServerConfiguration().getBeaconSizeInBytes() - 1024, BEACON_DATA_DELIMITER);
-            if (chunk == null || chunk.isEmpty()) {
+            byte[] chunk = beaconCache.getNextBeaconChunk(beaconKey, prefix, configuration.getServerConfiguration().getBeaconSizeInBytes() - 1024, BEACON_DATA_DELIMITER);
+            if (chunk == null || chunk.length == 0) {
                 // no data added so far or no data to send
                 return response;
             }
 
-            byte[] encodedBeacon;
-            try {
-                encodedBeacon = encodeBeaconChunk(chunk);
-            } catch (UnsupportedEncodingException e) {
-                // must not happen, as UTF-8 should *really* be supported
-                logger.error(getClass().getSimpleName() + ": Required charset \"" + CHARSET + "\" is not supported.", e);
-                beaconCache.resetChunkedData(beaconKey);
-                return response;
-            }
-
             // send the request
-            response = httpClient.sendBeaconRequest(clientIPAddress, encodedBeacon, additionalParameters);
+            response = httpClient.sendBeaconRequest(clientIPAddress, chunk, additionalParameters);
             if (response == null || response.isErroneousResponse()) {
                 // error happened - but don't know what exactly
                 // reset the previously retrieved chunk (restore it in internal cache) & retry another time
@@ -666,59 +837,292 @@ public class Beacon {
     }
 
     /**
-     * Encodes the given chunk to an {@link #CHARSET} byte array.
+     * Serialization helper method for appending the beacon's prefix, including the visit store version.
+     *
+     * @param builder The builder to which the prefix is appended.
+     */
+    private void appendBeaconPrefix(StringBuilder builder) {
+
+        builder.append(sharedBeaconData.applicationData)
+            .append(BEACON_DATA_DELIMITER).append(sessionBeaconData)
+            .append(BEACON_DATA_DELIMITER).append(sharedBeaconData.deviceData);
+
+        addKeyValuePair(builder, BEACON_KEY_VISIT_STORE_VERSION, getVisitStoreVersion());
+        if (getVisitStoreVersion() > 1) {
+            addKeyValuePair(builder, BEACON_KEY_SESSION_SEQUENCE, getSessionSequenceNumber());
+        }
+    }
+
+    /**
+     * Serialization helper method for appending the chunk specific part of the prefix.
+     *
+     * @param builder          The builder containing the beacon's prefix.
+     * @param transmissionTime The time when the chunk is sent.
+     * @param sessionStartTime The start time of the beacon's session.
+     * @param multiplicity     The beacon's multiplicity.
+     */
+    private static void appendChunkData(StringBuilder builder, long transmissionTime, long sessionStartTime, int multiplicity) {
+
+        // append timestamp data
+        addKeyValuePair(builder, BEACON_KEY_TRANSMISSION_TIME, transmissionTime);
+        addKeyValuePair(builder, BEACON_KEY_SESSION_START_TIME, sessionStartTime);
+
+        // append multiplicity
+        addKeyValuePair(builder, BEACON_KEY_MULTIPLICITY, multiplicity);
+    }
+
+    /**
+     * Create the prefix for the next chunk of the given spooled beacon.
+     *
+     * @param spooledBeacon    The beacon replayed from the spool.
+     * @param transmissionTime The time when the chunk is sent.
+     * @return The chunk prefix.
+     */
+    public static String createChunkPrefix(SpooledBeacon spooledBeacon, long transmissionTime) {
+        StringBuilder builder = new StringBuilder(CHUNK_PREFIX_CAPACITY);
+        builder.append(spooledBeacon.getBeaconPrefix());
+        appendChunkData(builder, transmissionTime, spooledBeacon.getSessionStartTime(), spooledBeacon.getMultiplicity());
+
+        return builder.toString();
+    }
+
+    /**
+     * Move all data, which was not sent so far, to the given spool.
      *
      * <p>
-     * This method should only be used by tests.
+     * The data is split into chunks the same way as when it is sent. The spooled beacon stores everything needed
+     * to build the chunk prefixes, so that it can be replayed after a restart without this beacon.
      * </p>
      *
-     * @param chunkToEncode the beacon chunk to encode
-     * @return the encoded beacon chunk
+     * @param spool The spool receiving the data.
+     * @return {@code true} if any data was spooled, {@code false} otherwise.
      */
-    protected byte[] encodeBeaconChunk(String chunkToEncode) throws UnsupportedEncodingException {
-        return chunkToEncode.getBytes(CHARSET);
+    public boolean spoolData(BeaconSpool spool) {
+
+        closeDeduplicationWindows(true);
+        serializePendingRecords();
+
+        int maxChunkSize = configuration.getServerConfiguration().getBeaconSizeInBytes() - 1024;
+        List<byte[]> chunks = new ArrayList<byte[]>();
+        while (true) {
+            byte[] chunk = beaconCache.getNextBeaconChunk(beaconKey, "", maxChunkSize, BEACON_DATA_DELIMITER);
+            if (chunk == null || chunk.length == 0) {
+                break;
+            }
+            chunks.add(chunk);
+            beaconCache.removeChunkedData(beaconKey);
+        }
+
+        if (chunks.isEmpty()) {
+            return false;
+        }
+
+        StringBuilder beaconPrefix = new StringBuilder(CHUNK_PREFIX_CAPACITY);
+        appendBeaconPrefix(beaconPrefix);
+        spool.spool(new SpooledBeacon(beaconKey, clientIPAddress, beaconPrefix.toString(),
+            sessionStartTime, configuration.getServerConfiguration().getMultiplicity(), chunks));
+        return true;
     }
 
-    private String appendMutableBeaconData(String immutableBasicBeaconData) {
+    /**
+     * Add the captured error or event record to this beacon, applying deduplication and rate limiting if enabled.
+     *
+     * <p>
+     * Identical records within the deduplication window are coalesced before the rate limit is applied,
+     * therefore duplicates do not count towards the limit.
+     * </p>
+     *
+     * @param record         The captured record.
+     * @param parentActionID The ID of the action on which the event was reported.
+     * @param name           The event's name.
+     * @param code           The event's code, e.g. the error code.
+     * @param reason         The event's reason, which might be {@code null}.
+     */
+    private void addSuppressibleRecord(CapturedBeaconRecord record, int parentActionID, String name, int code,
+                                       String reason) {
+        RecordDeduplicator.RecordKey key = null;
+        if (deduplicator != null) {
+            // emit the coalesced records of expired windows first, which would otherwise wait for the next send
+            for (CapturedBeaconRecord closedRecord : deduplicator.closeExpiredWindows(record.getTimestamp())) {
+                addRecord(closedRecord);
+            }
 
-        StringBuilder mutableBeaconDataBuilder = new StringBuilder(immutableBasicBeaconData);
-        addKeyValuePair(mutableBeaconDataBuilder, BEACON_KEY_VISIT_STORE_VERSION, getVisitStoreVersion());
-        if (getVisitStoreVersion() > 1) {
-            addKeyValuePair(mutableBeaconDataBuilder, BEACON_KEY_SESSION_SEQUENCE, getSessionSequenceNumber());
+            key = new RecordDeduplicator.RecordKey(record.getEventType(), parentActionID, name, code, reason);
+            if (deduplicator.addOccurrence(key, record.getTimestamp())) {
+                return;
+            }
         }
 
-        mutableBeaconDataBuilder.append(BEACON_DATA_DELIMITER);
+        if (rateLimiter != null && !rateLimiter.tryAcquire(record.getTimestamp())) {
+            return;
+        }
 
-        // append timestamp data
-        mutableBeaconDataBuilder.append(createTimestampData());
+        if (deduplicator != null) {
+            // the record opens a new window and is held back, unless it must be added right away
+            record = deduplicator.open(key, record);
+            if (record == null) {
+                return;
+            }
+        }
 
-        // append multiplicity
-        mutableBeaconDataBuilder.append(BEACON_DATA_DELIMITER).append(createMultiplicityData());
+        addRecord(record);
+    }
 
-        return mutableBeaconDataBuilder.toString();
+    /**
+     * Close deduplication windows and add the coalesced records to this beacon.
+     *
+     * <p>
+     * Records rejected by the rate limiter so far are reported as well.
+     * </p>
+     *
+     * @param closeAll {@code true} to close all windows, {@code false} to close expired windows only.
+     */
+    private void closeDeduplicationWindows(boolean closeAll) {
+        if (rateLimiter != null) {
+            rateLimiter.reportRejectedRecords();
+        }
+        if (deduplicator == null) {
+            return;
+        }
+
+        List<CapturedBeaconRecord> closedRecords = closeAll
+            ? deduplicator.closeAllWindows()
+            : deduplicator.closeExpiredWindows(timingProvider.provideTimestampInMilliseconds());
+        for (CapturedBeaconRecord record : closedRecords) {
+            addRecord(record);
+        }
     }
 
     /**
-     * Add previously serialized action data to the beacon cache.
+     * Add the captured record to this beacon.
+     *
+     * <p>
+     * If serialization is deferred, the record is queued and serialized when the beacon data is sent.
+     * Otherwise the record is serialized and added to the beacon cache immediately.
+     * </p>
      *
-     * @param timestamp     The timestamp when the action data occurred.
-     * @param actionBuilder Contains the serialized action data.
+     * @param record The captured record.
      */
-    private void addActionData(long timestamp, StringBuilder actionBuilder) {
-        if (isDataCapturingEnabled()) {
-            beaconCache.addActionData(beaconKey, timestamp, actionBuilder.toString());
+    private void addRecord(CapturedBeaconRecord record) {
+        if (!isDataCapturingEnabled()) {
+            return;
+        }
+
+        if (!isSerializationDeferred) {
+            serializeRecord(record);
+            return;
+        }
+
+        pendingRecords.add(record);
+        if (numPendingRecords.incrementAndGet() > MAX_PENDING_RECORDS) {
+            // sender did not catch up, serialize on the calling thread to keep the memory bounded
+            serializePendingRecords();
         }
     }
 
     /**
-     * Add previously serialized event data to the beacon cache.
+     * Add multiple captured records having the same timestamp and priority to this beacon.
      *
-     * @param timestamp    The timestamp when the event data occurred.
-     * @param eventBuilder Contains the serialized event data.
+     * <p>
+     * If serialization is deferred, the records are queued one by one.
+     * Otherwise all records are serialized first and then added to the beacon cache at once.
+     * </p>
+     *
+     * @param records   The captured event records.
+     * @param timestamp The timestamp of all records.
+     * @param priority  The priority of all records.
      */
-    private void addEventData(long timestamp, StringBuilder eventBuilder) {
-        if (isDataCapturingEnabled()) {
-            beaconCache.addEventData(beaconKey, timestamp, eventBuilder.toString());
+    private void addRecords(List<CapturedBeaconRecord> records, long timestamp, RecordPriority priority) {
+        if (records.isEmpty() || !isDataCapturingEnabled()) {
+            return;
+        }
+
+        if (isSerializationDeferred) {
+            for (CapturedBeaconRecord record : records) {
+                addRecord(record);
+            }
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        List<String> data = new ArrayList<String>(records.size());
+        for (CapturedBeaconRecord record : records) {
+            builder.setLength(0);
+            record.serialize(builder);
+            data.add(builder.toString());
+        }
+        beaconCache.addEventData(beaconKey, timestamp, data, priority);
+    }
+
+    /**
+     * Serialize all records, which were captured but not serialized so far, and add them to the beacon cache.
+     */
+    private void serializePendingRecords() {
+        CapturedBeaconRecord record;
+        while ((record = pendingRecords.poll()) != null) {
+            numPendingRecords.decrementAndGet();
+            serializeRecord(record);
+        }
+    }
+
+    /**
+     * Serialize the given record and add it to the beacon cache.
+     *
+     * <p>
+     * If identical records were coalesced into the given record, the number of occurrences is added afterwards
+     * as a separate value record with the same priority, if reporting values is allowed.
+     * </p>
+     *
+     * @param record The captured record.
+     */
+    private void serializeRecord(CapturedBeaconRecord record) {
+        StringBuilder builder = new StringBuilder();
+        record.serialize(builder);
+
+        EventType eventType = record.getEventType();
+        if (eventType == EventType.ACTION) {
+            beaconCache.addActionData(beaconKey, record.getTimestamp(), builder.toString(),
+                getRecordPriority(eventType));
+        } else {
+            beaconCache.addEventData(beaconKey, record.getTimestamp(), builder.toString(),
+                getRecordPriority(eventType));
+        }
+
+        if (record.getOccurrences() > 1 && isCaptureAllowed(CaptureMask.VALUE)) {
+            builder.setLength(0);
+            record.serializeOccurrences(builder);
+            if (builder.length() > 0) {
+                beaconCache.addEventData(beaconKey, record.getTimestamp(), builder.toString(),
+                    getRecordPriority(eventType));
+            }
+        }
+    }
+
+    /**
+     * Get the priority of the cached record for the given event type.
+     *
+     * <p>
+     * Crashes have the highest priority, followed by errors and actions/web requests.
+     * Named events and reported values are evicted first.
+     * </p>
+     *
+     * @param eventType The type of the event.
+     *
+     * @return The priority of the cached record.
+     */
+    static RecordPriority getRecordPriority(EventType eventType) {
+        switch (eventType) {
+            case CRASH:
+                return RecordPriority.CRITICAL;
+            case ERROR:
+                return RecordPriority.HIGH;
+            case NAMED_EVENT:
+            case VALUE_STRING:
+            case VALUE_INT:
+            case VALUE_DOUBLE:
+                return RecordPriority.LOW;
+            default:
+                return RecordPriority.NORMAL;
         }
     }
 
@@ -726,10 +1130,21 @@ public class Beacon {
      * Clears all previously collected data for this Beacon.
      *
      * <p>
-     * This only affects the so far serialized data, which gets removed from the cache.
+     * This affects the so far serialized data, which gets removed from the cache,
+     * as well as captured data waiting for serialization.
      * </p>
      */
     public void clearData() {
+        // discard data which was not serialized so far
+        while (pendingRecords.poll() != null) {
+            numPendingRecords.decrementAndGet();
+        }
+
+        // discard coalesced records held back for deduplication
+        if (deduplicator != null) {
+            deduplicator.clear();
+        }
+
         // remove all cached data for this Beacon from the cache
         beaconCache.deleteCacheEntry(beaconKey);
     }
@@ -740,19 +1155,18 @@ public class Beacon {
      * @param builder        String builder storing the serialized data.
      * @param eventType      The event's type.
      * @param name           Event name
+     * @param threadID       The ID of the thread on which the event was reported.
      * @param parentActionID The unique Action identifier on which this event was reported.
-     * @return The timestamp associated with the event (timestamp since session start time).
+     * @param sequenceNumber The event's sequence number.
+     * @param timestamp      The timestamp when the event was reported.
      */
-    private long buildEvent(StringBuilder builder, EventType eventType, String name, int parentActionID) {
-        buildBasicEventData(builder, eventType, name);
-
-        long eventTimestamp = timingProvider.provideTimestampInMilliseconds();
+    private void buildEvent(StringBuilder builder, EventType eventType, String name, int threadID, int parentActionID,
+                            int sequenceNumber, long timestamp) {
+        buildBasicEventData(builder, eventType, name, threadID);
 
         addKeyValuePair(builder, BEACON_KEY_PARENT_ACTION_ID, parentActionID);
-        addKeyValuePair(builder, BEACON_KEY_START_SEQUENCE_NUMBER, createSequenceNumber());
-        addKeyValuePair(builder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(eventTimestamp));
-
-        return eventTimestamp;
+        addKeyValuePair(builder, BEACON_KEY_START_SEQUENCE_NUMBER, sequenceNumber);
+        addKeyValuePair(builder, BEACON_KEY_TIME_0, getTimeSinceSessionStartTime(timestamp));
     }
 
     /**
@@ -761,48 +1175,111 @@ public class Beacon {
      * @param builder   String builder storing serialized data.
      * @param eventType The event's type.
      * @param name      Event's name.
+     * @param threadID  The ID of the thread on which the event was reported.
      */
-    private void buildBasicEventData(StringBuilder builder, EventType eventType, String name) {
+    private void buildBasicEventData(StringBuilder builder, EventType eventType, String name, int threadID) {
         addKeyValuePair(builder, BEACON_KEY_EVENT_TYPE, eventType.protocolValue());
         if (name != null) {
-            addKeyValuePair(builder, BEACON_KEY_NAME, truncate(name));
+            if (isNameDictionaryUsed(eventType)) {
+                appendKey(builder, BEACON_KEY_NAME);
+                builder.append(nameDictionary.getEncodedName(name));
+            } else {
+                addKeyValuePair(builder, BEACON_KEY_NAME, truncate(name));
+            }
         }
-        addKeyValuePair(builder, BEACON_KEY_THREAD_ID, threadIDProvider.getThreadID());
+        addKeyValuePair(builder, BEACON_KEY_THREAD_ID, threadID);
     }
 
     /**
-     * Serialization helper method for creating basic beacon protocol data.
+     * Test whether the name of the given event type is encoded via the {@link NameDictionary}.
      *
-     * @return Serialized data.
+     * <p>
+     * Only action, event, value and error names are typically repeated and therefore cached.
+     * Web request URLs have a high cardinality, and user tags must not be kept beyond the session,
+     * so these are encoded directly.
+     * </p>
+     *
+     * @param eventType The event's type.
+     * @return {@code true} if the name shall be looked up in the dictionary, {@code false} otherwise.
+     */
+    private static boolean isNameDictionaryUsed(EventType eventType) {
+        switch (eventType) {
+            case ACTION:
+            case NAMED_EVENT:
+            case VALUE_INT:
+            case VALUE_DOUBLE:
+            case VALUE_STRING:
+            case ERROR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Create the dictionary for caching the encoded action, event, value and error names.
+     *
+     * <p>
+     * One dictionary is created per OpenKit instance and shared by all of its beacons.
+     * </p>
+     *
+     * @return A new, empty name dictionary.
+     */
+    public static NameDictionary createNameDictionary() {
+        return new NameDictionary(NAME_DICTIONARY_CAPACITY, MAX_NAME_LEN, PERCENT_ENCODER);
+    }
+
+    /**
+     * Create the pre-encoded beacon data, which is shared by all beacons of an OpenKit instance.
+     *
+     * @param openKitConfiguration The OpenKit instance's configuration.
+     * @param privacyConfiguration The OpenKit instance's privacy configuration.
+     * @return Pre-encoded shared beacon data.
      */
-    private String createImmutableBasicBeaconData() {
+    public static SharedBeaconData createSharedBeaconData(OpenKitConfiguration openKitConfiguration,
+                                                          PrivacyConfiguration privacyConfiguration) {
+        return new SharedBeaconData(openKitConfiguration, privacyConfiguration);
+    }
+
+    /**
+     * Get the shared beacon data for the given configuration.
+     *
+     * <p>
+     * The shared data provided by the OpenKit instance is used, if it was created for the beacon's
+     * {@link OpenKitConfiguration} and {@link PrivacyConfiguration}. Otherwise it's created for this beacon only.
+     * </p>
+     *
+     * @param data          The shared data provided by the OpenKit instance, might be {@code null}.
+     * @param configuration The beacon's configuration.
+     * @return Pre-encoded shared beacon data.
+     */
+    private static SharedBeaconData getSharedBeaconData(SharedBeaconData data, BeaconConfiguration configuration) {
         OpenKitConfiguration openKitConfiguration = configuration.getOpenKitConfiguration();
-        StringBuilder basicBeaconBuilder = new StringBuilder();
+        PrivacyConfiguration privacyConfiguration = configuration.getPrivacyConfiguration();
 
-        // version and application information
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_PROTOCOL_VERSION, ProtocolConstants.PROTOCOL_VERSION);
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_OPENKIT_VERSION, ProtocolConstants.OPENKIT_VERSION);
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_APPLICATION_ID, openKitConfiguration.getApplicationID());
-        addKeyValuePairIfNotNull(basicBeaconBuilder, BEACON_KEY_APPLICATION_NAME, openKitConfiguration.getApplicationName());
-        addKeyValuePairIfNotNull(basicBeaconBuilder, BEACON_KEY_APPLICATION_VERSION, openKitConfiguration.getApplicationVersion());
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_PLATFORM_TYPE, ProtocolConstants.PLATFORM_TYPE_OPENKIT);
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_AGENT_TECHNOLOGY_TYPE, ProtocolConstants.AGENT_TECHNOLOGY_TYPE);
+        if (data == null
+            || data.openKitConfiguration != openKitConfiguration
+            || data.privacyConfiguration != privacyConfiguration) {
+            data = new SharedBeaconData(openKitConfiguration, privacyConfiguration);
+        }
 
-        // device/visitor ID, session number and IP address
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_VISITOR_ID, getDeviceID());
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_SESSION_NUMBER, getSessionNumber());
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_CLIENT_IP_ADDRESS, clientIPAddress);
+        return data;
+    }
 
-        // platform information
-        addKeyValuePairIfNotNull(basicBeaconBuilder, BEACON_KEY_DEVICE_OS, openKitConfiguration.getOperatingSystem());
-        addKeyValuePairIfNotNull(basicBeaconBuilder, BEACON_KEY_DEVICE_MANUFACTURER, openKitConfiguration.getManufacturer());
-        addKeyValuePairIfNotNull(basicBeaconBuilder, BEACON_KEY_DEVICE_MODEL, openKitConfiguration.getModelID());
+    /**
+     * Serialization helper method for creating the session specific beacon protocol data.
+     *
+     * @return Serialized data.
+     */
+    private String createSessionBeaconData() {
+        StringBuilder sessionBeaconBuilder = new StringBuilder();
 
-        PrivacyConfiguration privacyConfiguration = configuration.getPrivacyConfiguration();
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_DATA_COLLECTION_LEVEL, privacyConfiguration.getDataCollectionLevel());
-        addKeyValuePair(basicBeaconBuilder, BEACON_KEY_CRASH_REPORTING_LEVEL, privacyConfiguration.getCrashReportingLevel());
+        // device/visitor ID, session number and IP address
+        addKeyValuePair(sessionBeaconBuilder, BEACON_KEY_VISITOR_ID, getDeviceID());
+        addKeyValuePair(sessionBeaconBuilder, BEACON_KEY_SESSION_NUMBER, getSessionNumber());
+        addKeyValuePair(sessionBeaconBuilder, BEACON_KEY_CLIENT_IP_ADDRESS, clientIPAddress);
 
-        return basicBeaconBuilder.toString();
+        return sessionBeaconBuilder.toString();
     }
 
     /**
@@ -855,36 +1332,6 @@ public class Beacon {
         return configuration.getServerConfiguration().getVisitStoreVersion();
     }
 
-    /**
-     * Serialization helper method for creating basic timestamp data.
-     *
-     * @return Serialized data.
-     */
-    private String createTimestampData() {
-        StringBuilder timestampBuilder = new StringBuilder();
-
-        // timestamp information
-        addKeyValuePair(timestampBuilder, BEACON_KEY_TRANSMISSION_TIME, timingProvider.provideTimestampInMilliseconds());
-        addKeyValuePair(timestampBuilder, BEACON_KEY_SESSION_START_TIME, sessionStartTime);
-
-        return timestampBuilder.toString();
-    }
-
-    /**
-     * Serialization helper method for creating multiplicity data.
-     *
-     * @return Serialized data.
-     */
-    private String createMultiplicityData() {
-
-        StringBuilder multiplicityBuilder = new StringBuilder();
-
-        int multiplicity = configuration.getServerConfiguration().getMultiplicity();
-        addKeyValuePair(multiplicityBuilder, BEACON_KEY_MULTIPLICITY, multiplicity);
-
-        return multiplicityBuilder.toString();
-    }
-
     /**
      * Serialization helper method for adding key/value pairs with string values
      *
@@ -892,16 +1339,9 @@ public class Beacon {
      * @param key         The key to add.
      * @param stringValue The value to add.
      */
-    private void addKeyValuePair(StringBuilder builder, String key, String stringValue) {
-        String encodedValue = PercentEncoder.encode(stringValue, CHARSET, RESERVED_CHARACTERS);
-        if (encodedValue == null) {
-            // if encoding fails, skip this key/value pair
-            logger.error(getClass().getSimpleName() + ": Skipped encoding of Key/Value: " + key + "/" + stringValue);
-            return;
-        }
-
+    private static void addKeyValuePair(StringBuilder builder, String key, String stringValue) {
         appendKey(builder, key);
-        builder.append(encodedValue);
+        PERCENT_ENCODER.encode(stringValue, builder);
     }
 
     /**
@@ -914,7 +1354,7 @@ public class Beacon {
      * @param key         The key to add.
      * @param stringValue The value to add.
      */
-    private void addKeyValuePairIfNotNull(StringBuilder builder, String key, String stringValue) {
+    private static void addKeyValuePairIfNotNull(StringBuilder builder, String key, String stringValue) {
         if (stringValue != null) {
             addKeyValuePair(builder, key, stringValue);
         }
@@ -927,7 +1367,7 @@ public class Beacon {
      * @param key       The key to add.
      * @param longValue The value to add.
      */
-    private void addKeyValuePair(StringBuilder builder, String key, long longValue) {
+    private static void addKeyValuePair(StringBuilder builder, String key, long longValue) {
         appendKey(builder, key);
         builder.append(longValue);
     }
@@ -939,7 +1379,7 @@ public class Beacon {
      * @param key      The key to add.
      * @param intValue The value to add.
      */
-    private void addKeyValuePair(StringBuilder builder, String key, int intValue) {
+    private static void addKeyValuePair(StringBuilder builder, String key, int intValue) {
         appendKey(builder, key);
         builder.append(intValue);
     }
@@ -952,7 +1392,7 @@ public class Beacon {
      * @param key     the key to add.
      * @param value   the value to add.
      */
-    private void addKeyValuePair(StringBuilder builder, String key, SerializableBeaconValue value) {
+    private static void addKeyValuePair(StringBuilder builder, String key, SerializableBeaconValue value) {
         if (value == null) {
             return;
         }
@@ -993,7 +1433,7 @@ public class Beacon {
      * @param builder The string builder storing serialized data.
      * @param key     The key to add.
      */
-    private void appendKey(StringBuilder builder, String key) {
+    private static void appendKey(StringBuilder builder, String key) {
         if (builder.length() > 0) {
             builder.append('&');
         }
@@ -1001,6 +1441,23 @@ public class Beacon {
         builder.append('=');
     }
 
+    /**
+     * Append the suffix to the given name, which is truncated so that the suffix is kept when the name is truncated
+     * to the max name size.
+     *
+     * @param name   The name, which must not be {@code null}.
+     * @param suffix The suffix to append.
+     * @return The trimmed and truncated name followed by the suffix.
+     */
+    public static String appendSuffix(String name, String suffix) {
+        name = name.trim();
+        int maxBaseNameLength = Math.max(MAX_NAME_LEN - suffix.length(), 0);
+        if (name.length() > maxBaseNameLength) {
+            name = name.substring(0, maxBaseNameLength);
+        }
+        return name + suffix;
+    }
+
     /**
      * helper method for truncating name at max name size
      */
@@ -1032,7 +1489,9 @@ public class Beacon {
      * @return {@code true} if the beacon is empty, {@code false} otherwise.
      */
     public boolean isEmpty() {
-        return beaconCache.isEmpty(beaconKey);
+        return numPendingRecords.get() == 0
+            && (deduplicator == null || deduplicator.isEmpty())
+            && beaconCache.isEmpty(beaconKey);
     }
 
     /**
@@ -1072,7 +1531,40 @@ public class Beacon {
      * Indicates whether data capturing for this beacon is currently enabled or not.
      */
     public boolean isDataCapturingEnabled() {
-        return configuration.getServerConfiguration().isSendingDataAllowed();
+        return isCaptureAllowed(CaptureMask.DATA);
+    }
+
+    /**
+     * Test if all of the given {@link CaptureMask capture flags} are currently allowed.
+     *
+     * <p>
+     * This combines the privacy settings and the server configuration, which allows rejecting data,
+     * that would be dropped anyway, before doing any further work.
+     * </p>
+     *
+     * @param captureFlags The {@link CaptureMask} flags to test.
+     * @return {@code true} if all given flags are allowed, {@code false} otherwise.
+     */
+    public boolean isCaptureAllowed(int captureFlags) {
+        return (configuration.getCaptureMask() & captureFlags) == captureFlags;
+    }
+
+    /**
+     * Test if int and double values reported on an action are aggregated, instead of being reported individually.
+     *
+     * @return {@code true} if value aggregation is enabled, {@code false} otherwise.
+     */
+    public boolean isValueAggregationEnabled() {
+        return configuration.getOpenKitConfiguration().isValueAggregationEnabled();
+    }
+
+    /**
+     * Get the upper bounds of the histogram buckets reported with aggregated values.
+     *
+     * @return The bucket bounds in ascending order, which might be empty.
+     */
+    public double[] getValueAggregationBuckets() {
+        return configuration.getOpenKitConfiguration().getValueAggregationBuckets();
     }
 
     /**
@@ -1105,4 +1597,86 @@ public class Beacon {
     public boolean isActionReportingAllowedByPrivacySettings() {
         return configuration.getPrivacyConfiguration().isActionReportingAllowed();
     }
+
+    /**
+     * Captured error or event, which can be coalesced with identical records by the {@link RecordDeduplicator}.
+     *
+     * <p>
+     * The beacon protocol has no key for the number of occurrences. It is therefore reported as int value
+     * named {@code <name>.occurrences} on the same parent action, with the timestamp of the first occurrence.
+     * Since it's a value, it is only reported if reporting values is allowed.
+     * </p>
+     */
+    private abstract class SuppressibleRecord extends CapturedBeaconRecord {
+
+        private final String name;
+        private final int threadID;
+        private final int parentActionID;
+
+        /**
+         * Create a captured error or event.
+         *
+         * @param eventType      The type of the captured event.
+         * @param timestamp      The timestamp of the captured event.
+         * @param name           The event's name.
+         * @param threadID       The ID of the thread on which the event was reported.
+         * @param parentActionID The ID of the action on which the event was reported.
+         */
+        SuppressibleRecord(EventType eventType, long timestamp, String name, int threadID, int parentActionID) {
+            super(eventType, timestamp);
+            this.name = name;
+            this.threadID = threadID;
+            this.parentActionID = parentActionID;
+        }
+
+        @Override
+        void serializeOccurrences(StringBuilder builder) {
+            buildEvent(builder, EventType.VALUE_INT, appendSuffix(name, OCCURRENCES_SUFFIX), threadID, parentActionID,
+                createSequenceNumber(), getTimestamp());
+            addKeyValuePair(builder, BEACON_KEY_VALUE, getOccurrences());
+        }
+    }
+
+    /**
+     * Pre-encoded beacon protocol data, which does not depend on the session.
+     *
+     * <p>
+     * In the beacon prefix the session specific data is placed between {@link #applicationData}
+     * and {@link #deviceData}.
+     * One instance is created per OpenKit instance, see {@link #createSharedBeaconData}.
+     * </p>
+     */
+    public static final class SharedBeaconData {
+
+        private final OpenKitConfiguration openKitConfiguration;
+        private final PrivacyConfiguration privacyConfiguration;
+
+        // version and application information
+        private final String applicationData;
+        // platform information and privacy levels
+        private final String deviceData;
+
+        private SharedBeaconData(OpenKitConfiguration openKitConfiguration, PrivacyConfiguration privacyConfiguration) {
+            this.openKitConfiguration = openKitConfiguration;
+            this.privacyConfiguration = privacyConfiguration;
+
+            StringBuilder builder = new StringBuilder();
+            addKeyValuePair(builder, BEACON_KEY_PROTOCOL_VERSION, ProtocolConstants.PROTOCOL_VERSION);
+            addKeyValuePair(builder, BEACON_KEY_OPENKIT_VERSION, ProtocolConstants.OPENKIT_VERSION);
+            addKeyValuePair(builder, BEACON_KEY_APPLICATION_ID, openKitConfiguration.getApplicationID());
+            addKeyValuePairIfNotNull(builder, BEACON_KEY_APPLICATION_NAME, openKitConfiguration.getApplicationName());
+            addKeyValuePairIfNotNull(builder, BEACON_KEY_APPLICATION_VERSION, openKitConfiguration.getApplicationVersion());
+            addKeyValuePair(builder, BEACON_KEY_PLATFORM_TYPE, ProtocolConstants.PLATFORM_TYPE_OPENKIT);
+            addKeyValuePair(builder, BEACON_KEY_AGENT_TECHNOLOGY_TYPE, ProtocolConstants.AGENT_TECHNOLOGY_TYPE);
+            applicationData = builder.toString();
+
+            builder.setLength(0);
+            addKeyValuePairIfNotNull(builder, BEACON_KEY_DEVICE_OS, openKitConfiguration.getOperatingSystem());
+            addKeyValuePairIfNotNull(builder, BEACON_KEY_DEVICE_MANUFACTURER, openKitConfiguration.getManufacturer());
+            addKeyValuePairIfNotNull(builder, BEACON_KEY_DEVICE_MODEL, openKitConfiguration.getModelID());
+            addKeyValuePair(builder, BEACON_KEY_DATA_COLLECTION_LEVEL, privacyConfiguration.getDataCollectionLevel());
+            addKeyValuePair(builder, BEACON_KEY_CRASH_REPORTING_LEVEL, privacyConfiguration.getCrashReportingLevel());
+            deviceData = builder.toString();
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.protocol;
+
+/**
+ * Beacon data captured on an application thread, which still needs to be serialized.
+ *
+ * <p>
+ * A captured record only stores the event's type, timestamp and all values required for serialization
+ * (e.g. IDs, sequence numbers and references to names). Serializing the record into the beacon protocol
+ * format, including percent encoding, is done by {@link #serialize(StringBuilder)}, which might be called on
+ * a different thread, when serialization is deferred.
+ * </p>
+ */
+abstract class CapturedBeaconRecord {
+
+    /** The type of the captured event */
+    private final EventType eventType;
+    /** The timestamp of the captured event, used for the cached record */
+    private final long timestamp;
+    /** The number of occurrences, which is greater than one if identical records were coalesced */
+    private int occurrences = 1;
+
+    /**
+     * Create a captured record.
+     *
+     * @param eventType The type of the captured event.
+     * @param timestamp The timestamp of the captured event.
+     */
+    CapturedBeaconRecord(EventType eventType, long timestamp) {
+        this.eventType = eventType;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Get the type of the captured event.
+     */
+    EventType getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Get the timestamp of the captured event.
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the number of occurrences of the captured event.
+     */
+    int getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Count another occurrence of an identical event.
+     */
+    void addOccurrence() {
+        occurrences++;
+    }
+
+    /**
+     * Serialize the captured event.
+     *
+     * @param builder The string builder storing the serialized data.
+     */
+    abstract void serialize(StringBuilder builder);
+
+    /**
+     * Serialize the number of occurrences of the captured event as a separate event.
+     *
+     * <p>
+     * Only records which can be coalesced override this method, the default does not add anything.
+     * </p>
+     *
+     * @param builder The string builder storing the serialized data.
+     */
+    void serializeOccurrences(StringBuilder builder) {
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses beacon data into the gzip format.
+ *
+ * <p>
+ *     The {@link Deflater} and the output buffer are reused for subsequent compressions,
+ *     so that no intermediate streams and byte arrays are allocated per request.
+ *     The produced output is identical to the one of {@link GZIPOutputStream}.
+ * </p>
+ *
+ * <p>
+ *     Instances of this class are not thread safe.
+ * </p>
+ */
+final class GzipCompressor {
+
+    private static final int GZIP_HEADER_SIZE = 10;
+    /** gzip header as written by {@link GZIPOutputStream}, the operating system byte differs between JRE versions */
+    private static final byte[] GZIP_HEADER = readGzipHeader();
+    /** gzip trailer consisting of CRC-32 and uncompressed size */
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    /** Initial size of the output buffer in bytes */
+    static final int DEFAULT_BUFFER_SIZE = 4 * 1024;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+
+    private byte[] buffer;
+    private int length = 0;
+
+    GzipCompressor(int compressionLevel) {
+        this(compressionLevel, DEFAULT_BUFFER_SIZE);
+    }
+
+    GzipCompressor(int compressionLevel, int initialBufferSize) {
+        deflater = new Deflater(compressionLevel, true);
+        buffer = new byte[Math.max(initialBufferSize, GZIP_HEADER_SIZE + GZIP_TRAILER_SIZE)];
+    }
+
+    /**
+     * Compress the given data.
+     *
+     * <p>
+     *     The result is available via {@link #getBuffer()} and {@link #getLength()}
+     *     until the next call of this method.
+     * </p>
+     *
+     * @param data The uncompressed data.
+     */
+    void compress(byte[] data) {
+        System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+        length = GZIP_HEADER.length;
+
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    grow(buffer.length);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+        } finally {
+            // also releases the reference to the given data
+            deflater.reset();
+        }
+
+        crc.reset();
+        crc.update(data, 0, data.length);
+
+        if (buffer.length - length < GZIP_TRAILER_SIZE) {
+            grow(GZIP_TRAILER_SIZE);
+        }
+        writeIntLittleEndian((int) crc.getValue());
+        writeIntLittleEndian(data.length);
+    }
+
+    /**
+     * Get the buffer holding the compressed data of the last {@link #compress(byte[])} call.
+     *
+     * <p>
+     *     Only the first {@link #getLength()} bytes are valid.
+     * </p>
+     */
+    byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Get the number of valid bytes in {@link #getBuffer()}.
+     */
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Get the current capacity of the output buffer in bytes.
+     */
+    int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Release the native resources of the underlying {@link Deflater}.
+     *
+     * <p>
+     *     This instance must not be used afterwards.
+     * </p>
+     */
+    void end() {
+        deflater.end();
+    }
+
+    private static byte[] readGzipHeader() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            new GZIPOutputStream(outputStream).close();
+        } catch (IOException e) {
+            // not thrown by a ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+
+        byte[] header = new byte[GZIP_HEADER_SIZE];
+        System.arraycopy(outputStream.toByteArray(), 0, header, 0, GZIP_HEADER_SIZE);
+        return header;
+    }
+
+    private void grow(int minIncrement) {
+        byte[] newBuffer = new byte[buffer.length + Math.max(minIncrement, buffer.length)];
+        System.arraycopy(buffer, 0, newBuffer, 0, length);
+        buffer = newBuffer;
+    }
+
+    private void writeIntLittleEndian(int value) {
+        buffer[length++] = (byte) value;
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) (value >>> 16);
+        buffer[length++] = (byte) (value >>> 24);
+    }
+}
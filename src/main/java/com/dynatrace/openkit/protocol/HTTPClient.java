@@ -21,14 +21,10 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.api.SSLTrustManager;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.core.util.PercentEncoder;
-import com.dynatrace.openkit.protocol.ssl.SSLStrictTrustManager;
+import com.dynatrace.openkit.protocol.ssl.SSLSocketFactoryCache;
 import com.dynatrace.openkit.providers.HttpURLConnectionWrapper;
 
 import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -37,14 +33,12 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.security.GeneralSecurityException;
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * HTTP client helper which abstracts the 2 basic request types:
@@ -86,19 +80,28 @@ public class HTTPClient {
 
     // additional reserved characters for URL encoding
     private static final char[] QUERY_RESERVED_CHARACTERS = {'_'};
+    private static final PercentEncoder QUERY_PARAM_ENCODER = new PercentEncoder(QUERY_RESERVED_CHARACTERS);
 
     // connection constants
-    private static final int MAX_SEND_RETRIES = 3;
-    private static final int RETRY_SLEEP_TIME = 200;        // retry sleep time in ms
-    private static final int CONNECT_TIMEOUT = 5000;
-    private static final int READ_TIMEOUT = 30000;
+    static final int MAX_SEND_RETRIES = 3;
+    static final int RETRY_SLEEP_TIME = 200;        // retry sleep time in ms
+    static final int CONNECT_TIMEOUT = 5000;
+    static final int READ_TIMEOUT = 30000;
+
+    // compression buffers exceeding this size in bytes are not reused
+    private static final int MAX_POOLED_COMPRESSION_BUFFER_SIZE = 256 * 1024;
 
     // URLs for requests
-    private final String monitorURL;
-    private final String newSessionURL;
+    private final RequestURL monitorURL;
+    private final RequestURL newSessionURL;
 
     private final int serverID;
 
+    // compression of beacon data
+    private final int beaconCompressionLevel;
+    private final int minBeaconCompressionSize;
+    private final Queue<GzipCompressor> compressors = new ConcurrentLinkedQueue<GzipCompressor>();
+
     private final SSLTrustManager sslTrustManager;
 
     private final Logger logger;
@@ -108,25 +111,25 @@ public class HTTPClient {
     public HTTPClient(Logger logger, HTTPClientConfiguration configuration) {
         this.logger = logger;
         serverID = configuration.getServerID();
-        monitorURL = buildMonitorURL(configuration.getBaseURL(), configuration.getApplicationID(), serverID);
-        newSessionURL = buildNewSessionURL(configuration.getBaseURL(), configuration.getApplicationID(), serverID);
+        monitorURL = new RequestURL(buildMonitorURL(configuration.getBaseURL(), configuration.getApplicationID(), serverID));
+        newSessionURL = new RequestURL(buildNewSessionURL(configuration.getBaseURL(), configuration.getApplicationID(), serverID));
         sslTrustManager = configuration.getSSLTrustManager();
+        beaconCompressionLevel = configuration.getBeaconCompressionLevel();
+        minBeaconCompressionSize = configuration.getMinBeaconCompressionSize();
     }
 
     // *** public methods ***
 
     // sends a status check request and returns a status response
     public StatusResponse sendStatusRequest(AdditionalQueryParameters additionalParameters) {
-        String url = appendAdditionalQueryParameters(monitorURL, additionalParameters);
-        StatusResponse response = sendRequest(RequestType.STATUS, url, null, null, "GET");
+        StatusResponse response = sendRequest(RequestType.STATUS, monitorURL, additionalParameters, null, null, "GET");
         return response == null
                 ? StatusResponse.createErrorResponse(logger, Integer.MAX_VALUE)
                 : response;
     }
 
     public StatusResponse sendNewSessionRequest(AdditionalQueryParameters additionalParameters) {
-        String url = appendAdditionalQueryParameters(newSessionURL, additionalParameters);
-        StatusResponse response = sendRequest(RequestType.NEW_SESSION, url, null, null, "GET");
+        StatusResponse response = sendRequest(RequestType.NEW_SESSION, newSessionURL, additionalParameters, null, null, "GET");
         return response == null
                 ? StatusResponse.createErrorResponse(logger, Integer.MAX_VALUE)
                 : response;
@@ -137,32 +140,51 @@ public class HTTPClient {
             String clientIPAddress,
             byte[] data,
             AdditionalQueryParameters additionalParameters) {
-        String url = appendAdditionalQueryParameters(monitorURL, additionalParameters);
-        StatusResponse response = sendRequest(RequestType.BEACON, url, clientIPAddress, data, "POST");
+        StatusResponse response = sendRequest(RequestType.BEACON, monitorURL, additionalParameters, clientIPAddress, data, "POST");
         return response == null
                 ? StatusResponse.createErrorResponse(logger, Integer.MAX_VALUE)
                 : response;
     }
 
-    // *** protected methods ***
+    // *** package-private methods ***
 
     // generic request send with some verbose output and exception handling
-    // protected because it's overridden by the TestHTTPClient
-    StatusResponse sendRequest(RequestType requestType, String url, String clientIPAddress, byte[] data, String method) {
+    // package-private for unit testing the request URLs
+    StatusResponse sendRequest(RequestType requestType, URL url, String clientIPAddress, byte[] data, String method) {
         try {
             if (logger.isDebugEnabled()) {
                 logger.debug(getClass().getSimpleName() + " sendRequest() - HTTP " + requestType.getRequestName() + " Request: " + url);
             }
-            HttpURLConnectionWrapper httpURLConnectionWrapper = new HttpURLConnectionWrapperImpl(url, MAX_SEND_RETRIES);
-            return sendRequestInternal(requestType, httpURLConnectionWrapper, clientIPAddress, data, method);
+            return executeRequest(requestType, url, clientIPAddress, data, method);
         } catch (Exception e) {
             logger.error(getClass().getSimpleName() + " sendRequest() - ERROR: " + requestType + " Request failed!", e);
         }
         return unknownErrorResponse(requestType);
     }
 
+    // executes the request using an HttpURLConnection, including retries
+    // package-private because it's overridden by the NioHTTPClient
+    StatusResponse executeRequest(RequestType requestType, URL url, String clientIPAddress, byte[] data, String method)
+            throws IOException, GeneralSecurityException {
+        HttpURLConnectionWrapper httpURLConnectionWrapper = new HttpURLConnectionWrapperImpl(url, MAX_SEND_RETRIES);
+        return sendRequestInternal(requestType, httpURLConnectionWrapper, clientIPAddress, data, method);
+    }
+
     // *** private methods ***
 
+    // request send using the prebuilt URL, which is only parsed again if the configuration timestamp changed
+    private StatusResponse sendRequest(RequestType requestType, RequestURL requestURL, AdditionalQueryParameters additionalParameters,
+                                       String clientIPAddress, byte[] data, String method) {
+        URL url;
+        try {
+            url = requestURL.getURL(additionalParameters);
+        } catch (Exception e) {
+            logger.error(getClass().getSimpleName() + " sendRequest() - ERROR: " + requestType + " Request failed!", e);
+            return unknownErrorResponse(requestType);
+        }
+        return sendRequest(requestType, url, clientIPAddress, data, method);
+    }
+
     // only for unit testing the HTTPClient
     StatusResponse sendRequest(RequestType requestType, HttpURLConnectionWrapper httpURLConnectionWrapper, String clientIPAddress, byte[] data,
                                String method) {
@@ -216,29 +238,68 @@ public class HTTPClient {
         }
     }
 
-    private void writePostBodyData(HttpURLConnection connection, byte[] data) throws IOException {
+    private void writePostBodyData(final HttpURLConnection connection, byte[] data) throws IOException {
+        writeRequestBody(data, new RequestBodyWriter() {
+            @Override
+            public void write(byte[] body, int length, boolean gzipped) throws IOException {
+                if (gzipped) {
+                    connection.setRequestProperty("Content-Encoding", "gzip");
+                }
+                // stream the body with a fixed length
+                writeBody(connection, body, length);
+            }
+        });
+    }
+
+    // passes the beacon data to the given writer, gzipped into a reused buffer if it's large enough
+    void writeRequestBody(byte[] data, RequestBodyWriter writer) throws IOException {
 
-        // gzip beacon data, if available
         if (data == null || data.length == 0) {
             return;
         }
 
-        byte[] gzippedData = gzip(data);
+        if (logger.isDebugEnabled()) {
+            logger.debug(getClass().getSimpleName() + " sendRequestInternal() - Beacon Payload: " + decodeData(data));
+        }
 
-        String decodedData = decodeData(data);
+        // tiny payloads are sent as they are, since gzip's overhead outweighs the savings
+        if (data.length < minBeaconCompressionSize) {
+            writer.write(data, data.length, false);
+            return;
+        }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug(getClass().getSimpleName() + " sendRequestInternal() - Beacon Payload: " + decodedData);
+        GzipCompressor compressor = obtainCompressor();
+        try {
+            compressor.compress(data);
+            writer.write(compressor.getBuffer(), compressor.getLength(), true);
+        } finally {
+            releaseCompressor(compressor);
         }
+    }
 
-        connection.setRequestProperty("Content-Encoding", "gzip");
-        connection.setRequestProperty("Content-Length", String.valueOf(gzippedData.length));
+    private static void writeBody(HttpURLConnection connection, byte[] body, int length) throws IOException {
+        connection.setRequestProperty("Content-Length", String.valueOf(length));
+        connection.setFixedLengthStreamingMode(length);
         connection.setDoOutput(true);
         OutputStream outputStream = connection.getOutputStream();
-        outputStream.write(gzippedData);
+        outputStream.write(body, 0, length);
         outputStream.close();
     }
 
+    private GzipCompressor obtainCompressor() {
+        GzipCompressor compressor = compressors.poll();
+        return compressor != null ? compressor : new GzipCompressor(beaconCompressionLevel);
+    }
+
+    private void releaseCompressor(GzipCompressor compressor) {
+        // don't keep exceptionally large buffers alive
+        if (compressor.getCapacity() > MAX_POOLED_COMPRESSION_BUFFER_SIZE) {
+            compressor.end();
+        } else {
+            compressors.offer(compressor);
+        }
+    }
+
     private String decodeData(byte[] data) {
         try {
             return new String(data, Beacon.CHARSET);
@@ -256,18 +317,22 @@ public class HTTPClient {
                 ? readResponse(connection.getErrorStream()) // error stream is closed in readResponse
                 : readResponse(connection.getInputStream()); // input stream is closed in readResponse
 
+        return createStatusResponse(requestType, responseCode, response, connection.getHeaderFields());
+    }
+
+    // create typed response based on request type and response content
+    StatusResponse createStatusResponse(RequestType requestType, int responseCode, String response, Map<String, List<String>> headers) {
         if (logger.isDebugEnabled()) {
             logger.debug(getClass().getSimpleName() + " handleResponse() - HTTP Response: " + response);
             logger.debug(getClass().getSimpleName() + " handleResponse() - HTTP Response Code: " + responseCode);
         }
 
-        // create typed response based on request type and response content
         if (requestType == RequestType.BEACON
                 || requestType == RequestType.STATUS
                 || requestType == RequestType.NEW_SESSION) {
             return responseCode >= 400
-                    ? StatusResponse.createErrorResponse(logger, responseCode, connection.getHeaderFields())
-                    : parseStatusResponse(response, responseCode, connection.getHeaderFields());
+                    ? StatusResponse.createErrorResponse(logger, responseCode, headers)
+                    : parseStatusResponse(response, responseCode, headers);
         } else {
             logger.warning(getClass().getSimpleName() + " handleResponse() - Unknown request type " + requestType + " - ignoring response");
             return unknownErrorResponse(requestType);
@@ -284,17 +349,9 @@ public class HTTPClient {
         }
     }
 
-    private void applySSLTrustManager(HttpsURLConnection connection) throws NoSuchAlgorithmException, KeyManagementException {
-        SSLContext context = SSLContext.getInstance("TLS");
-        X509TrustManager x509TrustManager;
-        if (sslTrustManager == null || sslTrustManager.getX509TrustManager() == null) {
-            // if provided trust manager is null use a strict one by default
-            x509TrustManager = new SSLStrictTrustManager().getX509TrustManager();
-        } else {
-            x509TrustManager = sslTrustManager.getX509TrustManager();
-        }
-        context.init(null, new TrustManager[]{x509TrustManager}, new SecureRandom());
-        connection.setSSLSocketFactory(context.getSocketFactory());
+    private void applySSLTrustManager(HttpsURLConnection connection) throws GeneralSecurityException {
+        // the socket factory is shared, so that TLS sessions are resumed and connections are kept alive
+        connection.setSSLSocketFactory(SSLSocketFactoryCache.getSocketFactory(sslTrustManager));
 
         if (sslTrustManager != null && sslTrustManager.getHostnameVerifier() != null) {
             connection.setHostnameVerifier(sslTrustManager.getHostnameVerifier());
@@ -343,17 +400,7 @@ public class HTTPClient {
         urlBuilder.append('&');
         urlBuilder.append(key);
         urlBuilder.append('=');
-        urlBuilder.append(PercentEncoder.encode(value, "UTF-8", QUERY_RESERVED_CHARACTERS));
-    }
-
-    // helper method for gzipping beacon data
-    private static byte[] gzip(byte[] data) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream);
-        gzipOutputStream.write(data);
-        gzipOutputStream.close();
-        byteArrayOutputStream.close();
-        return byteArrayOutputStream.toByteArray();
+        QUERY_PARAM_ENCODER.encode(value, urlBuilder);
     }
 
     // *** getter methods ***
@@ -379,7 +426,7 @@ public class HTTPClient {
         return responseBuilder.toString();
     }
 
-    private StatusResponse unknownErrorResponse(RequestType requestType) {
+    StatusResponse unknownErrorResponse(RequestType requestType) {
 
         if (requestType == null) {
             return null;
@@ -396,6 +443,75 @@ public class HTTPClient {
         }
     }
 
+    /**
+     * Receives the request body, which is only valid for the duration of the call.
+     */
+    interface RequestBodyWriter {
+
+        /**
+         * Write the first {@code length} bytes of {@code body}.
+         *
+         * @param body The buffer containing the body.
+         * @param length The number of valid bytes in {@code body}.
+         * @param gzipped {@code true} if the body is gzip encoded, {@code false} otherwise.
+         */
+        void write(byte[] body, int length, boolean gzipped) throws IOException;
+    }
+
+    /**
+     * Holds a prebuilt request URL string together with the parsed {@link URL}.
+     *
+     * <p>
+     *     The {@link URL} including the configuration timestamp is cached for the most recently used timestamp,
+     *     since all sessions of one send cycle usually report the same one.
+     * </p>
+     */
+    private static final class RequestURL {
+
+        private final String baseURL;
+        private volatile ParsedURL lastParsedURL;
+
+        private RequestURL(String baseURL) {
+            this.baseURL = baseURL;
+        }
+
+        private URL getURL(AdditionalQueryParameters parameters) throws MalformedURLException {
+            // parameters == null is identified by a null timestamp
+            Long timestamp = parameters == null ? null : parameters.getConfigurationTimestamp();
+
+            ParsedURL parsedURL = lastParsedURL;
+            if (parsedURL == null || !parsedURL.isFor(timestamp)) {
+                parsedURL = new ParsedURL(timestamp, new URL(appendAdditionalQueryParameters(baseURL, parameters)));
+                lastParsedURL = parsedURL;
+            }
+
+            return parsedURL.url;
+        }
+
+        @Override
+        public String toString() {
+            return baseURL;
+        }
+    }
+
+    /**
+     * Immutable pair of configuration timestamp and the {@link URL} built with it.
+     */
+    private static final class ParsedURL {
+
+        private final Long timestamp;
+        private final URL url;
+
+        private ParsedURL(Long timestamp, URL url) {
+            this.timestamp = timestamp;
+            this.url = url;
+        }
+
+        private boolean isFor(Long otherTimestamp) {
+            return timestamp == null ? otherTimestamp == null : timestamp.equals(otherTimestamp);
+        }
+    }
+
     /**
      * A wrapper class to hold url and create {@link HttpURLConnection} on-demand.
      * This allows to generate {@link HttpURLConnection} for failed attempts.
@@ -405,8 +521,8 @@ public class HTTPClient {
         private final int maxCount;
         private int connectCount;
 
-        HttpURLConnectionWrapperImpl(String url, int maxCount) throws MalformedURLException {
-            this.httpURL = new URL(url);
+        HttpURLConnectionWrapperImpl(URL url, int maxCount) {
+            this.httpURL = url;
             this.maxCount = maxCount;
         }
 
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.api.LogLevel;
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
+import com.dynatrace.openkit.protocol.nio.HTTPRequest;
+import com.dynatrace.openkit.protocol.nio.HTTPResponse;
+import com.dynatrace.openkit.protocol.nio.NioHTTPTransport;
+import com.dynatrace.openkit.protocol.nio.UnconfirmedRequestException;
+
+import java.io.IOException;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+
+/**
+ * HTTP client sending its requests via a {@link NioHTTPTransport}.
+ *
+ * <p>
+ *     Requests to {@code http} endpoints share the transport's few keep-alive connections, so that concurrently sent
+ *     beacons are pipelined instead of each one occupying a connection.
+ *     Requests to {@code https} endpoints are sent like by the {@link HTTPClient}, since the transport does not implement TLS.
+ * </p>
+ *
+ * <p>
+ *     Failed requests are sent again, like by the {@link HTTPClient}, unless the transport reports that the server
+ *     may have processed the request already.
+ * </p>
+ */
+public class NioHTTPClient extends HTTPClient {
+
+    private final Logger logger;
+    private final NioHTTPTransport transport;
+
+    public NioHTTPClient(Logger logger, HTTPClientConfiguration configuration, NioHTTPTransport transport) {
+        super(logger, configuration);
+        this.logger = logger;
+        this.transport = transport;
+    }
+
+    @Override
+    StatusResponse executeRequest(RequestType requestType, URL url, String clientIPAddress, byte[] data, String method)
+            throws IOException, GeneralSecurityException {
+        if (!"http".equalsIgnoreCase(url.getProtocol())) {
+            return super.executeRequest(requestType, url, clientIPAddress, data, method);
+        }
+
+        HTTPRequest request = createRequest(url, clientIPAddress, data, method);
+        int attempt = 0;
+        while (true) {
+            try {
+                HTTPResponse response = transport.execute(request);
+                return createStatusResponse(requestType, response.getStatusCode(),
+                        new String(response.getBody(), Beacon.CHARSET), response.getHeaders());
+            } catch (UnconfirmedRequestException exception) {
+                // the server may have processed the beacon, sending it again could duplicate its data
+                throw exception;
+            } catch (IOException exception) {
+                attempt++;
+                if (attempt >= MAX_SEND_RETRIES) {
+                    throw exception;
+                }
+
+                logger.log(LogLevel.INFO, "Exception occurred during request execution. Retry in progress.", exception);
+
+                try {
+                    Thread.sleep(RETRY_SLEEP_TIME);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return unknownErrorResponse(requestType);
+                }
+            }
+        }
+    }
+
+    private HTTPRequest createRequest(URL url, String clientIPAddress, byte[] data, String method) throws IOException {
+        final HTTPRequest request = new HTTPRequest(method, url);
+        if (clientIPAddress != null) {
+            request.withHeader("X-Client-IP", clientIPAddress);
+        }
+
+        // the body is copied into the request, so the compression buffer can be reused right away
+        writeRequestBody(data, new RequestBodyWriter() {
+            @Override
+            public void write(byte[] body, int length, boolean gzipped) {
+                if (gzipped) {
+                    request.withHeader("Content-Encoding", "gzip");
+                }
+                request.withBody(body, 0, length);
+            }
+        });
+
+        return request;
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coalesces identical records captured within a deduplication window.
+ *
+ * <p>
+ * The first record with a given {@link RecordKey} opens a window and is held back. Identical records captured
+ * while the window is open only increase the held record's occurrence count. Once the window is closed, the held
+ * record is emitted once, carrying the number of occurrences.
+ * </p>
+ *
+ * <p>
+ * The number of open windows is limited. If the limit is reached, records with a new key are not held back.
+ * </p>
+ */
+class RecordDeduplicator {
+
+    /** Maximum number of windows open at the same time */
+    static final int MAX_OPEN_WINDOWS = 100;
+
+    /** The length of a deduplication window in milliseconds */
+    private final long windowInMillis;
+
+    /** Records holding an open window, ordered by the start of the window */
+    private final Map<RecordKey, CapturedBeaconRecord> openWindows = new LinkedHashMap<RecordKey, CapturedBeaconRecord>();
+
+    /**
+     * Create a record deduplicator.
+     *
+     * @param windowInMillis The length of a deduplication window in milliseconds.
+     */
+    RecordDeduplicator(long windowInMillis) {
+        this.windowInMillis = windowInMillis;
+    }
+
+    /**
+     * Count an occurrence of an identical record, if a window is open for the given key.
+     *
+     * @param key       The key of the captured record.
+     * @param timestamp The timestamp of the captured record.
+     * @return {@code true} if the occurrence was counted and the record must not be added,
+     *         {@code false} if no window is open for the given key.
+     */
+    synchronized boolean addOccurrence(RecordKey key, long timestamp) {
+        CapturedBeaconRecord heldRecord = openWindows.get(key);
+        if (heldRecord == null || isExpired(heldRecord, timestamp)) {
+            return false;
+        }
+        heldRecord.addOccurrence();
+        return true;
+    }
+
+    /**
+     * Open a window for the given record.
+     *
+     * <p>
+     * If a window is still open for the key, e.g. because another thread opened it concurrently,
+     * the record is counted as an occurrence instead.
+     * </p>
+     *
+     * @param key    The key of the captured record.
+     * @param record The captured record.
+     * @return The record which must be added now, which is either the record of an expired window for the same key,
+     *         the given record if too many windows are open, or {@code null} if there is nothing to add.
+     */
+    synchronized CapturedBeaconRecord open(RecordKey key, CapturedBeaconRecord record) {
+        CapturedBeaconRecord heldRecord = openWindows.get(key);
+        if (heldRecord != null) {
+            if (!isExpired(heldRecord, record.getTimestamp())) {
+                heldRecord.addOccurrence();
+                return null;
+            }
+            // re-insert to keep the windows ordered by their start
+            openWindows.remove(key);
+            openWindows.put(key, record);
+            return heldRecord;
+        }
+
+        if (openWindows.size() >= MAX_OPEN_WINDOWS) {
+            return record;
+        }
+        openWindows.put(key, record);
+        return null;
+    }
+
+    /**
+     * Close all windows, which expired at the given time.
+     *
+     * @param timestamp The current timestamp.
+     * @return The records of the closed windows, ordered by the start of the window.
+     */
+    synchronized List<CapturedBeaconRecord> closeExpiredWindows(long timestamp) {
+        if (openWindows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CapturedBeaconRecord> closedRecords = new ArrayList<CapturedBeaconRecord>();
+        Iterator<CapturedBeaconRecord> iterator = openWindows.values().iterator();
+        while (iterator.hasNext()) {
+            CapturedBeaconRecord heldRecord = iterator.next();
+            if (!isExpired(heldRecord, timestamp)) {
+                // windows are ordered by their start, all following windows are still open
+                break;
+            }
+            closedRecords.add(heldRecord);
+            iterator.remove();
+        }
+
+        return closedRecords;
+    }
+
+    /**
+     * Close all windows, regardless of their expiry.
+     *
+     * @return The records of the closed windows, ordered by the start of the window.
+     */
+    synchronized List<CapturedBeaconRecord> closeAllWindows() {
+        if (openWindows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<CapturedBeaconRecord> closedRecords = new ArrayList<CapturedBeaconRecord>(openWindows.values());
+        openWindows.clear();
+
+        return closedRecords;
+    }
+
+    /**
+     * Discard all open windows, without emitting their records.
+     */
+    synchronized void clear() {
+        openWindows.clear();
+    }
+
+    /**
+     * Test if no window is open.
+     */
+    synchronized boolean isEmpty() {
+        return openWindows.isEmpty();
+    }
+
+    private boolean isExpired(CapturedBeaconRecord heldRecord, long timestamp) {
+        return timestamp - heldRecord.getTimestamp() >= windowInMillis;
+    }
+
+    /**
+     * Key identifying identical records.
+     */
+    static final class RecordKey {
+
+        private final EventType eventType;
+        private final int parentActionID;
+        private final String name;
+        private final int code;
+        private final String reason;
+        private final int hashCode;
+
+        /**
+         * Create a record key.
+         *
+         * @param eventType      The type of the captured event.
+         * @param parentActionID The ID of the action on which the event was reported.
+         * @param name           The event's name.
+         * @param code           The event's code, e.g. the error code.
+         * @param reason         The event's reason, which might be {@code null}.
+         */
+        RecordKey(EventType eventType, int parentActionID, String name, int code, String reason) {
+            this.eventType = eventType;
+            this.parentActionID = parentActionID;
+            this.name = name;
+            this.code = code;
+            this.reason = reason;
+
+            int result = eventType.hashCode();
+            result = 31 * result + parentActionID;
+            result = 31 * result + (name != null ? name.hashCode() : 0);
+            result = 31 * result + code;
+            result = 31 * result + (reason != null ? reason.hashCode() : 0);
+            hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            RecordKey other = (RecordKey) o;
+            return hashCode == other.hashCode
+                && eventType == other.eventType
+                && parentActionID == other.parentActionID
+                && code == other.code
+                && (name != null ? name.equals(other.name) : other.name == null)
+                && (reason != null ? reason.equals(other.reason) : other.reason == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
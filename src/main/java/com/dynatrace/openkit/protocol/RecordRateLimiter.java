@@ -0,0 +1,105 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.api.Logger;
+
+/**
+ * Limits the number of records captured per second.
+ *
+ * <p>
+ * Time is split into fixed windows of one second. Once the maximum number of records has been admitted within
+ * the current window, all further records are rejected until the next window starts.
+ * The number of rejected records is logged, when the next window starts or when the rejected records are
+ * {@link #reportRejectedRecords() reported} explicitly.
+ * </p>
+ */
+class RecordRateLimiter {
+
+    /** The length of a rate limiting window in milliseconds */
+    private static final long WINDOW_IN_MILLIS = 1000L;
+
+    /** Logger for reporting rejected records */
+    private final Logger logger;
+    /** The maximum number of records per window */
+    private final int maxRecordsPerSecond;
+
+    /** Start of the current window */
+    private long windowStart = Long.MIN_VALUE;
+    /** Number of records admitted in the current window */
+    private int numRecords = 0;
+    /** Number of rejected records, which were not reported so far */
+    private int numUnreportedRejectedRecords = 0;
+    /** Total number of rejected records */
+    private long numRejectedRecords = 0;
+
+    /**
+     * Create a record rate limiter.
+     *
+     * @param logger              Logger for reporting rejected records.
+     * @param maxRecordsPerSecond The maximum number of records per second.
+     */
+    RecordRateLimiter(Logger logger, int maxRecordsPerSecond) {
+        this.logger = logger;
+        this.maxRecordsPerSecond = maxRecordsPerSecond;
+    }
+
+    /**
+     * Try to admit a record captured at the given time.
+     *
+     * @param timestamp The timestamp of the captured record.
+     * @return {@code true} if the record is admitted, {@code false} if it must be dropped.
+     */
+    synchronized boolean tryAcquire(long timestamp) {
+        if (timestamp >= windowStart + WINDOW_IN_MILLIS || timestamp < windowStart) {
+            // start a new window, also if the clock went backwards
+            reportRejectedRecords();
+            windowStart = timestamp;
+            numRecords = 0;
+        }
+
+        if (numRecords >= maxRecordsPerSecond) {
+            numRejectedRecords++;
+            numUnreportedRejectedRecords++;
+            return false;
+        }
+        numRecords++;
+        return true;
+    }
+
+    /**
+     * Log the number of records rejected since the last report, if any.
+     */
+    synchronized void reportRejectedRecords() {
+        if (numUnreportedRejectedRecords == 0) {
+            return;
+        }
+
+        if (logger.isWarnEnabled()) {
+            logger.warning(getClass().getSimpleName() + " - Dropped " + numUnreportedRejectedRecords
+                + " errors and events exceeding the limit of " + maxRecordsPerSecond + " per second ("
+                + numRejectedRecords + " in total)");
+        }
+        numUnreportedRejectedRecords = 0;
+    }
+
+    /**
+     * Get the total number of records rejected so far.
+     */
+    synchronized long getNumRejectedRecords() {
+        return numRejectedRecords;
+    }
+}
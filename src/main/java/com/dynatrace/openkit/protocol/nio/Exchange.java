@@ -0,0 +1,176 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single request/response exchange handled by the {@link NioHTTPTransport}.
+ *
+ * <p>
+ *     The exchange is created by the calling thread, which waits for its completion,
+ *     and completed exactly once, either by the selector thread or by the caller giving up.
+ * </p>
+ */
+final class Exchange {
+
+    private final InetSocketAddress address;
+    private final byte[] request;
+    private final boolean idempotent;
+    private final long deadlineNanos;
+
+    /** Number of times the request has been queued on a connection, only accessed by the selector thread */
+    private int attempts = 0;
+    /** Request data of the current attempt, only accessed by the selector thread */
+    private ByteBuffer requestBuffer;
+    /** Flag indicating whether parts of the current attempt's request have been written to the connection */
+    private volatile boolean requestWritten = false;
+
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile HTTPResponse response;
+    private volatile IOException failure;
+
+    Exchange(InetSocketAddress address, byte[] request, boolean idempotent, long deadlineNanos) {
+        this.address = address;
+        this.request = request;
+        this.idempotent = idempotent;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    InetSocketAddress getAddress() {
+        return address;
+    }
+
+    boolean isIdempotent() {
+        return idempotent;
+    }
+
+    long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    boolean isExpired(long nowNanos) {
+        return nowNanos - deadlineNanos >= 0;
+    }
+
+    int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Start a new attempt to send the request.
+     *
+     * @return The buffer holding the request, which is written to the connection.
+     */
+    ByteBuffer startAttempt() {
+        attempts++;
+        requestWritten = false;
+        requestBuffer = ByteBuffer.wrap(request);
+        return requestBuffer;
+    }
+
+    /**
+     * Get a flag indicating whether parts of the request have been written in the current attempt.
+     *
+     * <p>
+     *     Such a request may have been processed by the server, even if no response was received.
+     *     Only called by the selector thread.
+     * </p>
+     */
+    boolean isRequestWritten() {
+        if (!requestWritten && requestBuffer != null && requestBuffer.position() > 0) {
+            requestWritten = true;
+        }
+        return requestWritten;
+    }
+
+    boolean isCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Complete the exchange with the given response, unless it's already completed.
+     */
+    void succeed(HTTPResponse response) {
+        if (completed.compareAndSet(false, true)) {
+            this.response = response;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Complete the exchange with the given failure, unless it's already completed.
+     *
+     * <p>
+     *     If a non-idempotent request has already been written, the failure is reported as {@link UnconfirmedRequestException},
+     *     so that the request is not sent again.
+     * </p>
+     */
+    void fail(IOException failure) {
+        if (completed.compareAndSet(false, true)) {
+            this.failure = requestWritten && !idempotent && !(failure instanceof UnconfirmedRequestException)
+                    ? new UnconfirmedRequestException(failure)
+                    : failure;
+            done.countDown();
+        }
+    }
+
+    /**
+     * Wait until the exchange is completed, but at most until the given deadline (plus some grace period).
+     *
+     * @param graceNanos Time to wait beyond the deadline, which is usually detected by the selector thread.
+     * @return The received response.
+     * @throws IOException If the exchange failed, timed out or the calling thread was interrupted.
+     */
+    HTTPResponse await(long graceNanos) throws IOException {
+        boolean interrupted = false;
+        try {
+            long waitNanos = deadlineNanos + graceNanos - System.nanoTime();
+            if (!done.await(Math.max(waitNanos, 0), TimeUnit.NANOSECONDS)) {
+                fail(new SocketTimeoutException("HTTP request timed out"));
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+            fail(new InterruptedIOException("Interrupted while waiting for the HTTP response"));
+        }
+
+        // completion is imminent, if the selector thread won the race against the failure above
+        while (done.getCount() > 0) {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP/1.1 request sent by the {@link NioHTTPTransport}.
+ *
+ * <p>
+ *     The {@code Host} and {@code Content-Length} headers are added when the request is encoded.
+ * </p>
+ */
+public final class HTTPRequest {
+
+    private static final String HEADER_CHARSET = "ISO-8859-1";
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final String method;
+    private final URL url;
+    private final Map<String, String> headers = new LinkedHashMap<String, String>();
+    private byte[] body = EMPTY_BODY;
+
+    /**
+     * Create a request without body.
+     *
+     * @param method The request method, e.g. {@code GET}.
+     * @param url The request's {@code http} URL.
+     */
+    public HTTPRequest(String method, URL url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    /**
+     * Set a request header, replacing a previously set value.
+     *
+     * @param name The header's name.
+     * @param value The header's value.
+     * @return {@code this}
+     */
+    public HTTPRequest withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Set the request body.
+     *
+     * <p>
+     *     The given data is copied, so the buffer can be reused afterwards.
+     * </p>
+     *
+     * @param data The buffer holding the body.
+     * @param offset The offset of the body in {@code data}.
+     * @param length The body's length in bytes.
+     * @return {@code this}
+     */
+    public HTTPRequest withBody(byte[] data, int offset, int length) {
+        body = new byte[length];
+        System.arraycopy(data, offset, body, 0, length);
+        return this;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URL getURL() {
+        return url;
+    }
+
+    /**
+     * Get a flag indicating whether sending the request multiple times has the same effect as sending it once.
+     */
+    public boolean isIdempotent() {
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Encode the request line, headers and body into the bytes sent over the wire.
+     */
+    byte[] encode() throws IOException {
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(getRequestTarget()).append(" HTTP/1.1\r\n");
+        appendHeader(head, "Host", getHostHeaderValue());
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            appendHeader(head, header.getKey(), header.getValue());
+        }
+        if (body.length > 0 || "POST".equals(method)) {
+            appendHeader(head, "Content-Length", String.valueOf(body.length));
+        }
+        head.append("\r\n");
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(head.length() + body.length);
+        encoded.write(head.toString().getBytes(HEADER_CHARSET));
+        encoded.write(body);
+        return encoded.toByteArray();
+    }
+
+    private String getRequestTarget() {
+        String file = url.getFile();
+        return file.length() == 0 ? "/" : file;
+    }
+
+    private String getHostHeaderValue() {
+        int port = url.getPort();
+        return port == -1 || port == url.getDefaultPort()
+                ? url.getHost()
+                : url.getHost() + ":" + port;
+    }
+
+    private static void appendHeader(StringBuilder head, String name, String value) {
+        head.append(name).append(": ").append(value).append("\r\n");
+    }
+}
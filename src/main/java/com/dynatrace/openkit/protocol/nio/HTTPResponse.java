@@ -0,0 +1,83 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP response received by the {@link NioHTTPTransport}.
+ */
+public final class HTTPResponse {
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+    private final boolean keepAlive;
+
+    HTTPResponse(int statusCode, Map<String, List<String>> headers, byte[] body, boolean keepAlive) {
+        this.statusCode = statusCode;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.keepAlive = keepAlive;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Get the response headers, with the names as sent by the server.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the first value of the given header, ignoring the case of the name.
+     *
+     * @param name The header's name.
+     * @return The header's first value or {@code null} if the header is missing.
+     */
+    public String getHeaderValue(String name) {
+        return getHeaderValue(headers, name);
+    }
+
+    /**
+     * Get the decoded response body, which is empty if the response has none.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Get a flag indicating whether the connection may be used for further requests.
+     */
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    static String getHeaderValue(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                return header.getValue().get(0);
+            }
+        }
+        return null;
+    }
+}
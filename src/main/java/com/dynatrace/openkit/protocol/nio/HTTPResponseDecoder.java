@@ -0,0 +1,335 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental decoder for the HTTP/1.1 responses received on one connection.
+ *
+ * <p>
+ *     Data is fed as it is read from the socket and complete responses are taken in the order the requests were sent,
+ *     which allows pipelining. Bodies are delimited by {@code Content-Length}, by chunked transfer coding or by the end
+ *     of the stream. Interim {@code 1xx} responses are skipped.
+ * </p>
+ *
+ * <p>
+ *     This class is not thread safe, it is only used by the transport's selector thread.
+ * </p>
+ */
+final class HTTPResponseDecoder {
+
+    /** Maximum size of the status line and headers of a single response */
+    static final int MAX_HEADER_SECTION_SIZE = 64 * 1024;
+
+    private static final String HEADER_CHARSET = "ISO-8859-1";
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private enum State {
+        HEADERS,
+        FIXED_LENGTH_BODY,
+        CHUNK_SIZE,
+        CHUNK_DATA,
+        CHUNK_DATA_END,
+        TRAILER,
+        BODY_UNTIL_CLOSE
+    }
+
+    // received data, which is not decoded yet, is between readPosition and writePosition
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int readPosition = 0;
+    private int writePosition = 0;
+
+    private State state = State.HEADERS;
+    private int statusCode;
+    private boolean keepAlive;
+    private Map<String, List<String>> headers;
+    private ByteArrayOutputStream body;
+    private long remainingBodyBytes;
+
+    /**
+     * Append the remaining bytes of the given buffer to the data to decode.
+     */
+    void feed(ByteBuffer data) {
+        int length = data.remaining();
+        ensureCapacity(length);
+        data.get(buffer, writePosition, length);
+        writePosition += length;
+    }
+
+    /**
+     * Decode the next complete response from the data fed so far.
+     *
+     * @return The next response or {@code null} if more data is needed.
+     * @throws IOException If the received data is not a valid HTTP response.
+     */
+    HTTPResponse next() throws IOException {
+        while (true) {
+            switch (state) {
+                case HEADERS:
+                    if (!decodeHeaders()) {
+                        return null;
+                    }
+                    if (state == State.HEADERS) {
+                        // either an interim response or one without body
+                        if (statusCode >= 100 && statusCode < 200) {
+                            continue;
+                        }
+                        return completeResponse();
+                    }
+                    break;
+                case FIXED_LENGTH_BODY:
+                    readBody();
+                    if (remainingBodyBytes > 0) {
+                        return null;
+                    }
+                    return completeResponse();
+                case CHUNK_SIZE: {
+                    String line = readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                    remainingBodyBytes = parseChunkSize(line);
+                    state = remainingBodyBytes == 0 ? State.TRAILER : State.CHUNK_DATA;
+                    break;
+                }
+                case CHUNK_DATA:
+                    readBody();
+                    if (remainingBodyBytes > 0) {
+                        return null;
+                    }
+                    state = State.CHUNK_DATA_END;
+                    break;
+                case CHUNK_DATA_END: {
+                    String line = readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                    if (line.length() != 0) {
+                        throw new IOException("Malformed chunked response body");
+                    }
+                    state = State.CHUNK_SIZE;
+                    break;
+                }
+                case TRAILER: {
+                    // trailer fields are not of interest
+                    String line = readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                    if (line.length() == 0) {
+                        return completeResponse();
+                    }
+                    break;
+                }
+                case BODY_UNTIL_CLOSE:
+                    body.write(buffer, readPosition, writePosition - readPosition);
+                    readPosition = writePosition;
+                    return null;
+                default:
+                    throw new IllegalStateException("Unknown state " + state);
+            }
+        }
+    }
+
+    /**
+     * Signal that the server closed the connection.
+     *
+     * @return The response delimited by the end of the stream or {@code null} if no response is pending.
+     * @throws EOFException If the connection was closed in the middle of a response.
+     */
+    HTTPResponse endOfStream() throws EOFException {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            return completeResponse();
+        }
+        if (hasPartialResponse()) {
+            throw new EOFException("Connection closed before the response was complete");
+        }
+        return null;
+    }
+
+    /**
+     * Get a flag indicating whether parts of a response have been received.
+     */
+    boolean hasPartialResponse() {
+        return state != State.HEADERS || readPosition < writePosition;
+    }
+
+    private boolean decodeHeaders() throws IOException {
+        int end = indexOfHeaderSectionEnd();
+        if (end < 0) {
+            if (writePosition - readPosition > MAX_HEADER_SECTION_SIZE) {
+                throw new IOException("Response header section exceeds " + MAX_HEADER_SECTION_SIZE + " bytes");
+            }
+            return false;
+        }
+
+        String headerSection = new String(buffer, readPosition, end - readPosition, HEADER_CHARSET);
+        readPosition = end + 4;
+
+        String[] lines = headerSection.split("\r\n");
+        String httpVersion = parseStatusLine(lines[0]);
+        headers = new LinkedHashMap<String, List<String>>();
+        for (int i = 1; i < lines.length; i++) {
+            parseHeaderLine(lines[i]);
+        }
+
+        String connection = HTTPResponse.getHeaderValue(headers, "Connection");
+        keepAlive = "HTTP/1.1".equals(httpVersion)
+                ? !"close".equalsIgnoreCase(connection)
+                : "keep-alive".equalsIgnoreCase(connection);
+        body = new ByteArrayOutputStream();
+
+        if ((statusCode >= 100 && statusCode < 200) || statusCode == 204 || statusCode == 304) {
+            return true;
+        }
+
+        String transferEncoding = HTTPResponse.getHeaderValue(headers, "Transfer-Encoding");
+        String contentLength = HTTPResponse.getHeaderValue(headers, "Content-Length");
+        if (transferEncoding != null && transferEncoding.toLowerCase().endsWith("chunked")) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            remainingBodyBytes = parseContentLength(contentLength);
+            if (remainingBodyBytes > 0) {
+                state = State.FIXED_LENGTH_BODY;
+            }
+        } else {
+            // the body ends when the server closes the connection
+            keepAlive = false;
+            state = State.BODY_UNTIL_CLOSE;
+        }
+
+        return true;
+    }
+
+    private String parseStatusLine(String statusLine) throws IOException {
+        // e.g. "HTTP/1.1 200 OK", where the reason phrase is optional
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/") || parts[1].length() != 3) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+        try {
+            statusCode = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed status line: " + statusLine);
+        }
+        return parts[0];
+    }
+
+    private void parseHeaderLine(String line) throws IOException {
+        int colon = line.indexOf(':');
+        if (colon <= 0) {
+            throw new IOException("Malformed header line: " + line);
+        }
+        String name = line.substring(0, colon).trim();
+        String value = line.substring(colon + 1).trim();
+
+        List<String> values = headers.get(name);
+        if (values == null) {
+            values = new ArrayList<String>(1);
+            headers.put(name, values);
+        }
+        values.add(value);
+    }
+
+    private static long parseContentLength(String contentLength) throws IOException {
+        try {
+            long length = Long.parseLong(contentLength.trim());
+            if (length >= 0) {
+                return length;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IOException("Malformed Content-Length: " + contentLength);
+    }
+
+    private static long parseChunkSize(String line) throws IOException {
+        // chunk extensions are ignored
+        int extension = line.indexOf(';');
+        String size = (extension < 0 ? line : line.substring(0, extension)).trim();
+        try {
+            long chunkSize = Long.parseLong(size, 16);
+            if (chunkSize >= 0) {
+                return chunkSize;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IOException("Malformed chunk size: " + line);
+    }
+
+    private void readBody() {
+        int length = (int) Math.min(remainingBodyBytes, writePosition - readPosition);
+        body.write(buffer, readPosition, length);
+        readPosition += length;
+        remainingBodyBytes -= length;
+    }
+
+    private String readLine() throws IOException {
+        for (int i = readPosition; i < writePosition - 1; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                String line = new String(buffer, readPosition, i - readPosition, HEADER_CHARSET);
+                readPosition = i + 2;
+                return line;
+            }
+        }
+        if (writePosition - readPosition > MAX_HEADER_SECTION_SIZE) {
+            throw new IOException("Response line exceeds " + MAX_HEADER_SECTION_SIZE + " bytes");
+        }
+        return null;
+    }
+
+    private int indexOfHeaderSectionEnd() {
+        for (int i = readPosition; i < writePosition - 3; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n' && buffer[i + 2] == '\r' && buffer[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private HTTPResponse completeResponse() {
+        HTTPResponse response = new HTTPResponse(statusCode, headers, body.toByteArray(), keepAlive);
+        state = State.HEADERS;
+        headers = null;
+        body = null;
+        remainingBodyBytes = 0;
+        return response;
+    }
+
+    private void ensureCapacity(int additionalBytes) {
+        // move undecoded data to the front before growing the buffer
+        if (readPosition > 0) {
+            System.arraycopy(buffer, readPosition, buffer, 0, writePosition - readPosition);
+            writePosition -= readPosition;
+            readPosition = 0;
+        }
+        if (writePosition + additionalBytes > buffer.length) {
+            byte[] newBuffer = new byte[Math.max(buffer.length * 2, writePosition + additionalBytes)];
+            System.arraycopy(buffer, 0, newBuffer, 0, writePosition);
+            buffer = newBuffer;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A non-blocking keep-alive connection, on which requests are pipelined.
+ *
+ * <p>
+ *     Requests are written as soon as they are sent and the responses are assigned to them in the same order.
+ *     This class is not thread safe, it is only used by the transport's selector thread.
+ * </p>
+ */
+final class NioHTTPConnection {
+
+    private final InetSocketAddress address;
+    private final SocketChannel channel;
+    private final long connectDeadlineNanos;
+    private SelectionKey key;
+
+    /** Exchanges which have been written (or are about to be written), but didn't receive their response yet */
+    private final ArrayDeque<Exchange> inFlight = new ArrayDeque<Exchange>();
+    private final ArrayDeque<ByteBuffer> pendingWrites = new ArrayDeque<ByteBuffer>();
+    private final HTTPResponseDecoder decoder = new HTTPResponseDecoder();
+
+    private boolean connected;
+    private boolean reusable = true;
+    private boolean closeAnnounced = false;
+    private long idleSinceNanos;
+
+    private NioHTTPConnection(InetSocketAddress address, SocketChannel channel, long connectDeadlineNanos, long nowNanos) {
+        this.address = address;
+        this.channel = channel;
+        this.connectDeadlineNanos = connectDeadlineNanos;
+        this.idleSinceNanos = nowNanos;
+    }
+
+    /**
+     * Start connecting to the given address.
+     *
+     * @param selector The selector the connection is registered with.
+     * @param address The server's address.
+     * @param connectDeadlineNanos Time until the connection must be established.
+     * @param nowNanos The current time.
+     */
+    static NioHTTPConnection open(Selector selector, InetSocketAddress address, long connectDeadlineNanos, long nowNanos)
+            throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            NioHTTPConnection connection = new NioHTTPConnection(address, channel, connectDeadlineNanos, nowNanos);
+            connection.connected = channel.connect(address);
+            connection.key = channel.register(selector, connection.connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, connection);
+            return connection;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    InetSocketAddress getAddress() {
+        return address;
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    long getConnectDeadlineNanos() {
+        return connectDeadlineNanos;
+    }
+
+    long getIdleSinceNanos() {
+        return idleSinceNanos;
+    }
+
+    /**
+     * Get a flag indicating whether further requests may be sent on this connection.
+     */
+    boolean isReusable() {
+        return reusable;
+    }
+
+    /**
+     * Get a flag indicating whether the server announced closing the connection with a response.
+     *
+     * <p>
+     *     Requests sent after that response were not processed by the server.
+     * </p>
+     */
+    boolean isCloseAnnounced() {
+        return closeAnnounced;
+    }
+
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Get the exchanges waiting for their response, in the order they were sent.
+     */
+    List<Exchange> getInFlight() {
+        return new ArrayList<Exchange>(inFlight);
+    }
+
+    /**
+     * Get a flag indicating whether parts of the oldest in flight exchange's response have been received.
+     */
+    boolean hasPartialResponse() {
+        return decoder.hasPartialResponse();
+    }
+
+    /**
+     * Queue the exchange's request for writing.
+     */
+    void send(Exchange exchange) {
+        inFlight.add(exchange);
+        pendingWrites.add(exchange.startAttempt());
+        updateInterestOps();
+    }
+
+    /**
+     * Complete establishing the connection, after the selector reported it's connectable.
+     */
+    void finishConnect(long nowNanos) throws IOException {
+        if (channel.finishConnect()) {
+            connected = true;
+            idleSinceNanos = nowNanos;
+            updateInterestOps();
+        }
+    }
+
+    /**
+     * Write as much of the queued requests as the socket accepts, using a single gathering write.
+     */
+    void write() throws IOException {
+        if (pendingWrites.isEmpty()) {
+            updateInterestOps();
+            return;
+        }
+
+        channel.write(pendingWrites.toArray(new ByteBuffer[pendingWrites.size()]));
+        while (!pendingWrites.isEmpty() && !pendingWrites.peek().hasRemaining()) {
+            pendingWrites.poll();
+        }
+        // remember which requests may have reached the server
+        for (Exchange exchange : inFlight) {
+            exchange.isRequestWritten();
+        }
+        updateInterestOps();
+    }
+
+    /**
+     * Read the available data and complete the exchanges whose responses have been fully received.
+     *
+     * @param readBuffer Buffer used for reading from the socket.
+     * @param nowNanos The current time.
+     * @return {@code true} if the connection remains open, {@code false} if it has to be closed.
+     */
+    boolean read(ByteBuffer readBuffer, long nowNanos) throws IOException {
+        while (true) {
+            readBuffer.clear();
+            int bytesRead = channel.read(readBuffer);
+            if (bytesRead < 0) {
+                HTTPResponse response = decoder.endOfStream();
+                if (response != null) {
+                    // the response was delimited by closing the connection
+                    complete(response, nowNanos);
+                }
+                reusable = false;
+                return false;
+            }
+            if (bytesRead == 0) {
+                return true;
+            }
+
+            readBuffer.flip();
+            decoder.feed(readBuffer);
+
+            HTTPResponse response;
+            while ((response = decoder.next()) != null) {
+                complete(response, nowNanos);
+                if (!response.isKeepAlive()) {
+                    reusable = false;
+                    closeAnnounced = true;
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Close the connection.
+     *
+     * @return The exchanges which didn't receive their response, in the order they were sent.
+     */
+    List<Exchange> close() {
+        reusable = false;
+        if (key != null) {
+            key.cancel();
+        }
+        closeQuietly(channel);
+
+        List<Exchange> unanswered = new ArrayList<Exchange>(inFlight);
+        inFlight.clear();
+        pendingWrites.clear();
+        return unanswered;
+    }
+
+    private void complete(HTTPResponse response, long nowNanos) throws IOException {
+        Exchange exchange = inFlight.poll();
+        if (exchange == null) {
+            throw new IOException("Received a response without request");
+        }
+        exchange.succeed(response);
+        if (inFlight.isEmpty()) {
+            idleSinceNanos = nowNanos;
+        }
+    }
+
+    private void updateInterestOps() {
+        if (!connected || !key.isValid()) {
+            return;
+        }
+        key.interestOps(pendingWrites.isEmpty()
+                ? SelectionKey.OP_READ
+                : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing to do, the connection is discarded anyway
+        }
+    }
+}
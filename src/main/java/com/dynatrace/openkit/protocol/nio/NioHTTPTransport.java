@@ -0,0 +1,498 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import com.dynatrace.openkit.api.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small non-blocking HTTP/1.1 client transport for plain {@code http} endpoints.
+ *
+ * <p>
+ *     All connections are served by a single selector thread. Requests to the same endpoint share at most
+ *     {@code maxConnectionsPerEndpoint} keep-alive connections, on which up to {@code maxPipelinedRequests} requests
+ *     are pipelined. This way many concurrently sent requests are in flight on few connections and a slow server
+ *     does not hold a socket per waiting request.
+ * </p>
+ *
+ * <p>
+ *     {@link #execute(HTTPRequest)} blocks the calling thread until the response is received or the request timed out.
+ *     If a connection is closed, requests that did not receive their response are sent once more on another connection,
+ *     as long as sending them again is safe. That is the case if no part of the request was written, e.g. because
+ *     the server closed an idle keep-alive connection, if the server announced closing the connection with a preceding
+ *     response, or if the request is idempotent. Other requests, like pipelined beacon {@code POST}s,
+ *     fail with an {@link UnconfirmedRequestException}.
+ * </p>
+ *
+ * <p>
+ *     This class is thread safe.
+ * </p>
+ */
+public final class NioHTTPTransport implements Closeable {
+
+    /** Default maximum number of connections to a single endpoint */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT = 2;
+    /** Default maximum number of requests waiting for their response on a single connection */
+    public static final int DEFAULT_MAX_PIPELINED_REQUESTS = 8;
+    /** Default time to establish a connection, in milliseconds */
+    public static final long DEFAULT_CONNECT_TIMEOUT_IN_MILLIS = 5000L;
+    /** Default time a request may wait for its response, after connecting, in milliseconds */
+    public static final long DEFAULT_REQUEST_TIMEOUT_IN_MILLIS = 30000L;
+
+    /** Time after which a connection without pending requests is closed, in milliseconds */
+    static final long IDLE_CONNECTION_TIMEOUT_IN_MILLIS = 15000L;
+    /** Maximum number of times a request is sent, unless the server announced closing the connection */
+    static final int MAX_ATTEMPTS = 2;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final long AWAIT_GRACE_PERIOD_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = 1000L;
+    private static final String THREAD_NAME = NioHTTPTransport.class.getSimpleName();
+
+    private final Logger logger;
+    private final int maxConnectionsPerEndpoint;
+    private final int maxPipelinedRequests;
+    private final long connectTimeoutNanos;
+    private final long requestTimeoutNanos;
+    private final long idleTimeoutNanos;
+
+    private final Queue<Exchange> submittedExchanges = new ConcurrentLinkedQueue<Exchange>();
+
+    // guards starting the selector thread and closing the transport
+    private final Object lockObject = new Object();
+    private Selector selector;
+    private Thread selectorThread;
+    private volatile boolean closed = false;
+
+    // only accessed by the selector thread
+    private final Map<InetSocketAddress, Endpoint> endpoints = new HashMap<InetSocketAddress, Endpoint>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+    /**
+     * Create a transport using the default limits and timeouts.
+     *
+     * @param logger Logger for reporting connection errors.
+     */
+    public NioHTTPTransport(Logger logger) {
+        this(logger, DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT, DEFAULT_MAX_PIPELINED_REQUESTS,
+                DEFAULT_CONNECT_TIMEOUT_IN_MILLIS, DEFAULT_REQUEST_TIMEOUT_IN_MILLIS);
+    }
+
+    /**
+     * Create a transport.
+     *
+     * @param logger Logger for reporting connection errors.
+     * @param maxConnectionsPerEndpoint Maximum number of connections to a single endpoint, at least 1.
+     * @param maxPipelinedRequests Maximum number of requests waiting for their response on a single connection, at least 1.
+     * @param connectTimeoutInMillis Time to establish a connection.
+     * @param requestTimeoutInMillis Time a request may wait for its response, in addition to the connect timeout.
+     */
+    public NioHTTPTransport(Logger logger,
+                            int maxConnectionsPerEndpoint,
+                            int maxPipelinedRequests,
+                            long connectTimeoutInMillis,
+                            long requestTimeoutInMillis) {
+        this(logger, maxConnectionsPerEndpoint, maxPipelinedRequests, connectTimeoutInMillis, requestTimeoutInMillis,
+                IDLE_CONNECTION_TIMEOUT_IN_MILLIS);
+    }
+
+    NioHTTPTransport(Logger logger,
+                     int maxConnectionsPerEndpoint,
+                     int maxPipelinedRequests,
+                     long connectTimeoutInMillis,
+                     long requestTimeoutInMillis,
+                     long idleTimeoutInMillis) {
+        this.logger = logger;
+        this.maxConnectionsPerEndpoint = Math.max(1, maxConnectionsPerEndpoint);
+        this.maxPipelinedRequests = Math.max(1, maxPipelinedRequests);
+        this.connectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connectTimeoutInMillis);
+        this.requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeoutInMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutInMillis);
+    }
+
+    /**
+     * Send the request and wait for its response.
+     *
+     * @param request The request to send to an {@code http} URL.
+     * @return The received response.
+     * @throws IOException If the request could not be sent, the response was malformed, the request timed out
+     *                     or the transport is closed. An {@link UnconfirmedRequestException} is thrown, if the server
+     *                     may have processed the non-idempotent request nevertheless.
+     */
+    public HTTPResponse execute(HTTPRequest request) throws IOException {
+        URL url = request.getURL();
+        if (!"http".equalsIgnoreCase(url.getProtocol())) {
+            throw new IOException("Unsupported protocol " + url.getProtocol());
+        }
+
+        // resolve the address in the calling thread, so the selector thread never blocks
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        InetSocketAddress address = new InetSocketAddress(url.getHost(), port);
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(url.getHost());
+        }
+
+        Exchange exchange = new Exchange(address, request.encode(), request.isIdempotent(),
+                System.nanoTime() + connectTimeoutNanos + requestTimeoutNanos);
+        submit(exchange);
+        return exchange.await(AWAIT_GRACE_PERIOD_IN_NANOS);
+    }
+
+    /**
+     * Close all connections and stop the selector thread.
+     *
+     * <p>
+     *     Pending requests fail and further requests are rejected.
+     * </p>
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (lockObject) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = selectorThread;
+            if (selector != null) {
+                selector.wakeup();
+            }
+        }
+
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(SHUTDOWN_TIMEOUT_IN_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Get a flag indicating whether the selector thread is running.
+     */
+    boolean isRunning() {
+        synchronized (lockObject) {
+            return selectorThread != null && selectorThread.isAlive();
+        }
+    }
+
+    private void submit(Exchange exchange) throws IOException {
+        Selector currentSelector;
+        synchronized (lockObject) {
+            if (closed) {
+                throw new IOException(THREAD_NAME + " is closed");
+            }
+            if (selectorThread == null) {
+                startSelectorThread();
+            }
+            submittedExchanges.add(exchange);
+            currentSelector = selector;
+        }
+        currentSelector.wakeup();
+    }
+
+    private void startSelectorThread() throws IOException {
+        selector = Selector.open();
+        selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runSelectorLoop();
+            }
+        }, THREAD_NAME);
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    private void runSelectorLoop() {
+        try {
+            while (!closed) {
+                long nowNanos = System.nanoTime();
+                acceptSubmittedExchanges();
+                long timeoutNanos = processTimeouts(nowNanos);
+                dispatchExchanges(nowNanos);
+
+                selector.select(timeoutNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                processSelectedKeys(System.nanoTime());
+            }
+        } catch (Exception e) {
+            logger.error(THREAD_NAME + " runSelectorLoop() - Unexpected error, closing all connections", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void acceptSubmittedExchanges() {
+        Exchange exchange;
+        while ((exchange = submittedExchanges.poll()) != null) {
+            Endpoint endpoint = endpoints.get(exchange.getAddress());
+            if (endpoint == null) {
+                endpoint = new Endpoint();
+                endpoints.put(exchange.getAddress(), endpoint);
+            }
+            endpoint.waitingExchanges.add(exchange);
+        }
+    }
+
+    private void processSelectedKeys(long nowNanos) {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+
+            NioHTTPConnection connection = (NioHTTPConnection) key.attachment();
+            try {
+                if (key.isValid() && key.isConnectable()) {
+                    connection.finishConnect(nowNanos);
+                }
+                if (key.isValid() && connection.isConnected() && key.isWritable()) {
+                    connection.write();
+                }
+                if (key.isValid() && key.isReadable() && !connection.read(readBuffer, nowNanos)) {
+                    closeConnection(connection, new IOException("Connection closed by server"), nowNanos);
+                }
+            } catch (IOException e) {
+                closeConnection(connection, e, nowNanos);
+            }
+        }
+    }
+
+    /**
+     * Fail expired exchanges and close timed out or idle connections.
+     *
+     * @return Nanoseconds until the next timeout has to be checked, or {@code 0} if there is nothing to check.
+     */
+    private long processTimeouts(long nowNanos) {
+        long nextCheckNanos = Long.MAX_VALUE;
+
+        Iterator<Endpoint> endpointIterator = endpoints.values().iterator();
+        while (endpointIterator.hasNext()) {
+            Endpoint endpoint = endpointIterator.next();
+
+            Iterator<Exchange> waitingIterator = endpoint.waitingExchanges.iterator();
+            while (waitingIterator.hasNext()) {
+                Exchange exchange = waitingIterator.next();
+                if (exchange.isExpired(nowNanos)) {
+                    exchange.fail(new SocketTimeoutException("HTTP request timed out"));
+                    waitingIterator.remove();
+                } else if (!exchange.isCompleted()) {
+                    nextCheckNanos = Math.min(nextCheckNanos, exchange.getDeadlineNanos() - nowNanos);
+                }
+            }
+
+            for (NioHTTPConnection connection : new ArrayList<NioHTTPConnection>(endpoint.connections)) {
+                nextCheckNanos = Math.min(nextCheckNanos, processTimeouts(connection, nowNanos));
+            }
+
+            if (endpoint.connections.isEmpty() && endpoint.waitingExchanges.isEmpty()) {
+                endpointIterator.remove();
+            }
+        }
+
+        return nextCheckNanos == Long.MAX_VALUE ? 0 : Math.max(1, nextCheckNanos);
+    }
+
+    private long processTimeouts(NioHTTPConnection connection, long nowNanos) {
+        List<Exchange> inFlight = connection.getInFlight();
+        long nextCheckNanos;
+
+        if (!connection.isConnected()) {
+            nextCheckNanos = connection.getConnectDeadlineNanos() - nowNanos;
+            if (nextCheckNanos <= 0) {
+                closeConnection(connection, new SocketTimeoutException("Connect timed out"), nowNanos);
+                return Long.MAX_VALUE;
+            }
+        } else if (inFlight.isEmpty()) {
+            nextCheckNanos = connection.getIdleSinceNanos() + idleTimeoutNanos - nowNanos;
+            if (nextCheckNanos <= 0) {
+                closeConnection(connection, null, nowNanos);
+                return Long.MAX_VALUE;
+            }
+        } else if (inFlight.get(0).isExpired(nowNanos)) {
+            // the oldest exchange blocks all others on this connection, therefore the connection is dropped
+            inFlight.get(0).fail(new SocketTimeoutException("HTTP request timed out"));
+            closeConnection(connection, new SocketTimeoutException("Preceding HTTP request timed out"), nowNanos);
+            return Long.MAX_VALUE;
+        } else {
+            nextCheckNanos = Long.MAX_VALUE;
+        }
+
+        // other exchanges just stop waiting, their responses are discarded when they arrive
+        for (Exchange exchange : inFlight) {
+            if (exchange.isExpired(nowNanos)) {
+                exchange.fail(new SocketTimeoutException("HTTP request timed out"));
+            } else if (!exchange.isCompleted()) {
+                nextCheckNanos = Math.min(nextCheckNanos, exchange.getDeadlineNanos() - nowNanos);
+            }
+        }
+        return nextCheckNanos;
+    }
+
+    private void dispatchExchanges(long nowNanos) {
+        for (Endpoint endpoint : endpoints.values()) {
+            while (!endpoint.waitingExchanges.isEmpty()) {
+                Exchange exchange = endpoint.waitingExchanges.peek();
+                if (exchange.isCompleted()) {
+                    endpoint.waitingExchanges.poll();
+                    continue;
+                }
+
+                NioHTTPConnection connection;
+                try {
+                    connection = selectConnection(endpoint, exchange.getAddress(), nowNanos);
+                } catch (IOException e) {
+                    endpoint.waitingExchanges.poll();
+                    exchange.fail(e);
+                    continue;
+                }
+                if (connection == null) {
+                    // all connections are busy, the exchange is sent once a response has been received
+                    break;
+                }
+
+                endpoint.waitingExchanges.poll();
+                connection.send(exchange);
+            }
+        }
+    }
+
+    /**
+     * Select the connection for the next request, which is an idle one, a new one, or the least busy one.
+     *
+     * @return The selected connection or {@code null} if all connections are fully busy.
+     */
+    private NioHTTPConnection selectConnection(Endpoint endpoint, InetSocketAddress address, long nowNanos) throws IOException {
+        NioHTTPConnection leastBusy = null;
+        for (NioHTTPConnection connection : endpoint.connections) {
+            if (connection.isReusable() && connection.getInFlightCount() < maxPipelinedRequests
+                    && (leastBusy == null || connection.getInFlightCount() < leastBusy.getInFlightCount())) {
+                leastBusy = connection;
+            }
+        }
+
+        // prefer spreading requests over connections before pipelining them
+        if ((leastBusy == null || leastBusy.getInFlightCount() > 0) && endpoint.connections.size() < maxConnectionsPerEndpoint) {
+            NioHTTPConnection connection = NioHTTPConnection.open(selector, address, nowNanos + connectTimeoutNanos, nowNanos);
+            endpoint.connections.add(connection);
+            return connection;
+        }
+
+        return leastBusy;
+    }
+
+    /**
+     * Close the connection and send the requests, which didn't receive any part of their response, once more,
+     * if that is safe.
+     *
+     * <p>
+     *     If the server announced closing the connection, the remaining requests have not been processed
+     *     and are sent again regardless of the number of attempts. Otherwise only requests, which are idempotent
+     *     or have not been written at all, are sent again.
+     * </p>
+     *
+     * @param cause Failure for the exchanges that are not sent again, or {@code null} when closing an idle connection.
+     */
+    private void closeConnection(NioHTTPConnection connection, IOException cause, long nowNanos) {
+        Endpoint endpoint = endpoints.get(connection.getAddress());
+        if (endpoint != null) {
+            endpoint.connections.remove(connection);
+        }
+
+        boolean wasConnected = connection.isConnected();
+        boolean hasPartialResponse = connection.hasPartialResponse();
+        boolean closeAnnounced = connection.isCloseAnnounced();
+        List<Exchange> unanswered = connection.close();
+
+        // re-queue in reverse order, so that the original order is kept
+        for (int i = unanswered.size() - 1; i >= 0; i--) {
+            Exchange exchange = unanswered.get(i);
+            if (exchange.isCompleted()) {
+                continue;
+            }
+
+            boolean retry = endpoint != null
+                    && wasConnected
+                    && !(i == 0 && hasPartialResponse)
+                    && (closeAnnounced || (exchange.getAttempts() < MAX_ATTEMPTS && isSafeToResend(exchange)))
+                    && !exchange.isExpired(nowNanos);
+            if (retry) {
+                endpoint.waitingExchanges.addFirst(exchange);
+            } else {
+                exchange.fail(cause != null ? cause : new IOException("Connection closed"));
+            }
+        }
+    }
+
+    private static boolean isSafeToResend(Exchange exchange) {
+        return exchange.isIdempotent() || !exchange.isRequestWritten();
+    }
+
+    private void shutdown() {
+        IOException cause = new IOException(THREAD_NAME + " is closed");
+        for (Endpoint endpoint : endpoints.values()) {
+            for (NioHTTPConnection connection : endpoint.connections) {
+                for (Exchange exchange : connection.close()) {
+                    exchange.fail(cause);
+                }
+            }
+            for (Exchange exchange : endpoint.waitingExchanges) {
+                exchange.fail(cause);
+            }
+        }
+        endpoints.clear();
+
+        synchronized (lockObject) {
+            // no exchanges can be submitted anymore
+            closed = true;
+            Exchange exchange;
+            while ((exchange = submittedExchanges.poll()) != null) {
+                exchange.fail(cause);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                logger.error(THREAD_NAME + " shutdown() - Failed to close selector", e);
+            }
+        }
+    }
+
+    /**
+     * Connections and queued exchanges of a single server address.
+     */
+    private static final class Endpoint {
+        private final List<NioHTTPConnection> connections = new ArrayList<NioHTTPConnection>();
+        private final ArrayDeque<Exchange> waitingExchanges = new ArrayDeque<Exchange>();
+    }
+}
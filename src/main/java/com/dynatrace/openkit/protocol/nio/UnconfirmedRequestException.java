@@ -0,0 +1,38 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.IOException;
+
+/**
+ * Signals that a non-idempotent request failed after it has been written, without receiving its response.
+ *
+ * <p>
+ *     The server may have processed the request, therefore it must not be sent again.
+ * </p>
+ */
+public class UnconfirmedRequestException extends IOException {
+
+    /**
+     * Constructor taking the failure, which occurred after the request was written.
+     *
+     * @param cause The failure of the connection.
+     */
+    UnconfirmedRequestException(IOException cause) {
+        super("Request was sent, but no response was received: " + cause.getMessage(), cause);
+    }
+}
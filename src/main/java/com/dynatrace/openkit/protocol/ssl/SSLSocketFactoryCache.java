@@ -0,0 +1,97 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.ssl;
+
+import com.dynatrace.openkit.api.SSLTrustManager;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of {@link SSLSocketFactory} instances per {@link SSLTrustManager}.
+ *
+ * <p>
+ * Creating and initializing an {@link SSLContext} is expensive. In addition, TLS sessions are cached per context
+ * and connections are only kept alive and reused for the same socket factory.
+ * Therefore all HTTPS connections using the same {@link SSLTrustManager} share one socket factory.
+ * </p>
+ *
+ * <p>
+ * The factory is re-created if the trust manager provides a different {@link X509TrustManager},
+ * e.g. because the default trust manager algorithm was changed.
+ * </p>
+ */
+public final class SSLSocketFactoryCache {
+
+    /** Trust manager used, if no trust manager or one without X509 trust manager is configured */
+    private static final SSLTrustManager DEFAULT_TRUST_MANAGER = new SSLStrictTrustManager();
+
+    /** Cached socket factories, which are discarded when the trust manager is no longer referenced */
+    private static final Map<SSLTrustManager, CachedSocketFactory> SOCKET_FACTORIES =
+        new WeakHashMap<SSLTrustManager, CachedSocketFactory>();
+
+    private SSLSocketFactoryCache() {
+    }
+
+    /**
+     * Get the socket factory for the given trust manager, creating it if necessary.
+     *
+     * @param sslTrustManager The trust manager, which might be {@code null} to use the {@link SSLStrictTrustManager}.
+     * @return The socket factory.
+     * @throws GeneralSecurityException if the {@link SSLContext} cannot be created.
+     */
+    public static SSLSocketFactory getSocketFactory(SSLTrustManager sslTrustManager) throws GeneralSecurityException {
+        synchronized (SOCKET_FACTORIES) {
+            X509TrustManager x509TrustManager = sslTrustManager == null ? null : sslTrustManager.getX509TrustManager();
+            if (x509TrustManager == null) {
+                // if provided trust manager is null use a strict one by default
+                sslTrustManager = DEFAULT_TRUST_MANAGER;
+                x509TrustManager = DEFAULT_TRUST_MANAGER.getX509TrustManager();
+            }
+
+            CachedSocketFactory cachedSocketFactory = SOCKET_FACTORIES.get(sslTrustManager);
+            if (cachedSocketFactory == null || cachedSocketFactory.x509TrustManager != x509TrustManager) {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null, new TrustManager[]{x509TrustManager}, new SecureRandom());
+                cachedSocketFactory = new CachedSocketFactory(x509TrustManager, context.getSocketFactory());
+                SOCKET_FACTORIES.put(sslTrustManager, cachedSocketFactory);
+            }
+
+            return cachedSocketFactory.socketFactory;
+        }
+    }
+
+    /**
+     * Socket factory together with the X509 trust manager it was created for.
+     */
+    private static final class CachedSocketFactory {
+
+        private final X509TrustManager x509TrustManager;
+        private final SSLSocketFactory socketFactory;
+
+        private CachedSocketFactory(X509TrustManager x509TrustManager, SSLSocketFactory socketFactory) {
+            this.x509TrustManager = x509TrustManager;
+            this.socketFactory = socketFactory;
+        }
+    }
+}
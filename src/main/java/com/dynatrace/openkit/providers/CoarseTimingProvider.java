@@ -0,0 +1,118 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import java.io.Closeable;
+
+/**
+ * TimingProvider implementation returning a cached timestamp, which is updated by a background thread.
+ *
+ * <p>
+ * Reading the timestamp is a single volatile read, which makes it cheap for high-frequency instrumentation.
+ * The timestamp lags behind the underlying provider by at most the tick interval plus the scheduling latency
+ * of the ticker thread.
+ * Once this provider is closed, timestamps are obtained from the underlying provider directly.
+ * </p>
+ */
+public class CoarseTimingProvider implements TimingProvider, Closeable {
+
+    private static final String THREAD_NAME = CoarseTimingProvider.class.getSimpleName();
+
+    /** Default interval in milliseconds, in which the cached timestamp is updated */
+    static final long DEFAULT_TICK_INTERVAL_IN_MILLIS = 1L;
+
+    /** Provider from which the cached timestamp is obtained */
+    private final TimingProvider timingProvider;
+    /** Interval in milliseconds, in which the cached timestamp is updated */
+    private final long tickIntervalInMillis;
+    /** Background thread updating the cached timestamp */
+    private final Thread tickerThread;
+
+    /** The cached timestamp */
+    private volatile long currentTimestamp;
+    /** Flag indicating whether the ticker thread is still updating {@link #currentTimestamp} */
+    private volatile boolean isTicking = true;
+
+    /**
+     * Create a coarse timing provider on top of a {@link MonotonicTimingProvider}.
+     */
+    public CoarseTimingProvider() {
+        this(new MonotonicTimingProvider(), DEFAULT_TICK_INTERVAL_IN_MILLIS);
+    }
+
+    CoarseTimingProvider(TimingProvider timingProvider, long tickIntervalInMillis) {
+        this.timingProvider = timingProvider;
+        this.tickIntervalInMillis = tickIntervalInMillis;
+        currentTimestamp = timingProvider.provideTimestampInMilliseconds();
+
+        tickerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, THREAD_NAME);
+        tickerThread.setDaemon(true);
+        tickerThread.start();
+    }
+
+    private void tick() {
+        try {
+            while (isTicking) {
+                timingProvider.sleep(tickIntervalInMillis);
+                currentTimestamp = timingProvider.provideTimestampInMilliseconds();
+            }
+        } catch (InterruptedException e) {
+            // re-set the interrupted flag, the provider falls back to the underlying provider
+            Thread.currentThread().interrupt();
+        } finally {
+            isTicking = false;
+        }
+    }
+
+    @Override
+    public long provideTimestampInMilliseconds() {
+        if (isTicking) {
+            return currentTimestamp;
+        }
+        return timingProvider.provideTimestampInMilliseconds();
+    }
+
+    @Override
+    public void sleep(long milliseconds) throws InterruptedException {
+        timingProvider.sleep(milliseconds);
+    }
+
+    /**
+     * Stop the ticker thread.
+     *
+     * <p>
+     * Subsequent timestamps are obtained from the underlying provider.
+     * </p>
+     */
+    @Override
+    public void close() {
+        isTicking = false;
+        tickerThread.interrupt();
+    }
+
+    /**
+     * Get a flag indicating whether the cached timestamp is still updated by the ticker thread.
+     */
+    boolean isTicking() {
+        return isTicking;
+    }
+}
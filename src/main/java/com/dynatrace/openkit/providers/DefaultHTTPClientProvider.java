@@ -17,23 +17,130 @@
 package com.dynatrace.openkit.providers;
 
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.api.SSLTrustManager;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.protocol.HTTPClient;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Implementation of an HTTPClientProvider which creates a HTTP client for executing status check and beacon send requests.
+ *
+ * <p>
+ *     Clients are cached per base URL, application ID, server ID, SSL trust manager and compression settings, so that all sessions
+ *     sharing the same settings also share one {@link HTTPClient} and its prebuilt request URLs.
+ *     A changed server ID results in a different cache key, thus in a new client.
+ * </p>
  */
 public class DefaultHTTPClientProvider implements HTTPClientProvider {
 
+    /** Maximum number of cached clients, the least recently used one is dropped first */
+    static final int MAX_CACHED_CLIENTS = 16;
+
     private final Logger logger;
 
+    private final Map<ClientKey, HTTPClient> clients = new LinkedHashMap<ClientKey, HTTPClient>(MAX_CACHED_CLIENTS, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClientKey, HTTPClient> eldest) {
+            return size() > MAX_CACHED_CLIENTS;
+        }
+    };
+
     public DefaultHTTPClientProvider(Logger logger) {
         this.logger = logger;
     }
 
     @Override
     public HTTPClient createClient(HTTPClientConfiguration configuration) {
+        ClientKey key = new ClientKey(configuration);
+        synchronized (clients) {
+            HTTPClient client = clients.get(key);
+            if (client == null) {
+                client = newClient(logger, configuration);
+                clients.put(key, client);
+            }
+            return client;
+        }
+    }
+
+    /**
+     * Create a new client, which is cached afterwards.
+     *
+     * @param logger Logger passed to the client.
+     * @param configuration Configuration of the client.
+     */
+    protected HTTPClient newClient(Logger logger, HTTPClientConfiguration configuration) {
         return new HTTPClient(logger, configuration);
     }
 
+    /**
+     * Get the number of currently cached clients.
+     */
+    int getNumberOfCachedClients() {
+        synchronized (clients) {
+            return clients.size();
+        }
+    }
+
+    /**
+     * Key identifying all the settings an {@link HTTPClient} depends on.
+     *
+     * <p>
+     *     The SSL trust manager is compared by identity, since implementations are not required
+     *     to provide a meaningful {@code equals}.
+     * </p>
+     */
+    private static final class ClientKey {
+
+        private final String baseURL;
+        private final String applicationID;
+        private final int serverID;
+        private final SSLTrustManager sslTrustManager;
+        private final int beaconCompressionLevel;
+        private final int minBeaconCompressionSize;
+        private final int hashCode;
+
+        private ClientKey(HTTPClientConfiguration configuration) {
+            baseURL = configuration.getBaseURL();
+            applicationID = configuration.getApplicationID();
+            serverID = configuration.getServerID();
+            sslTrustManager = configuration.getSSLTrustManager();
+            beaconCompressionLevel = configuration.getBeaconCompressionLevel();
+            minBeaconCompressionSize = configuration.getMinBeaconCompressionSize();
+
+            int result = baseURL != null ? baseURL.hashCode() : 0;
+            result = 31 * result + (applicationID != null ? applicationID.hashCode() : 0);
+            result = 31 * result + serverID;
+            result = 31 * result + System.identityHashCode(sslTrustManager);
+            result = 31 * result + beaconCompressionLevel;
+            result = 31 * result + minBeaconCompressionSize;
+            hashCode = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            ClientKey other = (ClientKey) o;
+            return serverID == other.serverID
+                    && sslTrustManager == other.sslTrustManager
+                    && beaconCompressionLevel == other.beaconCompressionLevel
+                    && minBeaconCompressionSize == other.minBeaconCompressionSize
+                    && (baseURL != null ? baseURL.equals(other.baseURL) : other.baseURL == null)
+                    && (applicationID != null ? applicationID.equals(other.applicationID) : other.applicationID == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
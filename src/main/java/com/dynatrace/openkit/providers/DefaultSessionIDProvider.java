@@ -17,13 +17,23 @@
 package com.dynatrace.openkit.providers;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * SessionIDProvider implementation providing consecutive session IDs, starting at a random offset.
+ *
+ * <p>
+ * The next session ID is obtained with a compare-and-set loop instead of a lock,
+ * so that threads creating sessions concurrently are not serialized.
+ * After {@link Integer#MAX_VALUE} the IDs wrap around to {@code 1}.
+ * </p>
+ */
 public class DefaultSessionIDProvider implements SessionIDProvider {
 
-    private int initialIntegerOffset;
+    private final AtomicInteger lastSessionID;
 
     DefaultSessionIDProvider(int initialOffset) {
-        this.initialIntegerOffset = initialOffset;
+        this.lastSessionID = new AtomicInteger(initialOffset);
     }
 
     public DefaultSessionIDProvider() {
@@ -31,13 +41,13 @@ public class DefaultSessionIDProvider implements SessionIDProvider {
     }
 
     @Override
-    public synchronized int getNextSessionID() {
-        if (initialIntegerOffset == Integer.MAX_VALUE) {
-            initialIntegerOffset = 0;
+    public int getNextSessionID() {
+        while (true) {
+            int currentSessionID = lastSessionID.get();
+            int nextSessionID = currentSessionID == Integer.MAX_VALUE ? 1 : currentSessionID + 1;
+            if (lastSessionID.compareAndSet(currentSessionID, nextSessionID)) {
+                return nextSessionID;
+            }
         }
-        initialIntegerOffset = initialIntegerOffset + 1;
-        return initialIntegerOffset;
     }
-
-
 }
@@ -18,6 +18,11 @@ package com.dynatrace.openkit.providers;
 
 /**
  * Simple ThreadIDProvider implementation for getting the current thread ID.
+ *
+ * <p>
+ * The ID is not cached per thread, since reading and converting the thread's ID is cheaper
+ * than a {@link ThreadLocal} lookup.
+ * </p>
  */
 public class DefaultThreadIDProvider implements ThreadIDProvider {
 
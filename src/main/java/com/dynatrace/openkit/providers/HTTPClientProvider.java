@@ -26,6 +26,11 @@ public interface HTTPClientProvider {
 
     /**
      * Returns an HTTPClient based on the provided configuration.
+     *
+     * <p>
+     *     Implementations may return the same, thread safe, instance for configurations
+     *     having the same settings.
+     * </p>
      */
     HTTPClient createClient(HTTPClientConfiguration configuration);
 }
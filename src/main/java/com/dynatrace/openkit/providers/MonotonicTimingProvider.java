@@ -0,0 +1,56 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimingProvider implementation deriving timestamps from the monotonic {@link System#nanoTime()}.
+ *
+ * <p>
+ * The wall clock is read once, when this provider is created. All subsequent timestamps are the
+ * wall clock anchor plus the elapsed monotonic time, therefore they never move backwards when
+ * the wall clock is adjusted.
+ * </p>
+ */
+public class MonotonicTimingProvider implements TimingProvider {
+
+    /** Wall clock time in milliseconds at which this provider was created */
+    private final long wallClockAnchor;
+    /** Value of {@link System#nanoTime()} at which this provider was created */
+    private final long nanoTimeAnchor;
+
+    public MonotonicTimingProvider() {
+        this(System.currentTimeMillis(), System.nanoTime());
+    }
+
+    MonotonicTimingProvider(long wallClockAnchor, long nanoTimeAnchor) {
+        this.wallClockAnchor = wallClockAnchor;
+        this.nanoTimeAnchor = nanoTimeAnchor;
+    }
+
+    @Override
+    public long provideTimestampInMilliseconds() {
+        return wallClockAnchor + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTimeAnchor);
+    }
+
+    @Override
+    public void sleep(long milliseconds) throws InterruptedException {
+
+        Thread.sleep(milliseconds);
+    }
+}
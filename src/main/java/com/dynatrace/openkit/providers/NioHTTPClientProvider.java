@@ -0,0 +1,57 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
+import com.dynatrace.openkit.protocol.HTTPClient;
+import com.dynatrace.openkit.protocol.NioHTTPClient;
+import com.dynatrace.openkit.protocol.nio.NioHTTPTransport;
+
+import java.io.Closeable;
+
+/**
+ * Implementation of an HTTPClientProvider which creates {@link NioHTTPClient} instances sharing one {@link NioHTTPTransport}.
+ *
+ * <p>
+ *     All clients created by this provider send their {@code http} requests over the same few keep-alive connections.
+ *     The provider has to be closed to release the connections and to stop the transport's selector thread.
+ * </p>
+ */
+public class NioHTTPClientProvider extends DefaultHTTPClientProvider implements Closeable {
+
+    private final NioHTTPTransport transport;
+
+    public NioHTTPClientProvider(Logger logger) {
+        this(logger, new NioHTTPTransport(logger));
+    }
+
+    NioHTTPClientProvider(Logger logger, NioHTTPTransport transport) {
+        super(logger);
+        this.transport = transport;
+    }
+
+    @Override
+    protected HTTPClient newClient(Logger logger, HTTPClientConfiguration configuration) {
+        return new NioHTTPClient(logger, configuration, transport);
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+}
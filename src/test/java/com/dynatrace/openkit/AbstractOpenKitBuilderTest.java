@@ -27,6 +27,8 @@ import com.dynatrace.openkit.protocol.ssl.SSLStrictTrustManager;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.equalTo;
@@ -516,6 +518,565 @@ public class AbstractOpenKitBuilderTest {
         assertThat(obtained, is(equalTo(UPPER_MEMORY_BOUNDARY_IN_BYTES)));
     }
 
+    @Test
+    public void getBeaconCacheSpaceEvictionModeReturnsADefaultValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        SpaceEvictionMode obtained = target.getBeaconCacheSpaceEvictionMode();
+
+        // then
+        assertThat(obtained, is(equalTo(ConfigurationDefaults.DEFAULT_SPACE_EVICTION_MODE)));
+    }
+
+    @Test
+    public void getBeaconCacheSpaceEvictionModeGivesChangedValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheSpaceEvictionMode(SpaceEvictionMode.OLDEST_FIRST);
+        SpaceEvictionMode obtained = target.getBeaconCacheSpaceEvictionMode();
+
+        // then
+        assertThat(obtained, is(equalTo(SpaceEvictionMode.OLDEST_FIRST)));
+    }
+
+    @Test
+    public void beaconCacheSpaceEvictionModeCannotBeChangedToNull() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheSpaceEvictionMode(null);
+        SpaceEvictionMode obtained = target.getBeaconCacheSpaceEvictionMode();
+
+        // then
+        assertThat(obtained, is(notNullValue()));
+    }
+
+    @Test
+    public void getBeaconCacheMinRecordsPerSessionReturnsADefaultValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        int obtained = target.getBeaconCacheMinRecordsPerSession();
+
+        // then
+        assertThat(obtained, is(equalTo(ConfigurationDefaults.DEFAULT_MIN_RECORDS_PER_SESSION)));
+    }
+
+    @Test
+    public void getBeaconCacheMinRecordsPerSessionGivesChangedValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheMinRecordsPerSession(42);
+        int obtained = target.getBeaconCacheMinRecordsPerSession();
+
+        // then
+        assertThat(obtained, is(equalTo(42)));
+    }
+
+    @Test
+    public void beaconCacheMinRecordsPerSessionCannotBeChangedToNegativeValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheMinRecordsPerSession(-1);
+        int obtained = target.getBeaconCacheMinRecordsPerSession();
+
+        // then
+        assertThat(obtained, is(equalTo(0)));
+    }
+
+    @Test
+    public void getBeaconCacheMemoryPressureWatermarksReturnDefaultValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconCacheMemoryPressureHighWatermark(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_HIGH_WATERMARK)));
+        assertThat(target.getBeaconCacheMemoryPressureLowWatermark(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_LOW_WATERMARK)));
+    }
+
+    @Test
+    public void getBeaconCacheMemoryPressureWatermarksGiveChangedValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheMemoryPressureWatermarks(0.85, 0.7);
+
+        // then
+        assertThat(target.getBeaconCacheMemoryPressureHighWatermark(), is(equalTo(0.85)));
+        assertThat(target.getBeaconCacheMemoryPressureLowWatermark(), is(equalTo(0.7)));
+    }
+
+    @Test
+    public void getBeaconCacheMemoryPressureBoundaryFactorReturnsDefaultValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconCacheMemoryPressureBoundaryFactor(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_BOUNDARY_FACTOR)));
+    }
+
+    @Test
+    public void getBeaconCacheMemoryPressureBoundaryFactorGivesChangedValue() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheMemoryPressureBoundaryFactor(0.25);
+
+        // then
+        assertThat(target.getBeaconCacheMemoryPressureBoundaryFactor(), is(equalTo(0.25)));
+    }
+
+    @Test
+    public void getBeaconCacheSpillSettingsReturnDefaultValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconCacheSpillDirectory(), is(equalTo(ConfigurationDefaults.DEFAULT_SPILL_DIRECTORY)));
+        assertThat(target.getBeaconCacheSpillIdleTime(), is(equalTo(ConfigurationDefaults.DEFAULT_SPILL_IDLE_TIME_IN_MILLIS)));
+        assertThat(target.getBeaconCacheSpillSessionQuota(), is(equalTo(ConfigurationDefaults.DEFAULT_SPILL_SESSION_QUOTA_IN_BYTES)));
+        assertThat(target.getBeaconCacheSpillFileSize(), is(equalTo(ConfigurationDefaults.DEFAULT_SPILL_FILE_SIZE_IN_BYTES)));
+    }
+
+    @Test
+    public void getBeaconCacheSpillSettingsGiveChangedValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+        File spillDirectory = new File("spill");
+
+        // when
+        target.withBeaconCacheSpillDirectory(spillDirectory)
+            .withBeaconCacheSpillIdleTime(1234L)
+            .withBeaconCacheSpillSessionQuota(4321L)
+            .withBeaconCacheSpillFileSize(8192L);
+
+        // then
+        assertThat(target.getBeaconCacheSpillDirectory(), is(sameInstance(spillDirectory)));
+        assertThat(target.getBeaconCacheSpillIdleTime(), is(equalTo(1234L)));
+        assertThat(target.getBeaconCacheSpillSessionQuota(), is(equalTo(4321L)));
+        assertThat(target.getBeaconCacheSpillFileSize(), is(equalTo(8192L)));
+    }
+
+    @Test
+    public void withBeaconCacheSpillFileSizeIsLimitedToMaximumMappableSize() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheSpillFileSize(Long.MAX_VALUE);
+
+        // then
+        assertThat(target.getBeaconCacheSpillFileSize(), is(equalTo((long) Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void withBeaconCacheSpillFileSizeIgnoresNonPositiveValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconCacheSpillFileSize(0L);
+
+        // then
+        assertThat(target.getBeaconCacheSpillFileSize(), is(equalTo(ConfigurationDefaults.DEFAULT_SPILL_FILE_SIZE_IN_BYTES)));
+    }
+
+    @Test
+    public void getBeaconSpoolSettingsReturnDefaultValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconSpoolDirectory(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_DIRECTORY)));
+        assertThat(target.getBeaconSpoolReplayInterval(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_REPLAY_INTERVAL_IN_MILLIS)));
+        assertThat(target.getBeaconSpoolMaxSize(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_MAX_SIZE_IN_BYTES)));
+        assertThat(target.getBeaconSpoolMaxRecordAge(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS)));
+    }
+
+    @Test
+    public void getBeaconSpoolSettingsGiveChangedValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+        File spoolDirectory = new File("spool");
+
+        // when
+        target.withBeaconSpoolDirectory(spoolDirectory)
+            .withBeaconSpoolReplayInterval(250L)
+            .withBeaconSpoolMaxSize(4096L)
+            .withBeaconSpoolMaxRecordAge(60000L);
+
+        // then
+        assertThat(target.getBeaconSpoolDirectory(), is(sameInstance(spoolDirectory)));
+        assertThat(target.getBeaconSpoolReplayInterval(), is(equalTo(250L)));
+        assertThat(target.getBeaconSpoolMaxSize(), is(equalTo(4096L)));
+        assertThat(target.getBeaconSpoolMaxRecordAge(), is(equalTo(60000L)));
+    }
+
+    @Test
+    public void withBeaconSpoolMaxSizeIgnoresNonPositiveValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconSpoolMaxSize(0L);
+
+        // then
+        assertThat(target.getBeaconSpoolMaxSize(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_MAX_SIZE_IN_BYTES)));
+    }
+
+    @Test
+    public void withBeaconSpoolMaxRecordAgeIgnoresNonPositiveValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconSpoolMaxRecordAge(0L);
+
+        // then
+        assertThat(target.getBeaconSpoolMaxRecordAge(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_MAX_RECORD_AGE_IN_MILLIS)));
+    }
+
+    @Test
+    public void withBeaconSpoolReplayIntervalIgnoresNegativeValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withBeaconSpoolReplayInterval(-1L);
+
+        // then
+        assertThat(target.getBeaconSpoolReplayInterval(), is(equalTo(ConfigurationDefaults.DEFAULT_SPOOL_REPLAY_INTERVAL_IN_MILLIS)));
+    }
+
+    @Test
+    public void deferredBeaconSerializationIsDisabledByDefault() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.isDeferredBeaconSerializationEnabled(), is(false));
+    }
+
+    @Test
+    public void enableDeferredBeaconSerializationEnablesIt() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.enableDeferredBeaconSerialization();
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.isDeferredBeaconSerializationEnabled(), is(true));
+    }
+
+    @Test
+    public void valueAggregationIsDisabledByDefault() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.isValueAggregationEnabled(), is(false));
+        assertThat(target.getValueAggregationBuckets().length, is(0));
+    }
+
+    @Test
+    public void enableValueAggregationEnablesIt() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.enableValueAggregation();
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.isValueAggregationEnabled(), is(true));
+    }
+
+    @Test
+    public void withValueAggregationBucketsSortsBucketsAndIgnoresNaN() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withValueAggregationBuckets(100.0, Double.NaN, 10.0, 50.0);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(Arrays.toString(target.getValueAggregationBuckets()), is(equalTo("[10.0, 50.0, 100.0]")));
+    }
+
+    @Test
+    public void withValueAggregationBucketsIgnoresNull() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+        target.withValueAggregationBuckets(10.0);
+
+        // when
+        target.withValueAggregationBuckets((double[]) null);
+
+        // then
+        assertThat(target.getValueAggregationBuckets().length, is(1));
+    }
+
+    @Test
+    public void defaultErrorAndEventDeduplicationWindowIsDisabled() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getErrorAndEventDeduplicationWindow(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_DEDUPLICATION_WINDOW_IN_MILLIS)));
+    }
+
+    @Test
+    public void withErrorAndEventDeduplicationWindowSetsWindow() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withErrorAndEventDeduplicationWindow(5000L);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getErrorAndEventDeduplicationWindow(), is(equalTo(5000L)));
+    }
+
+    @Test
+    public void withErrorAndEventDeduplicationWindowIgnoresNegativeValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withErrorAndEventDeduplicationWindow(-1L);
+
+        // then
+        assertThat(target.getErrorAndEventDeduplicationWindow(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_DEDUPLICATION_WINDOW_IN_MILLIS)));
+    }
+
+    @Test
+    public void defaultMaxErrorsAndEventsPerSecondIsUnlimited() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getMaxErrorsAndEventsPerSecond(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_MAX_ERRORS_AND_EVENTS_PER_SECOND)));
+    }
+
+    @Test
+    public void withMaxErrorsAndEventsPerSecondSetsLimit() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withMaxErrorsAndEventsPerSecond(100);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getMaxErrorsAndEventsPerSecond(), is(equalTo(100)));
+    }
+
+    @Test
+    public void withMaxErrorsAndEventsPerSecondIgnoresNegativeValues() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withMaxErrorsAndEventsPerSecond(-1);
+
+        // then
+        assertThat(target.getMaxErrorsAndEventsPerSecond(),
+            is(equalTo(ConfigurationDefaults.DEFAULT_MAX_ERRORS_AND_EVENTS_PER_SECOND)));
+    }
+
+    @Test
+    public void defaultTimingModeIsWallClock() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getTimingMode(), is(equalTo(ConfigurationDefaults.DEFAULT_TIMING_MODE)));
+        assertThat(target.getTimingMode(), is(equalTo(TimingMode.WALL_CLOCK)));
+    }
+
+    @Test
+    public void withTimingModeSetsTimingMode() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withTimingMode(TimingMode.MONOTONIC_COARSE);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getTimingMode(), is(equalTo(TimingMode.MONOTONIC_COARSE)));
+    }
+
+    @Test
+    public void timingModeCannotBeChangedToNull() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withTimingMode(null);
+
+        // then
+        assertThat(target.getTimingMode(), is(notNullValue()));
+    }
+
+    @Test
+    public void defaultBeaconSendingParallelismIsOne() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconSendingParallelism(), is(equalTo(ConfigurationDefaults.DEFAULT_BEACON_SENDING_PARALLELISM)));
+        assertThat(target.getBeaconSendingParallelism(), is(equalTo(1)));
+    }
+
+    @Test
+    public void withBeaconSendingParallelismSetsParallelism() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withBeaconSendingParallelism(8);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getBeaconSendingParallelism(), is(equalTo(8)));
+    }
+
+    @Test
+    public void beaconSendingParallelismLessThanOneIsIgnored() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+        target.withBeaconSendingParallelism(4);
+
+        // when
+        target.withBeaconSendingParallelism(0);
+        target.withBeaconSendingParallelism(-1);
+
+        // then
+        assertThat(target.getBeaconSendingParallelism(), is(equalTo(4)));
+    }
+
+    @Test
+    public void defaultHttpTransportModeIsBlocking() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getHTTPTransportMode(), is(equalTo(ConfigurationDefaults.DEFAULT_HTTP_TRANSPORT_MODE)));
+        assertThat(target.getHTTPTransportMode(), is(equalTo(HTTPTransportMode.BLOCKING)));
+    }
+
+    @Test
+    public void withHttpTransportModeSetsHttpTransportMode() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withHTTPTransportMode(HTTPTransportMode.NIO);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getHTTPTransportMode(), is(equalTo(HTTPTransportMode.NIO)));
+    }
+
+    @Test
+    public void httpTransportModeCannotBeChangedToNull() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withHTTPTransportMode(null);
+
+        // then
+        assertThat(target.getHTTPTransportMode(), is(notNullValue()));
+    }
+
+    @Test
+    public void defaultBeaconCompressionSettings() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(ConfigurationDefaults.DEFAULT_BEACON_COMPRESSION_LEVEL)));
+        assertThat(target.getMinBeaconCompressionSize(),
+                is(equalTo(ConfigurationDefaults.DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES)));
+    }
+
+    @Test
+    public void withBeaconCompressionLevelSetsCompressionLevel() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withBeaconCompressionLevel(9);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(9)));
+    }
+
+    @Test
+    public void beaconCompressionLevelOutOfRangeIsIgnored() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+        target.withBeaconCompressionLevel(1);
+
+        // when
+        target.withBeaconCompressionLevel(-2);
+        target.withBeaconCompressionLevel(10);
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(1)));
+    }
+
+    @Test
+    public void withMinBeaconCompressionSizeSetsSize() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        AbstractOpenKitBuilder obtained = target.withMinBeaconCompressionSize(128);
+
+        // then
+        assertThat(obtained, is(sameInstance(target)));
+        assertThat(target.getMinBeaconCompressionSize(), is(equalTo(128)));
+    }
+
+    @Test
+    public void negativeMinBeaconCompressionSizeIsIgnored() {
+        // given
+        AbstractOpenKitBuilder target = new StubOpenKitBuilder(ENDPOINT_URL, DEVICE_ID);
+
+        // when
+        target.withMinBeaconCompressionSize(-1);
+
+        // then
+        assertThat(target.getMinBeaconCompressionSize(),
+                is(equalTo(ConfigurationDefaults.DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES)));
+    }
+
     @Test
     public void defaultDataCollectionLevelIsUserBehavior() {
         // given
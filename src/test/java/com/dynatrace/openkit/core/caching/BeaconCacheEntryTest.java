@@ -200,17 +200,50 @@ public class BeaconCacheEntryTest {
         target.copyDataForChunking();
 
         // when retrieving data
-        String obtained = target.getChunk("prefix", 1024, '&');
+        String obtained = BeaconCacheRecord.decode(target.getChunk("prefix", 1024, '&'));
 
         // then
-        assertThat(obtained, is("prefix&" + dataOne.getData() + "&" + dataFour.getData() + "&" + dataTwo.getData() + "&" + dataThree
-            .getData()));
+        assertThat(obtained, is("prefix&One&Four&Two&Three"));
 
         // and all of them are marked
-        assertThat(dataOne.isMarkedForSending(), is(true));
-        assertThat(dataTwo.isMarkedForSending(), is(true));
-        assertThat(dataThree.isMarkedForSending(), is(true));
-        assertThat(dataFour.isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(1).isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(1).isMarkedForSending(), is(true));
+    }
+
+    @Test
+    public void getChunkAcceptsPrefixFromStringBuilder() {
+
+        // given
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(new BeaconCacheRecord(0L, "One"));
+        target.addActionData(new BeaconCacheRecord(0L, "Two"));
+
+        target.copyDataForChunking();
+
+        // when
+        String obtained = BeaconCacheRecord.decode(target.getChunk(new StringBuilder("pre").append("fix"), 1024, '&'));
+
+        // then
+        assertThat(obtained, is("prefix&One&Two"));
+    }
+
+    @Test
+    public void getChunkEncodesNonAsciiPrefixAsUTF8() {
+
+        // given
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(new BeaconCacheRecord(0L, "One"));
+
+        target.copyDataForChunking();
+
+        // when
+        byte[] obtained = target.getChunk(new StringBuilder("pr\u00e9fix"), 1024, '&');
+
+        // then
+        assertThat(obtained.length, is("prefix&One".length() + 1));
+        assertThat(BeaconCacheRecord.decode(obtained), is("pr\u00e9fix&One"));
     }
 
     @Test
@@ -231,35 +264,35 @@ public class BeaconCacheEntryTest {
         target.copyDataForChunking();
 
         // when getting data to send
-        String obtained = target.getChunk("a", 2, '&');
+        String obtained = BeaconCacheRecord.decode(target.getChunk("a", 2, '&'));
 
         // then it's the first event data
-        assertThat(obtained, is("a&" + dataOne.getData()));
+        assertThat(obtained, is("a&One"));
 
         // and when removing already sent data and getting next chunk
         target.removeDataMarkedForSending();
-        obtained = target.getChunk("a", 2, '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("a", 2, '&'));
 
         // then it's second event data
-        assertThat(obtained, is("a&" + dataFour.getData()));
+        assertThat(obtained, is("a&Four"));
 
         // and when removing already sent data and getting next chunk
         target.removeDataMarkedForSending();
-        obtained = target.getChunk("a", 2, '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("a", 2, '&'));
 
         // then it's the first action data
-        assertThat(obtained, is("a&" + dataTwo.getData()));
+        assertThat(obtained, is("a&Two"));
 
         // and when removing already sent data and getting next chunk
         target.removeDataMarkedForSending();
-        obtained = target.getChunk("a", 2, '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("a", 2, '&'));
 
         // then it's the second action data
-        assertThat(obtained, is("a&" + dataThree.getData()));
+        assertThat(obtained, is("a&Three"));
 
         // and when removing already sent data and getting next chunk
         target.removeDataMarkedForSending();
-        obtained = target.getChunk("a", 2, '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("a", 2, '&'));
 
         // then we get an empty string, since all chunks were sent & deleted
         assertThat(obtained, isEmptyString());
@@ -283,24 +316,24 @@ public class BeaconCacheEntryTest {
         target.copyDataForChunking();
 
         // when getting data to send
-        String obtained = target.getChunk("a", 100, '&');
+        String obtained = BeaconCacheRecord.decode(target.getChunk("a", 100, '&'));
 
         // then
         assertThat(obtained, is("a&One&Four&Two&Three"));
-        assertThat(dataOne.isMarkedForSending(), is(true));
-        assertThat(dataTwo.isMarkedForSending(), is(true));
-        assertThat(dataThree.isMarkedForSending(), is(true));
-        assertThat(dataFour.isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(1).isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(1).isMarkedForSending(), is(true));
 
         // when getting data to send once more
-        obtained = target.getChunk("a", 100, '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("a", 100, '&'));
 
         // then
         assertThat(obtained, is("a&One&Four&Two&Three"));
-        assertThat(dataOne.isMarkedForSending(), is(true));
-        assertThat(dataTwo.isMarkedForSending(), is(true));
-        assertThat(dataThree.isMarkedForSending(), is(true));
-        assertThat(dataFour.isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(1).isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(1).isMarkedForSending(), is(true));
     }
 
     @Test
@@ -321,19 +354,19 @@ public class BeaconCacheEntryTest {
         target.copyDataForChunking();
 
         // when requesting first chunk
-        String obtained = target.getChunk("prefix", 1, '&');
+        String obtained = BeaconCacheRecord.decode(target.getChunk("prefix", 1, '&'));
 
         // then only prefix is returned, since "prefix".length > maxSize (=1)
         assertThat(obtained, is("prefix"));
 
         // and when retrieving something which is one character longer than "prefix"
-        obtained = target.getChunk("prefix", "prefix".length(), '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("prefix", "prefix".length(), '&'));
 
         // then based on the algorithm prefix and first element are retrieved
         assertThat(obtained, is("prefix&One"));
 
         // and when retrieving another chunk
-        obtained = target.getChunk("prefix", "prefix&One".length(), '&');
+        obtained = BeaconCacheRecord.decode(target.getChunk("prefix", "prefix&One".length(), '&'));
 
         // then
         assertThat(obtained, is("prefix&One&Four"));
@@ -434,22 +467,22 @@ public class BeaconCacheEntryTest {
         target.copyDataForChunking();
 
         // when data is retrieved
-        target.getChunk("", 1024, '&');
+        BeaconCacheRecord.decode(target.getChunk("", 1024, '&'));
 
         // then all records are marked for sending
-        assertThat(dataOne.isMarkedForSending(), is(true));
-        assertThat(dataTwo.isMarkedForSending(), is(true));
-        assertThat(dataThree.isMarkedForSending(), is(true));
-        assertThat(dataFour.isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(0).isMarkedForSending(), is(true));
+        assertThat(target.getActionDataBeingSent().get(1).isMarkedForSending(), is(true));
+        assertThat(target.getEventDataBeingSent().get(1).isMarkedForSending(), is(true));
 
         // and when
         target.resetDataMarkedForSending();
 
         // then
-        assertThat(dataOne.isMarkedForSending(), is(false));
-        assertThat(dataTwo.isMarkedForSending(), is(false));
-        assertThat(dataThree.isMarkedForSending(), is(false));
-        assertThat(dataFour.isMarkedForSending(), is(false));
+        assertThat(target.getEventData().get(0).isMarkedForSending(), is(false));
+        assertThat(target.getActionData().get(0).isMarkedForSending(), is(false));
+        assertThat(target.getActionData().get(1).isMarkedForSending(), is(false));
+        assertThat(target.getEventData().get(1).isMarkedForSending(), is(false));
     }
 
     @Test
@@ -743,4 +776,221 @@ public class BeaconCacheEntryTest {
         assertThat(target.getEventDataBeingSent(), is(equalTo(Arrays.asList(dataOne, dataFour))));
         assertThat(target.getActionDataBeingSent(), is(equalTo(Arrays.asList(dataTwo, dataThree))));
     }
+
+    @Test
+    public void removeRecordsOlderThanDecreasesTotalNumberOfBytes() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addActionData(dataTwo);
+        target.addActionData(dataThree);
+
+        // when
+        target.removeRecordsOlderThan(2000L);
+
+        // then
+        assertThat(target.getTotalNumberOfBytes(), is(equalTo(dataThree.getDataSizeInBytes())));
+    }
+
+    @Test
+    public void removeOldestRecordsDecreasesTotalNumberOfBytes() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addActionData(dataTwo);
+        target.addActionData(dataThree);
+
+        // when
+        target.removeOldestRecords(2);
+
+        // then
+        assertThat(target.getTotalNumberOfBytes(), is(equalTo(dataThree.getDataSizeInBytes())));
+    }
+
+    @Test
+    public void removeOldestRecordsStopsAtMaxTimestamp() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three");
+        BeaconCacheRecord dataFour = new BeaconCacheRecord(2500L, "Four");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addEventData(dataFour);
+        target.addActionData(dataTwo);
+        target.addActionData(dataThree);
+
+        // when
+        int obtained = target.removeOldestRecords(100, Long.MAX_VALUE, RecordPriority.defaultValue(), 2000L, 0);
+
+        // then
+        assertThat(obtained, is(3));
+        assertThat(target.getEventData(), is(equalTo(Collections.singletonList(dataFour))));
+        assertThat(target.getActionData(), is(empty()));
+    }
+
+    @Test
+    public void removeOldestRecordsStopsOnceMaxBytesHaveBeenRemoved() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addEventData(dataTwo);
+        target.addEventData(dataThree);
+
+        // when removing one byte more than the first record's size
+        int obtained = target.removeOldestRecords(100, dataOne.getDataSizeInBytes() + 1, RecordPriority.CRITICAL, Long.MAX_VALUE, 0);
+
+        // then the record exceeding the limit is removed as well
+        assertThat(obtained, is(2));
+        assertThat(target.getEventData(), is(equalTo(Collections.singletonList(dataThree))));
+    }
+
+    @Test
+    public void removeOldestRecordsKeepsTheGivenNumberOfRecords() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three");
+        BeaconCacheRecord dataFour = new BeaconCacheRecord(2500L, "Four");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addEventData(dataFour);
+        target.addActionData(dataTwo);
+        target.addActionData(dataThree);
+
+        // when
+        int obtained = target.removeOldestRecords(100, Long.MAX_VALUE, RecordPriority.CRITICAL, Long.MAX_VALUE, 3);
+
+        // then
+        assertThat(obtained, is(1));
+        assertThat(target.getEventData(), is(equalTo(Collections.singletonList(dataFour))));
+        assertThat(target.getActionData(), is(equalTo(Arrays.asList(dataTwo, dataThree))));
+    }
+
+    @Test
+    public void removeOldestRecordsRemovesLowerPrioritiesFirst() {
+
+        // given
+        BeaconCacheRecord crash = new BeaconCacheRecord(1000L, "crash", RecordPriority.CRITICAL);
+        BeaconCacheRecord error = new BeaconCacheRecord(1500L, "error", RecordPriority.HIGH);
+        BeaconCacheRecord value = new BeaconCacheRecord(2000L, "value", RecordPriority.LOW);
+        BeaconCacheRecord action = new BeaconCacheRecord(2500L, "action", RecordPriority.NORMAL);
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(crash);
+        target.addEventData(error);
+        target.addEventData(value);
+        target.addActionData(action);
+
+        // when
+        int obtained = target.removeOldestRecords(3);
+
+        // then
+        assertThat(obtained, is(3));
+        assertThat(target.getEventData(), is(equalTo(Collections.singletonList(crash))));
+        assertThat(target.getActionData(), is(empty()));
+    }
+
+    @Test
+    public void removeOldestRecordsDoesNotRemoveRecordsAboveMaxPriority() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One", RecordPriority.HIGH);
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two", RecordPriority.LOW);
+        BeaconCacheRecord dataThree = new BeaconCacheRecord(2000L, "Three", RecordPriority.NORMAL);
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.addEventData(dataTwo);
+        target.addActionData(dataThree);
+
+        // when
+        int obtained = target.removeOldestRecords(100, Long.MAX_VALUE, RecordPriority.NORMAL, Long.MAX_VALUE, 0);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.getEventData(), is(equalTo(Collections.singletonList(dataOne))));
+        assertThat(target.getActionData(), is(empty()));
+    }
+
+    @Test
+    public void getLowestRemovablePriorityReturnsLowestPriorityOfAllRecords() {
+
+        // given
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(new BeaconCacheRecord(1000L, "One", RecordPriority.CRITICAL));
+        target.addActionData(new BeaconCacheRecord(2000L, "Two", RecordPriority.NORMAL));
+
+        // then
+        assertThat(target.getLowestRemovablePriority(0), is(RecordPriority.NORMAL));
+        assertThat(target.getOldestRemovableTimestamp(0), is(2000L));
+        assertThat(target.getLowestRemovablePriority(2), is(nullValue()));
+    }
+
+    @Test
+    public void getOldestRemovableTimestampReturnsOldestTimestampOfEventAndActionData() {
+
+        // given
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(new BeaconCacheRecord(2000L, "One"));
+        target.addActionData(new BeaconCacheRecord(1500L, "Two"));
+
+        // then
+        assertThat(target.getOldestRemovableTimestamp(0), is(1500L));
+        assertThat(target.getOldestRemovableTimestamp(1), is(1500L));
+    }
+
+    @Test
+    public void getOldestRemovableTimestampReturnsNoRemovableRecordIfAllRecordsAreKept() {
+
+        // given
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(new BeaconCacheRecord(2000L, "One"));
+        target.addActionData(new BeaconCacheRecord(1500L, "Two"));
+
+        // then
+        assertThat(target.getOldestRemovableTimestamp(2), is(BeaconCacheEntry.NO_REMOVABLE_RECORD));
+        assertThat(new BeaconCacheEntry().getOldestRemovableTimestamp(0), is(BeaconCacheEntry.NO_REMOVABLE_RECORD));
+    }
+
+    @Test
+    public void removeAllRecordsRemovesActiveDataOnly() {
+
+        // given
+        BeaconCacheRecord dataOne = new BeaconCacheRecord(1000L, "One");
+        BeaconCacheRecord dataTwo = new BeaconCacheRecord(1500L, "Two");
+
+        BeaconCacheEntry target = new BeaconCacheEntry();
+        target.addEventData(dataOne);
+        target.copyDataForChunking();
+        target.addActionData(dataTwo);
+
+        // when
+        target.removeAllRecords();
+
+        // then
+        assertThat(target.getEventData(), is(empty()));
+        assertThat(target.getActionData(), is(empty()));
+        assertThat(target.getTotalNumberOfBytes(), is(0L));
+        assertThat(target.getEventDataBeingSent(), is(equalTo(Collections.singletonList(dataOne))));
+    }
 }
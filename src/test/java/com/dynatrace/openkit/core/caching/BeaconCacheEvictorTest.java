@@ -23,8 +23,6 @@ import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
-import java.util.Observable;
-import java.util.Observer;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
@@ -140,19 +138,19 @@ public class BeaconCacheEvictorTest {
     public void triggeringEvictionStrategiesInThread() throws Exception {
 
         // given
-        final Observer[] observers = new Observer[]{null};
-        final CountDownLatch addObserverLatch = new CountDownLatch(1);
+        final DataAddedCallback[] callbacks = new DataAddedCallback[]{null};
+        final CountDownLatch addCallbackLatch = new CountDownLatch(1);
         final CyclicBarrier strategyInvokedBarrier = new CyclicBarrier(2);
 
         doAnswer(new Answer<Void>() {
             @Override
             public Void answer(InvocationOnMock invocation) throws Throwable {
-                observers[0] = (Observer) invocation.getArguments()[0];
-                addObserverLatch.countDown();
+                callbacks[0] = (DataAddedCallback) invocation.getArguments()[0];
+                addCallbackLatch.countDown();
 
                 return null;
             }
-        }).when(mockBeaconCache).addObserver(org.mockito.Matchers.any(Observer.class));
+        }).when(mockBeaconCache).addDataAddedCallback(org.mockito.Matchers.any(DataAddedCallback.class));
 
         doAnswer(new Answer<Void>() {
             @Override
@@ -167,15 +165,15 @@ public class BeaconCacheEvictorTest {
         evictor = new BeaconCacheEvictor(mockLogger, mockBeaconCache, mockStrategyOne, mockStrategyTwo);
         evictor.start();
 
-        // wait until the eviction thread registered itself as observer
-        addObserverLatch.await();
+        // wait until the eviction thread registered itself as callback
+        addCallbackLatch.await();
 
-        // verify the observer was set
-        assertThat(observers[0], is(notNullValue()));
+        // verify the callback was set
+        assertThat(callbacks[0], is(notNullValue()));
 
         // do some updates
         for (int i = 0; i < 10; i++) {
-            observers[0].update(mock(Observable.class), null);
+            callbacks[0].onDataAdded();
             strategyInvokedBarrier.await();
             strategyInvokedBarrier.reset();
         }
@@ -189,4 +187,64 @@ public class BeaconCacheEvictorTest {
         verify(mockStrategyOne, times(10)).execute();
         verify(mockStrategyTwo, times(10)).execute();
     }
+
+    @Test
+    public void dataAddedWhileEvictionStrategiesAreRunningIsCoalescedIntoOneAdditionalRun() throws Exception {
+
+        // given
+        final DataAddedCallback[] callbacks = new DataAddedCallback[]{null};
+        final CountDownLatch addCallbackLatch = new CountDownLatch(1);
+        final CountDownLatch firstRunStartedLatch = new CountDownLatch(1);
+        final CountDownLatch firstRunReleaseLatch = new CountDownLatch(1);
+        final CountDownLatch strategyRunsLatch = new CountDownLatch(2);
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                callbacks[0] = (DataAddedCallback) invocation.getArguments()[0];
+                addCallbackLatch.countDown();
+
+                return null;
+            }
+        }).when(mockBeaconCache).addDataAddedCallback(org.mockito.Matchers.any(DataAddedCallback.class));
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                firstRunStartedLatch.countDown();
+                firstRunReleaseLatch.await();
+
+                return null;
+            }
+        }).when(mockStrategyOne).execute();
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                strategyRunsLatch.countDown();
+
+                return null;
+            }
+        }).when(mockStrategyTwo).execute();
+
+        evictor = new BeaconCacheEvictor(mockLogger, mockBeaconCache, mockStrategyOne, mockStrategyTwo);
+        evictor.start();
+        addCallbackLatch.await();
+
+        // when data is added once and again several times while the strategies are running
+        callbacks[0].onDataAdded();
+        firstRunStartedLatch.await();
+        for (int i = 0; i < 10; i++) {
+            callbacks[0].onDataAdded();
+        }
+        firstRunReleaseLatch.countDown();
+
+        // then
+        assertThat(strategyRunsLatch.await(1, TimeUnit.MINUTES), is(true));
+        boolean stopped = evictor.stop();
+
+        assertThat(stopped, is(true));
+        verify(mockStrategyOne, times(2)).execute();
+        verify(mockStrategyTwo, times(2)).execute();
+    }
 }
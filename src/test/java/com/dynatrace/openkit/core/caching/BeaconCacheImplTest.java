@@ -20,10 +20,13 @@ import com.dynatrace.openkit.api.Logger;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Observer;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -43,14 +46,14 @@ public class BeaconCacheImplTest {
 
     private Logger logger;
 
-    private Observer observer;
+    private DataAddedCallback callback;
 
     @Before
     public void setUp() {
         logger = mock(Logger.class);
         when(logger.isInfoEnabled()).thenReturn(true);
         when(logger.isDebugEnabled()).thenReturn(true);
-        observer = mock(Observer.class);
+        callback = mock(DataAddedCallback.class);
     }
 
     @Test
@@ -129,27 +132,75 @@ public class BeaconCacheImplTest {
     }
 
     @Test
-    public void addEventDataNotifiesObserver() {
+    public void addEventDataIncreasesCacheSizeByNumberOfEncodedBytes() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        // when adding data containing characters which are encoded with multiple bytes
+        target.addEventData(key, 1000L, "a\u00e4\u20ac");
+
+        // then
+        assertThat(target.getNumBytesInCache(), is(6L));
+    }
+
+    @Test
+    public void addEventDataNotifiesCallback() {
 
         // given
         BeaconCacheImpl target = new BeaconCacheImpl(logger);
         BeaconKey keyOne = new BeaconKey(1, 0);
         BeaconKey keyTwo = new BeaconKey(666, 0);
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         // when adding an element
         target.addEventData(keyOne, 1000L, "a");
 
-        // then verify observer got notified
-        verify(observer, times(1)).update(target, null);
+        // then verify callback got notified
+        verify(callback, times(1)).onDataAdded();
 
         // when adding some more data
         target.addEventData(keyOne, 1100L, "b");
         target.addEventData(keyTwo, 1200L, "xyz");
 
-        // then verify observer got notified another two times
-        verify(observer, times(3)).update(target, null);
+        // then verify callback got notified another two times
+        verify(callback, times(3)).onDataAdded();
+    }
+
+    @Test
+    public void addMultipleEventDataAddsAllRecordsAtOnce() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.addDataAddedCallback(callback);
+
+        // when adding multiple records at once
+        target.addEventData(key, 1100L, Arrays.asList("b", "cd"), RecordPriority.LOW);
+
+        // then
+        assertThat(target.getEvents(key), is(equalTo(new String[]{"a", "b", "cd"})));
+        assertThat(target.getNumBytesInCache(), is(4L));
+        verify(callback, times(1)).onDataAdded();
+    }
+
+    @Test
+    public void addMultipleEventDataWithEmptyListDoesNothing() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addDataAddedCallback(callback);
+
+        // when
+        target.addEventData(key, 1000L, Collections.<String>emptyList(), RecordPriority.LOW);
+
+        // then
+        assertThat(target.getBeaconKeys(), is(empty()));
+        verifyZeroInteractions(callback);
     }
 
     @Test
@@ -217,27 +268,27 @@ public class BeaconCacheImplTest {
     }
 
     @Test
-    public void addActionDataNotifiesObserver() {
+    public void addActionDataNotifiesCallback() {
 
         // given
         BeaconCacheImpl target = new BeaconCacheImpl(logger);
         BeaconKey keyOne = new BeaconKey(1, 0);
         BeaconKey keyTwo = new BeaconKey(666, 0);
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         // when adding an element
         target.addActionData(keyOne, 1000L, "a");
 
-        // then verify observer got notified
-        verify(observer, times(1)).update(target, null);
+        // then verify callback got notified
+        verify(callback, times(1)).onDataAdded();
 
         // when adding some more data
         target.addActionData(keyOne, 1100L, "b");
         target.addActionData(keyTwo, 1200L, "xyz");
 
-        // then verify observer got notified another two times
-        verify(observer, times(3)).update(target, null);
+        // then verify callback got notified another two times
+        verify(callback, times(3)).onDataAdded();
     }
 
     @Test
@@ -285,7 +336,7 @@ public class BeaconCacheImplTest {
     }
 
     @Test
-    public void deleteCacheEntryDoesNotNotifyObservers() {
+    public void deleteCacheEntryDoesNotNotifyCallbacks() {
 
         // given
         BeaconCacheImpl target = new BeaconCacheImpl(logger);
@@ -296,14 +347,14 @@ public class BeaconCacheImplTest {
         target.addActionData(keyTwo, 1000L, "z");
         target.addEventData(keyOne, 1000L, "iii");
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         // when deleting both entries
         target.deleteCacheEntry(keyOne);
         target.deleteCacheEntry(keyTwo);
 
         // then
-        verifyZeroInteractions(observer);
+        verifyZeroInteractions(callback);
     }
 
     @Test
@@ -319,7 +370,7 @@ public class BeaconCacheImplTest {
         target.addActionData(keyTwo, 1000L, "z");
         target.addEventData(keyOne, 1000L, "iii");
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         long cachedSize = target.getNumBytesInCache();
 
@@ -330,7 +381,7 @@ public class BeaconCacheImplTest {
         assertThat(target.getBeaconKeys(), containsInAnyOrder(keyOne, keyTwo));
         assertThat(target.getNumBytesInCache(), is(equalTo(cachedSize)));
 
-        verifyZeroInteractions(observer);
+        verifyZeroInteractions(callback);
     }
 
     @Test
@@ -346,7 +397,7 @@ public class BeaconCacheImplTest {
         target.addEventData(keyOne, 1000L, "iii");
 
         // when
-        String obtained = target.getNextBeaconChunk(new BeaconKey(666, 0), "", 1024, '&');
+        String obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(new BeaconKey(666, 0), "", 1024, '&'));
 
         // then
         assertThat(obtained, is(nullValue()));
@@ -367,7 +418,7 @@ public class BeaconCacheImplTest {
         target.addEventData(keyOne, 1001L, "jjj");
 
         // when
-        String obtained = target.getNextBeaconChunk(keyOne, "prefix", 0, '&');
+        String obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(keyOne, "prefix", 0, '&'));
 
         // then
         assertThat(obtained, is("prefix"));
@@ -414,7 +465,7 @@ public class BeaconCacheImplTest {
         target.addEventData(keyOne, 1001L, "jjj");
 
         // when retrieving the first chunk
-        String obtained = target.getNextBeaconChunk(keyOne, "prefix", 10, '&');
+        String obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(keyOne, "prefix", 10, '&'));
 
         // then
         assertThat(obtained, is("prefix&b&jjj"));
@@ -428,6 +479,23 @@ public class BeaconCacheImplTest {
         assertThat(target.getEventsBeingSent(keyOne), is(equalTo(expectedEventRecords)));
     }
 
+    @Test
+    public void getNextBeaconChunkReturnsUTF8EncodedData() throws UnsupportedEncodingException {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addEventData(key, 1000L, "na=\u00e4");
+        target.addActionData(key, 1001L, "na=\u20ac");
+
+        // when
+        byte[] obtained = target.getNextBeaconChunk(key, "pr\u00e9fix", 1024, '&');
+
+        // then
+        assertThat(obtained, is(equalTo("pr\u00e9fix&na=\u00e4&na=\u20ac".getBytes("UTF-8"))));
+    }
+
     @Test
     public void removeChunkedDataClearsAlreadyRetrievedChunks() {
 
@@ -443,7 +511,7 @@ public class BeaconCacheImplTest {
         target.addEventData(keyOne, 1001L, "jjj");
 
         // when retrieving the first chunk and removing retrieved chunks
-        String obtained = target.getNextBeaconChunk(keyOne, "prefix", 10, '&');
+        String obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(keyOne, "prefix", 10, '&'));
         target.removeChunkedData(keyOne);
 
         // then
@@ -453,7 +521,7 @@ public class BeaconCacheImplTest {
         assertThat(target.getEventsBeingSent(keyOne), is(empty()));
 
         // when retrieving the second chunk and removing retrieved chunks
-        obtained = target.getNextBeaconChunk(keyOne, "prefix", 10, '&');
+        obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(keyOne, "prefix", 10, '&'));
         target.removeChunkedData(keyOne);
 
         // then
@@ -542,11 +610,11 @@ public class BeaconCacheImplTest {
         target.resetChunkedData(key);
 
         // then
-        assertThat(target.getNumBytesInCache(), is(28L));
+        assertThat(target.getNumBytesInCache(), is(14L));
     }
 
     @Test
-    public void resetChunkedNotifiesObservers() {
+    public void resetChunkedNotifiesCallbacks() {
 
         // given
         BeaconCacheImpl target = new BeaconCacheImpl(logger);
@@ -564,13 +632,13 @@ public class BeaconCacheImplTest {
         target.addActionData(key, 6666L, "123");
         target.addEventData(key, 6666L, "987");
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         // and when resetting the previously copied data
         target.resetChunkedData(key);
 
         // then
-        verify(observer, times(1)).update(target, null);
+        verify(callback, times(1)).onDataAdded();
     }
 
     @Test
@@ -592,14 +660,14 @@ public class BeaconCacheImplTest {
         target.addActionData(key, 6666L, "123");
         target.addEventData(key, 6666L, "987");
 
-        target.addObserver(observer);
+        target.addDataAddedCallback(callback);
 
         // and when resetting the previously copied data
         target.resetChunkedData(new BeaconKey(666, 0));
 
         // then
-        assertThat(target.getNumBytesInCache(), is(12L));
-        verifyZeroInteractions(observer);
+        assertThat(target.getNumBytesInCache(), is(6L));
+        verifyZeroInteractions(callback);
     }
 
     @Test
@@ -640,6 +708,144 @@ public class BeaconCacheImplTest {
         assertThat(obtained, is(2));
     }
 
+    @Test
+    public void pollBeaconKeysWithRecordsOlderThanOnlyReturnsBeaconsWithExpiredRecords() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+
+        target.addEventData(keyOne, 1000L, "a");
+        target.addActionData(keyOne, TimeUnit.MINUTES.toMillis(10), "b");
+        target.addEventData(keyTwo, TimeUnit.MINUTES.toMillis(10), "c");
+
+        // when
+        Set<BeaconKey> obtained = target.pollBeaconKeysWithRecordsOlderThan(TimeUnit.MINUTES.toMillis(5));
+
+        // then
+        assertThat(obtained, is(Collections.singleton(keyOne)));
+    }
+
+    @Test
+    public void evictRecordsByAgeRegistersBeaconByItsOldestRemainingRecord() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        long minTimestamp = TimeUnit.MINUTES.toMillis(5);
+
+        target.addEventData(key, 1000L, "a");
+        target.addActionData(key, TimeUnit.MINUTES.toMillis(10), "b");
+        target.pollBeaconKeysWithRecordsOlderThan(minTimestamp);
+
+        // when
+        int obtained = target.evictRecordsByAge(key, minTimestamp);
+
+        // then
+        assertThat(obtained, is(1));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(minTimestamp), is(empty()));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(TimeUnit.MINUTES.toMillis(11)),
+            is(Collections.singleton(key)));
+    }
+
+    @Test
+    public void reindexBeaconsRegistersPolledBeaconsAgain() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        long minTimestamp = TimeUnit.MINUTES.toMillis(5);
+
+        target.addEventData(key, 1000L, "a");
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(minTimestamp), is(Collections.singleton(key)));
+
+        // when
+        target.reindexBeacons(Collections.singleton(key));
+
+        // then
+        assertThat(target.getEvents(key), is(equalTo(new String[]{"a"})));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(minTimestamp), is(Collections.singleton(key)));
+    }
+
+    @Test
+    public void reindexBeaconsIgnoresRemovedBeacons() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+
+        // when
+        target.reindexBeacons(Collections.singleton(new BeaconKey(666, 0)));
+
+        // then
+        assertThat(target.getTimeIndex().getNumberOfBuckets(), is(0));
+    }
+
+    @Test
+    public void addingAnOlderRecordRegistersBeaconInOlderTimeBucket() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addEventData(key, TimeUnit.MINUTES.toMillis(10), "a");
+
+        // when
+        target.addActionData(key, 1000L, "b");
+
+        // then
+        assertThat(target.getTimeIndex().getNumberOfBuckets(), is(1));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(TimeUnit.MINUTES.toMillis(5)),
+            is(Collections.singleton(key)));
+    }
+
+    @Test
+    public void dataBeingSentIsRemovedFromTimeIndex() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+
+        // when
+        target.getNextBeaconChunk(key, "prefix", 0, '&');
+
+        // then
+        assertThat(target.getTimeIndex().getNumberOfBuckets(), is(0));
+    }
+
+    @Test
+    public void resetChunkedDataRegistersBeaconInTimeIndexAgain() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.getNextBeaconChunk(key, "prefix", 0, '&');
+
+        // when
+        target.resetChunkedData(key);
+
+        // then
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(TimeUnit.MINUTES.toMillis(5)),
+            is(Collections.singleton(key)));
+    }
+
+    @Test
+    public void deleteCacheEntryRemovesBeaconFromTimeIndex() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+
+        // when
+        target.deleteCacheEntry(key);
+
+        // then
+        assertThat(target.getTimeIndex().getNumberOfBuckets(), is(0));
+    }
+
     @Test
     public void evictRecordsByNumberDoesNothingAndReturnsZeroIfBeaconIDDoesNotExist() {
 
@@ -678,6 +884,181 @@ public class BeaconCacheImplTest {
         assertThat(obtained, is(2));
     }
 
+    @Test
+    public void evictRecordsByNumberDoesNotEvictRecordsAboveMaxPriority() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addEventData(key, 1000L, "aa", RecordPriority.CRITICAL);
+        target.addEventData(key, 1001L, "bb", RecordPriority.LOW);
+        target.addActionData(key, 1002L, "cc", RecordPriority.NORMAL);
+
+        // when
+        int obtained = target.evictRecordsByNumber(key, 3, RecordPriority.NORMAL);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.getNumBytesInCache(), is(2L));
+        assertThat(target.getEvents(key), is(equalTo(new String[]{"aa"})));
+        assertThat(target.getActions(key), is(emptyArray()));
+    }
+
+    @Test
+    public void evictRecordsByAgeDecreasesCacheSize() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addActionData(key, 1000L, "a");
+        target.addActionData(key, 1001L, "iii");
+        target.addEventData(key, 1000L, "b");
+        target.addEventData(key, 1001L, "jjj");
+
+        // when
+        target.evictRecordsByAge(key, 1001);
+
+        // then
+        assertThat(target.getNumBytesInCache(), is(6L));
+    }
+
+    @Test
+    public void evictRecordsByNumberDecreasesCacheSize() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addActionData(key, 1000L, "a");
+        target.addActionData(key, 1001L, "iii");
+        target.addEventData(key, 1000L, "b");
+        target.addEventData(key, 1001L, "jjj");
+
+        // when
+        target.evictRecordsByNumber(key, 3);
+
+        // then
+        assertThat(target.getNumBytesInCache(), is(3L));
+    }
+
+    @Test
+    public void evictOldestRecordsEvictsGloballyOldestRecordsFirst() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+
+        target.addEventData(keyOne, 1000L, "aa");
+        target.addEventData(keyOne, 1003L, "bb");
+        target.addEventData(keyOne, 1004L, "cc");
+        target.addActionData(keyTwo, 1001L, "dd");
+        target.addActionData(keyTwo, 1002L, "ee");
+        target.addActionData(keyTwo, 1005L, "ff");
+
+        // when
+        int obtained = target.evictOldestRecords(7L, 0);
+
+        // then
+        assertThat(obtained, is(4));
+        assertThat(target.getNumBytesInCache(), is(4L));
+        assertThat(target.getEvents(keyOne), is(equalTo(new String[]{"cc"})));
+        assertThat(target.getActions(keyTwo), is(equalTo(new String[]{"ff"})));
+    }
+
+    @Test
+    public void evictOldestRecordsKeepsMinRecordsPerBeacon() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+
+        target.addEventData(keyOne, 1000L, "a");
+        target.addEventData(keyOne, 1001L, "b");
+        target.addEventData(keyTwo, 2000L, "c");
+        target.addEventData(keyTwo, 2001L, "d");
+        target.addEventData(keyTwo, 2002L, "e");
+
+        // when
+        int obtained = target.evictOldestRecords(100L, 1);
+
+        // then
+        assertThat(obtained, is(3));
+        assertThat(target.getNumBytesInCache(), is(2L));
+        assertThat(target.getEvents(keyOne), is(equalTo(new String[]{"b"})));
+        assertThat(target.getEvents(keyTwo), is(equalTo(new String[]{"e"})));
+    }
+
+    @Test
+    public void evictOldestRecordsEvictsLowerPrioritiesOfAllBeaconsFirst() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+
+        target.addEventData(keyOne, 1000L, "aa", RecordPriority.CRITICAL);
+        target.addEventData(keyOne, 1003L, "bb", RecordPriority.LOW);
+        target.addEventData(keyTwo, 1001L, "cc", RecordPriority.HIGH);
+        target.addActionData(keyTwo, 1002L, "dd", RecordPriority.NORMAL);
+        target.addEventData(keyTwo, 1004L, "ee", RecordPriority.LOW);
+
+        // when
+        int obtained = target.evictOldestRecords(5L, 0);
+
+        // then
+        assertThat(obtained, is(3));
+        assertThat(target.getNumBytesInCache(), is(4L));
+        assertThat(target.getEvents(keyOne), is(equalTo(new String[]{"aa"})));
+        assertThat(target.getEvents(keyTwo), is(equalTo(new String[]{"cc"})));
+        assertThat(target.getActions(keyTwo), is(emptyArray()));
+    }
+
+    @Test
+    public void evictOldestRecordsDoesNotEvictDataBeingSent() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey key = new BeaconKey(1, 0);
+
+        target.addEventData(key, 1000L, "a");
+        target.getNextBeaconChunk(key, "prefix", 0, '&');
+        target.addEventData(key, 1001L, "b");
+
+        // when
+        int obtained = target.evictOldestRecords(100L, 0);
+
+        // then
+        assertThat(obtained, is(1));
+        assertThat(target.getNumBytesInCache(), is(0L));
+        assertThat(target.getEventsBeingSent(key), is(equalTo(Collections.singletonList(new BeaconCacheRecord(1000L, "a")))));
+    }
+
+    @Test
+    public void deleteCacheEntryRemovesRecordsFromTheDeletedEntry() {
+
+        // given
+        BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        target.addEventData(keyOne, 1000L, "a");
+        target.addEventData(keyTwo, 1000L, "b");
+        BeaconCacheEntry entry = target.getCachedEntry(keyOne);
+
+        // when the entry is deleted and evicted afterwards
+        target.deleteCacheEntry(keyOne);
+        entry.lock();
+        int obtained = entry.removeOldestRecords(100);
+        entry.unlock();
+
+        // then
+        assertThat(obtained, is(0));
+        assertThat(target.getNumBytesInCache(), is(1L));
+    }
+
     @Test
     public void isEmptyGivesTrueIfBeaconDoesNotExistInCache() {
 
@@ -723,4 +1104,45 @@ public class BeaconCacheImplTest {
         // then
         assertThat(target.isEmpty(key), is(true));
     }
+
+    @Test
+    public void concurrentlyAddingDataForANewBeaconKeyAddsAllDataToTheSameEntry() throws Exception {
+
+        // given
+        final BeaconCacheImpl target = new BeaconCacheImpl(logger);
+        final BeaconKey key = new BeaconKey(1, 0);
+        final int numThreads = 8;
+        final int numRecordsPerThread = 100;
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        return;
+                    }
+                    for (int j = 0; j < numRecordsPerThread; j++) {
+                        target.addEventData(key, 1000L, "a");
+                    }
+                }
+            });
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.MINUTES.toMillis(1));
+        }
+
+        // then
+        assertThat(target.getBeaconKeys(), is(Collections.singleton(key)));
+        assertThat(target.getEvents(key).length, is(numThreads * numRecordsPerThread));
+        assertThat(target.getNumBytesInCache(), is(numThreads * numRecordsPerThread * new BeaconCacheRecord(1000L, "a").getDataSizeInBytes()));
+    }
 }
@@ -0,0 +1,482 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BeaconCacheRecordBufferTest {
+
+    @Test
+    public void aDefaultConstructedInstanceIsEmpty() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // then
+        assertThat(target.isEmpty(), is(true));
+        assertThat(target.size(), is(0));
+        assertThat(target.getCapacity(), is(0));
+        assertThat(target.toRecords(), is(empty()));
+    }
+
+    @Test
+    public void addingRecordsKeepsInsertionOrder() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // when
+        target.add(1L, encoded("one"));
+        target.add(0L, encoded("two"));
+
+        // then
+        assertThat(target.size(), is(2));
+        assertThat(target.getTimestamp(0), is(1L));
+        assertThat(target.getData(0), is(encoded("one")));
+        assertThat(target.getTimestamp(1), is(0L));
+        assertThat(target.getData(1), is(encoded("two")));
+    }
+
+    @Test
+    public void bufferGrowsWhenCapacityIsExceeded() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // when
+        for (int i = 0; i <= BeaconCacheRecordBuffer.INITIAL_CAPACITY; i++) {
+            target.add(i, encoded(String.valueOf(i)));
+        }
+
+        // then
+        assertThat(target.size(), is(BeaconCacheRecordBuffer.INITIAL_CAPACITY + 1));
+        assertThat(target.getCapacity() > BeaconCacheRecordBuffer.INITIAL_CAPACITY, is(true));
+        for (int i = 0; i <= BeaconCacheRecordBuffer.INITIAL_CAPACITY; i++) {
+            assertThat(target.getTimestamp(i), is((long) i));
+            assertThat(target.getData(i), is(encoded(String.valueOf(i))));
+        }
+    }
+
+    @Test
+    public void removeFirstRemovesOldestRecords() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(0L, encoded("zero"));
+        target.add(1L, encoded("one"));
+        target.add(2L, encoded("two"));
+
+        // when
+        target.removeFirst(2);
+
+        // then
+        assertThat(target.size(), is(1));
+        assertThat(target.getTimestamp(0), is(2L));
+        assertThat(target.getData(0), is(encoded("two")));
+    }
+
+    @Test
+    public void recordsWrapAroundWithoutGrowingTheBuffer() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        for (int i = 0; i < BeaconCacheRecordBuffer.INITIAL_CAPACITY; i++) {
+            target.add(i, encoded(String.valueOf(i)));
+        }
+        target.removeFirst(4);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            target.add(100L + i, encoded("wrapped"));
+        }
+
+        // then
+        assertThat(target.getCapacity(), is(BeaconCacheRecordBuffer.INITIAL_CAPACITY));
+        assertThat(target.size(), is(BeaconCacheRecordBuffer.INITIAL_CAPACITY));
+        assertThat(target.getTimestamp(0), is(4L));
+        assertThat(target.getTimestamp(BeaconCacheRecordBuffer.INITIAL_CAPACITY - 1), is(103L));
+    }
+
+    @Test
+    public void growingAWrappedBufferPreservesOrderAndMarks() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        for (int i = 0; i < BeaconCacheRecordBuffer.INITIAL_CAPACITY; i++) {
+            target.add(i, encoded(String.valueOf(i)));
+        }
+        target.removeFirst(4);
+        for (int i = 0; i < 4; i++) {
+            target.add(100L + i, encoded("wrapped"));
+        }
+        target.markForSending(0);
+        target.markForSending(BeaconCacheRecordBuffer.INITIAL_CAPACITY - 1);
+
+        // when
+        target.add(200L, encoded("grown"));
+
+        // then
+        assertThat(target.size(), is(BeaconCacheRecordBuffer.INITIAL_CAPACITY + 1));
+        assertThat(target.getTimestamp(0), is(4L));
+        assertThat(target.isMarkedForSending(0), is(true));
+        assertThat(target.getTimestamp(BeaconCacheRecordBuffer.INITIAL_CAPACITY - 1), is(103L));
+        assertThat(target.isMarkedForSending(BeaconCacheRecordBuffer.INITIAL_CAPACITY - 1), is(true));
+        assertThat(target.getTimestamp(BeaconCacheRecordBuffer.INITIAL_CAPACITY), is(200L));
+        assertThat(target.isMarkedForSending(BeaconCacheRecordBuffer.INITIAL_CAPACITY), is(false));
+    }
+
+    @Test
+    public void numLeadingMarkedForSendingStopsAtFirstUnmarkedRecord() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(0L, encoded("zero"));
+        target.add(1L, encoded("one"));
+        target.add(2L, encoded("two"));
+        target.markForSending(0);
+        target.markForSending(2);
+
+        // then
+        assertThat(target.getNumLeadingMarkedForSending(), is(1));
+    }
+
+    @Test
+    public void unsetAllSendingResetsAllMarks() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(0L, encoded("zero"));
+        target.add(1L, encoded("one"));
+        target.markForSending(0);
+        target.markForSending(1);
+
+        // when
+        target.unsetAllSending();
+
+        // then
+        assertThat(target.isMarkedForSending(0), is(false));
+        assertThat(target.isMarkedForSending(1), is(false));
+    }
+
+    @Test
+    public void removeOlderThanRemovesRecordsAndCompactsTheRemainingOnes() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(5L, encoded("five"));
+        target.add(1L, encoded("one"));
+        target.add(7L, encoded("seven"));
+        target.add(2L, encoded("two"));
+        target.add(9L, encoded("nine"));
+
+        // when
+        int obtained = target.removeOlderThan(5L);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(5L, "five"),
+            new BeaconCacheRecord(7L, "seven"),
+            new BeaconCacheRecord(9L, "nine")))));
+    }
+
+    @Test
+    public void removeOlderThanRemovesLeadingRecordsIfTimestampsAreOrdered() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"));
+        target.add(2L, encoded("two"));
+        target.add(5L, encoded("five"));
+        target.add(7L, encoded("seven"));
+
+        // when
+        int obtained = target.removeOlderThan(5L);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.isTimestampsOrdered(), is(true));
+        assertThat(target.getTotalDataSizeInBytes(), is(9L));
+        assertThat(target.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(5L, "five"),
+            new BeaconCacheRecord(7L, "seven")))));
+    }
+
+    @Test
+    public void addingAnOlderRecordClearsTheOrderedFlag() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(2L, encoded("two"));
+        target.add(2L, encoded("two"));
+
+        // when, then
+        assertThat(target.isTimestampsOrdered(), is(true));
+        target.add(1L, encoded("one"));
+        assertThat(target.isTimestampsOrdered(), is(false));
+    }
+
+    @Test
+    public void removeOlderThanRestoresTheOrderedFlagIfRemainingRecordsAreOrdered() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(5L, encoded("five"));
+        target.add(1L, encoded("one"));
+        target.add(7L, encoded("seven"));
+
+        // when
+        target.removeOlderThan(5L);
+
+        // then
+        assertThat(target.isTimestampsOrdered(), is(true));
+    }
+
+    @Test
+    public void getMinTimestampReturnsSmallestTimestamp() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // when, then
+        assertThat(target.getMinTimestamp(), is(Long.MAX_VALUE));
+        target.add(5L, encoded("five"));
+        target.add(7L, encoded("seven"));
+        assertThat(target.getMinTimestamp(), is(5L));
+        target.add(1L, encoded("one"));
+        assertThat(target.getMinTimestamp(), is(1L));
+    }
+
+    @Test
+    public void addAllClearsTheOrderedFlagIfOtherRecordsAreOlder() {
+
+        // given
+        BeaconCacheRecordBuffer other = new BeaconCacheRecordBuffer();
+        other.add(1L, encoded("one"));
+
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(2L, encoded("two"));
+
+        // when
+        target.addAll(other);
+
+        // then
+        assertThat(target.isTimestampsOrdered(), is(false));
+        assertThat(target.getMinTimestamp(), is(1L));
+    }
+
+    @Test
+    public void addAllAppendsRecordsIncludingTheirMarks() {
+
+        // given
+        BeaconCacheRecordBuffer other = new BeaconCacheRecordBuffer();
+        other.add(2L, encoded("two"));
+        other.add(3L, encoded("three"));
+        other.markForSending(1);
+
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"));
+
+        // when
+        target.addAll(other);
+
+        // then
+        BeaconCacheRecord markedRecord = new BeaconCacheRecord(3L, "three");
+        markedRecord.markForSending();
+        assertThat(target.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(1L, "one"),
+            new BeaconCacheRecord(2L, "two"),
+            markedRecord))));
+    }
+
+    @Test
+    public void getTotalDataSizeInBytesSumsUpAllRecords() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(0L, encoded("One"));
+        target.add(1L, encoded("Three"));
+
+        // then
+        assertThat(target.getTotalDataSizeInBytes(), is(8L));
+    }
+
+    @Test
+    public void addCountsRecordsPerPriority() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // when
+        target.add(1L, encoded("one"), RecordPriority.LOW);
+        target.add(2L, encoded("two"), RecordPriority.CRITICAL);
+        target.add(3L, encoded("three"), RecordPriority.LOW);
+
+        // then
+        assertThat(target.getNumRecords(RecordPriority.LOW), is(2));
+        assertThat(target.getNumRecords(RecordPriority.NORMAL), is(0));
+        assertThat(target.getNumRecords(RecordPriority.HIGH), is(0));
+        assertThat(target.getNumRecords(RecordPriority.CRITICAL), is(1));
+        assertThat(target.getPriority(1), is(RecordPriority.CRITICAL));
+    }
+
+    @Test
+    public void addWithoutPriorityUsesDefaultPriority() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+
+        // when
+        target.add(1L, encoded("one"));
+
+        // then
+        assertThat(target.getPriority(0), is(RecordPriority.defaultValue()));
+        assertThat(target.getNumRecords(RecordPriority.defaultValue()), is(1));
+    }
+
+    @Test
+    public void indexOfReturnsFirstRecordOfGivenPriority() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"), RecordPriority.HIGH);
+        target.add(2L, encoded("two"), RecordPriority.LOW);
+        target.add(3L, encoded("three"), RecordPriority.HIGH);
+
+        // then
+        assertThat(target.indexOf(RecordPriority.HIGH, 0), is(0));
+        assertThat(target.indexOf(RecordPriority.HIGH, 1), is(2));
+        assertThat(target.indexOf(RecordPriority.HIGH, 3), is(-1));
+        assertThat(target.indexOf(RecordPriority.LOW, 0), is(1));
+        assertThat(target.indexOf(RecordPriority.NORMAL, 0), is(-1));
+    }
+
+    @Test
+    public void removeRemovesRecordsAtGivenIndicesAndCompactsTheRemainingOnes() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"), RecordPriority.HIGH);
+        target.add(2L, encoded("two"), RecordPriority.LOW);
+        target.add(3L, encoded("three"), RecordPriority.HIGH);
+        target.add(4L, encoded("four"), RecordPriority.LOW);
+
+        BitSet recordsToRemove = new BitSet();
+        recordsToRemove.set(1);
+        recordsToRemove.set(3);
+
+        // when
+        int obtained = target.remove(recordsToRemove);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(1L, "one", RecordPriority.HIGH),
+            new BeaconCacheRecord(3L, "three", RecordPriority.HIGH)))));
+        assertThat(target.getNumRecords(RecordPriority.LOW), is(0));
+        assertThat(target.getNumRecords(RecordPriority.HIGH), is(2));
+        assertThat(target.getTotalDataSizeInBytes(), is(8L));
+    }
+
+    @Test
+    public void removeRemovesLeadingRecords() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"), RecordPriority.LOW);
+        target.add(2L, encoded("two"), RecordPriority.LOW);
+        target.add(3L, encoded("three"), RecordPriority.HIGH);
+
+        BitSet recordsToRemove = new BitSet();
+        recordsToRemove.set(0, 2);
+
+        // when
+        int obtained = target.remove(recordsToRemove);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(3L, "three", RecordPriority.HIGH)))));
+        assertThat(target.getNumRecords(RecordPriority.LOW), is(0));
+    }
+
+    @Test
+    public void indexOfFindsRecordsOfGivenPriorityAfterRepeatedRemovals() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"), RecordPriority.HIGH);
+        target.add(2L, encoded("two"), RecordPriority.HIGH);
+        target.add(3L, encoded("three"), RecordPriority.LOW);
+        target.add(4L, encoded("four"), RecordPriority.HIGH);
+        target.add(5L, encoded("five"), RecordPriority.LOW);
+
+        // when removing the first low priority record
+        BitSet recordsToRemove = new BitSet();
+        recordsToRemove.set(target.indexOf(RecordPriority.LOW, 0));
+        target.remove(recordsToRemove);
+
+        // then
+        assertThat(target.indexOf(RecordPriority.LOW, 0), is(3));
+        assertThat(target.indexOf(RecordPriority.HIGH, 0), is(0));
+
+        // and when removing the leading records
+        target.removeFirst(2);
+
+        // then
+        assertThat(target.indexOf(RecordPriority.HIGH, 0), is(0));
+        assertThat(target.indexOf(RecordPriority.LOW, 0), is(1));
+
+        // and when adding a record of a priority which was not stored before
+        target.add(6L, encoded("six"), RecordPriority.CRITICAL);
+
+        // then
+        assertThat(target.indexOf(RecordPriority.CRITICAL, 0), is(2));
+    }
+
+    @Test
+    public void indexOfFindsRecordsOfGivenPriorityAfterAddAll() {
+
+        // given
+        BeaconCacheRecordBuffer target = new BeaconCacheRecordBuffer();
+        target.add(1L, encoded("one"), RecordPriority.HIGH);
+        target.add(2L, encoded("two"), RecordPriority.LOW);
+        BeaconCacheRecordBuffer other = new BeaconCacheRecordBuffer();
+        other.add(3L, encoded("three"), RecordPriority.HIGH);
+        other.add(4L, encoded("four"), RecordPriority.NORMAL);
+
+        // when
+        target.addAll(other);
+
+        // then
+        assertThat(target.indexOf(RecordPriority.HIGH, 0), is(0));
+        assertThat(target.indexOf(RecordPriority.LOW, 0), is(1));
+        assertThat(target.indexOf(RecordPriority.NORMAL, 0), is(3));
+    }
+
+    private static byte[] encoded(String data) {
+        return BeaconCacheRecord.encode(data);
+    }
+}
@@ -21,6 +21,7 @@ import org.junit.Test;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class BeaconCacheRecordTest {
@@ -29,13 +30,27 @@ public class BeaconCacheRecordTest {
     public void getData() {
 
         // when passing null as argument, then
-        assertThat(new BeaconCacheRecord(0L, null).getData(), is(nullValue()));
+        assertThat(new BeaconCacheRecord(0L, (String) null).getData(), is(nullValue()));
 
         // when passing an empty string as argument, then
-        assertThat(new BeaconCacheRecord(0L, "").getData(), is(""));
+        assertThat(new BeaconCacheRecord(0L, "").getData(), is(new byte[0]));
 
         // and when passing string as argument, then
-        assertThat(new BeaconCacheRecord(0L, "foobar").getData(), is("foobar"));
+        assertThat(new BeaconCacheRecord(0L, "foobar").getData(), is(new byte[]{'f', 'o', 'o', 'b', 'a', 'r'}));
+
+        // and when passing a string with non ASCII characters as argument, then
+        assertThat(new BeaconCacheRecord(0L, "\u00e4\u20ac").getData(),
+            is(new byte[]{(byte) 0xc3, (byte) 0xa4, (byte) 0xe2, (byte) 0x82, (byte) 0xac}));
+    }
+
+    @Test
+    public void getDataWithEncodedData() {
+
+        // given
+        byte[] data = new byte[]{'f', 'o', 'o'};
+
+        // when, then
+        assertThat(new BeaconCacheRecord(0L, data).getData(), is(sameInstance(data)));
     }
 
     @Test
@@ -55,15 +70,19 @@ public class BeaconCacheRecordTest {
     public void getDataSizeInBytes() {
 
         // when data is null, then
-        assertThat(new BeaconCacheRecord(0L, null).getDataSizeInBytes(), is(0L));
+        assertThat(new BeaconCacheRecord(0L, (String) null).getDataSizeInBytes(), is(0L));
 
         // and when data is an empty string, then
         assertThat(new BeaconCacheRecord(0L, "").getDataSizeInBytes(), is(0L));
 
         // and when data is valid, then
-        assertThat(new BeaconCacheRecord(0L, "a").getDataSizeInBytes(), is(2L));
-        assertThat(new BeaconCacheRecord(0L, "ab").getDataSizeInBytes(), is(4L));
-        assertThat(new BeaconCacheRecord(0L, "abc").getDataSizeInBytes(), is(6L));
+        assertThat(new BeaconCacheRecord(0L, "a").getDataSizeInBytes(), is(1L));
+        assertThat(new BeaconCacheRecord(0L, "ab").getDataSizeInBytes(), is(2L));
+        assertThat(new BeaconCacheRecord(0L, "abc").getDataSizeInBytes(), is(3L));
+
+        // and when data contains characters encoded with multiple bytes, then
+        assertThat(new BeaconCacheRecord(0L, "\u00e4").getDataSizeInBytes(), is(2L));
+        assertThat(new BeaconCacheRecord(0L, "\u20ac").getDataSizeInBytes(), is(3L));
     }
 
     @Test
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class BeaconCacheSpillFileTest {
+
+    private File directory;
+    private BeaconCacheSpillFile target;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("spill-file-test", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        target = BeaconCacheSpillFile.create(directory, 1024);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        target.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void createCreatesFileWithGivenCapacityInDirectory() {
+        // then
+        assertThat(target.getFile().getParentFile(), is(equalTo(directory)));
+        assertThat(target.getFile().length(), is(1024L));
+        assertThat(target.getCapacity(), is(1024));
+    }
+
+    @Test
+    public void appendedRecordsCanBeReadAgain() {
+        // given
+        BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+        eventData.add(1000L, encoded("event"), RecordPriority.HIGH);
+        eventData.add(1500L, null, RecordPriority.LOW);
+        BeaconCacheRecordBuffer actionData = new BeaconCacheRecordBuffer();
+        actionData.add(500L, encoded("action"), RecordPriority.NORMAL);
+
+        // when
+        BeaconCacheSpillFile.Segment segment = target.append(eventData, actionData);
+
+        // then
+        assertThat(segment, is(notNullValue()));
+        assertThat(segment.getNumRecords(), is(3));
+        assertThat(segment.getNumDataBytes(), is(11L));
+        assertThat(segment.getLength(), is(3 * BeaconCacheSpillFile.RECORD_HEADER_SIZE + 11));
+        assertThat(segment.getMinTimestamp(), is(500L));
+        assertThat(segment.getMaxTimestamp(), is(1500L));
+
+        // and when
+        BeaconCacheRecordBuffer readEventData = new BeaconCacheRecordBuffer();
+        BeaconCacheRecordBuffer readActionData = new BeaconCacheRecordBuffer();
+        boolean obtained = target.read(segment, readEventData, readActionData);
+
+        // then
+        assertThat(obtained, is(true));
+        assertThat(readEventData.toRecords(), is(equalTo(eventData.toRecords())));
+        assertThat(readActionData.toRecords(), is(equalTo(actionData.toRecords())));
+    }
+
+    @Test
+    public void appendReturnsNullIfThereIsNotEnoughSpace() {
+        // given
+        BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+        eventData.add(1000L, new byte[1024]);
+
+        // when
+        BeaconCacheSpillFile.Segment obtained = target.append(eventData, new BeaconCacheRecordBuffer());
+
+        // then
+        assertThat(obtained, is(nullValue()));
+        assertThat(target.getNumLiveBytes(), is(0));
+    }
+
+    @Test
+    public void releasingAllSegmentsRewindsTheWritePosition() {
+        // given
+        BeaconCacheSpillFile.Segment segment = target.append(records(1000L, "a"), new BeaconCacheRecordBuffer());
+
+        // when
+        target.release(segment);
+
+        // then
+        assertThat(target.getNumLiveBytes(), is(0));
+        assertThat(target.getWritePosition(), is(0));
+        assertThat(target.read(segment, new BeaconCacheRecordBuffer(), new BeaconCacheRecordBuffer()), is(false));
+    }
+
+    @Test
+    public void appendCompactsTheFileIfThereIsNoSpaceLeftAtItsEnd() {
+        // given
+        BeaconCacheSpillFile.Segment first = target.append(records(1000L, new String(new char[400])), new BeaconCacheRecordBuffer());
+        BeaconCacheSpillFile.Segment second = target.append(records(2000L, "second"), new BeaconCacheRecordBuffer());
+        BeaconCacheSpillFile.Segment third = target.append(records(3000L, new String(new char[400])), new BeaconCacheRecordBuffer());
+        target.release(first);
+
+        // when
+        BeaconCacheSpillFile.Segment fourth = target.append(records(4000L, new String(new char[400])), new BeaconCacheRecordBuffer());
+
+        // then
+        assertThat(fourth, is(notNullValue()));
+        assertThat(target.getNumLiveBytes(), is(second.getLength() + third.getLength() + fourth.getLength()));
+        assertThat(target.getWritePosition(), is(target.getNumLiveBytes()));
+
+        BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+        target.read(second, eventData, new BeaconCacheRecordBuffer());
+        target.read(third, eventData, new BeaconCacheRecordBuffer());
+        target.read(fourth, eventData, new BeaconCacheRecordBuffer());
+        assertThat(eventData.toRecords(), is(equalTo(Arrays.asList(
+            new BeaconCacheRecord(2000L, "second"),
+            new BeaconCacheRecord(3000L, new String(new char[400])),
+            new BeaconCacheRecord(4000L, new String(new char[400]))))));
+    }
+
+    @Test
+    public void closeDeletesTheFileAndRejectsFurtherAppends() throws IOException {
+        // given
+        BeaconCacheSpillFile.Segment segment = target.append(records(1000L, "a"), new BeaconCacheRecordBuffer());
+
+        // when
+        target.close();
+
+        // then
+        assertThat(target.getFile().exists(), is(false));
+        assertThat(target.append(records(2000L, "b"), new BeaconCacheRecordBuffer()), is(nullValue()));
+
+        BeaconCacheRecordBuffer eventData = new BeaconCacheRecordBuffer();
+        assertThat(target.read(segment, eventData, new BeaconCacheRecordBuffer()), is(false));
+        assertThat(eventData.toRecords(), is(equalTo(Collections.<BeaconCacheRecord>emptyList())));
+    }
+
+    private static BeaconCacheRecordBuffer records(long timestamp, String data) {
+        BeaconCacheRecordBuffer records = new BeaconCacheRecordBuffer();
+        records.add(timestamp, encoded(data));
+        return records;
+    }
+
+    private static byte[] encoded(String data) {
+        return BeaconCacheRecord.encode(data);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class BeaconCacheTimeIndexTest {
+
+    private static final long BUCKET_WIDTH = 1000L;
+
+    @Test
+    public void getBucketDividesTimestampByBucketWidth() {
+
+        // given
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+
+        // then
+        assertThat(target.getBucket(0L), is(0L));
+        assertThat(target.getBucket(999L), is(0L));
+        assertThat(target.getBucket(1000L), is(1L));
+        assertThat(target.getBucket(-1L), is(-1L));
+        assertThat(target.getBucket(-1000L), is(-1L));
+        assertThat(target.getBucket(-1001L), is(-2L));
+    }
+
+    @Test
+    public void pollKeysOlderThanReturnsKeysFromExpiredBuckets() {
+
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        BeaconKey keyThree = new BeaconKey(3, 0);
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        target.add(keyOne, 1L);
+        target.add(keyTwo, 2L);
+        target.add(keyThree, 5L);
+
+        // when
+        Set<BeaconKey> obtained = target.pollKeysOlderThan(3000L);
+
+        // then
+        assertThat(obtained, containsInAnyOrder(keyOne, keyTwo));
+        assertThat(target.getNumberOfBuckets(), is(1));
+    }
+
+    @Test
+    public void pollKeysOlderThanReturnsButRetainsTheBoundaryBucket() {
+
+        // given
+        BeaconKey key = new BeaconKey(1, 0);
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        target.add(key, 2L);
+
+        // when
+        Set<BeaconKey> obtained = target.pollKeysOlderThan(2500L);
+
+        // then
+        assertThat(obtained, is(Collections.singleton(key)));
+        assertThat(target.getNumberOfBuckets(), is(1));
+    }
+
+    @Test
+    public void pollKeysOlderThanDoesNotReturnBoundaryBucketIfItStartsAtMinTimestamp() {
+
+        // given
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        target.add(new BeaconKey(1, 0), 2L);
+
+        // when
+        Set<BeaconKey> obtained = target.pollKeysOlderThan(2000L);
+
+        // then
+        assertThat(obtained, is(empty()));
+        assertThat(target.getNumberOfBuckets(), is(1));
+    }
+
+    @Test
+    public void removingTheLastKeyOfABucketDropsTheBucket() {
+
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        target.add(keyOne, 1L);
+        target.add(keyTwo, 1L);
+
+        // when, then
+        target.remove(keyOne, 1L);
+        assertThat(target.getNumberOfBuckets(), is(1));
+        target.remove(keyTwo, 1L);
+        assertThat(target.getNumberOfBuckets(), is(0));
+    }
+
+    @Test
+    public void removingFromANonExistingBucketIsIgnored() {
+
+        // given
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+
+        // when
+        target.remove(new BeaconKey(1, 0), 1L);
+
+        // then
+        assertThat(target.getNumberOfBuckets(), is(0));
+    }
+
+    @Test
+    public void addingToADroppedBucketRegistersTheKeyInANewBucket() {
+
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        target.add(keyOne, 1L);
+        target.remove(keyOne, 1L);
+
+        // when
+        target.add(keyTwo, 1L);
+
+        // then
+        assertThat(target.getNumberOfBuckets(), is(1));
+        assertThat(target.pollKeysOlderThan(3000L), is(Collections.singleton(keyTwo)));
+    }
+
+    @Test
+    public void keysAddedConcurrentlyToRemovingTheLastKeyOfABucketAreNotLost() throws InterruptedException {
+
+        // given
+        final int numThreads = 4;
+        final int numIterations = 10000;
+        final BeaconCacheTimeIndex target = new BeaconCacheTimeIndex(BUCKET_WIDTH);
+        final Set<BeaconKey> expectedKeys = Collections.newSetFromMap(new ConcurrentHashMap<BeaconKey, Boolean>());
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            final int threadIndex = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int bucket = 0; bucket < numIterations; bucket++) {
+                        try {
+                            // all threads use the same bucket at the same time
+                            barrier.await();
+                        } catch (Exception e) {
+                            return;
+                        }
+                        if (bucket % numThreads == threadIndex) {
+                            // a key which must remain registered
+                            BeaconKey key = new BeaconKey(threadIndex, bucket);
+                            target.add(key, bucket);
+                            expectedKeys.add(key);
+                        } else {
+                            // a key registered only temporarily, which empties the bucket again
+                            BeaconKey temporaryKey = new BeaconKey(threadIndex, -1);
+                            target.add(temporaryKey, bucket);
+                            target.remove(temporaryKey, bucket);
+                        }
+                    }
+                }
+            });
+            threads[i].start();
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        Set<BeaconKey> lostKeys = new HashSet<BeaconKey>(expectedKeys);
+        lostKeys.removeAll(target.pollKeysOlderThan(numIterations * BUCKET_WIDTH));
+        assertThat(lostKeys, is(empty()));
+    }
+}
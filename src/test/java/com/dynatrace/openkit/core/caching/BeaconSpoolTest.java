@@ -0,0 +1,606 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.providers.TimingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BeaconSpoolTest {
+
+    private Logger mockLogger;
+    private TimingProvider mockTimingProvider;
+    private File directory;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        mockLogger = mock(Logger.class);
+        mockTimingProvider = mock(TimingProvider.class);
+        directory = File.createTempFile("beacon-spool-test", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        file = BeaconSpool.getSpoolFile(directory, "app-id");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void getSpoolFileReplacesSpecialCharactersOfApplicationID() {
+        // when
+        File obtained = BeaconSpool.getSpoolFile(directory, "a/b:c d.e");
+
+        // then
+        assertThat(obtained.getParentFile(), is(equalTo(directory)));
+        assertThat(obtained.getName(), is(equalTo("openkit-beacon-spool-a_b_c_d.e.spool")));
+    }
+
+    @Test
+    public void getNextBeaconToReplayReturnsNullIfFileDoesNotExist() {
+        // given
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+
+        // when, then
+        assertThat(target.getNextBeaconToReplay(), is(nullValue()));
+    }
+
+    @Test
+    public void persistedBeaconsCanBeReplayedByNewSpool() {
+        // given
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.spool(createSpooledBeacon(1, "&et=1", "&et=2"));
+        target.spool(createSpooledBeacon(2, "&et=3"));
+
+        // when
+        boolean obtained = target.persist();
+
+        // then
+        assertThat(obtained, is(true));
+        assertThat(file.isFile(), is(true));
+
+        // and when
+        List<SpooledBeacon> replayed = new BeaconSpool(mockLogger, file, 1000L).getBeaconsToReplay();
+
+        // then
+        assertThat(replayed.size(), is(2));
+        SpooledBeacon first = replayed.get(0);
+        assertThat(first.getBeaconKey(), is(equalTo(new BeaconKey(1, 0))));
+        assertThat(first.getClientIPAddress(), is(equalTo("127.0.0.1")));
+        assertThat(first.getBeaconPrefix(), is(equalTo("vv=3&sn=1")));
+        assertThat(first.getSessionStartTime(), is(1000L));
+        assertThat(first.getMultiplicity(), is(2));
+        assertThat(first.getChunks().size(), is(2));
+        assertThat(BeaconCacheRecord.decode(first.getChunks().get(0)), is(equalTo("&et=1")));
+        assertThat(BeaconCacheRecord.decode(first.getChunks().get(1)), is(equalTo("&et=2")));
+        assertThat(replayed.get(1).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+    }
+
+    @Test
+    public void persistDeletesFileIfThereIsNothingToSpool() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        SpooledBeacon spooledBeacon = target.getNextBeaconToReplay();
+        target.removeReplayedChunk(spooledBeacon);
+
+        // when
+        boolean obtained = target.persist();
+
+        // then
+        assertThat(obtained, is(true));
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void persistKeepsBeaconsNotReplayedSoFar() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.spool(createSpooledBeacon(2, "&et=2"));
+
+        // when
+        target.persist();
+
+        // then
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(1, 0))));
+        assertThat(obtained.get(1).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+    }
+
+    @Test
+    public void removeReplayedChunkReturnsNextChunkOfSameBeacon() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1", "&et=2")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        SpooledBeacon spooledBeacon = target.getNextBeaconToReplay();
+
+        // when
+        target.removeReplayedChunk(spooledBeacon);
+
+        // then
+        assertThat(target.getNextBeaconToReplay(), is(sameInstance(spooledBeacon)));
+        assertThat(BeaconCacheRecord.decode(spooledBeacon.getNextChunk("prefix")), is(equalTo("prefix&et=2")));
+        assertThat(file.exists(), is(true));
+    }
+
+    @Test
+    public void removeReplayedChunkAppendsProgressToFile() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1", "&et=2"), createSpooledBeacon(2, "&et=3")));
+        long fileLength = file.length();
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+
+        // when
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+
+        // then
+        assertThat(file.length() > fileLength, is(true));
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getChunks().size(), is(1));
+        assertThat(BeaconCacheRecord.decode(obtained.get(0).getChunks().get(0)), is(equalTo("&et=2")));
+    }
+
+    @Test
+    public void removeReplayedChunkDoesNotRewriteFileWhenBeaconIsCompletelyReplayed() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2")));
+        long fileLength = file.length();
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+
+        // when
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+
+        // then
+        assertThat(file.length() > fileLength, is(true));
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+    }
+
+    @Test
+    public void replayedChunksAreNotReplayedAgainIfSpoolWasNotPersisted() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1", "&et=2", "&et=3")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getChunks().size(), is(1));
+        assertThat(BeaconCacheRecord.decode(obtained.get(0).getChunks().get(0)), is(equalTo("&et=3")));
+    }
+
+    @Test
+    public void persistRewritesFileWithoutReplayedChunks() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1", "&et=2")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+
+        // when
+        target.persist();
+
+        // then
+        BeaconSpool.write(new File(directory, "expected"), Collections.singletonList(createSpooledBeacon(1, "&et=2")));
+        assertThat(file.length(), is(new File(directory, "expected").length()));
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(1));
+        assertThat(BeaconCacheRecord.decode(obtained.get(0).getChunks().get(0)), is(equalTo("&et=2")));
+    }
+
+    @Test
+    public void removeReplayedChunkDeletesFileWhenAllBeaconsAreReplayed() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+
+        // when
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+
+        // then
+        assertThat(target.getNextBeaconToReplay(), is(nullValue()));
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void spoolDoesNotReplayWhileAnotherSpoolIsReplayingTheFile() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        BeaconSpool replayingSpool = new BeaconSpool(mockLogger, file, 1000L);
+        assertThat(replayingSpool.getNextBeaconToReplay(), is(notNullValue()));
+
+        // when
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+
+        // then
+        assertThat(target.getNextBeaconToReplay(), is(nullValue()));
+    }
+
+    @Test
+    public void spoolReplaysFileAfterReplayingSpoolWasPersisted() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1", "&et=2")));
+        BeaconSpool replayingSpool = new BeaconSpool(mockLogger, file, 1000L);
+        replayingSpool.removeReplayedChunk(replayingSpool.getNextBeaconToReplay());
+        replayingSpool.persist();
+
+        // when
+        SpooledBeacon obtained = new BeaconSpool(mockLogger, file, 1000L).getNextBeaconToReplay();
+
+        // then
+        assertThat(obtained, is(notNullValue()));
+        assertThat(BeaconCacheRecord.decode(obtained.getNextChunk("")), is(equalTo("&et=2")));
+    }
+
+    @Test
+    public void persistAppendsBeaconsWhileAnotherSpoolIsReplayingTheFile() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1", "&et=2")));
+        BeaconSpool replayingSpool = new BeaconSpool(mockLogger, file, 1000L);
+        SpooledBeacon replayed = replayingSpool.getNextBeaconToReplay();
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        assertThat(target.getNextBeaconToReplay(), is(nullValue()));
+        target.spool(createSpooledBeacon(2, "&et=3"));
+
+        // when
+        target.persist();
+        replayingSpool.removeReplayedChunk(replayed);
+        replayingSpool.removeReplayedChunk(replayed);
+
+        // then
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+    }
+
+    @Test
+    public void persistCutsOffTruncatedFrameBeforeAppending() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2")));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        } finally {
+            randomAccessFile.close();
+        }
+        BeaconSpool replayingSpool = new BeaconSpool(mockLogger, file, 1000L);
+        assertThat(replayingSpool.getNextBeaconToReplay(), is(notNullValue()));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.spool(createSpooledBeacon(3, "&et=3"));
+
+        // when
+        target.persist();
+
+        // then
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(1, 0))));
+        assertThat(obtained.get(1).getBeaconKey(), is(equalTo(new BeaconKey(3, 0))));
+    }
+
+    @Test
+    public void readStopsAtTruncatedFrame() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2")));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(randomAccessFile.length() - 3);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(1, 0))));
+        verify(mockLogger).warning(anyString());
+    }
+
+    @Test
+    public void readStopsAtFrameWithInvalidChecksum() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2")));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            // flip a byte of the first frame's payload
+            randomAccessFile.seek(BeaconSpool.FRAME_HEADER_SIZE + 2);
+            int value = randomAccessFile.read();
+            randomAccessFile.seek(BeaconSpool.FRAME_HEADER_SIZE + 2);
+            randomAccessFile.write(value ^ 0xFF);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+
+        // then
+        assertThat(obtained.isEmpty(), is(true));
+        verify(mockLogger).warning(anyString());
+    }
+
+    @Test
+    public void readStopsAtInvalidFrameMagic() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.writeInt(0);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+
+        // then
+        assertThat(obtained.isEmpty(), is(true));
+    }
+
+    @Test
+    public void spoolIgnoresBeaconsWithoutChunks() {
+        // given
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.spool(createSpooledBeacon(1));
+
+        // when
+        target.persist();
+
+        // then
+        assertThat(file.exists(), is(false));
+    }
+
+    @Test
+    public void spoolSetsSpoolTime() {
+        // given
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(4711L);
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L, 1000L, 1000L, mockTimingProvider);
+        SpooledBeacon spooledBeacon = createSpooledBeacon(0L, 1, "&et=1");
+
+        // when
+        target.spool(spooledBeacon);
+
+        // then
+        assertThat(spooledBeacon.getSpoolTime(), is(4711L));
+    }
+
+    @Test
+    public void spoolTimeIsPersisted() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(4711L, 1, "&et=1")));
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getSpoolTime(), is(4711L));
+    }
+
+    @Test
+    public void readDropsBeaconsSpooledBeforeMinSpoolTime() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1000L, 1, "&et=1"),
+            createSpooledBeacon(2000L, 2, "&et=2")));
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file, Long.MAX_VALUE, 1500L);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        verify(mockLogger).warning(contains("Dropped 1 expired beacons and 0 beacons exceeding"));
+    }
+
+    @Test
+    public void readDropsOldestBeaconsExceedingMaxSize() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        long frameSize = file.length();
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2"),
+            createSpooledBeacon(3, "&et=3")));
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file, 2 * frameSize, Long.MIN_VALUE);
+
+        // then
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        assertThat(obtained.get(1).getBeaconKey(), is(equalTo(new BeaconKey(3, 0))));
+        verify(mockLogger).warning(contains("Dropped 0 expired beacons and 1 beacons exceeding"));
+    }
+
+    @Test
+    public void readDropsBeaconsLargerThanMaxSize() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1", "&et=2", "&et=3"),
+            createSpooledBeacon(2, "&et=4")));
+        long maxSize = file.length() / 2;
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file, maxSize, Long.MIN_VALUE);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+    }
+
+    @Test
+    public void readDoesNotCountReplayedBeaconsAgainstMaxSize() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        long frameSize = file.length();
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1, "&et=1"), createSpooledBeacon(2, "&et=2")));
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L);
+        target.removeReplayedChunk(target.getNextBeaconToReplay());
+        BeaconSpool.append(file, Collections.singletonList(createSpooledBeacon(3, "&et=3")));
+
+        // when
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file, 2 * frameSize, Long.MIN_VALUE);
+
+        // then
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        assertThat(obtained.get(1).getBeaconKey(), is(equalTo(new BeaconKey(3, 0))));
+        verify(mockLogger, never()).warning(anyString());
+    }
+
+    @Test
+    public void getNextBeaconToReplayDoesNotReplayExpiredBeacons() throws IOException {
+        // given
+        BeaconSpool.write(file, Arrays.asList(createSpooledBeacon(1000L, 1, "&et=1"),
+            createSpooledBeacon(5000L, 2, "&et=2")));
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(6000L);
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L, Long.MAX_VALUE, 2000L, mockTimingProvider);
+
+        // when
+        SpooledBeacon obtained = target.getNextBeaconToReplay();
+
+        // then
+        assertThat(obtained, is(notNullValue()));
+        assertThat(obtained.getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        assertThat(target.getBeaconsToReplay().size(), is(1));
+    }
+
+    @Test
+    public void persistDropsOldestBeaconsExceedingMaxSizeIfNoOtherSpoolIsReplaying() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1, "&et=1")));
+        long frameSize = file.length();
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(System.currentTimeMillis());
+        for (int i = 2; i <= 3; i++) {
+            BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L, 2 * frameSize, 10000L, mockTimingProvider);
+            target.spool(createSpooledBeacon(i, "&et=" + i));
+
+            // when
+            target.persist();
+        }
+
+        // then
+        assertThat(file.length(), is(2 * frameSize));
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        assertThat(obtained.get(1).getBeaconKey(), is(equalTo(new BeaconKey(3, 0))));
+    }
+
+    @Test
+    public void persistDropsExpiredBeaconsIfNoOtherSpoolIsReplaying() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1000L, 1, "&et=1")));
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(6000L);
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L, Long.MAX_VALUE, 2000L, mockTimingProvider);
+        target.spool(createSpooledBeacon(2, "&et=2"));
+
+        // when
+        target.persist();
+
+        // then
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0).getBeaconKey(), is(equalTo(new BeaconKey(2, 0))));
+        assertThat(obtained.get(0).getSpoolTime(), is(6000L));
+    }
+
+    @Test
+    public void persistOnlyAppendsWhileAnotherSpoolIsReplayingTheFile() throws IOException {
+        // given
+        BeaconSpool.write(file, Collections.singletonList(createSpooledBeacon(1000L, 1, "&et=1")));
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L);
+        BeaconSpool replayingSpool = new BeaconSpool(mockLogger, file, 1000L, Long.MAX_VALUE, 2000L, mockTimingProvider);
+        assertThat(replayingSpool.getNextBeaconToReplay(), is(notNullValue()));
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(6000L);
+        BeaconSpool target = new BeaconSpool(mockLogger, file, 1000L, Long.MAX_VALUE, 2000L, mockTimingProvider);
+        target.spool(createSpooledBeacon(2, "&et=2"));
+
+        // when
+        target.persist();
+
+        // then
+        List<SpooledBeacon> obtained = BeaconSpool.read(mockLogger, file);
+        assertThat(obtained.size(), is(2));
+    }
+
+    @Test
+    public void getNextChunkPrependsPrefixToChunk() {
+        // given
+        SpooledBeacon target = createSpooledBeacon(1, "&et=1");
+
+        // when
+        byte[] obtained = target.getNextChunk("vv=3");
+
+        // then
+        assertThat(obtained, is(notNullValue()));
+        assertThat(BeaconCacheRecord.decode(obtained), is(equalTo("vv=3&et=1")));
+    }
+
+    private static SpooledBeacon createSpooledBeacon(int beaconId, String... chunks) {
+        byte[][] encodedChunks = new byte[chunks.length][];
+        for (int i = 0; i < chunks.length; i++) {
+            encodedChunks[i] = BeaconCacheRecord.encode(chunks[i]);
+        }
+        SpooledBeacon spooledBeacon = new SpooledBeacon(new BeaconKey(beaconId, 0), "127.0.0.1", "vv=3&sn=" + beaconId,
+            1000L, 2, Arrays.asList(encodedChunks));
+        spooledBeacon.setSpoolTime(System.currentTimeMillis());
+        return spooledBeacon;
+    }
+
+    private static SpooledBeacon createSpooledBeacon(long spoolTime, int beaconId, String... chunks) {
+        SpooledBeacon spooledBeacon = createSpooledBeacon(beaconId, chunks);
+        spooledBeacon.setSpoolTime(spoolTime);
+        return spooledBeacon;
+    }
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
+import com.dynatrace.openkit.core.configuration.ConfigurationDefaults;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class MemoryPressureEvictionStrategyTest {
+
+    private static final String POOL_NAME = "Tenured Gen";
+    private static final long MAX_POOL_SIZE = 1000L;
+
+    private Logger mockLogger;
+    private BeaconCache mockBeaconCache;
+    private MemoryPoolMXBean mockMemoryPool;
+
+    @Before
+    public void setUp() {
+        mockLogger = mock(Logger.class);
+        mockBeaconCache = mock(BeaconCache.class);
+        mockMemoryPool = mock(MemoryPoolMXBean.class);
+
+        when(mockMemoryPool.getName()).thenReturn(POOL_NAME);
+        when(mockMemoryPool.getUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 500L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+    }
+
+    @Test
+    public void theStrategyIsDisabledByDefault() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.0, 0.0);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(true));
+    }
+
+    @Test
+    public void theStrategyIsDisabledIfHighWatermarkIsGreaterThanOne() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1.1, 0.5);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(true));
+    }
+
+    @Test
+    public void theStrategyIsDisabledIfLowWatermarkIsGreaterThanHighWatermark() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.5, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(true));
+    }
+
+    @Test
+    public void theStrategyIsDisabledIfThereIsNoTenuredPool() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = new MemoryPressureEvictionStrategy(mockLogger, mockBeaconCache,
+            configuration, null);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(true));
+    }
+
+    @Test
+    public void theStrategyIsDisabledIfBoundaryFactorIsNotInRange() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6, 1.5);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(true));
+    }
+
+    @Test
+    public void theStrategyIsEnabledIfWatermarksAreValid() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+
+        // then
+        assertThat(target.isStrategyDisabled(), is(false));
+    }
+
+    @Test
+    public void findTenuredPoolReturnsHeapPoolSupportingBothThresholds() {
+        // given
+        MemoryPoolMXBean edenPool = mock(MemoryPoolMXBean.class);
+        when(edenPool.getType()).thenReturn(MemoryType.HEAP);
+        when(edenPool.isCollectionUsageThresholdSupported()).thenReturn(true);
+        MemoryPoolMXBean metaspacePool = mock(MemoryPoolMXBean.class);
+        when(metaspacePool.getType()).thenReturn(MemoryType.NON_HEAP);
+        when(metaspacePool.isUsageThresholdSupported()).thenReturn(true);
+        when(metaspacePool.isCollectionUsageThresholdSupported()).thenReturn(true);
+        when(mockMemoryPool.getType()).thenReturn(MemoryType.HEAP);
+        when(mockMemoryPool.isUsageThresholdSupported()).thenReturn(true);
+        when(mockMemoryPool.isCollectionUsageThresholdSupported()).thenReturn(true);
+
+        // when
+        MemoryPoolMXBean obtained = MemoryPressureEvictionStrategy.findTenuredPool(
+            Arrays.asList(edenPool, metaspacePool, mockMemoryPool));
+
+        // then
+        assertThat(obtained, is(sameInstance(mockMemoryPool)));
+    }
+
+    @Test
+    public void findTenuredPoolReturnsNullIfNoPoolIsSuitable() {
+        // given
+        when(mockMemoryPool.getType()).thenReturn(MemoryType.HEAP);
+
+        // when
+        MemoryPoolMXBean obtained = MemoryPressureEvictionStrategy.findTenuredPool(Arrays.asList(mockMemoryPool));
+
+        // then
+        assertThat(obtained, is(nullValue()));
+    }
+
+    @Test
+    public void executeDoesNotEvictWithoutMemoryPressure() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(3000L);
+
+        // when
+        target.execute();
+
+        // then
+        verifyZeroInteractions(mockBeaconCache);
+    }
+
+    @Test
+    public void executeDetectsMemoryPressureFromUsageAfterCollection() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.isUnderMemoryPressure(), is(true));
+    }
+
+    @Test
+    public void executeFallsBackToCurrentUsageIfPoolDoesNotProvideUsageAfterCollection() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(null);
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.isUnderMemoryPressure(), is(true));
+    }
+
+    @Test
+    public void executeNeverModifiesThresholdsOfMemoryPool() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockMemoryPool, never()).setUsageThreshold(anyLong());
+        verify(mockMemoryPool, never()).setCollectionUsageThreshold(anyLong());
+    }
+
+    @Test
+    public void executeKeepsMemoryPressureBetweenWatermarks() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(
+            new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE),
+            new MemoryUsage(0L, 700L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        target.execute();
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.isUnderMemoryPressure(), is(true));
+    }
+
+    @Test
+    public void executeEvictsToLoweredBoundariesUnderMemoryPressure() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(1500L, 1500L, 500L);
+        when(mockBeaconCache.evictOldestRecords(anyLong(), anyInt())).thenReturn(10);
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.getEffectiveUpperBound(), is(1000L));
+        assertThat(target.getEffectiveLowerBound(), is(500L));
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1000L, 0);
+        verify(mockBeaconCache, times(3)).getNumBytesInCache();
+    }
+
+    @Test
+    public void executeAppliesConfiguredBoundaryFactor() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6, 0.25);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(1500L, 1500L, 250L);
+        when(mockBeaconCache.evictOldestRecords(anyLong(), anyInt())).thenReturn(10);
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.getEffectiveUpperBound(), is(500L));
+        assertThat(target.getEffectiveLowerBound(), is(250L));
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1250L, 0);
+    }
+
+    @Test
+    public void executeDoesNotEvictIfCacheIsBelowLoweredUpperBoundary() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(1000L);
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockBeaconCache, times(1)).getNumBytesInCache();
+        verify(mockBeaconCache, times(0)).evictOldestRecords(anyLong(), anyInt());
+    }
+
+    @Test
+    public void executeRestoresBoundariesIfUsageAfterCollectionDropsBelowLowWatermark() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(0.8, 0.6);
+        MemoryPressureEvictionStrategy target = createTarget(configuration);
+        when(mockMemoryPool.getCollectionUsage()).thenReturn(
+            new MemoryUsage(0L, 900L, MAX_POOL_SIZE, MAX_POOL_SIZE),
+            new MemoryUsage(0L, 500L, MAX_POOL_SIZE, MAX_POOL_SIZE));
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(1000L);
+        target.execute();
+        reset(mockBeaconCache);
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(3000L);
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(target.isUnderMemoryPressure(), is(false));
+        verifyZeroInteractions(mockBeaconCache);
+    }
+
+    private MemoryPressureEvictionStrategy createTarget(BeaconCacheConfiguration configuration) {
+        return new MemoryPressureEvictionStrategy(mockLogger, mockBeaconCache, configuration, mockMemoryPool);
+    }
+
+    private BeaconCacheConfiguration mockBeaconCacheConfig(double highWatermark, double lowWatermark) {
+        return mockBeaconCacheConfig(highWatermark, lowWatermark,
+            ConfigurationDefaults.DEFAULT_MEMORY_PRESSURE_BOUNDARY_FACTOR);
+    }
+
+    private BeaconCacheConfiguration mockBeaconCacheConfig(double highWatermark,
+                                                           double lowWatermark,
+                                                           double boundaryFactor) {
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheLowerMemoryBoundary()).thenReturn(1000L);
+        when(builder.getBeaconCacheUpperMemoryBoundary()).thenReturn(2000L);
+        when(builder.getBeaconCacheMemoryPressureHighWatermark()).thenReturn(highWatermark);
+        when(builder.getBeaconCacheMemoryPressureLowWatermark()).thenReturn(lowWatermark);
+        when(builder.getBeaconCacheMemoryPressureBoundaryFactor()).thenReturn(boundaryFactor);
+
+        return BeaconCacheConfiguration.from(builder);
+    }
+}
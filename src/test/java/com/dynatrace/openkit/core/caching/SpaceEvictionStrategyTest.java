@@ -17,22 +17,29 @@
 package com.dynatrace.openkit.core.caching;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.SpaceEvictionMode;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -208,8 +215,8 @@ public class SpaceEvictionStrategyTest {
 
         // then
         verify(mockBeaconCache, times(5)).getNumBytesInCache();
-        verify(mockBeaconCache, times(1)).evictRecordsByNumber(keyTwo, 1);
-        verify(mockBeaconCache, times(1)).evictRecordsByNumber(keyOne, 1);
+        verify(mockBeaconCache, times(1)).evictRecordsByNumber(eq(keyTwo), eq(1), any(RecordPriority.class));
+        verify(mockBeaconCache, times(1)).evictRecordsByNumber(eq(keyOne), eq(1), any(RecordPriority.class));
     }
 
     @Test
@@ -229,8 +236,8 @@ public class SpaceEvictionStrategyTest {
         BeaconKey keyOne = new BeaconKey(42, 0);
         BeaconKey keyTwo = new BeaconKey(1, 0);
         when(mockBeaconCache.getBeaconKeys()).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
-        when(mockBeaconCache.evictRecordsByNumber(eq(keyTwo), anyInt())).thenReturn(5);
-        when(mockBeaconCache.evictRecordsByNumber(eq(keyOne), anyInt())).thenReturn(1);
+        when(mockBeaconCache.evictRecordsByNumber(eq(keyTwo), anyInt(), any(RecordPriority.class))).thenReturn(5);
+        when(mockBeaconCache.evictRecordsByNumber(eq(keyOne), anyInt(), any(RecordPriority.class))).thenReturn(1);
 
         when(mockLogger.isDebugEnabled()).thenReturn(true);
 
@@ -260,8 +267,8 @@ public class SpaceEvictionStrategyTest {
         BeaconKey keyOne = new BeaconKey(42, 0);
         BeaconKey keyTwo = new BeaconKey(1, 0);
         when(mockBeaconCache.getBeaconKeys()).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
-        when(mockBeaconCache.evictRecordsByNumber(eq(keyTwo), anyInt())).thenReturn(5);
-        when(mockBeaconCache.evictRecordsByNumber(eq(keyOne), anyInt())).thenReturn(1);
+        when(mockBeaconCache.evictRecordsByNumber(eq(keyTwo), anyInt(), any(RecordPriority.class))).thenReturn(5);
+        when(mockBeaconCache.evictRecordsByNumber(eq(keyOne), anyInt(), any(RecordPriority.class))).thenReturn(1);
 
         when(mockLogger.isDebugEnabled()).thenReturn(false);
 
@@ -299,8 +306,8 @@ public class SpaceEvictionStrategyTest {
 
         // then
         verify(mockBeaconCache, times(8)).getNumBytesInCache();
-        verify(mockBeaconCache, times(2)).evictRecordsByNumber(keyTwo, 1);
-        verify(mockBeaconCache, times(2)).evictRecordsByNumber(keyOne, 1);
+        verify(mockBeaconCache, times(2)).evictRecordsByNumber(eq(keyTwo), eq(1), any(RecordPriority.class));
+        verify(mockBeaconCache, times(2)).evictRecordsByNumber(eq(keyOne), eq(1), any(RecordPriority.class));
     }
 
     @Test
@@ -322,7 +329,7 @@ public class SpaceEvictionStrategyTest {
         );
         when(mockBeaconCache.getBeaconKeys())
                 .thenReturn(new HashSet<BeaconKey>(Arrays.asList(new BeaconKey(42, 0), new BeaconKey(1, 0))));
-        when(mockBeaconCache.evictRecordsByNumber(any(BeaconKey.class), eq(1))).then(new Answer<Integer>() {
+        when(mockBeaconCache.evictRecordsByNumber(any(BeaconKey.class), eq(1), any(RecordPriority.class))).then(new Answer<Integer>() {
             @Override
             public Integer answer(InvocationOnMock invocation) {
                 Thread.currentThread().interrupt(); // interrupt current thread - just to test, if it stopped
@@ -335,7 +342,7 @@ public class SpaceEvictionStrategyTest {
 
         // then
         verify(mockBeaconCache, times(3)).getNumBytesInCache();
-        verify(mockBeaconCache, times(1)).evictRecordsByNumber(any(BeaconKey.class), eq(1));
+        verify(mockBeaconCache, times(1)).evictRecordsByNumber(any(BeaconKey.class), eq(1), any(RecordPriority.class));
 
         // and verify that the thread interrupted flag is still set
         assertThat(Thread.interrupted(), is(true)); // will also clear the interrupted flag, which we definitely want
@@ -365,7 +372,147 @@ public class SpaceEvictionStrategyTest {
 
         // then
         verify(mockBeaconCache, times(8)).getNumBytesInCache();
-        verify(mockBeaconCache, times(3)).evictRecordsByNumber(any(BeaconKey.class), eq(1));
+        verify(mockBeaconCache, times(3)).evictRecordsByNumber(any(BeaconKey.class), eq(1), any(RecordPriority.class));
+    }
+
+    @Test
+    public void executeEvictionInRoundRobinModeEvictsLowerPrioritiesOfAllBeaconsFirst() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 6L, 10L);
+        BeaconCacheImpl beaconCache = new BeaconCacheImpl(mockLogger);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, beaconCache, configuration);
+
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        beaconCache.addEventData(keyOne, 1000L, "aa", RecordPriority.CRITICAL);
+        beaconCache.addEventData(keyOne, 1001L, "bb", RecordPriority.CRITICAL);
+        beaconCache.addEventData(keyOne, 1002L, "cc", RecordPriority.CRITICAL);
+        beaconCache.addEventData(keyTwo, 1003L, "dd", RecordPriority.LOW);
+        beaconCache.addEventData(keyTwo, 1004L, "ee", RecordPriority.LOW);
+        beaconCache.addEventData(keyTwo, 1005L, "ff", RecordPriority.LOW);
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(beaconCache.getNumBytesInCache(), is(6L));
+        assertThat(beaconCache.getEvents(keyOne), is(equalTo(new String[]{"aa", "bb", "cc"})));
+        assertThat(beaconCache.getEvents(keyTwo), is(emptyArray()));
+    }
+
+    @Test
+    public void executeEvictionInRoundRobinModeStepsUpPriorityAfterPassWithoutEvictedRecords() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, mockBeaconCache, configuration);
+
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(configuration.getCacheSizeUpperBound() + 1);
+        BeaconKey key = new BeaconKey(42, 0);
+        when(mockBeaconCache.getBeaconKeys()).thenReturn(Collections.singleton(key));
+        when(mockBeaconCache.evictRecordsByNumber(key, 1, RecordPriority.LOW)).thenReturn(1, 1, 0);
+
+        // when
+        target.execute();
+
+        // then
+        InOrder inOrder = inOrder(mockBeaconCache);
+        inOrder.verify(mockBeaconCache, times(3)).evictRecordsByNumber(key, 1, RecordPriority.LOW);
+        inOrder.verify(mockBeaconCache, times(1)).evictRecordsByNumber(key, 1, RecordPriority.NORMAL);
+        inOrder.verify(mockBeaconCache, times(1)).evictRecordsByNumber(key, 1, RecordPriority.HIGH);
+        inOrder.verify(mockBeaconCache, times(1)).evictRecordsByNumber(key, 1, RecordPriority.CRITICAL);
+        verify(mockBeaconCache, times(6)).evictRecordsByNumber(eq(key), eq(1), any(RecordPriority.class));
+    }
+
+    @Test
+    public void executeEvictionInOldestFirstModeEvictsBytesExceedingLowerBoundAtOnce() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L, SpaceEvictionMode.OLDEST_FIRST, 5);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, mockBeaconCache, configuration);
+
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(
+            configuration.getCacheSizeUpperBound() + 1, // shouldRun method
+            configuration.getCacheSizeUpperBound() + 1, // first pass
+            configuration.getCacheSizeLowerBound(), // second pass
+            0L // just for safety
+        );
+        when(mockBeaconCache.evictOldestRecords(anyLong(), anyInt())).thenReturn(10);
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockBeaconCache, times(3)).getNumBytesInCache();
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1001L, 5);
+        verifyNoMoreInteractions(mockBeaconCache);
+    }
+
+    @Test
+    public void executeEvictionInOldestFirstModeIgnoresMinRecordsPerBeaconIfEvictionIsNotSufficient() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L, SpaceEvictionMode.OLDEST_FIRST, 5);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, mockBeaconCache, configuration);
+
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(
+            configuration.getCacheSizeUpperBound() + 1, // shouldRun method
+            configuration.getCacheSizeUpperBound() + 1, // first pass
+            configuration.getCacheSizeUpperBound() + 1, // second pass
+            configuration.getCacheSizeLowerBound(), // third pass
+            0L // just for safety
+        );
+        when(mockBeaconCache.evictOldestRecords(anyLong(), eq(5))).thenReturn(0);
+        when(mockBeaconCache.evictOldestRecords(anyLong(), eq(0))).thenReturn(3);
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockBeaconCache, times(4)).getNumBytesInCache();
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1001L, 5);
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1001L, 0);
+        verifyNoMoreInteractions(mockBeaconCache);
+    }
+
+    @Test
+    public void executeEvictionInOldestFirstModeStopsIfNoMoreRecordsCanBeEvicted() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L, SpaceEvictionMode.OLDEST_FIRST, 0);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, mockBeaconCache, configuration);
+
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(configuration.getCacheSizeUpperBound() + 1);
+        when(mockBeaconCache.evictOldestRecords(anyLong(), anyInt())).thenReturn(0);
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockBeaconCache, times(2)).getNumBytesInCache();
+        verify(mockBeaconCache, times(1)).evictOldestRecords(1001L, 0);
+        verifyNoMoreInteractions(mockBeaconCache);
+    }
+
+    @Test
+    public void executeEvictionInOldestFirstModeStopsIfThreadGetsInterrupted() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L, SpaceEvictionMode.OLDEST_FIRST, 0);
+        SpaceEvictionStrategy target = new SpaceEvictionStrategy(mockLogger, mockBeaconCache, configuration);
+
+        when(mockBeaconCache.getNumBytesInCache()).thenReturn(configuration.getCacheSizeUpperBound() + 1);
+        when(mockBeaconCache.evictOldestRecords(anyLong(), anyInt())).then(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) {
+                Thread.currentThread().interrupt(); // interrupt current thread - just to test, if it stopped
+                return 5;
+            }
+        });
+
+        // when
+        target.execute();
+
+        // then
+        verify(mockBeaconCache, times(1)).evictOldestRecords(anyLong(), anyInt());
+
+        // and verify that the thread interrupted flag is still set
+        assertThat(Thread.interrupted(), is(true)); // will also clear the interrupted flag, which we definitely want
     }
 
     private BeaconCacheConfiguration mockBeaconCacheConfig(long maxRecordAge, long lowerSizeBound, long upperSizeBound) {
@@ -377,4 +524,16 @@ public class SpaceEvictionStrategyTest {
         BeaconCacheConfiguration config = BeaconCacheConfiguration.from(builder);
         return config;
     }
+
+    private BeaconCacheConfiguration mockBeaconCacheConfig(long maxRecordAge, long lowerSizeBound, long upperSizeBound,
+                                                           SpaceEvictionMode spaceEvictionMode, int minRecordsPerSession) {
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheMaxRecordAge()).thenReturn(maxRecordAge);
+        when(builder.getBeaconCacheLowerMemoryBoundary()).thenReturn(lowerSizeBound);
+        when(builder.getBeaconCacheUpperMemoryBoundary()).thenReturn(upperSizeBound);
+        when(builder.getBeaconCacheSpaceEvictionMode()).thenReturn(spaceEvictionMode);
+        when(builder.getBeaconCacheMinRecordsPerSession()).thenReturn(minRecordsPerSession);
+
+        return BeaconCacheConfiguration.from(builder);
+    }
 }
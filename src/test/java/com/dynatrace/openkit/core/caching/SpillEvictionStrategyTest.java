@@ -0,0 +1,162 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
+import com.dynatrace.openkit.providers.TimingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpillEvictionStrategyTest {
+
+    private Logger mockLogger;
+    private TimingProvider mockTimingProvider;
+    private File directory;
+    private TieredBeaconCache beaconCache;
+
+    @Before
+    public void setUp() throws IOException {
+        mockLogger = mock(Logger.class);
+        mockTimingProvider = mock(TimingProvider.class);
+
+        directory = File.createTempFile("spill-strategy-test", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        beaconCache = new TieredBeaconCache(mockLogger, new BeaconCacheImpl(mockLogger),
+            BeaconCacheSpillFile.create(directory, 4096));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        beaconCache.close();
+        directory.delete();
+    }
+
+    @Test
+    public void theInitialLastRunTimestampIsMinusOne() {
+        // given
+        SpillEvictionStrategy target = createTarget(mockBeaconCacheConfig(1000L, 0L, -1L, -1L));
+
+        // then
+        assertThat(target.getLastRunTimestamp(), is(-1L));
+    }
+
+    @Test
+    public void executeSpillsBeaconsWithoutNewRecordsWithinTheIdleTime() {
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        beaconCache.addEventData(keyOne, 1000L, "a");
+        beaconCache.addEventData(keyTwo, 2500L, "b");
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(3000L);
+
+        SpillEvictionStrategy target = createTarget(mockBeaconCacheConfig(1000L, 0L, -1L, -1L));
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(beaconCache.getHotCache().getEvents(keyOne), is(emptyArray()));
+        assertThat(beaconCache.getHotCache().getEvents(keyTwo), is(equalTo(new String[]{"b"})));
+        assertThat(target.getLastRunTimestamp(), is(3000L));
+    }
+
+    @Test
+    public void executeSpillsBeaconsExceedingTheSessionQuota() {
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        beaconCache.addEventData(keyOne, 1000L, "aaaa");
+        beaconCache.addEventData(keyTwo, 1000L, "b");
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L);
+
+        SpillEvictionStrategy target = createTarget(mockBeaconCacheConfig(0L, 2L, -1L, -1L));
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(beaconCache.getHotCache().getEvents(keyOne), is(emptyArray()));
+        assertThat(beaconCache.getHotCache().getEvents(keyTwo), is(equalTo(new String[]{"b"})));
+    }
+
+    @Test
+    public void executeChecksForColdBeaconsAtMostOncePerInterval() {
+        // given
+        BeaconKey key = new BeaconKey(1, 0);
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 1000L + SpillEvictionStrategy.SPILL_CHECK_INTERVAL_IN_MILLIS - 1);
+
+        SpillEvictionStrategy target = createTarget(mockBeaconCacheConfig(0L, 2L, -1L, -1L));
+        target.execute();
+        beaconCache.addEventData(key, 1000L, "aaaa");
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(beaconCache.getHotCache().getEvents(key), is(equalTo(new String[]{"aaaa"})));
+        assertThat(target.getLastRunTimestamp(), is(1000L));
+    }
+
+    @Test
+    public void executeSpillsLeastRecentlyUsedBeaconsIfUpperMemoryBoundaryIsExceeded() {
+        // given
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        beaconCache.addEventData(keyOne, 1000L, "aaaa");
+        beaconCache.addEventData(keyTwo, 2000L, "bbbb");
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(2000L);
+
+        SpillEvictionStrategy target = createTarget(mockBeaconCacheConfig(0L, 0L, 5L, 6L));
+
+        // when
+        target.execute();
+
+        // then
+        assertThat(beaconCache.getHotCache().getEvents(keyOne), is(emptyArray()));
+        assertThat(beaconCache.getHotCache().getEvents(keyTwo), is(equalTo(new String[]{"bbbb"})));
+        assertThat(beaconCache.getNumBytesInCache(), is(4L));
+        assertThat(beaconCache.getNumBytesSpilled(), is(4L));
+    }
+
+    private SpillEvictionStrategy createTarget(BeaconCacheConfiguration configuration) {
+        return new SpillEvictionStrategy(mockLogger, beaconCache, configuration, mockTimingProvider);
+    }
+
+    private BeaconCacheConfiguration mockBeaconCacheConfig(long idleTime, long sessionQuota, long lowerSizeBound, long upperSizeBound) {
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheSpillIdleTime()).thenReturn(idleTime);
+        when(builder.getBeaconCacheSpillSessionQuota()).thenReturn(sessionQuota);
+        when(builder.getBeaconCacheLowerMemoryBoundary()).thenReturn(lowerSizeBound);
+        when(builder.getBeaconCacheUpperMemoryBoundary()).thenReturn(upperSizeBound);
+
+        return BeaconCacheConfiguration.from(builder);
+    }
+}
@@ -0,0 +1,388 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.caching;
+
+import com.dynatrace.openkit.api.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TieredBeaconCacheTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private Logger logger;
+    private File directory;
+    private BeaconCacheSpillFile spillFile;
+
+    @Before
+    public void setUp() throws IOException {
+        logger = mock(Logger.class);
+        when(logger.isDebugEnabled()).thenReturn(true);
+
+        directory = File.createTempFile("tiered-cache-test", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        spillFile = BeaconCacheSpillFile.create(directory, 4096);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        spillFile.close();
+        directory.delete();
+    }
+
+    @Test
+    public void spillMovesRecordsFromHeapToSpillFile() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "event");
+        target.addActionData(key, 1001L, "action");
+
+        // when
+        boolean obtained = target.spill(key);
+
+        // then
+        assertThat(obtained, is(true));
+        assertThat(target.getNumBytesInCache(), is(0L));
+        assertThat(target.getNumBytesSpilled(), is(11L));
+        assertThat(target.getHotCache().getEvents(key), is(emptyArray()));
+        assertThat(target.getHotCache().getActions(key), is(emptyArray()));
+        assertThat(target.isEmpty(key), is(false));
+    }
+
+    @Test
+    public void spillReturnsFalseIfThereAreNoRecordsOnTheHeap() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+
+        // then
+        assertThat(target.spill(key), is(false));
+        assertThat(target.isEmpty(key), is(true));
+        assertThat(target.getBeaconKeys().isEmpty(), is(true));
+    }
+
+    @Test
+    public void spillKeepsRecordsOnTheHeapIfTheSpillFileIsFull() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, new String(new char[4096]));
+
+        // when
+        boolean obtained = target.spill(key);
+
+        // then
+        assertThat(obtained, is(false));
+        assertThat(target.getNumBytesInCache(), is(4096L));
+        assertThat(target.getNumBytesSpilled(), is(0L));
+    }
+
+    @Test
+    public void getNextBeaconChunkRestoresSpilledRecordsBeforeRecordsOnTheHeap() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.addActionData(key, 1001L, "b");
+        target.spill(key);
+        target.addEventData(key, 1002L, "c");
+        target.spill(key);
+        target.addEventData(key, 1003L, "d");
+        target.addActionData(key, 1004L, "e");
+
+        // when
+        String obtained = BeaconCacheRecord.decode(target.getNextBeaconChunk(key, "prefix", 1024, '&'));
+
+        // then
+        assertThat(obtained, is(equalTo("prefix&a&c&d&b&e")));
+        assertThat(target.getNumBytesSpilled(), is(0L));
+        assertThat(target.getNumBytesInCache(), is(0L));
+        assertThat(spillFile.getNumLiveBytes(), is(0));
+    }
+
+    @Test
+    public void resetChunkedDataKeepsRestoredRecordsOnTheHeap() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.spill(key);
+        target.getNextBeaconChunk(key, "prefix", 1024, '&');
+
+        // when
+        target.resetChunkedData(key);
+
+        // then
+        assertThat(target.getHotCache().getEvents(key), is(equalTo(new String[]{"a"})));
+        assertThat(target.getNumBytesInCache(), is(1L));
+        assertThat(target.getNumBytesSpilled(), is(0L));
+    }
+
+    @Test
+    public void deleteCacheEntryReleasesSpilledRecords() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.spill(key);
+
+        // when
+        target.deleteCacheEntry(key);
+
+        // then
+        assertThat(target.getNumBytesSpilled(), is(0L));
+        assertThat(spillFile.getNumLiveBytes(), is(0));
+        assertThat(target.isEmpty(key), is(true));
+        assertThat(target.getBeaconKeys().isEmpty(), is(true));
+    }
+
+    @Test
+    public void getBeaconKeysContainsBeaconsOnTheHeapAndSpilledBeacons() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        target.addEventData(keyOne, 1000L, "a");
+        target.addEventData(keyTwo, 1000L, "b");
+        target.spill(keyTwo);
+
+        // then
+        assertThat(target.getBeaconKeys(), containsInAnyOrder(keyOne, keyTwo));
+    }
+
+    @Test
+    public void pollBeaconKeysWithRecordsOlderThanContainsSpilledBeaconsWithExpiredRecords() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        target.addEventData(keyOne, MINUTE, "a");
+        target.spill(keyOne);
+        target.addEventData(keyTwo, 5 * MINUTE, "b");
+        target.spill(keyTwo);
+
+        // then
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE), containsInAnyOrder(keyOne));
+    }
+
+    @Test
+    public void pollBeaconKeysWithRecordsOlderThanDoesNotReturnSpilledBeaconsAgainUntilTheyAreEvicted() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, MINUTE, "a");
+        target.addEventData(key, 5 * MINUTE, "b");
+        target.spill(key);
+        target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE);
+
+        // when
+        Set<BeaconKey> obtained = target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE);
+
+        // then
+        assertThat(obtained.isEmpty(), is(true));
+
+        // and when
+        target.evictRecordsByAge(key, 3 * MINUTE);
+
+        // then
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE).isEmpty(), is(true));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(6 * MINUTE), containsInAnyOrder(key));
+    }
+
+    @Test
+    public void reindexBeaconsRegistersPolledSpilledBeaconsAgain() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, MINUTE, "a");
+        target.spill(key);
+        Set<BeaconKey> polledKeys = target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE);
+
+        // when
+        target.reindexBeacons(polledKeys);
+
+        // then
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE), containsInAnyOrder(key));
+    }
+
+    @Test
+    public void restoredSpilledRecordsAreRemovedFromTheSpilledTimeIndex() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, MINUTE, "a");
+        target.spill(key);
+
+        // when
+        target.getNextBeaconChunk(key, "prefix", 1024, '&');
+
+        // then
+        assertThat(target.getSpilledTimeIndex().getNumberOfBuckets(), is(0));
+    }
+
+    @Test
+    public void deletedSpilledBeaconsAreRemovedFromTheSpilledTimeIndex() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, MINUTE, "a");
+        target.spill(key);
+
+        // when
+        target.deleteCacheEntry(key);
+
+        // then
+        assertThat(target.getSpilledTimeIndex().getNumberOfBuckets(), is(0));
+        assertThat(target.pollBeaconKeysWithRecordsOlderThan(3 * MINUTE).isEmpty(), is(true));
+    }
+
+    @Test
+    public void evictRecordsByAgeEvictsSpilledRecords() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.spill(key);
+        target.addEventData(key, 2000L, "b");
+        target.addActionData(key, 3000L, "c");
+        target.spill(key);
+        target.addEventData(key, 1500L, "d");
+
+        // when
+        int obtained = target.evictRecordsByAge(key, 2500L);
+
+        // then
+        assertThat(obtained, is(3));
+        assertThat(target.getNumBytesSpilled(), is(1L));
+        assertThat(BeaconCacheRecord.decode(target.getNextBeaconChunk(key, "prefix", 1024, '&')), is(equalTo("prefix&c")));
+    }
+
+    @Test
+    public void evictRecordsByAgeKeepsSpilledRecordsWhichCouldNotBeRead() throws IOException {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 2000L, "b");
+        target.addActionData(key, 3000L, "c");
+        target.spill(key);
+        spillFile.close();
+
+        // when
+        int obtained = target.evictRecordsByAge(key, 2500L);
+
+        // then
+        assertThat(obtained, is(0));
+        assertThat(target.getNumBytesSpilled(), is(2L));
+        assertThat(target.isEmpty(key), is(false));
+    }
+
+    @Test
+    public void spillColdBeaconsSpillsIdleBeacons() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        target.addEventData(keyOne, 1000L, "a");
+        target.addEventData(keyTwo, 1000L, "b");
+        target.addEventData(keyTwo, 3000L, "c");
+
+        // when
+        int obtained = target.spillColdBeacons(2000L, Long.MAX_VALUE);
+
+        // then
+        assertThat(obtained, is(1));
+        assertThat(target.getHotCache().getEvents(keyOne), is(emptyArray()));
+        assertThat(target.getHotCache().getEvents(keyTwo), is(equalTo(new String[]{"b", "c"})));
+    }
+
+    @Test
+    public void spillColdBeaconsSpillsBeaconsExceedingTheQuota() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        target.addEventData(keyOne, 1000L, "aaaa");
+        target.addEventData(keyTwo, 1000L, "b");
+
+        // when
+        int obtained = target.spillColdBeacons(Long.MIN_VALUE, 3L);
+
+        // then
+        assertThat(obtained, is(1));
+        assertThat(target.getHotCache().getEvents(keyOne), is(emptyArray()));
+        assertThat(target.getNumBytesInCache(), is(1L));
+        assertThat(target.getNumBytesSpilled(), is(4L));
+    }
+
+    @Test
+    public void spillLeastRecentlyUsedBeaconsSpillsBeaconsWithOldestNewestRecordFirst() {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(2, 0);
+        BeaconKey keyThree = new BeaconKey(3, 0);
+        target.addEventData(keyOne, 3000L, "aa");
+        target.addEventData(keyTwo, 1000L, "bb");
+        target.addEventData(keyTwo, 2000L, "bb");
+        target.addEventData(keyThree, 1500L, "cc");
+
+        // when
+        int obtained = target.spillLeastRecentlyUsedBeacons(3L);
+
+        // then
+        assertThat(obtained, is(2));
+        assertThat(target.getHotCache().getEvents(keyOne), is(equalTo(new String[]{"aa"})));
+        assertThat(target.getHotCache().getEvents(keyTwo), is(emptyArray()));
+        assertThat(target.getHotCache().getEvents(keyThree), is(emptyArray()));
+    }
+
+    @Test
+    public void closeDiscardsSpilledRecordsAndDeletesTheSpillFile() throws IOException {
+        // given
+        TieredBeaconCache target = createTarget();
+        BeaconKey key = new BeaconKey(1, 0);
+        target.addEventData(key, 1000L, "a");
+        target.spill(key);
+
+        // when
+        target.close();
+
+        // then
+        assertThat(target.getNumBytesSpilled(), is(0L));
+        assertThat(spillFile.getFile().exists(), is(false));
+    }
+
+    private TieredBeaconCache createTarget() {
+        return new TieredBeaconCache(logger, new BeaconCacheImpl(logger), spillFile);
+    }
+}
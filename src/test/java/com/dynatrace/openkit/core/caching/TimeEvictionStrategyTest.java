@@ -23,16 +23,23 @@ import com.dynatrace.openkit.core.configuration.BeaconCacheConfiguration;
 import com.dynatrace.openkit.providers.TimingProvider;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
@@ -231,13 +238,13 @@ public class TimeEvictionStrategyTest {
         TimeEvictionStrategy target = new TimeEvictionStrategy(mockLogger, mockBeaconCache, configuration, mockTimingProvider);
 
         when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2000L);
-        when(mockBeaconCache.getBeaconKeys()).thenReturn(Collections.<BeaconKey>emptySet());
+        when(mockBeaconCache.pollBeaconKeysWithRecordsOlderThan(anyLong())).thenReturn(Collections.<BeaconKey>emptySet());
 
         // when
         target.execute();
 
         // then verify interactions
-        verify(mockBeaconCache, times(1)).getBeaconKeys();
+        verify(mockBeaconCache, times(1)).pollBeaconKeysWithRecordsOlderThan(2000L - configuration.getMaxRecordAge());
         verify(mockTimingProvider, times(3)).provideTimestampInMilliseconds();
         verifyNoMoreInteractions(mockBeaconCache, mockTimingProvider);
 
@@ -254,13 +261,13 @@ public class TimeEvictionStrategyTest {
         when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2099L);
         BeaconKey keyOne = new BeaconKey(1, 0);
         BeaconKey keyTwo = new BeaconKey(42, 0);
-        when(mockBeaconCache.getBeaconKeys()).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
+        when(mockBeaconCache.pollBeaconKeysWithRecordsOlderThan(anyLong())).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
 
         // when
         target.execute();
 
         // then verify interactions
-        verify(mockBeaconCache, times(1)).getBeaconKeys();
+        verify(mockBeaconCache, times(1)).pollBeaconKeysWithRecordsOlderThan(2099L - configuration.getMaxRecordAge());
         verify(mockBeaconCache, times(1)).evictRecordsByAge(keyOne, 2099L - configuration.getMaxRecordAge());
         verify(mockBeaconCache, times(1)).evictRecordsByAge(keyTwo, 2099L - configuration.getMaxRecordAge());
         verify(mockTimingProvider, times(3)).provideTimestampInMilliseconds();
@@ -279,7 +286,7 @@ public class TimeEvictionStrategyTest {
         when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2099L);
         BeaconKey keyOne = new BeaconKey(1, 0);
         BeaconKey keyTwo = new BeaconKey(42, 0);
-        when(mockBeaconCache.getBeaconKeys()).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
+        when(mockBeaconCache.pollBeaconKeysWithRecordsOlderThan(anyLong())).thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo)));
         when(mockBeaconCache.evictRecordsByAge(eq(keyOne), anyLong())).thenReturn(2);
         when(mockBeaconCache.evictRecordsByAge(eq(keyTwo), anyLong())).thenReturn(5);
 
@@ -302,7 +309,7 @@ public class TimeEvictionStrategyTest {
         TimeEvictionStrategy target = new TimeEvictionStrategy(mockLogger, mockBeaconCache, configuration, mockTimingProvider);
 
         when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2099L);
-        when(mockBeaconCache.getBeaconKeys())
+        when(mockBeaconCache.pollBeaconKeysWithRecordsOlderThan(anyLong()))
                 .thenReturn(new HashSet<BeaconKey>(Arrays.asList(new BeaconKey(1, 0), new BeaconKey(42, 0))));
         when(mockBeaconCache.evictRecordsByAge(any(BeaconKey.class), anyLong())).thenAnswer(new Answer<Integer>() {
             @Override
@@ -316,8 +323,9 @@ public class TimeEvictionStrategyTest {
         target.execute();
 
         // then verify interactions
-        verify(mockBeaconCache, times(1)).getBeaconKeys();
+        verify(mockBeaconCache, times(1)).pollBeaconKeysWithRecordsOlderThan(2099L - configuration.getMaxRecordAge());
         verify(mockBeaconCache, times(1)).evictRecordsByAge(any(BeaconKey.class), eq(2099L - configuration.getMaxRecordAge()));
+        verify(mockBeaconCache, times(1)).reindexBeacons(anyCollectionOf(BeaconKey.class));
         verify(mockTimingProvider, times(3)).provideTimestampInMilliseconds();
         verifyNoMoreInteractions(mockBeaconCache, mockTimingProvider);
 
@@ -325,6 +333,43 @@ public class TimeEvictionStrategyTest {
         assertThat(Thread.interrupted(), is(true));
     }
 
+    @Test
+    public void executeEvictionRegistersRemainingBeaconsAgainIfThreadGetsInterrupted() {
+        // given
+        BeaconCacheConfiguration configuration = mockBeaconCacheConfig(1000L, 1000L, 2000L);
+        TimeEvictionStrategy target = new TimeEvictionStrategy(mockLogger, mockBeaconCache, configuration, mockTimingProvider);
+
+        BeaconKey keyOne = new BeaconKey(1, 0);
+        BeaconKey keyTwo = new BeaconKey(42, 0);
+        BeaconKey keyThree = new BeaconKey(43, 0);
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2099L);
+        when(mockBeaconCache.pollBeaconKeysWithRecordsOlderThan(anyLong()))
+                .thenReturn(new HashSet<BeaconKey>(Arrays.asList(keyOne, keyTwo, keyThree)));
+        final List<BeaconKey> evictedKeys = new ArrayList<BeaconKey>();
+        when(mockBeaconCache.evictRecordsByAge(any(BeaconKey.class), anyLong())).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) {
+                evictedKeys.add((BeaconKey) invocation.getArguments()[0]);
+                Thread.currentThread().interrupt();
+                return 2;
+            }
+        });
+
+        // when
+        target.execute();
+
+        // then
+        ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(mockBeaconCache, times(1)).reindexBeacons(captor.capture());
+        Set<BeaconKey> processedKeys = new HashSet<BeaconKey>(evictedKeys);
+        processedKeys.addAll(captor.getValue());
+        assertThat(evictedKeys.size() + captor.getValue().size(), is(3));
+        assertThat(processedKeys, containsInAnyOrder(keyOne, keyTwo, keyThree));
+
+        // clear the interrupted flag, since the thread is actually not really interrupted
+        assertThat(Thread.interrupted(), is(true));
+    }
+
     private BeaconCacheConfiguration mockBeaconCacheConfig(long maxRecordAge, long lowerSizeBound, long upperSizeBound) {
         AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
         when(builder.getBeaconCacheMaxRecordAge()).thenReturn(maxRecordAge);
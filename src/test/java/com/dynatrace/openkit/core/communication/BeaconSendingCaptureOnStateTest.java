@@ -17,9 +17,13 @@
 package com.dynatrace.openkit.core.communication;
 
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.caching.BeaconKey;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.caching.SpooledBeacon;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
 import com.dynatrace.openkit.core.objects.SessionImpl;
 import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
+import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.protocol.HTTPClient;
 import com.dynatrace.openkit.protocol.ResponseAttributes;
 import com.dynatrace.openkit.protocol.ResponseAttributesImpl;
@@ -38,6 +42,9 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -442,6 +449,188 @@ public class BeaconSendingCaptureOnStateTest {
         assertThat(argumentCaptor.getAllValues().get(0).sleepTimeInMilliseconds, is(equalTo(12345L)));
     }
 
+    @Test
+    public void finishedSessionsAreSentConcurrentlyIfSendingParallelismIsGreaterThanOne() {
+        // given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+
+        StatusResponse successResponse = StatusResponse.createErrorResponse(mock(Logger.class), StatusResponse.HTTP_OK);
+        when(mockSession3Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockSession4Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        when(mockContext.sendBeacons(anyListOf(SessionImpl.class), any(BeaconSendingWorkerPool.StopCondition.class)))
+                .thenReturn(new BeaconSendingResult(new SessionImpl[] { mockSession3Finished, mockSession4Finished },
+                        new StatusResponse[] { successResponse, successResponse }, new boolean[] { true, true }));
+
+        // when
+        target.execute(mockContext);
+
+        // then
+        verify(mockContext, times(1)).sendBeacons(eq(Arrays.asList(mockSession3Finished, mockSession4Finished)),
+                any(BeaconSendingWorkerPool.StopCondition.class));
+        verify(mockSession3Finished, times(0)).sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class));
+        verify(mockContext, times(1)).removeSession(mockSession3Finished);
+        verify(mockContext, times(1)).removeSession(mockSession4Finished);
+    }
+
+    @Test
+    public void concurrentlySentFinishedSessionsAreOnlyRemovedIfSendingWorked() {
+        // given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+
+        StatusResponse successResponse = StatusResponse.createErrorResponse(mock(Logger.class), StatusResponse.HTTP_OK);
+        StatusResponse errorResponse = StatusResponse.createErrorResponse(mock(Logger.class), StatusResponse.HTTP_BAD_REQUEST);
+        when(mockSession3Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockSession3Finished.isEmpty()).thenReturn(false);
+        when(mockSession4Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        when(mockContext.sendBeacons(anyListOf(SessionImpl.class), any(BeaconSendingWorkerPool.StopCondition.class)))
+                .thenReturn(new BeaconSendingResult(new SessionImpl[] { mockSession3Finished, mockSession4Finished },
+                        new StatusResponse[] { errorResponse, successResponse }, new boolean[] { true, true }));
+
+        // when
+        target.execute(mockContext);
+
+        // then
+        verify(mockContext, times(0)).removeSession(mockSession3Finished);
+        verify(mockContext, times(1)).removeSession(mockSession4Finished);
+    }
+
+    @Test
+    public void concurrentlySendingFinishedSessionsKeepsNotSentSessionsAndSwitchesToCaptureOffOnTooManyRequests() {
+        // given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+
+        StatusResponse tooManyRequestsResponse = StatusResponse.createErrorResponse(mock(Logger.class),
+                StatusResponse.HTTP_TOO_MANY_REQUESTS);
+        when(mockSession3Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockSession4Finished.isDataSendingAllowed()).thenReturn(true);
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        when(mockContext.sendBeacons(anyListOf(SessionImpl.class), any(BeaconSendingWorkerPool.StopCondition.class)))
+                .thenReturn(new BeaconSendingResult(new SessionImpl[] { mockSession3Finished, mockSession4Finished },
+                        new StatusResponse[] { tooManyRequestsResponse, null }, new boolean[] { true, false }));
+
+        // when
+        target.execute(mockContext);
+
+        // then
+        verify(mockContext, times(0)).removeSession(mockSession3Finished);
+        verify(mockContext, times(0)).removeSession(mockSession4Finished);
+        verify(mockContext, times(1)).setNextState(isA(BeaconSendingCaptureOffState.class));
+    }
+
+    @Test
+    public void openSessionsAreSentConcurrentlyIfSendingParallelismIsGreaterThanOne() {
+        // given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        when(mockContext.getLastOpenSessionBeaconSendTime()).thenReturn(21L);
+        when(mockContext.getSendInterval()).thenReturn(20);
+        when(mockContext.sendBeacons(anyListOf(SessionImpl.class), any(BeaconSendingWorkerPool.StopCondition.class)))
+                .thenReturn(new BeaconSendingResult(new SessionImpl[0], new StatusResponse[0], new boolean[0]));
+
+        // when
+        target.execute(mockContext);
+
+        // then
+        verify(mockContext, times(1)).sendBeacons(Collections.singletonList(mockSession1Open),
+                BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+        verify(mockSession2Open, times(1)).clearCapturedData();
+        verify(mockContext, times(1)).setLastOpenSessionBeaconSendTime(42L);
+    }
+
+    @Test
+    public void aBeaconSendingCaptureOnStateReplaysNextChunkOfSpooledBeacon() {
+        //given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+        SpooledBeacon spooledBeacon = createSpooledBeacon();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockBeaconSpool.getReplayInterval()).thenReturn(10L);
+        when(mockBeaconSpool.getNextBeaconToReplay()).thenReturn(spooledBeacon);
+        HTTPClient mockHTTPClient = mock(HTTPClient.class);
+        when(mockHTTPClient.sendBeaconRequest(anyString(), any(byte[].class), any(AdditionalQueryParameters.class)))
+                .thenReturn(StatusResponse.createSuccessResponse(mock(Logger.class),
+                        ResponseAttributesImpl.withJsonDefaults().build(), 200, Collections.<String, List<String>>emptyMap()));
+        when(mockContext.getHTTPClient()).thenReturn(mockHTTPClient);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+        when(mockContext.getLastSpoolReplayTime()).thenReturn(32L);
+
+        //when calling execute
+        target.execute(mockContext);
+
+        // then
+        byte[] expectedChunk = spooledBeacon.getNextChunk(Beacon.createChunkPrefix(spooledBeacon, 42L));
+        verify(mockHTTPClient, times(1)).sendBeaconRequest(eq("127.0.0.1"), eq(expectedChunk), eq(mockContext));
+        verify(mockBeaconSpool, times(1)).removeReplayedChunk(spooledBeacon);
+        verify(mockContext, times(1)).setLastSpoolReplayTime(42L);
+    }
+
+    @Test
+    public void aBeaconSendingCaptureOnStateDoesNotReplaySpooledBeaconBeforeReplayIntervalElapsed() {
+        //given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockBeaconSpool.getReplayInterval()).thenReturn(10L);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+        when(mockContext.getLastSpoolReplayTime()).thenReturn(33L);
+
+        //when calling execute
+        target.execute(mockContext);
+
+        // then
+        verify(mockBeaconSpool, times(0)).getNextBeaconToReplay();
+        verify(mockContext, times(0)).setLastSpoolReplayTime(org.mockito.Matchers.anyLong());
+    }
+
+    @Test
+    public void aBeaconSendingCaptureOnStateKeepsSpooledChunkIfReplayWasUnsuccessful() {
+        //given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+        SpooledBeacon spooledBeacon = createSpooledBeacon();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockBeaconSpool.getNextBeaconToReplay()).thenReturn(spooledBeacon);
+        HTTPClient mockHTTPClient = mock(HTTPClient.class);
+        when(mockHTTPClient.sendBeaconRequest(anyString(), any(byte[].class), any(AdditionalQueryParameters.class)))
+                .thenReturn(StatusResponse.createErrorResponse(mock(Logger.class), 500));
+        when(mockContext.getHTTPClient()).thenReturn(mockHTTPClient);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+
+        //when calling execute
+        target.execute(mockContext);
+
+        // then
+        verify(mockHTTPClient, times(1)).sendBeaconRequest(anyString(), any(byte[].class), any(AdditionalQueryParameters.class));
+        verify(mockBeaconSpool, times(0)).removeReplayedChunk(any(SpooledBeacon.class));
+    }
+
+    @Test
+    public void replayingSpooledBeaconsTransitionsToCaptureOffStateWhenTooManyRequestsResponseIsReceived() {
+        //given
+        BeaconSendingCaptureOnState target = new BeaconSendingCaptureOnState();
+        StatusResponse statusResponse = mock(StatusResponse.class);
+        when(statusResponse.getResponseCode()).thenReturn(StatusResponse.HTTP_TOO_MANY_REQUESTS);
+        when(statusResponse.isErroneousResponse()).thenReturn(true);
+        when(statusResponse.getRetryAfterInMilliseconds()).thenReturn(12345L);
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockBeaconSpool.getNextBeaconToReplay()).thenReturn(createSpooledBeacon());
+        HTTPClient mockHTTPClient = mock(HTTPClient.class);
+        when(mockHTTPClient.sendBeaconRequest(anyString(), any(byte[].class), any(AdditionalQueryParameters.class)))
+                .thenReturn(statusResponse);
+        when(mockContext.getHTTPClient()).thenReturn(mockHTTPClient);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+
+        //when calling execute
+        target.execute(mockContext);
+
+        // then
+        verifyZeroInteractions(mockSession1Open, mockSession2Open);
+        ArgumentCaptor<BeaconSendingCaptureOffState> argumentCaptor = ArgumentCaptor.forClass(BeaconSendingCaptureOffState.class);
+        verify(mockContext, times(1)).setNextState(argumentCaptor.capture());
+        assertThat(argumentCaptor.getAllValues().size(), is(equalTo(1)));
+        assertThat(argumentCaptor.getAllValues().get(0).sleepTimeInMilliseconds, is(equalTo(12345L)));
+    }
+
     @Test
     public void aBeaconSendingCaptureOnStateSendsOpenSessionsIfNotExpired() {
         //given
@@ -528,4 +717,9 @@ public class BeaconSendingCaptureOnStateTest {
 
         verify(mockContext, times(1)).setNextState(isA(BeaconSendingCaptureOffState.class));
     }
+
+    private static SpooledBeacon createSpooledBeacon() {
+        return new SpooledBeacon(new BeaconKey(1, 0), "127.0.0.1", "vv=3&sn=1&vs=1", 0L, 1,
+                Collections.singletonList(new byte[]{'&', 'e', 't', '=', '1'}));
+    }
 }
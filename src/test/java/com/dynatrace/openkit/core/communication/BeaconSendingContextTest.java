@@ -34,6 +34,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -1064,6 +1065,51 @@ public class BeaconSendingContextTest {
         assertThat(obtained, is(true));
     }
 
+    @Test
+    public void sendingParallelismIsOneByDefault() {
+        // given
+        BeaconSendingContext target = createBeaconSendingContext().build();
+
+        // then
+        assertThat(target.getSendingParallelism(), is(1));
+    }
+
+    @Test
+    public void sendingParallelismIsTakenOverFromConstructor() {
+        // given
+        BeaconSendingContext target = createBeaconSendingContext().withSendingParallelism(4).build();
+
+        // then
+        assertThat(target.getSendingParallelism(), is(4));
+    }
+
+    @Test
+    public void sendingParallelismIsAtLeastOne() {
+        // given
+        BeaconSendingContext target = createBeaconSendingContext().withSendingParallelism(0).build();
+
+        // then
+        assertThat(target.getSendingParallelism(), is(1));
+    }
+
+    @Test
+    public void sendBeaconsSendsSessionsWithHttpClientProviderAndContextAsAdditionalParameters() {
+        // given
+        SessionImpl mockSessionOne = mock(SessionImpl.class);
+        SessionImpl mockSessionTwo = mock(SessionImpl.class);
+        BeaconSendingContext target = createBeaconSendingContext().withSendingParallelism(2).build();
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(mockSessionOne, mockSessionTwo),
+                BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+        target.shutdownSendingWorkers();
+
+        // then
+        assertThat(obtained.size(), is(2));
+        verify(mockSessionOne, times(1)).sendBeacon(httpClientProvider, target);
+        verify(mockSessionTwo, times(1)).sendBeacon(httpClientProvider, target);
+    }
+
     private TestBeaconSendingContextBuilder createBeaconSendingContext() {
         TestBeaconSendingContextBuilder builder = new TestBeaconSendingContextBuilder();
         builder.logger = logger;
@@ -1081,18 +1127,26 @@ public class BeaconSendingContextTest {
         private HTTPClientProvider httpClientProvider;
         private TimingProvider timingProvider;
         private AbstractBeaconSendingState initState;
+        private int sendingParallelism = 1;
 
         private TestBeaconSendingContextBuilder with(AbstractBeaconSendingState initState) {
             this.initState = initState;
             return this;
         }
 
+        private TestBeaconSendingContextBuilder withSendingParallelism(int sendingParallelism) {
+            this.sendingParallelism = sendingParallelism;
+            return this;
+        }
+
         private BeaconSendingContext build() {
             return new BeaconSendingContext(
                     logger,
                     httpClientConfig,
                     httpClientProvider,
                     timingProvider,
+                    null,
+                    sendingParallelism,
                     initState
             );
         }
@@ -16,6 +16,7 @@
 
 package com.dynatrace.openkit.core.communication;
 
+import com.dynatrace.openkit.core.caching.BeaconSpool;
 import com.dynatrace.openkit.core.objects.SessionImpl;
 import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
 import com.dynatrace.openkit.protocol.HTTPClient;
@@ -23,6 +24,9 @@ import com.dynatrace.openkit.protocol.StatusResponse;
 import com.dynatrace.openkit.providers.HTTPClientProvider;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.Arrays;
 
@@ -30,8 +34,10 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -149,6 +155,86 @@ public class BeaconSendingFlushSessionsStateTest {
                 .sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class));
     }
 
+    @Test
+    public void aBeaconSendingFlushSessionStateSendsFinishedSessionsConcurrentlyIfSendingParallelismIsGreaterThanOne() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+
+        // when
+        target.doExecute(mockContext);
+
+        // then
+        verify(mockContext, times(1)).sendBeacons(Arrays.asList(mockSession3Closed, mockSession2Open, mockSession1Open),
+                BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+        verify(mockSession1Open, times(0))
+                .sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class));
+        verify(mockContext, times(1)).removeSession(mockSession1Open);
+        verify(mockContext, times(1)).removeSession(mockSession2Open);
+        verify(mockContext, times(1)).removeSession(mockSession3Closed);
+    }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateSendsFinishedSessionsConcurrentlyIfThreadIsInterrupted() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        final boolean[] interruptedWhileSending = new boolean[]{true};
+        when(mockContext.sendBeacons(anyListOf(SessionImpl.class), any(BeaconSendingWorkerPool.StopCondition.class)))
+                .thenAnswer(new Answer<BeaconSendingResult>() {
+                    @Override
+                    public BeaconSendingResult answer(InvocationOnMock invocation) {
+                        interruptedWhileSending[0] = Thread.currentThread().isInterrupted();
+                        return null;
+                    }
+                });
+
+        // when
+        Thread.currentThread().interrupt();
+        target.doExecute(mockContext);
+
+        // then
+        assertThat(interruptedWhileSending[0], is(false));
+        // verify that the interrupted flag is restored & clear it, since the thread is actually not really interrupted
+        assertThat(Thread.interrupted(), is(true));
+    }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateSpoolsDataOfConcurrentlySentSessionsNotBeingEmpty() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+        when(mockContext.getSendingParallelism()).thenReturn(2);
+        when(mockSession3Closed.isEmpty()).thenReturn(false);
+        when(mockSession2Open.isEmpty()).thenReturn(true);
+        when(mockSession1Open.isEmpty()).thenReturn(true);
+
+        // when
+        target.doExecute(mockContext);
+
+        // then
+        verify(mockSession3Closed, times(1)).spoolCapturedData(mockBeaconSpool);
+        verify(mockSession2Open, times(0)).spoolCapturedData(mockBeaconSpool);
+        verify(mockSession1Open, times(0)).spoolCapturedData(mockBeaconSpool);
+    }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateShutsDownSendingWorkers() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+
+        // when
+        target.doExecute(mockContext);
+
+        // then
+        verify(mockContext, times(1)).shutdownSendingWorkers();
+    }
+
     @Test
     public void aBeaconSendingFlushSessionStateDoesNotSendIfSendingIsNotAllowed() {
 
@@ -200,4 +286,75 @@ public class BeaconSendingFlushSessionsStateTest {
         verify(mockSession2Open, times(1)).clearCapturedData();
         verify(mockSession3Closed, times(1)).clearCapturedData();
     }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateSpoolsDataWhichWasNotSent() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+
+        StatusResponse tooManyRequestsReceived = mock(StatusResponse.class);
+        when(tooManyRequestsReceived.isErroneousResponse()).thenReturn(true);
+        when(tooManyRequestsReceived.getResponseCode()).thenReturn(StatusResponse.HTTP_TOO_MANY_REQUESTS);
+
+        when(mockSession3Closed.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class)))
+                .thenReturn(tooManyRequestsReceived);
+
+        // when
+        target.doExecute(mockContext);
+
+        // verify that the data is spooled before it gets cleared and the spool is persisted
+        InOrder inOrder = inOrder(mockSession3Closed, mockBeaconSpool);
+        inOrder.verify(mockSession3Closed, times(1)).spoolCapturedData(mockBeaconSpool);
+        inOrder.verify(mockSession3Closed, times(1)).clearCapturedData();
+        inOrder.verify(mockBeaconSpool, times(1)).persist();
+        verify(mockSession1Open, times(1)).spoolCapturedData(mockBeaconSpool);
+        verify(mockSession2Open, times(1)).spoolCapturedData(mockBeaconSpool);
+    }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateDoesNotSpoolSessionsWhichWereSent() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+        when(mockSession1Open.isEmpty()).thenReturn(true);
+        when(mockSession2Open.isEmpty()).thenReturn(true);
+        when(mockSession3Closed.isEmpty()).thenReturn(true);
+
+        // when
+        target.doExecute(mockContext);
+
+        // then
+        verify(mockSession1Open, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockSession2Open, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockSession3Closed, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockBeaconSpool, times(1)).persist();
+    }
+
+    @Test
+    public void aBeaconSendingFlushSessionStateDoesNotSpoolIfSendingIsNotAllowed() {
+
+        // given
+        BeaconSendingFlushSessionsState target = new BeaconSendingFlushSessionsState();
+        BeaconSpool mockBeaconSpool = mock(BeaconSpool.class);
+        when(mockContext.getBeaconSpool()).thenReturn(mockBeaconSpool);
+        when(mockSession1Open.isDataSendingAllowed()).thenReturn(false);
+        when(mockSession2Open.isDataSendingAllowed()).thenReturn(false);
+        when(mockSession3Closed.isDataSendingAllowed()).thenReturn(false);
+
+        // when
+        target.doExecute(mockContext);
+
+        // then
+        verify(mockSession1Open, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockSession2Open, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockSession3Closed, times(0)).spoolCapturedData(any(BeaconSpool.class));
+        verify(mockSession1Open, times(1)).clearCapturedData();
+        verify(mockSession2Open, times(1)).clearCapturedData();
+        verify(mockSession3Closed, times(1)).clearCapturedData();
+    }
 }
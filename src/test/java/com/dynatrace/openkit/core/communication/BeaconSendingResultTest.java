@@ -0,0 +1,90 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.communication;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.objects.SessionImpl;
+import com.dynatrace.openkit.protocol.StatusResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class BeaconSendingResultTest {
+
+    private Logger mockLogger;
+    private SessionImpl[] sessions;
+
+    @Before
+    public void setUp() {
+        mockLogger = mock(Logger.class);
+        sessions = new SessionImpl[] { mock(SessionImpl.class), mock(SessionImpl.class), mock(SessionImpl.class) };
+    }
+
+    @Test
+    public void aggregatedResponseIsNullIfNoSessionWasSent() {
+        // given
+        BeaconSendingResult target = new BeaconSendingResult(sessions,
+            new StatusResponse[] { null, null, null }, new boolean[] { false, false, false });
+
+        // then
+        assertThat(target.getAggregatedResponse(), is(nullValue()));
+    }
+
+    @Test
+    public void aggregatedResponseIsResponseOfLastSentSession() {
+        // given
+        StatusResponse first = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_OK);
+        StatusResponse second = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_BAD_REQUEST);
+        BeaconSendingResult target = new BeaconSendingResult(sessions,
+            new StatusResponse[] { first, second, null }, new boolean[] { true, true, false });
+
+        // then
+        assertThat(target.getAggregatedResponse(), is(sameInstance(second)));
+    }
+
+    @Test
+    public void aggregatedResponseIsTooManyRequestsResponseIfAnyWasReceived() {
+        // given
+        StatusResponse tooManyRequests = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_TOO_MANY_REQUESTS);
+        StatusResponse success = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_OK);
+        BeaconSendingResult target = new BeaconSendingResult(sessions,
+            new StatusResponse[] { success, tooManyRequests, success }, new boolean[] { true, true, true });
+
+        // then
+        assertThat(target.getAggregatedResponse(), is(sameInstance(tooManyRequests)));
+    }
+
+    @Test
+    public void resultsAreReturnedInOrderOfSessions() {
+        // given
+        StatusResponse response = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_OK);
+        BeaconSendingResult target = new BeaconSendingResult(sessions,
+            new StatusResponse[] { null, response, null }, new boolean[] { true, true, false });
+
+        // then
+        assertThat(target.size(), is(3));
+        assertThat(target.getSession(1), is(sameInstance(sessions[1])));
+        assertThat(target.getResponse(1), is(sameInstance(response)));
+        assertThat(target.isSent(0), is(true));
+        assertThat(target.isSent(2), is(false));
+    }
+}
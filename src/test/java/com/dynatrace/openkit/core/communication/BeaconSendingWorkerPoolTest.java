@@ -0,0 +1,256 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.communication;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.objects.SessionImpl;
+import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
+import com.dynatrace.openkit.protocol.StatusResponse;
+import com.dynatrace.openkit.providers.HTTPClientProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BeaconSendingWorkerPoolTest {
+
+    private Logger mockLogger;
+    private HTTPClientProvider mockClientProvider;
+    private AdditionalQueryParameters mockParameters;
+    private StatusResponse successResponse;
+    private StatusResponse tooManyRequestsResponse;
+
+    private BeaconSendingWorkerPool target;
+
+    @Before
+    public void setUp() {
+        mockLogger = mock(Logger.class);
+        mockClientProvider = mock(HTTPClientProvider.class);
+        mockParameters = mock(AdditionalQueryParameters.class);
+        successResponse = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_OK);
+        tooManyRequestsResponse = StatusResponse.createErrorResponse(mockLogger, StatusResponse.HTTP_TOO_MANY_REQUESTS);
+    }
+
+    @After
+    public void tearDown() {
+        if (target != null) {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelismIsTakenOverFromConstructor() {
+        // given
+        target = new BeaconSendingWorkerPool(mockLogger, 4);
+
+        // then
+        assertThat(target.getParallelism(), is(4));
+    }
+
+    @Test
+    public void sendBeaconsWithoutSessionsReturnsEmptyResult() {
+        // given
+        target = new BeaconSendingWorkerPool(mockLogger, 2);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Collections.<SessionImpl>emptyList(), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        assertThat(obtained.size(), is(0));
+        assertThat(obtained.getAggregatedResponse(), is(nullValue()));
+    }
+
+    @Test
+    public void sendBeaconsSendsEachSessionOnce() {
+        // given
+        SessionImpl session1 = createSession(successResponse);
+        SessionImpl session2 = createSession(null);
+        SessionImpl session3 = createSession(successResponse);
+        target = new BeaconSendingWorkerPool(mockLogger, 2);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(session1, session2, session3), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        verify(session1, times(1)).sendBeacon(mockClientProvider, mockParameters);
+        verify(session2, times(1)).sendBeacon(mockClientProvider, mockParameters);
+        verify(session3, times(1)).sendBeacon(mockClientProvider, mockParameters);
+
+        assertThat(obtained.size(), is(3));
+        assertThat(obtained.getSession(0), is(sameInstance(session1)));
+        assertThat(obtained.getSession(1), is(sameInstance(session2)));
+        assertThat(obtained.getSession(2), is(sameInstance(session3)));
+        assertThat(obtained.isSent(0), is(true));
+        assertThat(obtained.isSent(1), is(true));
+        assertThat(obtained.isSent(2), is(true));
+        assertThat(obtained.getResponse(0), is(sameInstance(successResponse)));
+        assertThat(obtained.getResponse(1), is(nullValue()));
+        assertThat(obtained.getResponse(2), is(sameInstance(successResponse)));
+    }
+
+    @Test
+    public void sendBeaconsSendsSessionsConcurrently() {
+        // given
+        final CountDownLatch latch = new CountDownLatch(2);
+        Answer<StatusResponse> awaitOtherSession = new Answer<StatusResponse>() {
+            @Override
+            public StatusResponse answer(InvocationOnMock invocation) throws Throwable {
+                latch.countDown();
+                // only succeeds if both sessions are sent at the same time
+                return latch.await(5, TimeUnit.SECONDS) ? successResponse : null;
+            }
+        };
+        SessionImpl session1 = mock(SessionImpl.class);
+        SessionImpl session2 = mock(SessionImpl.class);
+        when(session1.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class))).thenAnswer(awaitOtherSession);
+        when(session2.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class))).thenAnswer(awaitOtherSession);
+        target = new BeaconSendingWorkerPool(mockLogger, 2);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(session1, session2), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        assertThat(obtained.getResponse(0), is(sameInstance(successResponse)));
+        assertThat(obtained.getResponse(1), is(sameInstance(successResponse)));
+    }
+
+    @Test
+    public void sendBeaconsStopsSendingOnceStopConditionIsMet() {
+        // given
+        SessionImpl session1 = createSession(tooManyRequestsResponse);
+        SessionImpl session2 = createSession(successResponse);
+        target = new BeaconSendingWorkerPool(mockLogger, 1);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(session1, session2), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        verify(session1, times(1)).sendBeacon(mockClientProvider, mockParameters);
+        verify(session2, never()).sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class));
+
+        assertThat(obtained.isSent(0), is(true));
+        assertThat(obtained.isSent(1), is(false));
+        assertThat(obtained.getAggregatedResponse(), is(sameInstance(tooManyRequestsResponse)));
+    }
+
+    @Test
+    public void sessionThrowingExceptionIsNotSentAndRemainingSessionsAreSent() {
+        // given
+        SessionImpl session1 = mock(SessionImpl.class);
+        when(session1.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class)))
+            .thenThrow(new IllegalStateException("test"));
+        SessionImpl session2 = createSession(successResponse);
+        target = new BeaconSendingWorkerPool(mockLogger, 1);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(session1, session2), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        assertThat(obtained.isSent(0), is(false));
+        assertThat(obtained.isSent(1), is(true));
+        verify(mockLogger, times(1)).error(anyString(), isA(IllegalStateException.class));
+    }
+
+    @Test
+    public void sendBeaconsWaitsForWorkersAndRestoresInterruptedFlag() {
+        // given
+        SessionImpl session1 = mock(SessionImpl.class);
+        when(session1.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class)))
+            .thenAnswer(interruptWhileSending(Thread.currentThread(), successResponse));
+        target = new BeaconSendingWorkerPool(mockLogger, 1);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Collections.singletonList(session1), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(obtained.isSent(0), is(true));
+        assertThat(obtained.getResponse(0), is(sameInstance(successResponse)));
+    }
+
+    @Test
+    public void sendBeaconsStopsSendingIfCallingThreadIsInterrupted() {
+        // given
+        SessionImpl session1 = mock(SessionImpl.class);
+        when(session1.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class)))
+            .thenAnswer(interruptWhileSending(Thread.currentThread(), successResponse));
+        SessionImpl session2 = createSession(successResponse);
+        target = new BeaconSendingWorkerPool(mockLogger, 1);
+
+        // when
+        BeaconSendingResult obtained = target.sendBeacons(Arrays.asList(session1, session2), mockClientProvider,
+            mockParameters, BeaconSendingWorkerPool.TOO_MANY_REQUESTS);
+
+        // then
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(obtained.isSent(0), is(true));
+        assertThat(obtained.isSent(1), is(false));
+        verify(session2, never()).sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class));
+    }
+
+    /**
+     * Answer interrupting the calling thread while the session is sent, and returning the given response
+     * after the calling thread handled the interrupt and waits for the worker again.
+     */
+    private static Answer<StatusResponse> interruptWhileSending(final Thread callingThread, final StatusResponse response) {
+        return new Answer<StatusResponse>() {
+            @Override
+            public StatusResponse answer(InvocationOnMock invocation) throws Throwable {
+                callingThread.interrupt();
+
+                // the interrupted flag is cleared, when the calling thread handles the interrupt
+                long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+                while ((callingThread.isInterrupted() || callingThread.getState() != Thread.State.WAITING)
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                return response;
+            }
+        };
+    }
+
+    private SessionImpl createSession(StatusResponse response) {
+        SessionImpl session = mock(SessionImpl.class);
+        when(session.sendBeacon(any(HTTPClientProvider.class), any(AdditionalQueryParameters.class))).thenReturn(response);
+        return session;
+    }
+}
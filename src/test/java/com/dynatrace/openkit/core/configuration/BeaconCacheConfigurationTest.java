@@ -17,8 +17,11 @@
 package com.dynatrace.openkit.core.configuration;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.SpaceEvictionMode;
 import org.junit.Test;
 
+import java.io.File;
+
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -172,4 +175,112 @@ public class BeaconCacheConfigurationTest {
         verify(builder, times(1)).getBeaconCacheUpperMemoryBoundary();
         assertThat(obtained.getCacheSizeUpperBound(), is(upperBound));
     }
+
+    @Test
+    public void spaceEvictionModeIsTakenOverFromOpenKitBuilder() {
+        // given
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheSpaceEvictionMode()).thenReturn(SpaceEvictionMode.OLDEST_FIRST);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconCacheSpaceEvictionMode();
+        assertThat(obtained.getSpaceEvictionMode(), is(SpaceEvictionMode.OLDEST_FIRST));
+    }
+
+    @Test
+    public void minRecordsPerBeaconIsTakenOverFromOpenKitBuilder() {
+        // given
+        int minRecordsPerSession = 37;
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheMinRecordsPerSession()).thenReturn(minRecordsPerSession);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconCacheMinRecordsPerSession();
+        assertThat(obtained.getMinRecordsPerBeacon(), is(minRecordsPerSession));
+    }
+
+    @Test
+    public void memoryPressureWatermarksAreTakenOverFromOpenKitBuilder() {
+        // given
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheMemoryPressureHighWatermark()).thenReturn(0.8);
+        when(builder.getBeaconCacheMemoryPressureLowWatermark()).thenReturn(0.6);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconCacheMemoryPressureHighWatermark();
+        verify(builder, times(1)).getBeaconCacheMemoryPressureLowWatermark();
+        assertThat(obtained.getMemoryPressureHighWatermark(), is(0.8));
+        assertThat(obtained.getMemoryPressureLowWatermark(), is(0.6));
+    }
+
+    @Test
+    public void memoryPressureBoundaryFactorIsTakenOverFromOpenKitBuilder() {
+        // given
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheMemoryPressureBoundaryFactor()).thenReturn(0.25);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconCacheMemoryPressureBoundaryFactor();
+        assertThat(obtained.getMemoryPressureBoundaryFactor(), is(0.25));
+    }
+
+    @Test
+    public void spillSettingsAreTakenOverFromOpenKitBuilder() {
+        // given
+        File spillDirectory = new File("spill");
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconCacheSpillDirectory()).thenReturn(spillDirectory);
+        when(builder.getBeaconCacheSpillIdleTime()).thenReturn(1000L);
+        when(builder.getBeaconCacheSpillSessionQuota()).thenReturn(2000L);
+        when(builder.getBeaconCacheSpillFileSize()).thenReturn(3000L);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconCacheSpillDirectory();
+        verify(builder, times(1)).getBeaconCacheSpillIdleTime();
+        verify(builder, times(1)).getBeaconCacheSpillSessionQuota();
+        verify(builder, times(1)).getBeaconCacheSpillFileSize();
+        assertThat(obtained.getSpillDirectory(), is(spillDirectory));
+        assertThat(obtained.getSpillIdleTime(), is(1000L));
+        assertThat(obtained.getSpillSessionQuota(), is(2000L));
+        assertThat(obtained.getSpillFileSize(), is(3000L));
+    }
+
+    @Test
+    public void spoolSettingsAreTakenOverFromOpenKitBuilder() {
+        // given
+        File spoolDirectory = new File("spool");
+        AbstractOpenKitBuilder builder = mock(AbstractOpenKitBuilder.class);
+        when(builder.getBeaconSpoolDirectory()).thenReturn(spoolDirectory);
+        when(builder.getBeaconSpoolReplayInterval()).thenReturn(500L);
+        when(builder.getBeaconSpoolMaxSize()).thenReturn(4096L);
+        when(builder.getBeaconSpoolMaxRecordAge()).thenReturn(60000L);
+
+        // when
+        BeaconCacheConfiguration obtained = BeaconCacheConfiguration.from(builder);
+
+        // then
+        verify(builder, times(1)).getBeaconSpoolDirectory();
+        verify(builder, times(1)).getBeaconSpoolReplayInterval();
+        verify(builder, times(1)).getBeaconSpoolMaxSize();
+        verify(builder, times(1)).getBeaconSpoolMaxRecordAge();
+        assertThat(obtained.getSpoolDirectory(), is(spoolDirectory));
+        assertThat(obtained.getSpoolReplayInterval(), is(500L));
+        assertThat(obtained.getSpoolMaxSize(), is(4096L));
+        assertThat(obtained.getSpoolMaxRecordAge(), is(60000L));
+    }
 }
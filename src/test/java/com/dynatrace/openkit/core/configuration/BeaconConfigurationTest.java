@@ -465,6 +465,54 @@ public class BeaconConfigurationTest {
         assertThat(obtained.getMultiplicity(), is(equalTo(initialServerConfig.getMultiplicity())));
     }
 
+    @Test
+    public void getCaptureMaskCombinesPrivacyAndServerConfiguration() {
+        // given
+        when(privacyConfiguration.isEventReportingAllowed()).thenReturn(true);
+        ServerConfiguration serverConfig = mockServerConfig(true);
+        when(serverConfig.isSendingDataAllowed()).thenReturn(true);
+        BeaconConfiguration target = createBeaconConfig();
+        target.updateServerConfiguration(serverConfig);
+
+        // when
+        int obtained = target.getCaptureMask();
+
+        // then
+        assertThat(obtained, is(equalTo(CaptureMask.DATA | CaptureMask.EVENT)));
+    }
+
+    @Test
+    public void getCaptureMaskIsOnlyEvaluatedOnceWhileConfigurationIsUnchanged() {
+        // given
+        ServerConfiguration serverConfig = mockServerConfig(true);
+        when(serverConfig.isSendingDataAllowed()).thenReturn(true);
+        BeaconConfiguration target = createBeaconConfig();
+        target.updateServerConfiguration(serverConfig);
+
+        // when
+        target.getCaptureMask();
+        target.getCaptureMask();
+
+        // then
+        verify(serverConfig, times(1)).isSendingDataAllowed();
+    }
+
+    @Test
+    public void disableCaptureUpdatesCaptureMask() {
+        // given
+        when(privacyConfiguration.isEventReportingAllowed()).thenReturn(true);
+        BeaconConfiguration target = createBeaconConfig();
+        target.enableCapture();
+        int maskBefore = target.getCaptureMask();
+
+        // when
+        target.disableCapture();
+
+        // then
+        assertThat(maskBefore, is(equalTo(CaptureMask.DATA | CaptureMask.EVENT)));
+        assertThat(target.getCaptureMask(), is(equalTo(CaptureMask.NONE)));
+    }
+
     private BeaconConfiguration createBeaconConfig() {
         return BeaconConfiguration.from(openKitConfiguration, privacyConfiguration, SERVER_ID);
     }
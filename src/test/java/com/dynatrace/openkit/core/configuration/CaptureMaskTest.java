@@ -0,0 +1,108 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dynatrace.openkit.core.configuration;
+
+import com.dynatrace.openkit.CrashReportingLevel;
+import com.dynatrace.openkit.DataCollectionLevel;
+import com.dynatrace.openkit.DynatraceOpenKitBuilder;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CaptureMaskTest {
+
+    private static final int ALL_FLAGS = CaptureMask.DATA | CaptureMask.SESSION_END | CaptureMask.ACTION
+        | CaptureMask.VALUE | CaptureMask.EVENT | CaptureMask.ERROR | CaptureMask.CRASH | CaptureMask.WEB_REQUEST
+        | CaptureMask.USER_IDENTIFICATION;
+
+    @Test
+    public void allFlagsAreSetIfEverythingIsAllowed() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.USER_BEHAVIOR, CrashReportingLevel.OPT_IN_CRASHES),
+            serverConfig().build());
+
+        // then
+        assertThat(obtained, is(equalTo(ALL_FLAGS)));
+    }
+
+    @Test
+    public void noFlagIsSetIfCaptureIsDisabled() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.USER_BEHAVIOR, CrashReportingLevel.OPT_IN_CRASHES),
+            serverConfig().withCapture(false).build());
+
+        // then
+        assertThat(obtained, is(equalTo(CaptureMask.NONE)));
+    }
+
+    @Test
+    public void noFlagIsSetIfMultiplicityIsZero() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.USER_BEHAVIOR, CrashReportingLevel.OPT_IN_CRASHES),
+            serverConfig().withMultiplicity(0).build());
+
+        // then
+        assertThat(obtained, is(equalTo(CaptureMask.NONE)));
+    }
+
+    @Test
+    public void errorAndCrashFlagsRespectServerConfiguration() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.USER_BEHAVIOR, CrashReportingLevel.OPT_IN_CRASHES),
+            serverConfig().withErrorReporting(false).withCrashReporting(false).build());
+
+        // then
+        assertThat(obtained, is(equalTo(ALL_FLAGS & ~(CaptureMask.ERROR | CaptureMask.CRASH))));
+    }
+
+    @Test
+    public void dataCollectionLevelPerformanceOnlyAllowsPerformanceRelatedData() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.PERFORMANCE, CrashReportingLevel.OFF),
+            serverConfig().build());
+
+        // then
+        assertThat(obtained, is(equalTo(CaptureMask.DATA | CaptureMask.SESSION_END | CaptureMask.ACTION
+            | CaptureMask.ERROR | CaptureMask.WEB_REQUEST)));
+    }
+
+    @Test
+    public void dataCollectionLevelOffOnlyAllowsSessionStart() {
+        // when
+        int obtained = CaptureMask.of(privacyConfig(DataCollectionLevel.OFF, CrashReportingLevel.OFF),
+            serverConfig().build());
+
+        // then
+        assertThat(obtained, is(equalTo(CaptureMask.DATA)));
+    }
+
+    private static PrivacyConfiguration privacyConfig(DataCollectionLevel dataCollectionLevel,
+                                                      CrashReportingLevel crashReportingLevel) {
+        return PrivacyConfiguration.from(new DynatraceOpenKitBuilder("https://localhost", "appID", 1L)
+            .withDataCollectionLevel(dataCollectionLevel)
+            .withCrashReportingLevel(crashReportingLevel));
+    }
+
+    private static ServerConfiguration.Builder serverConfig() {
+        return new ServerConfiguration.Builder(ServerConfiguration.DEFAULT)
+            .withCapture(true)
+            .withMultiplicity(1)
+            .withErrorReporting(true)
+            .withCrashReporting(true);
+    }
+}
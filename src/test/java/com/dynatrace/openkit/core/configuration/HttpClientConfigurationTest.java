@@ -64,6 +64,48 @@ public class HttpClientConfigurationTest {
         assertThat(obtained, is(equalTo(applicationId)));
     }
 
+    @Test
+    public void instanceFromOpenKitConfigTakesOverBeaconCompressionSettings() {
+        // given
+        OpenKitConfiguration openKitConfig = mock(OpenKitConfiguration.class);
+        when(openKitConfig.getBeaconCompressionLevel()).thenReturn(3);
+        when(openKitConfig.getMinBeaconCompressionSize()).thenReturn(100);
+
+        // when
+        HTTPClientConfiguration target = HTTPClientConfiguration.from(openKitConfig);
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(3)));
+        assertThat(target.getMinBeaconCompressionSize(), is(equalTo(100)));
+    }
+
+    @Test
+    public void instanceFromHttpClientConfigTakesOverBeaconCompressionSettings() {
+        // given
+        HTTPClientConfiguration httpConfig = new HTTPClientConfiguration.Builder()
+                .withBeaconCompressionLevel(9)
+                .withMinBeaconCompressionSize(42)
+                .build();
+
+        // when
+        HTTPClientConfiguration target = HTTPClientConfiguration.modifyWith(httpConfig).build();
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(9)));
+        assertThat(target.getMinBeaconCompressionSize(), is(equalTo(42)));
+    }
+
+    @Test
+    public void builderUsesDefaultBeaconCompressionSettings() {
+        // when
+        HTTPClientConfiguration target = new HTTPClientConfiguration.Builder().build();
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(equalTo(ConfigurationDefaults.DEFAULT_BEACON_COMPRESSION_LEVEL)));
+        assertThat(target.getMinBeaconCompressionSize(),
+                is(equalTo(ConfigurationDefaults.DEFAULT_MIN_BEACON_COMPRESSION_SIZE_IN_BYTES)));
+    }
+
     @Test
     public void instanceFromOpenKitConfigTakesOverTrustManager() {
         // given
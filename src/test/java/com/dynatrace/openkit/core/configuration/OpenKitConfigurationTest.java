@@ -17,6 +17,8 @@
 package com.dynatrace.openkit.core.configuration;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.HTTPTransportMode;
+import com.dynatrace.openkit.TimingMode;
 import com.dynatrace.openkit.api.SSLTrustManager;
 import org.junit.Before;
 import org.junit.Test;
@@ -203,4 +205,140 @@ public class OpenKitConfigurationTest {
         assertThat(target.getSSLTrustManager(), is(sameInstance(trustManager)));
         verify(abstractOpenKitBuilder, times(1)).getTrustManager();
     }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesDeferredBeaconSerializationFlag() {
+        // given
+        when(abstractOpenKitBuilder.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.isDeferredBeaconSerializationEnabled(), is(true));
+        verify(abstractOpenKitBuilder, times(1)).isDeferredBeaconSerializationEnabled();
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesValueAggregationSettings() {
+        // given
+        when(abstractOpenKitBuilder.isValueAggregationEnabled()).thenReturn(true);
+        when(abstractOpenKitBuilder.getValueAggregationBuckets()).thenReturn(new double[]{1.0, 10.0});
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.isValueAggregationEnabled(), is(true));
+        assertThat(target.getValueAggregationBuckets().length, is(2));
+        verify(abstractOpenKitBuilder, times(1)).isValueAggregationEnabled();
+        verify(abstractOpenKitBuilder, times(1)).getValueAggregationBuckets();
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesStormSuppressionSettings() {
+        // given
+        when(abstractOpenKitBuilder.getErrorAndEventDeduplicationWindow()).thenReturn(5000L);
+        when(abstractOpenKitBuilder.getMaxErrorsAndEventsPerSecond()).thenReturn(100);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getErrorAndEventDeduplicationWindow(), is(5000L));
+        assertThat(target.getMaxErrorsAndEventsPerSecond(), is(100));
+        verify(abstractOpenKitBuilder, times(1)).getErrorAndEventDeduplicationWindow();
+        verify(abstractOpenKitBuilder, times(1)).getMaxErrorsAndEventsPerSecond();
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesTimingMode() {
+        // given
+        when(abstractOpenKitBuilder.getTimingMode()).thenReturn(TimingMode.MONOTONIC);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getTimingMode(), is(TimingMode.MONOTONIC));
+        verify(abstractOpenKitBuilder, times(1)).getTimingMode();
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesBeaconSendingParallelism() {
+        // given
+        when(abstractOpenKitBuilder.getBeaconSendingParallelism()).thenReturn(8);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getBeaconSendingParallelism(), is(8));
+        verify(abstractOpenKitBuilder, times(1)).getBeaconSendingParallelism();
+    }
+
+    @Test
+    public void beaconSendingParallelismIsAtLeastOne() {
+        // given
+        when(abstractOpenKitBuilder.getBeaconSendingParallelism()).thenReturn(0);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getBeaconSendingParallelism(), is(1));
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesHttpTransportMode() {
+        // given
+        when(abstractOpenKitBuilder.getHTTPTransportMode()).thenReturn(HTTPTransportMode.NIO);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getHTTPTransportMode(), is(HTTPTransportMode.NIO));
+        verify(abstractOpenKitBuilder, times(1)).getHTTPTransportMode();
+    }
+
+    @Test
+    public void httpTransportModeDefaultsToBlockingIfBuilderReturnsNull() {
+        // given
+        when(abstractOpenKitBuilder.getHTTPTransportMode()).thenReturn(null);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getHTTPTransportMode(), is(HTTPTransportMode.BLOCKING));
+    }
+
+    @Test
+    public void creatingAnOpenKitConfigurationFromBuilderCopiesBeaconCompressionSettings() {
+        // given
+        when(abstractOpenKitBuilder.getBeaconCompressionLevel()).thenReturn(6);
+        when(abstractOpenKitBuilder.getMinBeaconCompressionSize()).thenReturn(64);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getBeaconCompressionLevel(), is(6));
+        assertThat(target.getMinBeaconCompressionSize(), is(64));
+        verify(abstractOpenKitBuilder, times(1)).getBeaconCompressionLevel();
+        verify(abstractOpenKitBuilder, times(1)).getMinBeaconCompressionSize();
+    }
+
+    @Test
+    public void timingModeDefaultsToWallClockIfBuilderReturnsNull() {
+        // given
+        when(abstractOpenKitBuilder.getTimingMode()).thenReturn(null);
+
+        // when
+        OpenKitConfiguration target = OpenKitConfiguration.from(abstractOpenKitBuilder);
+
+        // then
+        assertThat(target.getTimingMode(), is(TimingMode.WALL_CLOCK));
+    }
 }
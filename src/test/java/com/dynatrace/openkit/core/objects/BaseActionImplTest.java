@@ -19,9 +19,11 @@ package com.dynatrace.openkit.core.objects;
 import com.dynatrace.openkit.api.Action;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.api.WebRequestTracer;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.protocol.Beacon;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -39,6 +41,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyDouble;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
@@ -46,6 +49,7 @@ import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.endsWith;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -83,6 +87,7 @@ public class BaseActionImplTest {
             }
         });
         when(beacon.getSessionNumber()).thenReturn(17);
+        when(beacon.isCaptureAllowed(anyInt())).thenReturn(true);
 
         openKitComposite = mock(OpenKitComposite.class);
     }
@@ -103,6 +108,51 @@ public class BaseActionImplTest {
         verify(beacon, times(1)).reportEvent(eq(ID_BASE_OFFSET), eq(eventName));
     }
 
+    @Test
+    public void reportEventDoesNotCallBeaconIfEventCaptureIsNotAllowed() {
+        // given
+        when(beacon.isCaptureAllowed(CaptureMask.EVENT)).thenReturn(false);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportEvent("TestEvent");
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(1)).isCaptureAllowed(CaptureMask.EVENT);
+        verify(beacon, times(0)).reportEvent(anyInt(), anyString());
+    }
+
+    @Test
+    public void reportValueDoesNotCallBeaconIfValueCaptureIsNotAllowed() {
+        // given
+        when(beacon.isCaptureAllowed(CaptureMask.VALUE)).thenReturn(false);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        target.reportValue("IntValue", 42);
+        target.reportValue("DoubleValue", 42.0);
+        target.reportValue("StringValue", "42");
+
+        // then
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyInt());
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyDouble());
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyString());
+    }
+
+    @Test
+    public void reportErrorDoesNotCallBeaconIfErrorCaptureIsNotAllowed() {
+        // given
+        when(beacon.isCaptureAllowed(CaptureMask.ERROR)).thenReturn(false);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        target.reportError("TestError", 42, "reason");
+
+        // then
+        verify(beacon, times(0)).reportError(anyInt(), anyString(), anyInt(), anyString());
+    }
+
     @Test
     public void reportEventDoesNothingIfEventNameIsNull() {
         // given
@@ -909,6 +959,187 @@ public class BaseActionImplTest {
         verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyString());
     }
 
+    @Test
+    public void reportValueAggregatesIntAndDoubleValuesIfEnabled() {
+        // given
+        when(beacon.isValueAggregationEnabled()).thenReturn(true);
+        when(beacon.getValueAggregationBuckets()).thenReturn(new double[0]);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        target.reportValue("intValue", 42);
+        target.reportValue("doubleValue", 42.0);
+
+        // then
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyInt());
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyDouble());
+        verify(beacon, times(1)).getValueAggregationBuckets();
+    }
+
+    @Test
+    public void reportStringValueIsNotAggregated() {
+        // given
+        when(beacon.isValueAggregationEnabled()).thenReturn(true);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        target.reportValue("stringValue", "42");
+
+        // then
+        verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "stringValue", "42");
+    }
+
+    @Test
+    public void leaveActionReportsAggregatedValuesBeforeAction() {
+        // given
+        when(beacon.isValueAggregationEnabled()).thenReturn(true);
+        when(beacon.getValueAggregationBuckets()).thenReturn(new double[0]);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+        target.reportValue("value", 1);
+        target.reportValue("value", 5);
+
+        // when
+        target.leaveAction();
+
+        // then
+        InOrder inOrder = inOrder(beacon);
+        inOrder.verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.count", 2);
+        inOrder.verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.sum", 6);
+        inOrder.verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.min", 1);
+        inOrder.verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.max", 5);
+        inOrder.verify(beacon, times(1)).addAction(target);
+    }
+
+    @Test
+    public void valuesExceedingMaxSummariesAreReportedDirectly() {
+        // given
+        when(beacon.isValueAggregationEnabled()).thenReturn(true);
+        when(beacon.getValueAggregationBuckets()).thenReturn(new double[0]);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+        for (int i = 0; i < ValueAggregator.MAX_SUMMARIES; i++) {
+            target.reportValue("value" + i, i);
+        }
+
+        // when
+        target.reportValue("other", 5);
+        target.reportValues(new String[]{"value0", "another"}, new double[]{1.5, 2.5});
+
+        // then
+        verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "other", 5);
+        verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "another", 2.5);
+        verify(beacon, times(0)).reportValue(ID_BASE_OFFSET, "value0", 1.5);
+    }
+
+    @Test
+    public void reportEventsCallsBeaconOnce() {
+        // given
+        String[] eventNames = {"event1", "event2"};
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportEvents(eventNames);
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(1)).reportEvents(ID_BASE_OFFSET, eventNames);
+        verify(beacon, times(0)).reportEvent(anyInt(), anyString());
+    }
+
+    @Test
+    public void reportEventsWithNullNamesDoesNotReportEvents() {
+        // given
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportEvents(null);
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(0)).reportEvents(anyInt(), any(String[].class));
+        verify(logger, times(1)).warning(endsWith("reportEvents: eventNames must not be null"));
+    }
+
+    @Test
+    public void reportIntValuesCallsBeaconOnce() {
+        // given
+        String[] valueNames = {"value1", "value2"};
+        int[] values = {1, 2};
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportValues(valueNames, values);
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(1)).reportValues(ID_BASE_OFFSET, valueNames, values);
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyInt());
+    }
+
+    @Test
+    public void reportDoubleValuesCallsBeaconOnce() {
+        // given
+        String[] valueNames = {"value1", "value2"};
+        double[] values = {1.5, 2.5};
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportValues(valueNames, values);
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(1)).reportValues(ID_BASE_OFFSET, valueNames, values);
+        verify(beacon, times(0)).reportValue(anyInt(), anyString(), anyDouble());
+    }
+
+    @Test
+    public void reportValuesWithDifferentLengthsDoesNotReportValues() {
+        // given
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+
+        // when
+        Action obtained = target.reportValues(new String[]{"value1", "value2"}, new int[]{1});
+
+        // then
+        assertThat(obtained, is(sameInstance((Action) target)));
+        verify(beacon, times(0)).reportValues(anyInt(), any(String[].class), any(int[].class));
+        verify(logger, times(1)).warning(
+            endsWith("reportValues (int): valueNames and values must not be null and must have the same length"));
+    }
+
+    @Test
+    public void reportValuesDoesNothingIfActionIsLeft() {
+        // given
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+        target.leaveAction();
+
+        // when
+        target.reportValues(new String[]{"value"}, new int[]{1});
+        target.reportValues(new String[]{"value"}, new double[]{1.0});
+        target.reportEvents(new String[]{"event"});
+
+        // then
+        verify(beacon, times(0)).reportValues(anyInt(), any(String[].class), any(int[].class));
+        verify(beacon, times(0)).reportValues(anyInt(), any(String[].class), any(double[].class));
+        verify(beacon, times(0)).reportEvents(anyInt(), any(String[].class));
+    }
+
+    @Test
+    public void reportValuesAggregatesValuesIfEnabled() {
+        // given
+        when(beacon.isValueAggregationEnabled()).thenReturn(true);
+        when(beacon.getValueAggregationBuckets()).thenReturn(new double[0]);
+        BaseActionImpl target = new StubBaseActionImpl(logger, openKitComposite, ACTION_NAME, beacon);
+        target.reportValues(new String[]{"value", null, "value"}, new int[]{1, 3, 5});
+
+        // when
+        target.leaveAction();
+
+        // then
+        verify(beacon, times(0)).reportValues(anyInt(), any(String[].class), any(int[].class));
+        verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.count", 2);
+        verify(beacon, times(1)).reportValue(ID_BASE_OFFSET, "value.sum", 6);
+    }
+
     @Test
     public void reportErrorDoesNothingIfActionIsLeft() {
         // given
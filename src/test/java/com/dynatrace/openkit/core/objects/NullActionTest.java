@@ -102,6 +102,45 @@ public class NullActionTest {
         assertThat((NullAction)obtained, is(sameInstance(target)));
     }
 
+    @Test
+    public void reportEventsReturnsSelf() {
+        // given
+        NullAction target = createNullAction();
+
+        // when
+        Action obtained = target.reportEvents(new String[]{"event name"});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullAction.class)));
+        assertThat((NullAction)obtained, is(sameInstance(target)));
+    }
+
+    @Test
+    public void reportIntValuesReturnsSelf() {
+        // given
+        NullAction target = createNullAction();
+
+        // when
+        Action obtained = target.reportValues(new String[]{"value name"}, new int[]{12});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullAction.class)));
+        assertThat((NullAction)obtained, is(sameInstance(target)));
+    }
+
+    @Test
+    public void reportDoubleValuesReturnsSelf() {
+        // given
+        NullAction target = createNullAction();
+
+        // when
+        Action obtained = target.reportValues(new String[]{"value name"}, new double[]{37.73});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullAction.class)));
+        assertThat((NullAction)obtained, is(sameInstance(target)));
+    }
+
     @Test
     public void reportErrorReturnsSelf() {
         // given
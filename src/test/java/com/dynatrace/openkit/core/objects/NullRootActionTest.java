@@ -110,6 +110,45 @@ public class NullRootActionTest {
         assertThat((NullRootAction)obtained, is(sameInstance(target)));
     }
 
+    @Test
+    public void reportEventsReturnsSelf() {
+        // given
+        NullRootAction target = NullRootAction.INSTANCE;
+
+        // when
+        Action obtained = target.reportEvents(new String[]{"event name"});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullRootAction.class)));
+        assertThat((NullRootAction)obtained, is(sameInstance(target)));
+    }
+
+    @Test
+    public void reportIntValuesReturnsSelf() {
+        // given
+        NullRootAction target = NullRootAction.INSTANCE;
+
+        // when
+        Action obtained = target.reportValues(new String[]{"value name"}, new int[]{12});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullRootAction.class)));
+        assertThat((NullRootAction)obtained, is(sameInstance(target)));
+    }
+
+    @Test
+    public void reportDoubleValuesReturnsSelf() {
+        // given
+        NullRootAction target = NullRootAction.INSTANCE;
+
+        // when
+        Action obtained = target.reportValues(new String[]{"value name"}, new double[]{37.73});
+
+        // then
+        assertThat(obtained, is(instanceOf(NullRootAction.class)));
+        assertThat((NullRootAction)obtained, is(sameInstance(target)));
+    }
+
     @Test
     public void reportErrorReturnsSelf() {
         // given
@@ -24,14 +24,19 @@ import com.dynatrace.openkit.core.SessionWatchdog;
 import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconCacheEvictor;
 import com.dynatrace.openkit.core.caching.BeaconCacheImpl;
+import com.dynatrace.openkit.core.caching.TieredBeaconCache;
 import com.dynatrace.openkit.core.configuration.ConfigurationDefaults;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
+import com.dynatrace.openkit.protocol.Beacon;
+import com.dynatrace.openkit.providers.CoarseTimingProvider;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
 import com.dynatrace.openkit.providers.TimingProvider;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -45,12 +50,15 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.contains;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -73,6 +81,8 @@ public class OpenKitImplTest {
     private BeaconSender beaconSender;
     private BeaconCacheEvictor beaconCacheEvictor;
     private SessionWatchdog sessionWatchdog;
+    private NameDictionary nameDictionary;
+    private Beacon.SharedBeaconData sharedBeaconData;
 
     @Before
     public void setUp() {
@@ -99,6 +109,8 @@ public class OpenKitImplTest {
         beaconSender = mock(BeaconSender.class);
         beaconCacheEvictor = mock(BeaconCacheEvictor.class);
         sessionWatchdog = mock(SessionWatchdog.class);
+        nameDictionary = Beacon.createNameDictionary();
+        sharedBeaconData = Beacon.createSharedBeaconData(openKitConfiguration, privacyConfiguration);
     }
 
     @Test
@@ -246,6 +258,76 @@ public class OpenKitImplTest {
         verifyNoMoreInteractions(sessionWatchdog);
     }
 
+    @Test
+    public void shutdownClosesCloseableTimingProvider() {
+        // given
+        CoarseTimingProvider coarseTimingProvider = mock(CoarseTimingProvider.class);
+        timingProvider = coarseTimingProvider;
+        OpenKitImpl target = createOpenKit().build();
+
+        // when
+        target.shutdown();
+
+        // then
+        verify(coarseTimingProvider, times(1)).close();
+    }
+
+    @Test
+    public void shutdownClosesCloseableBeaconCacheAfterBeaconSenderTerminated() {
+        // given
+        TieredBeaconCache tieredBeaconCache = mock(TieredBeaconCache.class);
+        OpenKitImplBuilder builder = createOpenKit();
+        builder.beaconCache = tieredBeaconCache;
+        OpenKitImpl target = builder.build();
+
+        // when
+        target.shutdown();
+
+        // then
+        InOrder inOrder = inOrder(beaconSender);
+        inOrder.verify(beaconSender, times(1)).shutdown();
+        inOrder.verify(beaconSender, times(1)).closeAfterTermination(tieredBeaconCache);
+        verifyZeroInteractions(tieredBeaconCache);
+    }
+
+    @Test
+    public void shutdownLogsNameDictionaryMetrics() {
+        // given
+        nameDictionary.getEncodedName("action");
+        nameDictionary.getEncodedName("action");
+        OpenKitImpl target = createOpenKit().build();
+
+        // when
+        target.shutdown();
+
+        // then
+        verify(logger, times(1)).debug(contains("name dictionary size=1, hits=1, misses=1, evictions=0"));
+    }
+
+    @Test
+    public void getNameDictionaryReturnsDictionaryFromInitializer() {
+        // given
+        OpenKitImpl target = createOpenKit().build();
+
+        // when
+        NameDictionary obtained = target.getNameDictionary();
+
+        // then
+        assertThat(obtained, is(sameInstance(nameDictionary)));
+    }
+
+    @Test
+    public void getSharedBeaconDataReturnsSharedBeaconDataFromInitializer() {
+        // given
+        OpenKitImpl target = createOpenKit().build();
+
+        // when
+        Beacon.SharedBeaconData obtained = target.getSharedBeaconData();
+
+        // then
+        assertThat(obtained, is(sameInstance(sharedBeaconData)));
+    }
+
     @Test
     public void shutdownClosesAllChildObjects() throws IOException {
         // given
@@ -447,6 +529,8 @@ public class OpenKitImplTest {
         builder.beaconSender = beaconSender;
         builder.beaconCacheEvictor = beaconCacheEvictor;
         builder.sessionWatchdog = sessionWatchdog;
+        builder.nameDictionary = nameDictionary;
+        builder.sharedBeaconData = sharedBeaconData;
 
         return builder;
     }
@@ -462,6 +546,8 @@ public class OpenKitImplTest {
         private BeaconSender beaconSender;
         private BeaconCacheEvictor beaconCacheEvictor;
         private SessionWatchdog sessionWatchdog;
+        private NameDictionary nameDictionary;
+        private Beacon.SharedBeaconData sharedBeaconData;
 
         private OpenKitImplBuilder with(PrivacyConfiguration privacyConfiguration) {
             this.privacyConfiguration = privacyConfiguration;
@@ -485,6 +571,8 @@ public class OpenKitImplTest {
             when(initializer.getBeaconCacheEvictor()).thenReturn(beaconCacheEvictor);
             when(initializer.getBeaconSender()).thenReturn(beaconSender);
             when(initializer.getSessionWatchdog()).thenReturn(sessionWatchdog);
+            when(initializer.getNameDictionary()).thenReturn(nameDictionary);
+            when(initializer.getSharedBeaconData()).thenReturn(sharedBeaconData);
 
             return new OpenKitImpl(initializer);
         }
@@ -16,11 +16,19 @@
 package com.dynatrace.openkit.core.objects;
 
 import com.dynatrace.openkit.AbstractOpenKitBuilder;
+import com.dynatrace.openkit.TimingMode;
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.caching.TieredBeaconCache;
+import com.dynatrace.openkit.providers.CoarseTimingProvider;
+import com.dynatrace.openkit.providers.MonotonicTimingProvider;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
@@ -82,6 +90,32 @@ public class OpenKitInitializerImplTest {
         assertThat(target.getTimingProvider(), notNullValue());
     }
 
+    @Test
+    public void constructorInitializesMonotonicTimingProviderIfConfigured() {
+        // given
+        when(mockBuilder.getTimingMode()).thenReturn(TimingMode.MONOTONIC);
+
+        // when
+        OpenKitInitializerImpl target = createOpenKitInitializer();
+
+        // then
+        assertThat(target.getTimingProvider(), instanceOf(MonotonicTimingProvider.class));
+    }
+
+    @Test
+    public void constructorInitializesCoarseTimingProviderIfConfigured() {
+        // given
+        when(mockBuilder.getTimingMode()).thenReturn(TimingMode.MONOTONIC_COARSE);
+
+        // when
+        OpenKitInitializerImpl target = createOpenKitInitializer();
+
+        // then
+        assertThat(target.getTimingProvider(), instanceOf(CoarseTimingProvider.class));
+
+        ((CoarseTimingProvider) target.getTimingProvider()).close();
+    }
+
     @Test
     public void constructorInitializesThreadIdProvider() {
         // given, when
@@ -109,6 +143,24 @@ public class OpenKitInitializerImplTest {
         assertThat(target.getBeaconCache(), notNullValue());
     }
 
+    @Test
+    public void constructorInitializesTieredBeaconCacheIfSpillDirectoryIsConfigured() throws IOException {
+        // given
+        File spillDirectory = File.createTempFile("initializer-test", "");
+        assertThat(spillDirectory.delete(), is(true));
+        when(mockBuilder.getBeaconCacheSpillDirectory()).thenReturn(spillDirectory);
+        when(mockBuilder.getBeaconCacheSpillFileSize()).thenReturn(1024L);
+
+        // when
+        OpenKitInitializerImpl target = createOpenKitInitializer();
+
+        // then
+        assertThat(target.getBeaconCache(), instanceOf(TieredBeaconCache.class));
+
+        ((TieredBeaconCache) target.getBeaconCache()).close();
+        assertThat(spillDirectory.delete(), is(true));
+    }
+
     @Test
     public void constructorInitializesBeaconCacheEvictor() {
         // given, when
@@ -137,6 +189,24 @@ public class OpenKitInitializerImplTest {
         assertThat(target.getSessionWatchdog(), notNullValue());
     }
 
+    @Test
+    public void constructorInitializesNameDictionary() {
+        // given, when
+        OpenKitInitializerImpl target = createOpenKitInitializer();
+
+        // then
+        assertThat(target.getNameDictionary(), notNullValue());
+    }
+
+    @Test
+    public void constructorInitializesSharedBeaconData() {
+        // given, when
+        OpenKitInitializerImpl target = createOpenKitInitializer();
+
+        // then
+        assertThat(target.getSharedBeaconData(), notNullValue());
+    }
+
     private OpenKitInitializerImpl createOpenKitInitializer() {
         return new OpenKitInitializerImpl(mockBuilder);
     }
@@ -20,6 +20,7 @@ import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconKey;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
+import com.dynatrace.openkit.core.util.NameDictionary;
 import com.dynatrace.openkit.protocol.Beacon;
 import com.dynatrace.openkit.providers.SessionIDProvider;
 import com.dynatrace.openkit.providers.ThreadIDProvider;
@@ -29,6 +30,7 @@ import org.junit.Test;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -50,6 +52,8 @@ public class SessionCreatorImplTest {
     private ThreadIDProvider mockThreadIdProvider;
     private TimingProvider mockTimingProvider;
     private OpenKitComposite mockParent;
+    private NameDictionary nameDictionary;
+    private Beacon.SharedBeaconData sharedBeaconData;
     private final int SERVER_ID = 999;
     private final int SESSION_ID = 777;
     private final long DEVICE_ID = 1;
@@ -69,6 +73,8 @@ public class SessionCreatorImplTest {
         mockThreadIdProvider = mock(ThreadIDProvider.class);
         mockTimingProvider = mock(TimingProvider.class);
         mockParent = mock(OpenKitComposite.class);
+        nameDictionary = Beacon.createNameDictionary();
+        sharedBeaconData = createSharedBeaconData();
 
         mockInput = mock(SessionCreatorInput.class);
         when(mockInput.getLogger()).thenReturn(mockLogger);
@@ -79,6 +85,8 @@ public class SessionCreatorImplTest {
         when(mockInput.getThreadIdProvider()).thenReturn(mockThreadIdProvider);
         when(mockInput.getTimingProvider()).thenReturn(mockTimingProvider);
         when(mockInput.getCurrentServerId()).thenReturn(SERVER_ID);
+        when(mockInput.getNameDictionary()).thenReturn(nameDictionary);
+        when(mockInput.getSharedBeaconData()).thenReturn(sharedBeaconData);
     }
 
     @Test
@@ -141,6 +149,26 @@ public class SessionCreatorImplTest {
         verifyZeroInteractions(mockTimingProvider);
     }
 
+    @Test
+    public void constructorTakesOverNameDictionary() {
+        // given, when
+        SessionCreatorImpl target = createSessionCreator();
+
+        // then
+        verify(mockInput, times(1)).getNameDictionary();
+        assertThat(target.getNameDictionary(), is(sameInstance(nameDictionary)));
+    }
+
+    @Test
+    public void constructorTakesOverSharedBeaconData() {
+        // given, when
+        SessionCreatorImpl target = createSessionCreator();
+
+        // then
+        verify(mockInput, times(1)).getSharedBeaconData();
+        assertThat(target.getSharedBeaconData(), is(sameInstance(sharedBeaconData)));
+    }
+
     @Test
     public void constructorTakesOverServerId() {
         //  when
@@ -309,4 +337,14 @@ public class SessionCreatorImplTest {
     private SessionCreatorImpl createSessionCreator() {
         return new SessionCreatorImpl(mockInput, "https://localhost");
     }
+
+    private static Beacon.SharedBeaconData createSharedBeaconData() {
+        // separate configuration mocks, since creating the shared data interacts with them
+        OpenKitConfiguration openKitConfiguration = mock(OpenKitConfiguration.class);
+        when(openKitConfiguration.getApplicationID()).thenReturn("");
+        when(openKitConfiguration.getApplicationName()).thenReturn("");
+        when(openKitConfiguration.getApplicationVersion()).thenReturn("");
+
+        return Beacon.createSharedBeaconData(openKitConfiguration, mock(PrivacyConfiguration.class));
+    }
 }
@@ -19,6 +19,7 @@ package com.dynatrace.openkit.core.objects;
 import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.api.RootAction;
 import com.dynatrace.openkit.api.WebRequestTracer;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.core.configuration.ServerConfiguration;
 import com.dynatrace.openkit.protocol.AdditionalQueryParameters;
 import com.dynatrace.openkit.protocol.Beacon;
@@ -40,6 +41,7 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
@@ -76,6 +78,7 @@ public class SessionImplTest {
 
         // mock Beacon
         mockBeacon = mock(Beacon.class);
+        when(mockBeacon.isCaptureAllowed(anyInt())).thenReturn(true);
 
         mockAdditionalParameters = mock(AdditionalQueryParameters.class);
     }
@@ -216,6 +219,7 @@ public class SessionImplTest {
         verify(mockLogger, times(0)).warning(anyString());
         verify(mockBeacon, times(1)).getSessionNumber();
         verify(mockBeacon, times(1)).startSession();
+        verify(mockBeacon, times(1)).isCaptureAllowed(CaptureMask.USER_IDENTIFICATION);
         verify(mockBeacon, times(1)).identifyUser("user");
         verifyNoMoreInteractions(mockBeacon);
     }
@@ -233,10 +237,24 @@ public class SessionImplTest {
         verify(mockLogger, times(0)).warning(anyString());
         verify(mockBeacon, times(2)).getSessionNumber();
         verify(mockBeacon, times(1)).startSession();
+        verify(mockBeacon, times(2)).isCaptureAllowed(CaptureMask.USER_IDENTIFICATION);
         verify(mockBeacon, times(2)).identifyUser("user");
         verifyNoMoreInteractions(mockBeacon);
     }
 
+    @Test
+    public void identifyUserDoesNotCallBeaconIfUserIdentificationIsNotAllowed() {
+        // given
+        when(mockBeacon.isCaptureAllowed(CaptureMask.USER_IDENTIFICATION)).thenReturn(false);
+        SessionImpl target = createSession().build();
+
+        // when
+        target.identifyUser("user");
+
+        // then
+        verify(mockBeacon, times(0)).identifyUser(anyString());
+    }
+
     @Test
     public void identifyUserLogsInvocation() {
         // given
@@ -325,6 +343,19 @@ public class SessionImplTest {
         verify(mockBeacon, times(2)).reportCrash(errorName, reason, stacktrace);
     }
 
+    @Test
+    public void reportCrashDoesNotCallBeaconIfCrashCaptureIsNotAllowed() {
+        // given
+        when(mockBeacon.isCaptureAllowed(CaptureMask.CRASH)).thenReturn(false);
+        SessionImpl target = createSession().build();
+
+        // when
+        target.reportCrash("errorName", "reason", "stacktrace");
+
+        // then
+        verify(mockBeacon, times(0)).reportCrash(anyString(), anyString(), anyString());
+    }
+
     @Test
     public void reportCrashLogsInvocation() {
         // given
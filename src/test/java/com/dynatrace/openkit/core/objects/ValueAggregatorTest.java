@@ -0,0 +1,197 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.objects;
+
+import com.dynatrace.openkit.protocol.Beacon;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+public class ValueAggregatorTest {
+
+    private static final int ACTION_ID = 17;
+    private static final int MAX_NAME_LEN = 250;
+
+    private Beacon mockBeacon;
+
+    @Before
+    public void setUp() {
+        mockBeacon = mock(Beacon.class);
+    }
+
+    @Test
+    public void newAggregatorIsEmpty() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+
+        // then
+        assertThat(target.isEmpty(), is(true));
+    }
+
+    @Test
+    public void intValuesAreReportedAsIntSummary() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        target.add("value", 3);
+        target.add("value", -2);
+        target.add("value", 7);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, "value.count", 3);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.sum", 8);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.min", -2);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.max", 7);
+        verifyNoMoreInteractions(mockBeacon);
+    }
+
+    @Test
+    public void mixedValuesAreReportedAsDoubleSummary() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        target.add("value", 1);
+        target.add("value", 2.5);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, "value.count", 2);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.sum", 3.5);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.min", 1.0);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.max", 2.5);
+        verifyNoMoreInteractions(mockBeacon);
+    }
+
+    @Test
+    public void intSumExceedingIntRangeIsReportedAsDouble() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        target.add("value", Integer.MAX_VALUE);
+        target.add("value", 1);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, "value.sum", Integer.MAX_VALUE + 1.0);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.max", Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void valuesWithDifferentNamesAreAggregatedSeparately() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        target.add("a", 1);
+        target.add("b", 2);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, "a.count", 1);
+        verify(mockBeacon).reportValue(ACTION_ID, "a.sum", 1);
+        verify(mockBeacon).reportValue(ACTION_ID, "b.count", 1);
+        verify(mockBeacon).reportValue(ACTION_ID, "b.sum", 2);
+    }
+
+    @Test
+    public void histogramBucketsAreReportedCumulative() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[]{10.0, 100.5});
+        target.add("value", 5);
+        target.add("value", 10);
+        target.add("value", 50.0);
+        target.add("value", 1000);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, "value.le_10", 2);
+        verify(mockBeacon).reportValue(ACTION_ID, "value.le_100.5", 3);
+    }
+
+    @Test
+    public void reportToClearsSummaries() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        target.add("value", 1);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        assertThat(target.isEmpty(), is(true));
+    }
+
+    @Test
+    public void valuesWithNewNamesAreNotAcceptedIfMaxSummariesIsReached() {
+        // given
+        ValueAggregator target = new ValueAggregator(new double[0]);
+        for (int i = 0; i < ValueAggregator.MAX_SUMMARIES; i++) {
+            assertThat(target.add("value" + i, i), is(true));
+        }
+
+        // then
+        assertThat(target.add("value0", 1.5), is(true));
+        assertThat(target.add("other", 1), is(false));
+        assertThat(target.add("other", 1.5), is(false));
+    }
+
+    @Test
+    public void suffixesAreKeptForLongValueNames() {
+        // given
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < MAX_NAME_LEN + 50; i++) {
+            builder.append('a');
+        }
+        String valueName = builder.toString();
+        ValueAggregator target = new ValueAggregator(new double[]{10.0});
+        target.add(valueName, 3);
+
+        // when
+        target.reportTo(mockBeacon, ACTION_ID);
+
+        // then
+        verify(mockBeacon).reportValue(ACTION_ID, truncatedName(valueName, ".count"), 1);
+        verify(mockBeacon).reportValue(ACTION_ID, truncatedName(valueName, ".sum"), 3);
+        verify(mockBeacon).reportValue(ACTION_ID, truncatedName(valueName, ".min"), 3);
+        verify(mockBeacon).reportValue(ACTION_ID, truncatedName(valueName, ".max"), 3);
+        verify(mockBeacon).reportValue(ACTION_ID, truncatedName(valueName, ".le_10"), 1);
+        verifyNoMoreInteractions(mockBeacon);
+    }
+
+    @Test
+    public void formatBoundOmitsFractionOfIntegralBounds() {
+        // then
+        assertThat(ValueAggregator.formatBound(10.0), is("10"));
+        assertThat(ValueAggregator.formatBound(-3.0), is("-3"));
+        assertThat(ValueAggregator.formatBound(0.25), is("0.25"));
+    }
+
+    private static String truncatedName(String valueName, String suffix) {
+        return valueName.substring(0, MAX_NAME_LEN - suffix.length()) + suffix;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.core.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class NameDictionaryTest {
+
+    @Test
+    public void getEncodedNameReturnsPercentEncodedName() {
+        // given
+        NameDictionary target = createDictionary(10, 250);
+
+        // when
+        String obtained = target.getEncodedName("my action_ä");
+
+        // then
+        assertThat(obtained, is(equalTo("my%20action%5F%C3%A4")));
+    }
+
+    @Test
+    public void getEncodedNameTrimsAndTruncatesName() {
+        // given
+        NameDictionary target = createDictionary(10, 5);
+
+        // when
+        String obtained = target.getEncodedName("  abcdefgh ");
+
+        // then
+        assertThat(obtained, is(equalTo("abcde")));
+    }
+
+    @Test
+    public void getEncodedNameReturnsSameInstanceForKnownName() {
+        // given
+        NameDictionary target = createDictionary(10, 250);
+        String first = target.getEncodedName("action");
+
+        // when
+        String obtained = target.getEncodedName("action");
+
+        // then
+        assertThat(obtained, is(sameInstance(first)));
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        // given
+        NameDictionary target = createDictionary(10, 250);
+
+        // when
+        target.getEncodedName("a");
+        target.getEncodedName("b");
+        target.getEncodedName("a");
+        target.getEncodedName("a");
+
+        // then
+        assertThat(target.getMissCount(), is(2L));
+        assertThat(target.getHitCount(), is(2L));
+        assertThat(target.getEvictionCount(), is(0L));
+        assertThat(target.size(), is(2));
+    }
+
+    @Test
+    public void namesAreEvictedOnceCapacityIsExceeded() {
+        // given
+        NameDictionary target = createDictionary(2, 250);
+
+        // when
+        target.getEncodedName("a");
+        target.getEncodedName("b"); // first generation is full
+        target.getEncodedName("c");
+        target.getEncodedName("d"); // second generation is full, "a" and "b" are dropped
+        target.getEncodedName("a");
+
+        // then
+        assertThat(target.getEvictionCount(), is(2L));
+        assertThat(target.getMissCount(), is(5L));
+        assertThat(target.getHitCount(), is(0L));
+        assertThat(target.size(), is(3));
+    }
+
+    @Test
+    public void namesUsedInPreviousGenerationSurvive() {
+        // given
+        NameDictionary target = createDictionary(2, 250);
+        String first = target.getEncodedName("a");
+        target.getEncodedName("b"); // first generation is full
+
+        // when
+        target.getEncodedName("a"); // moved to the current generation
+        target.getEncodedName("c"); // second generation is full, "b" is dropped
+        String obtained = target.getEncodedName("a");
+
+        // then
+        assertThat(obtained, is(sameInstance(first)));
+        assertThat(target.getHitCount(), is(2L));
+        assertThat(target.getMissCount(), is(3L));
+    }
+
+    private static NameDictionary createDictionary(int capacity, int maxNameLength) {
+        return new NameDictionary(capacity, maxNameLength, new PercentEncoder("_".toCharArray()));
+    }
+}
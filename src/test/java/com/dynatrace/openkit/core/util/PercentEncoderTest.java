@@ -18,9 +18,12 @@ package com.dynatrace.openkit.core.util;
 
 import org.junit.Test;
 
+import java.io.UnsupportedEncodingException;
+
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class PercentEncoderTest {
@@ -88,4 +91,68 @@ public class PercentEncoderTest {
         // then
         assertThat(obtained, is(nullValue()));
     }
+
+    @Test
+    public void encoderInstanceReturnsInputIfNothingNeedsToBeEncoded() {
+        // given
+        PercentEncoder target = new PercentEncoder(null);
+
+        // when
+        String obtained = target.encode(UNRESERVED_CHARACTERS);
+
+        // then
+        assertThat(obtained, is(sameInstance(UNRESERVED_CHARACTERS)));
+    }
+
+    @Test
+    public void encoderInstanceEncodesReservedAndNonAsciiCharacters() {
+        // given
+        PercentEncoder target = new PercentEncoder("_".toCharArray());
+        String input = "a+bc()~/\\&0_aösÖ€dÁF";
+
+        // when
+        String obtained = target.encode(input);
+
+        // then
+        assertThat(obtained, is(equalTo("a%2Bbc%28%29~%2F%5C%260%5Fa%C3%B6s%C3%96%E2%82%ACd%C3%81F")));
+    }
+
+    @Test
+    public void encoderInstanceAppendsToGivenBuilder() {
+        // given
+        PercentEncoder target = new PercentEncoder(null);
+        StringBuilder builder = new StringBuilder("na=");
+
+        // when
+        target.encode("some event", builder);
+
+        // then
+        assertThat(builder.toString(), is(equalTo("na=some%20event")));
+    }
+
+    @Test
+    public void supplementaryCharactersAreEncodedAsFourBytes() {
+        // given
+        PercentEncoder target = new PercentEncoder(null);
+
+        // when
+        String obtained = target.encode("a\uD83D\uDE00b");
+
+        // then
+        assertThat(obtained, is(equalTo("a%F0%9F%98%80b")));
+    }
+
+    @Test
+    public void unpairedSurrogatesAreReplacedWithQuestionMark() throws UnsupportedEncodingException {
+        // given
+        PercentEncoder target = new PercentEncoder(null);
+        String input = "a\uD83Db\uDE00";
+
+        // when
+        String obtained = target.encode(input);
+
+        // then
+        assertThat(obtained, is(equalTo("a%3Fb%3F")));
+        assertThat(new String(input.getBytes("UTF-8"), "UTF-8"), is(equalTo("a?b?")));
+    }
 }
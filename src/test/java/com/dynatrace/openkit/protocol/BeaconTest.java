@@ -22,7 +22,11 @@ import com.dynatrace.openkit.api.Logger;
 import com.dynatrace.openkit.core.caching.BeaconCache;
 import com.dynatrace.openkit.core.caching.BeaconCacheImpl;
 import com.dynatrace.openkit.core.caching.BeaconKey;
+import com.dynatrace.openkit.core.caching.BeaconSpool;
+import com.dynatrace.openkit.core.caching.RecordPriority;
+import com.dynatrace.openkit.core.caching.SpooledBeacon;
 import com.dynatrace.openkit.core.configuration.BeaconConfiguration;
+import com.dynatrace.openkit.core.configuration.CaptureMask;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.core.configuration.OpenKitConfiguration;
 import com.dynatrace.openkit.core.configuration.PrivacyConfiguration;
@@ -34,6 +38,7 @@ import com.dynatrace.openkit.core.objects.RootActionImpl;
 import com.dynatrace.openkit.core.objects.WebRequestTracerBaseImpl;
 import com.dynatrace.openkit.core.objects.WebRequestTracerStringURL;
 import com.dynatrace.openkit.core.objects.WebRequestTracerURLConnection;
+import com.dynatrace.openkit.core.util.NameDictionary;
 import com.dynatrace.openkit.providers.HTTPClientProvider;
 import com.dynatrace.openkit.providers.RandomNumberGenerator;
 import com.dynatrace.openkit.providers.SessionIDProvider;
@@ -42,24 +47,35 @@ import com.dynatrace.openkit.providers.TimingProvider;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyString;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyChar;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -138,6 +154,12 @@ public class BeaconTest {
         when(mockBeaconConfiguration.getPrivacyConfiguration()).thenReturn(mockPrivacyConfiguration);
         when(mockBeaconConfiguration.getServerConfiguration()).thenReturn(mockServerConfiguration);
         when(mockBeaconConfiguration.getHTTPClientConfiguration()).thenReturn(mockHttpClientConfiguration);
+        when(mockBeaconConfiguration.getCaptureMask()).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) {
+                return CaptureMask.of(mockPrivacyConfiguration, mockServerConfiguration);
+            }
+        });
 
         mockAdditionalParameters = mock(AdditionalQueryParameters.class);
 
@@ -186,7 +208,7 @@ public class BeaconTest {
         verify(mockLogger, times(1)).warning("Beacon: Client IP address validation failed: " + ipAddress);
 
         // and when
-        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn("dummy");
+        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn(new byte[]{'d', 'u', 'm', 'm', 'y'});
 
         target.send(httpClientProvider, mockAdditionalParameters);
 
@@ -216,7 +238,7 @@ public class BeaconTest {
         verify(mockLogger, times(0)).warning(any(String.class));
 
         // and when
-        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn("dummy");
+        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn(new byte[]{'d', 'u', 'm', 'm', 'y'});
 
         target.send(httpClientProvider, mockAdditionalParameters);
 
@@ -425,7 +447,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addActionData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // action start time
-                eq(expectedActionData)
+                eq(expectedActionData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -448,7 +471,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // session end time
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -475,7 +499,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event time
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -502,7 +527,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -529,7 +555,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -554,7 +581,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -577,7 +605,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -602,10 +631,27 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
+    @Test
+    public void reportEventAddsEventNameToNameDictionary() {
+        // given
+        NameDictionary nameDictionary = Beacon.createNameDictionary();
+        final Beacon beacon = createBeacon().with(nameDictionary).build();
+
+        // when
+        beacon.reportEvent(ACTION_ID, "SomeEvent");
+        beacon.reportEvent(ACTION_ID, "SomeEvent");
+
+        // then
+        assertThat(nameDictionary.size(), is(1));
+        assertThat(nameDictionary.getMissCount(), is(1L));
+        assertThat(nameDictionary.getHitCount(), is(1L));
+    }
+
     @Test
     public void reportEventWithNameNull() {
         // given
@@ -625,7 +671,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
         );
     }
 
@@ -655,7 +702,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                         // error event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.HIGH)
         );
     }
 
@@ -681,8 +729,330 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                              // error event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.HIGH)
+        );
+    }
+
+    @Test
+    public void identicalErrorsWithinDeduplicationWindowAreCoalesced() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+
+        // then
+        verify(mockBeaconCache, times(0)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            any(RecordPriority.class));
+
+        // and when
+        beacon.endSession();
+
+        // then
+        String expectedEventData =
+                "et=40&" +                      // event type
+                "na=error&" +                   // name of error event
+                "it=" + THREAD_ID + "&" +       // thread ID
+                "pa=" + ACTION_ID + "&" +       // parent action ID
+                "s0=1&" +                       // sequence number of first error event
+                "t0=0&" +                       // timestamp of first error event since session start
+                "ev=42&" +                      // reported error value
+                "rs=reason&" +                  // reported reason
+                "tt=c"                          // error technology type
+        ;
+        String expectedOccurrencesData =
+                "et=12&" +                      // event type
+                "na=error.occurrences&" +       // name of the value
+                "it=" + THREAD_ID + "&" +       // thread ID
+                "pa=" + ACTION_ID + "&" +       // parent action ID
+                "s0=4&" +                       // sequence number of the value
+                "t0=0&" +                       // timestamp of first error event since session start
+                "vl=3"                          // number of occurrences
+        ;
+        InOrder inOrder = inOrder(mockBeaconCache);
+        inOrder.verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)),
+                eq(0L),
+                eq(expectedEventData),
+                eq(RecordPriority.HIGH)
+        );
+        inOrder.verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)),
+                eq(0L),
+                eq(expectedOccurrencesData),
+                eq(RecordPriority.HIGH)
+        );
+    }
+
+    @Test
+    public void singleErrorWithinDeduplicationWindowIsAddedWithoutNumberOfOccurrences() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+
+        // when
+        beacon.endSession();
+
+        // then
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.HIGH));
+        verify(mockBeaconCache, times(0)).addEventData(any(BeaconKey.class), anyLong(),
+            contains("na=error.occurrences"), any(RecordPriority.class));
+    }
+
+    @Test
+    public void coalescedErrorIsAddedWithoutNumberOfOccurrencesIfValueReportingIsNotAllowed() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        when(mockPrivacyConfiguration.getDataCollectionLevel()).thenReturn(DataCollectionLevel.PERFORMANCE);
+        when(mockPrivacyConfiguration.isValueReportingAllowed()).thenReturn(false);
+        when(mockPrivacyConfiguration.isEventReportingAllowed()).thenReturn(false);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+
+        // when
+        beacon.endSession();
+
+        // then
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), contains("et=40&na=error&"),
+            eq(RecordPriority.HIGH));
+        verify(mockBeaconCache, times(0)).addEventData(any(BeaconKey.class), anyLong(),
+            contains("et=12&"), any(RecordPriority.class));
+    }
+
+    @Test
+    public void numberOfOccurrencesKeepsSuffixForLongNames() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        StringBuilder nameBuilder = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            nameBuilder.append((char) ('a' + i % 26));
+        }
+        String name = nameBuilder.toString();
+        beacon.reportEvent(ACTION_ID, name);
+        beacon.reportEvent(ACTION_ID, name);
+
+        // when
+        beacon.endSession();
+
+        // then
+        String expectedName = name.substring(0, 250 - ".occurrences".length()) + ".occurrences";
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(),
+            contains("et=12&na=" + expectedName + "&"), eq(RecordPriority.LOW));
+    }
+
+    @Test
+    public void differentErrorsWithinDeduplicationWindowAreNotCoalesced() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        beacon.reportError(ACTION_ID, "error", 43, "reason");
+        beacon.reportEvent(ACTION_ID, "error");
+
+        // when
+        beacon.endSession();
+
+        // then
+        verify(mockBeaconCache, times(2)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.HIGH));
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.LOW));
+    }
+
+    @Test
+    public void coalescedEventIsAddedWhenDeduplicationWindowExpired() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportEvent(ACTION_ID, "event");
+        beacon.reportEvent(ACTION_ID, "event");
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L);
+
+        // when
+        beacon.send(mock(HTTPClientProvider.class), null);
+
+        // then
+        ArgumentCaptor<String> dataCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mockBeaconCache, times(2)).addEventData(any(BeaconKey.class), eq(0L), dataCaptor.capture(),
+            eq(RecordPriority.LOW));
+        assertThat(dataCaptor.getAllValues().get(0), startsWith("et=10&na=event&"));
+        assertThat(dataCaptor.getAllValues().get(1), startsWith("et=12&na=event.occurrences&"));
+        assertThat(dataCaptor.getAllValues().get(1), endsWith("&vl=2"));
+    }
+
+    @Test
+    public void coalescedEventIsAddedWhenNextRecordIsCapturedAfterDeduplicationWindowExpired() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportEvent(ACTION_ID, "event");
+        beacon.reportEvent(ACTION_ID, "event");
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L);
+
+        // when
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+
+        // then
+        ArgumentCaptor<String> dataCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mockBeaconCache, times(2)).addEventData(any(BeaconKey.class), eq(0L), dataCaptor.capture(),
+            eq(RecordPriority.LOW));
+        assertThat(dataCaptor.getAllValues().get(0), startsWith("et=10&na=event&"));
+        assertThat(dataCaptor.getAllValues().get(1), startsWith("et=12&na=event.occurrences&"));
+        assertThat(dataCaptor.getAllValues().get(1), endsWith("&vl=2"));
+        verify(mockBeaconCache, times(0)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.HIGH));
+    }
+
+    @Test
+    public void errorsAndEventsExceedingRateLimitAreDropped() {
+        // given
+        when(mockOpenKitConfiguration.getMaxErrorsAndEventsPerSecond()).thenReturn(2);
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        beacon.reportEvent(ACTION_ID, "event");
+        beacon.reportError(ACTION_ID, "another error", 42, "reason");
+        beacon.reportEvent(ACTION_ID, "another event");
+
+        // then
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.HIGH));
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.LOW));
+    }
+
+    @Test
+    public void errorsAndEventsExceedingRateLimitAreLoggedWhenSessionEnds() {
+        // given
+        when(mockOpenKitConfiguration.getMaxErrorsAndEventsPerSecond()).thenReturn(1);
+        when(mockLogger.isWarnEnabled()).thenReturn(true);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportEvent(ACTION_ID, "event");
+        beacon.reportEvent(ACTION_ID, "another event");
+
+        // when
+        beacon.endSession();
+
+        // then
+        verify(mockLogger, times(1)).warning(
+            "RecordRateLimiter - Dropped 1 errors and events exceeding the limit of 1 per second (1 in total)");
+    }
+
+    @Test
+    public void reportValidValuesIntAddsAllValuesAtOnce() {
+        // given
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportValues(ACTION_ID, new String[]{"IntValue1", null, "IntValue2"}, new int[]{42, 0, 7});
+
+        // then
+        List<String> expectedEventData = Arrays.asList(
+                "et=12&na=IntValue1&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=1&t0=0&vl=42",
+                "et=12&na=IntValue2&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=2&t0=0&vl=7"
+        );
+        verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
+                eq(0L),                         // event time
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
+        );
+        verify(mockBeaconCache, times(0)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            any(RecordPriority.class));
+    }
+
+    @Test
+    public void reportValidValuesDoubleAddsAllValuesAtOnce() {
+        // given
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportValues(ACTION_ID, new String[]{"DoubleValue1", "DoubleValue2"}, new double[]{3.1415, 2.5});
+
+        // then
+        List<String> expectedEventData = Arrays.asList(
+                "et=13&na=DoubleValue1&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=1&t0=0&vl=3.1415",
+                "et=13&na=DoubleValue2&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=2&t0=0&vl=2.5"
+        );
+        verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
+                eq(0L),                         // event time
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
+        );
+    }
+
+    @Test
+    public void reportValidEventsAddsAllEventsAtOnce() {
+        // given
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportEvents(ACTION_ID, new String[]{"SomeEvent", "", "OtherEvent"});
+
+        // then
+        List<String> expectedEventData = Arrays.asList(
+                "et=10&na=SomeEvent&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=1&t0=0",
+                "et=10&na=OtherEvent&it=" + THREAD_ID + "&pa=" + ACTION_ID + "&s0=2&t0=0"
         );
+        verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
+                eq(0L),                         // event time
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
+        );
+    }
+
+    @Test
+    public void reportEventsAppliesRateLimitToEachEvent() {
+        // given
+        when(mockOpenKitConfiguration.getMaxErrorsAndEventsPerSecond()).thenReturn(2);
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportEvents(ACTION_ID, new String[]{"event1", "event2", "event3"});
+
+        // then
+        verify(mockBeaconCache, times(2)).addEventData(any(BeaconKey.class), anyLong(), anyString(),
+            eq(RecordPriority.LOW));
+    }
+
+    @Test
+    public void reportValuesDoesNothingIfValueCaptureIsNotAllowed() {
+        // given
+        when(mockPrivacyConfiguration.isValueReportingAllowed()).thenReturn(false);
+        final Beacon beacon = createBeacon().build();
+
+        // when
+        beacon.reportValues(ACTION_ID, new String[]{"IntValue"}, new int[]{42});
+
+        // then
+        verifyZeroInteractions(mockBeaconCache);
+    }
+
+    @Test
+    public void clearDataDiscardsCoalescedRecords() {
+        // given
+        when(mockOpenKitConfiguration.getErrorAndEventDeduplicationWindow()).thenReturn(1000L);
+        final Beacon beacon = createBeacon().build();
+        beacon.reportError(ACTION_ID, "error", 42, "reason");
+        when(mockBeaconCache.isEmpty(any(BeaconKey.class))).thenReturn(true);
+        assertThat(beacon.isEmpty(), is(false));
+
+        // when
+        beacon.clearData();
+
+        // then
+        assertThat(beacon.isEmpty(), is(true));
     }
 
     @Test
@@ -711,7 +1081,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // crash event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.CRITICAL)
         );
     }
 
@@ -737,7 +1108,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // crash event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.CRITICAL)
         );
     }
 
@@ -769,8 +1141,33 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
+        );
+    }
+
+    @Test
+    public void addWebRequestDoesNotAddUrlToNameDictionary() {
+        // given
+        NameDictionary nameDictionary = Beacon.createNameDictionary();
+        final Beacon beacon = createBeacon().with(nameDictionary).build();
+        WebRequestTracerURLConnection webRequestTracer = mock(WebRequestTracerURLConnection.class);
+        when(webRequestTracer.getURL()).thenReturn("https://localhost:9999/1?id=42");
+
+        // when
+        beacon.addWebRequest(ACTION_ID, webRequestTracer);
+
+        // then
+        ArgumentCaptor<String> eventDataCaptor = ArgumentCaptor.forClass(String.class);
+        verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)),
+                eq(0L),
+                eventDataCaptor.capture(),
+                eq(RecordPriority.NORMAL)
         );
+        assertThat(eventDataCaptor.getValue(), startsWith("et=30&na=https%3A%2F%2Flocalhost%3A9999%2F1%3Fid%3D42&"));
+        assertThat(nameDictionary.size(), is(0));
+        assertThat(nameDictionary.getMissCount(), is(0L));
     }
 
     @Test
@@ -794,10 +1191,25 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // identify user event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
+    @Test
+    public void addUserIdentifyEventDoesNotAddUserTagToNameDictionary() {
+        // given
+        NameDictionary nameDictionary = Beacon.createNameDictionary();
+        Beacon beacon = createBeacon().with(nameDictionary).build();
+
+        // when
+        beacon.identifyUser("myTestUser");
+
+        // then
+        assertThat(nameDictionary.size(), is(0));
+        assertThat(nameDictionary.getMissCount(), is(0L));
+    }
+
     @Test
     public void addUserIdentifyWithNullUserIDEvent() {
         // given
@@ -817,7 +1229,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // identify user event timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -847,7 +1260,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -877,7 +1291,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -906,7 +1321,8 @@ public class BeaconTest {
         verify(beaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -936,7 +1352,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -966,7 +1383,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -995,7 +1413,8 @@ public class BeaconTest {
         verify(beaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                          // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -1030,7 +1449,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addEventData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // web request start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -1062,7 +1482,8 @@ public class BeaconTest {
         verify(mockBeaconCache, times(1)).addActionData(
                 eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
                 eq(0L),                     // action start timestamp
-                eq(expectedEventData)
+                eq(expectedEventData),
+                eq(RecordPriority.NORMAL)
         );
     }
 
@@ -1158,41 +1579,34 @@ public class BeaconTest {
     }
 
     @Test
-    public void sendCatchesUnsupportedEncodingException() throws Exception {
+    public void sendPassesChunkFromBeaconCacheToHTTPClient() {
         // given
-        String beaconChunk = "some beacon string";
-        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn(beaconChunk);
+        byte[] beaconChunk = new byte[]{'s', 'o', 'm', 'e', ' ', 'b', 'e', 'a', 'c', 'o', 'n'};
+        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar()))
+                .thenReturn(beaconChunk)
+                .thenReturn(new byte[0]);
 
         HTTPClient httpClient = mock(HTTPClient.class);
         HTTPClientProvider httpClientProvider = mock(HTTPClientProvider.class);
         when(httpClientProvider.createClient(any(HTTPClientConfiguration.class))).thenReturn(httpClient);
+        StatusResponse successResponse = StatusResponse.createSuccessResponse(
+                mockLogger,
+                ResponseAttributesImpl.withJsonDefaults().build(),
+                200,
+                Collections.<String, List<String>>emptyMap()
+        );
+        when(httpClient.sendBeaconRequest(any(String.class), any(byte[].class), any(AdditionalQueryParameters.class)))
+                .thenReturn(successResponse);
 
-        final UnsupportedEncodingException exception = new UnsupportedEncodingException();
-
-        BeaconInitializer beaconInitializer = mock(BeaconInitializer.class);
-        when(beaconInitializer.getLogger()).thenReturn(mockLogger);
-        when(beaconInitializer.getBeaconCache()).thenReturn(mockBeaconCache);
-        when(beaconInitializer.getClientIpAddress()).thenReturn("127.0.0.1");
-        when(beaconInitializer.getSessionIdProvider()).thenReturn(mockSessionIdProvider);
-        when(beaconInitializer.getSessionSequenceNumber()).thenReturn(SESSION_SEQ_NO);
-        when(beaconInitializer.getThreadIdProvider()).thenReturn(mockThreadIDProvider);
-        when(beaconInitializer.getTimingProvider()).thenReturn(mockTimingProvider);
-        when(beaconInitializer.getRandomNumberGenerator()).thenReturn(mockRandom);
-
-        Beacon target = new Beacon(beaconInitializer, mockBeaconConfiguration) {
-            @Override
-            protected byte[] encodeBeaconChunk(String chunkToEncode) throws UnsupportedEncodingException {
-                throw exception;
-            }
-        };
+        Beacon target = createBeacon().build();
 
         // when
         StatusResponse obtained = target.send(httpClientProvider, mockAdditionalParameters);
 
         // then
-        assertThat(obtained, is(nullValue()));
-        verify(mockBeaconCache, times(1)).resetChunkedData(eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)));
-        verify(mockLogger, times(1)).error(": Required charset \"UTF-8\" is not supported.", exception);
+        assertThat(obtained, is(sameInstance(successResponse)));
+        verify(httpClient, times(1)).sendBeaconRequest(anyString(), eq(beaconChunk), eq(mockAdditionalParameters));
+        verify(mockBeaconCache, times(1)).removeChunkedData(eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)));
     }
 
     @Test
@@ -1234,8 +1648,49 @@ public class BeaconTest {
             "&tv=0" +
             "&mp=1";
 
+        ArgumentCaptor<CharSequence> prefixCaptor = ArgumentCaptor.forClass(CharSequence.class);
+        verify(mockBeaconCache, times(1))
+            .getNextBeaconChunk(eq(new BeaconKey(SESSION_ID, sessionSequence)), prefixCaptor.capture(), anyInt(), anyChar());
+        assertThat(prefixCaptor.getValue().toString(), is(equalTo(expectedPrefix)));
+    }
+
+    @Test
+    public void beaconDataPrefixUsesSharedBeaconDataOfOpenKitInstance() {
+        // given
+        Beacon.SharedBeaconData sharedBeaconData =
+            Beacon.createSharedBeaconData(mockOpenKitConfiguration, mockPrivacyConfiguration);
+        when(mockOpenKitConfiguration.getApplicationName()).thenReturn("otherName");
+        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn(null);
+        Beacon target = createBeacon().with(sharedBeaconData).build();
+
+        // when
+        target.send(mock(HTTPClientProvider.class), null);
+
+        // then
+        ArgumentCaptor<CharSequence> prefixCaptor = ArgumentCaptor.forClass(CharSequence.class);
+        verify(mockBeaconCache, times(1))
+            .getNextBeaconChunk(any(BeaconKey.class), prefixCaptor.capture(), anyInt(), anyChar());
+        assertThat(prefixCaptor.getValue().toString(), containsString("&an=" + APP_NAME + "&"));
+    }
+
+    @Test
+    public void beaconDataPrefixIgnoresSharedBeaconDataOfOtherConfiguration() {
+        // given
+        OpenKitConfiguration otherOpenKitConfiguration = mock(OpenKitConfiguration.class);
+        when(otherOpenKitConfiguration.getApplicationID()).thenReturn("otherID");
+        Beacon.SharedBeaconData sharedBeaconData =
+            Beacon.createSharedBeaconData(otherOpenKitConfiguration, mockPrivacyConfiguration);
+        when(mockBeaconCache.getNextBeaconChunk(any(BeaconKey.class), anyString(), anyInt(), anyChar())).thenReturn(null);
+        Beacon target = createBeacon().with(sharedBeaconData).build();
+
+        // when
+        target.send(mock(HTTPClientProvider.class), null);
+
+        // then
+        ArgumentCaptor<CharSequence> prefixCaptor = ArgumentCaptor.forClass(CharSequence.class);
         verify(mockBeaconCache, times(1))
-            .getNextBeaconChunk(eq(new BeaconKey(SESSION_ID, sessionSequence)), eq(expectedPrefix), anyInt(), anyChar());
+            .getNextBeaconChunk(any(BeaconKey.class), prefixCaptor.capture(), anyInt(), anyChar());
+        assertThat(prefixCaptor.getValue().toString(), containsString("&ap=" + APP_ID + "&"));
     }
 
     @Test
@@ -1278,8 +1733,10 @@ public class BeaconTest {
                 "&tv=0" +
                 "&mp=1";
 
+        ArgumentCaptor<CharSequence> prefixCaptor = ArgumentCaptor.forClass(CharSequence.class);
         verify(mockBeaconCache, times(1))
-                .getNextBeaconChunk(eq(new BeaconKey(SESSION_ID, sessionSequence)), eq(expectedPrefix), anyInt(), anyChar());
+                .getNextBeaconChunk(eq(new BeaconKey(SESSION_ID, sessionSequence)), prefixCaptor.capture(), anyInt(), anyChar());
+        assertThat(prefixCaptor.getValue().toString(), is(equalTo(expectedPrefix)));
     }
 
     @Test
@@ -1311,6 +1768,161 @@ public class BeaconTest {
         assertThat(beacon.isEmpty(), is(true));
     }
 
+    @Test
+    public void spoolDataMovesAllDataToSpool() throws UnsupportedEncodingException {
+        // given
+        BeaconCacheImpl beaconCache = new BeaconCacheImpl(mockLogger);
+        BeaconSpool beaconSpool = mock(BeaconSpool.class);
+        Beacon target = createBeacon().withIpAddress("127.0.0.1").with(beaconCache).build();
+        target.reportEvent(ACTION_ID, "SomeEvent");
+        target.reportCrash("SomeCrash", "SomeReason", "SomeStacktrace");
+
+        // when
+        boolean obtained = target.spoolData(beaconSpool);
+
+        // then
+        assertThat(obtained, is(true));
+        assertThat(target.isEmpty(), is(true));
+        ArgumentCaptor<SpooledBeacon> captor = ArgumentCaptor.forClass(SpooledBeacon.class);
+        verify(beaconSpool, times(1)).spool(captor.capture());
+        SpooledBeacon spooledBeacon = captor.getValue();
+        assertThat(spooledBeacon.getBeaconKey(), is(equalTo(new BeaconKey(SESSION_ID, SESSION_SEQ_NO))));
+        assertThat(spooledBeacon.getClientIPAddress(), is(equalTo("127.0.0.1")));
+        assertThat(spooledBeacon.getChunks().size(), is(1));
+        String chunk = new String(spooledBeacon.getNextChunk(""), Beacon.CHARSET);
+        assertThat(chunk, startsWith("&et=" + EventType.NAMED_EVENT.protocolValue()));
+        assertThat(chunk, containsString("&et=" + EventType.CRASH.protocolValue()));
+    }
+
+    @Test
+    public void spoolDataDoesNotSpoolEmptyBeacon() {
+        // given
+        BeaconSpool beaconSpool = mock(BeaconSpool.class);
+        Beacon target = createBeacon().with(new BeaconCacheImpl(mockLogger)).build();
+
+        // when
+        boolean obtained = target.spoolData(beaconSpool);
+
+        // then
+        assertThat(obtained, is(false));
+        verifyZeroInteractions(beaconSpool);
+    }
+
+    @Test
+    public void reportEventWithDeferredSerializationDoesNotSerializeOnReportingThread() {
+        // given
+        when(mockOpenKitConfiguration.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+        Beacon target = createBeacon().build();
+
+        // when
+        target.reportEvent(ACTION_ID, "SomeEvent");
+
+        // then
+        verifyZeroInteractions(mockBeaconCache);
+        assertThat(target.isEmpty(), is(false));
+    }
+
+    @Test
+    public void sendSerializesDeferredRecords() {
+        // given
+        when(mockOpenKitConfiguration.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+        HTTPClientProvider httpClientProvider = mock(HTTPClientProvider.class);
+        when(httpClientProvider.createClient(any(HTTPClientConfiguration.class))).thenReturn(mock(HTTPClient.class));
+        Beacon target = createBeacon().build();
+        target.reportEvent(ACTION_ID, "SomeEvent");
+
+        // when
+        target.send(httpClientProvider, mockAdditionalParameters);
+
+        // then
+        String expectedEventData =
+                "et=10&" +                      // event type
+                "na=SomeEvent&" +               // name of event
+                "it=" + THREAD_ID + "&" +       // thread ID
+                "pa=" + ACTION_ID + "&" +       // parent action ID
+                "s0=1&" +                       // sequence number of reported event
+                "t0=0"                          // event time since session start
+        ;
+        verify(mockBeaconCache, times(1)).addEventData(
+                eq(new BeaconKey(SESSION_ID, SESSION_SEQ_NO)), // beacon key
+                eq(0L),                         // event timestamp
+                eq(expectedEventData),
+                eq(RecordPriority.LOW)
+        );
+    }
+
+    @Test
+    public void spoolDataSerializesDeferredRecords() {
+        // given
+        when(mockOpenKitConfiguration.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+        BeaconSpool beaconSpool = mock(BeaconSpool.class);
+        Beacon target = createBeacon().with(new BeaconCacheImpl(mockLogger)).build();
+        target.reportEvent(ACTION_ID, "SomeEvent");
+
+        // when
+        boolean obtained = target.spoolData(beaconSpool);
+
+        // then
+        assertThat(obtained, is(true));
+        verify(beaconSpool, times(1)).spool(any(SpooledBeacon.class));
+    }
+
+    @Test
+    public void clearDataDiscardsDeferredRecords() {
+        // given
+        when(mockOpenKitConfiguration.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+        BeaconCacheImpl beaconCache = new BeaconCacheImpl(mockLogger);
+        Beacon target = createBeacon().with(beaconCache).build();
+        target.reportEvent(ACTION_ID, "SomeEvent");
+        target.reportError(ACTION_ID, "SomeError", 42, "SomeReason");
+
+        // when
+        target.clearData();
+
+        // then
+        assertThat(target.isEmpty(), is(true));
+        assertThat(target.spoolData(mock(BeaconSpool.class)), is(false));
+    }
+
+    @Test
+    public void deferredRecordsAreSerializedOnReportingThreadIfTooManyArePending() {
+        // given
+        when(mockOpenKitConfiguration.isDeferredBeaconSerializationEnabled()).thenReturn(true);
+        Beacon target = createBeacon().build();
+        for (int i = 0; i < Beacon.MAX_PENDING_RECORDS; i++) {
+            target.reportEvent(ACTION_ID, "SomeEvent");
+        }
+        verifyZeroInteractions(mockBeaconCache);
+
+        // when
+        target.reportEvent(ACTION_ID, "SomeEvent");
+
+        // then
+        verify(mockBeaconCache, times(Beacon.MAX_PENDING_RECORDS + 1)).addEventData(
+                any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.LOW));
+    }
+
+    @Test
+    public void createChunkPrefixOfSpooledBeaconAppendsTransmissionData() {
+        // given
+        BeaconCacheImpl beaconCache = new BeaconCacheImpl(mockLogger);
+        BeaconSpool beaconSpool = mock(BeaconSpool.class);
+        when(mockTimingProvider.provideTimestampInMilliseconds()).thenReturn(1000L);
+        Beacon target = createBeacon().withIpAddress("127.0.0.1").with(beaconCache).build();
+        target.reportEvent(ACTION_ID, "SomeEvent");
+        target.spoolData(beaconSpool);
+        ArgumentCaptor<SpooledBeacon> captor = ArgumentCaptor.forClass(SpooledBeacon.class);
+        verify(beaconSpool, times(1)).spool(captor.capture());
+
+        // when
+        String obtained = Beacon.createChunkPrefix(captor.getValue(), 5000L);
+
+        // then
+        assertThat(obtained, startsWith("vv=" + ProtocolConstants.PROTOCOL_VERSION));
+        assertThat(obtained, containsString("&ip=127.0.0.1&"));
+        assertThat(obtained, endsWith("&tx=5000&tv=1000&mp=1"));
+    }
+
     @Test
     public void noSessionIsAddedIfDataSendingIsDisallowed() {
         // given
@@ -1520,7 +2132,7 @@ public class BeaconTest {
         verify(mockWebRequestTracer, times(1)).getBytesSent();
         verify(mockWebRequestTracer, times(1)).getResponseCode();
 
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -1637,7 +2249,7 @@ public class BeaconTest {
 
         //then
         //verify user tag has been serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -1727,7 +2339,7 @@ public class BeaconTest {
 
         //then
         verify(mockTimingProvider, times(2)).provideTimestampInMilliseconds();
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.CRITICAL));
     }
 
     @Test
@@ -1775,7 +2387,7 @@ public class BeaconTest {
         //then
         //verify action has been serialized
         verify(action, times(1)).getID();
-        verify(mockBeaconCache, times(1)).addActionData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addActionData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -1816,7 +2428,7 @@ public class BeaconTest {
 
         //then
         //verify serialized session get added to beacon
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -1844,7 +2456,7 @@ public class BeaconTest {
 
         //then
         //verify error has been serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.HIGH));
     }
 
     @Test
@@ -1883,7 +2495,7 @@ public class BeaconTest {
         target.reportValue(ACTION_ID, "testValue", 123);
 
         // then ensure that error was serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.LOW));
     }
 
 
@@ -1923,7 +2535,7 @@ public class BeaconTest {
         target.reportValue(ACTION_ID, "test value", 2.71);
 
         // then ensure that error was serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.LOW));
     }
 
     @Test
@@ -1962,7 +2574,7 @@ public class BeaconTest {
         target.reportValue(ACTION_ID, "test value", "test data");
 
         // then ensure that error was serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.LOW));
     }
 
     @Test
@@ -1988,7 +2600,7 @@ public class BeaconTest {
         target.reportEvent(ACTION_ID, "test event");
 
         // then ensure that error was serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.LOW));
     }
 
     @Test
@@ -2000,7 +2612,7 @@ public class BeaconTest {
         target.startSession();
 
         // then ensure session start has been serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -2013,8 +2625,7 @@ public class BeaconTest {
         target.startSession();
 
         // then ensure session start has been serialized
-        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString());
-        verifyNoMoreInteractions(mockPrivacyConfiguration);
+        verify(mockBeaconCache, times(1)).addEventData(any(BeaconKey.class), anyLong(), anyString(), eq(RecordPriority.NORMAL));
     }
 
     @Test
@@ -2109,6 +2720,18 @@ public class BeaconTest {
         assertThat(obtained, is(true));
     }
 
+    @Test
+    public void isCaptureAllowedTestsAllGivenFlags() {
+        // given
+        when(mockPrivacyConfiguration.isValueReportingAllowed()).thenReturn(false);
+        Beacon target = createBeacon().build();
+
+        // when, then
+        assertThat(target.isCaptureAllowed(CaptureMask.EVENT), is(true));
+        assertThat(target.isCaptureAllowed(CaptureMask.VALUE), is(false));
+        assertThat(target.isCaptureAllowed(CaptureMask.EVENT | CaptureMask.VALUE), is(false));
+    }
+
     @Test
     public void enableCaptureDelegatesToBeaconConfig() {
         // given
@@ -2172,6 +2795,22 @@ public class BeaconTest {
         verify(mockPrivacyConfiguration, times(2)).isActionReportingAllowed();
     }
 
+    @Test
+    public void recordPriorityIsDerivedFromEventType() {
+        // then
+        assertThat(Beacon.getRecordPriority(EventType.CRASH), is(RecordPriority.CRITICAL));
+        assertThat(Beacon.getRecordPriority(EventType.ERROR), is(RecordPriority.HIGH));
+        assertThat(Beacon.getRecordPriority(EventType.ACTION), is(RecordPriority.NORMAL));
+        assertThat(Beacon.getRecordPriority(EventType.WEB_REQUEST), is(RecordPriority.NORMAL));
+        assertThat(Beacon.getRecordPriority(EventType.SESSION_START), is(RecordPriority.NORMAL));
+        assertThat(Beacon.getRecordPriority(EventType.SESSION_END), is(RecordPriority.NORMAL));
+        assertThat(Beacon.getRecordPriority(EventType.IDENTIFY_USER), is(RecordPriority.NORMAL));
+        assertThat(Beacon.getRecordPriority(EventType.NAMED_EVENT), is(RecordPriority.LOW));
+        assertThat(Beacon.getRecordPriority(EventType.VALUE_INT), is(RecordPriority.LOW));
+        assertThat(Beacon.getRecordPriority(EventType.VALUE_DOUBLE), is(RecordPriority.LOW));
+        assertThat(Beacon.getRecordPriority(EventType.VALUE_STRING), is(RecordPriority.LOW));
+    }
+
     private BeaconBuilder createBeacon() {
         BeaconBuilder builder = new BeaconBuilder();
         builder.logger = mockLogger;
@@ -2196,6 +2835,8 @@ public class BeaconTest {
         private ThreadIDProvider threadIdProvider;
         private TimingProvider timingProvider;
         private RandomNumberGenerator random;
+        private NameDictionary nameDictionary = Beacon.createNameDictionary();
+        private Beacon.SharedBeaconData sharedBeaconData;
         private int sessionSequenceNumber;
 
         private BeaconBuilder withIpAddress(String ipAddress) {
@@ -2218,6 +2859,16 @@ public class BeaconTest {
             return this;
         }
 
+        private BeaconBuilder with(NameDictionary nameDictionary) {
+            this.nameDictionary = nameDictionary;
+            return this;
+        }
+
+        private BeaconBuilder with(Beacon.SharedBeaconData sharedBeaconData) {
+            this.sharedBeaconData = sharedBeaconData;
+            return this;
+        }
+
         private BeaconBuilder withSessionSequenceNumber(int sessionSequenceNumber) {
             this.sessionSequenceNumber = sessionSequenceNumber;
             return this;
@@ -2233,6 +2884,8 @@ public class BeaconTest {
             when(beaconInitializer.getThreadIdProvider()).thenReturn(threadIdProvider);
             when(beaconInitializer.getTimingProvider()).thenReturn(timingProvider);
             when(beaconInitializer.getRandomNumberGenerator()).thenReturn(random);
+            when(beaconInitializer.getNameDictionary()).thenReturn(nameDictionary);
+            when(beaconInitializer.getSharedBeaconData()).thenReturn(sharedBeaconData);
 
             return new Beacon(beaconInitializer, configuration);
         }
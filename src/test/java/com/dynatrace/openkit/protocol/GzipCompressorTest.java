@@ -0,0 +1,132 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GzipCompressorTest {
+
+    @Test
+    public void compressedDataIsIdenticalToGzipOutputStream() throws IOException {
+        // given
+        byte[] data = "type=m&some=beacon&data=with&some=repetition&some=repetition".getBytes("UTF-8");
+        GzipCompressor target = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+
+        // when
+        target.compress(data);
+
+        // then
+        assertThat(compressed(target), is(equalTo(gzip(data))));
+    }
+
+    @Test
+    public void compressorCanBeReused() throws IOException {
+        // given
+        byte[] first = "first beacon data, which is a bit longer than the second one".getBytes("UTF-8");
+        byte[] second = "second beacon data".getBytes("UTF-8");
+        GzipCompressor target = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+
+        // when
+        target.compress(first);
+        target.compress(second);
+
+        // then
+        assertThat(compressed(target), is(equalTo(gzip(second))));
+    }
+
+    @Test
+    public void bufferGrowsForDataNotFittingIntoInitialBuffer() throws IOException {
+        // given
+        byte[] data = new byte[10000];
+        new Random(42).nextBytes(data);
+        GzipCompressor target = new GzipCompressor(Deflater.DEFAULT_COMPRESSION, 16);
+
+        // when
+        target.compress(data);
+
+        // then
+        assertThat(target.getCapacity(), is(greaterThan(16)));
+        assertThat(gunzip(compressed(target)), is(equalTo(data)));
+    }
+
+    @Test
+    public void emptyDataIsCompressedToValidGzipFormat() throws IOException {
+        // given
+        GzipCompressor target = new GzipCompressor(Deflater.DEFAULT_COMPRESSION);
+
+        // when
+        target.compress(new byte[0]);
+
+        // then
+        assertThat(gunzip(compressed(target)).length, is(0));
+    }
+
+    @Test
+    public void compressionLevelIsApplied() throws IOException {
+        // given
+        byte[] data = new byte[1000];
+        Arrays.fill(data, (byte) 'a');
+        GzipCompressor target = new GzipCompressor(Deflater.NO_COMPRESSION);
+
+        // when
+        target.compress(data);
+
+        // then
+        assertThat(target.getLength(), is(greaterThan(data.length)));
+        assertThat(gunzip(compressed(target)), is(equalTo(data)));
+    }
+
+    private static byte[] compressed(GzipCompressor compressor) {
+        return Arrays.copyOf(compressor.getBuffer(), compressor.getLength());
+    }
+
+    private static byte[] gzip(byte[] uncompressed) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GZIPOutputStream gos = new GZIPOutputStream(bos);
+        gos.write(uncompressed);
+        gos.close();
+
+        return bos.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(compressed));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = gis.read(buffer)) > 0) {
+            bos.write(buffer, 0, length);
+        }
+        gis.close();
+
+        return bos.toByteArray();
+    }
+}
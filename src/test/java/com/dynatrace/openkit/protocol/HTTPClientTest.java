@@ -33,11 +33,13 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -49,8 +51,10 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -76,6 +80,7 @@ public class HTTPClientTest {
         when(configuration.getApplicationID()).thenReturn(APP_ID);
         when(configuration.getServerID()).thenReturn(SERVER_ID);
         when(configuration.getBaseURL()).thenReturn(BASE_URL);
+        when(configuration.getBeaconCompressionLevel()).thenReturn(Deflater.DEFAULT_COMPRESSION);
 
         httpURLConnectionWrapper = mock(HttpURLConnectionWrapper.class);
 
@@ -99,7 +104,7 @@ public class HTTPClientTest {
         HTTPClient client = new HTTPClient(logger, configuration);
 
         // when
-        StatusResponse response = client.sendRequest(null, "", null, null, null);
+        StatusResponse response = client.sendRequest(null, (URL) null, null, null, null);
 
         // then
         assertThat(response, is(nullValue()));
@@ -376,6 +381,104 @@ public class HTTPClientTest {
         assertThat(response.isErroneousResponse(), is(false));
     }
 
+    @Test
+    public void sendBeaconRequestUsesFixedLengthStreamingMode() throws IOException {
+        // given
+        byte[] uncompressedText = "type=m&some=beacon&data=1".getBytes("UTF-8");
+        byte[] compressedText = gzip(uncompressedText);
+        HTTPClient client = new HTTPClient(logger, configuration);
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(httpURLConnectionWrapper.getHttpURLConnection()).thenReturn(connection);
+        when(connection.getResponseCode()).thenReturn(200);
+        when(connection.getInputStream()).thenReturn(new ByteArrayInputStream("type=m".getBytes(CHARSET)));
+        when(connection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+
+        // when
+        client.sendRequest(RequestType.BEACON, httpURLConnectionWrapper, "127.0.0.1", uncompressedText, "POST");
+
+        // then
+        verify(connection, times(1)).setFixedLengthStreamingMode(compressedText.length);
+    }
+
+    @Test
+    public void sendBeaconRequestDoesNotCompressDataSmallerThanMinimumCompressionSize() throws IOException {
+        // given
+        byte[] uncompressedText = "type=m".getBytes("UTF-8");
+        when(configuration.getMinBeaconCompressionSize()).thenReturn(uncompressedText.length + 1);
+        HTTPClient client = new HTTPClient(logger, configuration);
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(httpURLConnectionWrapper.getHttpURLConnection()).thenReturn(connection);
+        when(connection.getResponseCode()).thenReturn(200);
+        when(connection.getInputStream()).thenReturn(new ByteArrayInputStream("type=m".getBytes(CHARSET)));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        when(connection.getOutputStream()).thenReturn(os);
+
+        // when
+        client.sendRequest(RequestType.BEACON, httpURLConnectionWrapper, "127.0.0.1", uncompressedText, "POST");
+
+        // then
+        verify(connection, never()).setRequestProperty(eq("Content-Encoding"), anyString());
+        verify(connection, times(1)).setFixedLengthStreamingMode(uncompressedText.length);
+        assertThat(os.toByteArray(), is(equalTo(uncompressedText)));
+    }
+
+    @Test
+    public void sendBeaconRequestCompressesDataReachingMinimumCompressionSize() throws IOException {
+        // given
+        String data = "type=m";
+        when(configuration.getMinBeaconCompressionSize()).thenReturn(data.length());
+        HTTPClient client = new HTTPClient(logger, configuration);
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(httpURLConnectionWrapper.getHttpURLConnection()).thenReturn(connection);
+        when(connection.getResponseCode()).thenReturn(200);
+        when(connection.getInputStream()).thenReturn(new ByteArrayInputStream("type=m".getBytes(CHARSET)));
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        when(connection.getOutputStream()).thenReturn(os);
+
+        // when
+        client.sendRequest(RequestType.BEACON, httpURLConnectionWrapper, "127.0.0.1", data.getBytes(CHARSET), "POST");
+
+        // then
+        verify(connection, times(1)).setRequestProperty("Content-Encoding", "gzip");
+        assertThat(gunzip(os.toByteArray()), is(data));
+    }
+
+    @Test
+    public void sendBeaconRequestDoesNotLogPayloadIfDebugIsDisabled() throws IOException {
+        // given
+        when(logger.isDebugEnabled()).thenReturn(false);
+        HTTPClient client = new HTTPClient(logger, configuration);
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(httpURLConnectionWrapper.getHttpURLConnection()).thenReturn(connection);
+        when(connection.getResponseCode()).thenReturn(200);
+        when(connection.getInputStream()).thenReturn(new ByteArrayInputStream("type=m".getBytes(CHARSET)));
+        when(connection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+
+        // when
+        client.sendRequest(RequestType.BEACON, httpURLConnectionWrapper, "127.0.0.1", "type=m".getBytes(CHARSET), "POST");
+
+        // then
+        verify(logger, never()).debug(anyString());
+    }
+
+    @Test
+    public void sendBeaconRequestLogsPayloadIfDebugIsEnabled() throws IOException {
+        // given
+        when(logger.isDebugEnabled()).thenReturn(true);
+        HTTPClient client = new HTTPClient(logger, configuration);
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(httpURLConnectionWrapper.getHttpURLConnection()).thenReturn(connection);
+        when(connection.getResponseCode()).thenReturn(200);
+        when(connection.getInputStream()).thenReturn(new ByteArrayInputStream("type=m".getBytes(CHARSET)));
+        when(connection.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+
+        // when
+        client.sendRequest(RequestType.BEACON, httpURLConnectionWrapper, "127.0.0.1", "type=m&foo=bar".getBytes(CHARSET), "POST");
+
+        // then
+        verify(logger, times(1)).debug("HTTPClient sendRequestInternal() - Beacon Payload: type=m&foo=bar");
+    }
+
     /**
      * Local helper function to decompress a GZIP compressed byte array
      */
@@ -587,7 +690,7 @@ public class HTTPClientTest {
     public void sendStatusRequestDoesNotReturnNull() {
         // given
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), anyString(), anyString(), Mockito.any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), Mockito.any(URL.class), anyString(), Mockito.any(byte[].class), anyString());
 
         // when
         StatusResponse obtained = target.sendStatusRequest(mockAdditionalParameters);
@@ -601,7 +704,7 @@ public class HTTPClientTest {
     public void sendNewSessionRequestDoesNotReturnNull() {
         // given
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), anyString(), anyString(), Mockito.any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), Mockito.any(URL.class), anyString(), Mockito.any(byte[].class), anyString());
 
         // when
         StatusResponse obtained = target.sendNewSessionRequest(mockAdditionalParameters);
@@ -615,7 +718,7 @@ public class HTTPClientTest {
     public void sendBeaconRequestDoesNotReturnNull() throws UnsupportedEncodingException {
         // given
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), anyString(), anyString(), Mockito.any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(Mockito.any(RequestType.class), Mockito.any(URL.class), anyString(), Mockito.any(byte[].class), anyString());
 
         // when
         StatusResponse obtained = target.sendBeaconRequest("127.0.0.1", "".getBytes(CHARSET), mockAdditionalParameters);
@@ -628,10 +731,10 @@ public class HTTPClientTest {
     @Test
     public void sendStatusRequestDoesNotAppendIfAdditionalQueryParametersAreNull() {
         // given
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendStatusRequest(null);
@@ -640,7 +743,7 @@ public class HTTPClientTest {
         verify(target, times(1)).sendRequest(any(RequestType.class), urlCaptor.capture(), anyString(), any(byte[].class), anyString());
 
         StringBuilder expectedUrl = initializeBaseUrl();
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     @Test
@@ -650,10 +753,10 @@ public class HTTPClientTest {
         AdditionalQueryParameters additionalQueryParameters = mock(AdditionalQueryParameters.class);
         when(additionalQueryParameters.getConfigurationTimestamp()).thenReturn(timestamp);
 
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendStatusRequest(additionalQueryParameters);
@@ -663,16 +766,16 @@ public class HTTPClientTest {
 
         StringBuilder expectedUrl = initializeBaseUrl();
         appendUrlParameter(expectedUrl, "cts", String.valueOf(timestamp));
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     @Test
     public void sendNewSessionRequestDoesNotAppendIfAdditionalQueryParametersAreNull() {
         // given
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendNewSessionRequest(null);
@@ -682,7 +785,7 @@ public class HTTPClientTest {
 
         StringBuilder expectedUrl = initializeBaseUrl();
         appendUrlParameter(expectedUrl, "ns", "1");
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     @Test
@@ -692,10 +795,10 @@ public class HTTPClientTest {
         AdditionalQueryParameters additionalQueryParameters = mock(AdditionalQueryParameters.class);
         when(additionalQueryParameters.getConfigurationTimestamp()).thenReturn(timestamp);
 
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendNewSessionRequest(additionalQueryParameters);
@@ -706,16 +809,16 @@ public class HTTPClientTest {
         StringBuilder expectedUrl = initializeBaseUrl();
         appendUrlParameter(expectedUrl, "ns", "1");
         appendUrlParameter(expectedUrl, "cts", String.valueOf(timestamp));
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     @Test
     public void sendBeaconRequestDoesNotAppendIfAdditionalQueryParametersAreNull() {
         // given
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendBeaconRequest(null, null, null);
@@ -724,7 +827,7 @@ public class HTTPClientTest {
         verify(target, times(1)).sendRequest(any(RequestType.class), urlCaptor.capture(), anyString(), any(byte[].class), anyString());
 
         StringBuilder expectedUrl = initializeBaseUrl();
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     @Test
@@ -734,10 +837,10 @@ public class HTTPClientTest {
         AdditionalQueryParameters additionalQueryParameters = mock(AdditionalQueryParameters.class);
         when(additionalQueryParameters.getConfigurationTimestamp()).thenReturn(timestamp);
 
-        ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<URL> urlCaptor = ArgumentCaptor.forClass(URL.class);
 
         HTTPClient target = spy(new HTTPClient(logger, configuration));
-        doReturn(null).when(target).sendRequest(any(RequestType.class), anyString(), anyString(), any(byte[].class), anyString());
+        doReturn(null).when(target).sendRequest(any(RequestType.class), any(URL.class), anyString(), any(byte[].class), anyString());
 
         // when
         target.sendBeaconRequest(null, null, additionalQueryParameters);
@@ -747,7 +850,7 @@ public class HTTPClientTest {
 
         StringBuilder expectedUrl = initializeBaseUrl();
         appendUrlParameter(expectedUrl, "cts", String.valueOf(timestamp));
-        assertThat(urlCaptor.getValue(), is(expectedUrl.toString()));
+        assertThat(urlCaptor.getValue().toString(), is(expectedUrl.toString()));
     }
 
     private StringBuilder initializeBaseUrl() {
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
+import com.dynatrace.openkit.protocol.nio.NioHTTPTransport;
+import com.dynatrace.openkit.protocol.nio.StubHTTPServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class NioHTTPClientTest {
+
+    private static final String APPLICATION_ID = "some-application-id";
+
+    private Logger mockLogger;
+    private StubHTTPServer server;
+    private NioHTTPTransport transport;
+
+    @Before
+    public void setUp() throws IOException {
+        mockLogger = mock(Logger.class);
+        server = new StubHTTPServer();
+        transport = new NioHTTPTransport(mockLogger, 2, 8, 1000, 1000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        transport.close();
+        server.close();
+    }
+
+    @Test
+    public void sendStatusRequestReturnsResponseOfServer() throws IOException {
+        // given
+        server.withResponse(200, "type=m");
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 0);
+
+        // when
+        StatusResponse obtained = target.sendStatusRequest(null);
+
+        // then
+        assertThat(obtained.getResponseCode(), is(200));
+        assertThat(obtained.isErroneousResponse(), is(false));
+        assertThat(server.getRequests().size(), is(1));
+        assertThat(server.getRequests().get(0).getMethod(), is("GET"));
+        assertThat(server.getRequests().get(0).getTarget(), startsWith("/mbeacon?type=m&srvid=1&app=" + APPLICATION_ID));
+    }
+
+    @Test
+    public void sendNewSessionRequestSendsNewSessionParameter() throws IOException {
+        // given
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 0);
+
+        // when
+        target.sendNewSessionRequest(null);
+
+        // then
+        assertThat(server.getRequests().get(0).getTarget(), endsWith("&ns=1"));
+    }
+
+    @Test
+    public void sendBeaconRequestSendsGzippedData() throws IOException {
+        // given
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 0);
+
+        // when
+        StatusResponse obtained = target.sendBeaconRequest("10.0.0.1", "some beacon data".getBytes(Beacon.CHARSET), null);
+
+        // then
+        assertThat(obtained.getResponseCode(), is(200));
+        StubHTTPServer.Request received = server.getRequests().get(0);
+        assertThat(received.getMethod(), is("POST"));
+        assertThat(received.getHeader("x-client-ip"), is("10.0.0.1"));
+        assertThat(received.getHeader("content-encoding"), is("gzip"));
+        assertThat(gunzip(received.getBody()), is("some beacon data"));
+    }
+
+    @Test
+    public void sendBeaconRequestSendsSmallDataUncompressed() throws IOException {
+        // given
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 1024);
+
+        // when
+        target.sendBeaconRequest(null, "some beacon data".getBytes(Beacon.CHARSET), null);
+
+        // then
+        StubHTTPServer.Request received = server.getRequests().get(0);
+        assertThat(received.getHeader("content-encoding"), is(nullValue()));
+        assertThat(received.getHeader("x-client-ip"), is(nullValue()));
+        assertThat(new String(received.getBody(), Beacon.CHARSET), is("some beacon data"));
+    }
+
+    @Test
+    public void errorResponseContainsResponseHeaders() throws IOException {
+        // given
+        server.withResponse(429, "").withResponseHeader("Retry-After", "5");
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 0);
+
+        // when
+        StatusResponse obtained = target.sendBeaconRequest(null, "some beacon data".getBytes(Beacon.CHARSET), null);
+
+        // then
+        assertThat(obtained.getResponseCode(), is(429));
+        assertThat(obtained.isErroneousResponse(), is(true));
+        assertThat(obtained.getRetryAfterInMilliseconds(), is(5000L));
+    }
+
+    @Test
+    public void sendBeaconRequestIsNotSentAgainIfConnectionIsDroppedAfterSending() throws IOException {
+        // given
+        server.withConnectionsDroppedAfterRequest();
+        NioHTTPClient target = createClient(server.getURL("/mbeacon").toString(), 0);
+
+        // when
+        StatusResponse obtained = target.sendBeaconRequest(null, "some beacon data".getBytes(Beacon.CHARSET), null);
+
+        // then
+        assertThat(obtained.isErroneousResponse(), is(true));
+        assertThat(server.getRequests().size(), is(1));
+    }
+
+    @Test
+    public void unreachableServerResultsInErrorResponse() throws IOException {
+        // given
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        NioHTTPClient target = createClient("http://127.0.0.1:" + port + "/mbeacon", 0);
+
+        // when
+        StatusResponse obtained = target.sendStatusRequest(null);
+
+        // then
+        assertThat(obtained.getResponseCode(), is(Integer.MAX_VALUE));
+        assertThat(obtained.isErroneousResponse(), is(true));
+    }
+
+    private NioHTTPClient createClient(String baseURL, int minBeaconCompressionSize) {
+        HTTPClientConfiguration configuration = new HTTPClientConfiguration.Builder()
+                .withBaseURL(baseURL)
+                .withApplicationID(APPLICATION_ID)
+                .withServerID(1)
+                .withMinBeaconCompressionSize(minBeaconCompressionSize)
+                .build();
+        return new NioHTTPClient(mockLogger, configuration, transport);
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = in.read(buffer)) > 0) {
+            out.write(buffer, 0, length);
+        }
+        in.close();
+        return new String(out.toByteArray(), Beacon.CHARSET);
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class RecordDeduplicatorTest {
+
+    private static final long WINDOW = 1000L;
+
+    @Test
+    public void firstRecordIsHeldBack() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+
+        // when
+        CapturedBeaconRecord obtained = target.open(createKey("error"), createRecord(0L));
+
+        // then
+        assertThat(obtained, is(nullValue()));
+        assertThat(target.isEmpty(), is(false));
+    }
+
+    @Test
+    public void identicalRecordsWithinWindowAreCounted() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        CapturedBeaconRecord record = createRecord(0L);
+        target.open(createKey("error"), record);
+
+        // when
+        boolean first = target.addOccurrence(createKey("error"), 10L);
+        boolean second = target.addOccurrence(createKey("error"), WINDOW - 1);
+
+        // then
+        assertThat(first, is(true));
+        assertThat(second, is(true));
+        assertThat(record.getOccurrences(), is(3));
+    }
+
+    @Test
+    public void occurrenceIsNotCountedIfNoWindowIsOpen() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        target.open(createKey("error"), createRecord(0L));
+
+        // when, then
+        assertThat(target.addOccurrence(createKey("other"), 10L), is(false));
+        assertThat(target.addOccurrence(createKey("error"), WINDOW), is(false));
+    }
+
+    @Test
+    public void openingExpiredWindowReturnsHeldRecord() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        CapturedBeaconRecord first = createRecord(0L);
+        CapturedBeaconRecord second = createRecord(WINDOW);
+        target.open(createKey("error"), first);
+
+        // when
+        CapturedBeaconRecord obtained = target.open(createKey("error"), second);
+
+        // then
+        assertThat(obtained, is(sameInstance(first)));
+        assertThat(target.closeAllWindows().get(0), is(sameInstance(second)));
+    }
+
+    @Test
+    public void openingOpenWindowCountsOccurrence() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        CapturedBeaconRecord first = createRecord(0L);
+        target.open(createKey("error"), first);
+
+        // when
+        CapturedBeaconRecord obtained = target.open(createKey("error"), createRecord(1L));
+
+        // then
+        assertThat(obtained, is(nullValue()));
+        assertThat(first.getOccurrences(), is(2));
+    }
+
+    @Test
+    public void recordIsReturnedIfTooManyWindowsAreOpen() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        for (int i = 0; i < RecordDeduplicator.MAX_OPEN_WINDOWS; i++) {
+            target.open(createKey("error" + i), createRecord(0L));
+        }
+        CapturedBeaconRecord record = createRecord(0L);
+
+        // when
+        CapturedBeaconRecord obtained = target.open(createKey("one too many"), record);
+
+        // then
+        assertThat(obtained, is(sameInstance(record)));
+    }
+
+    @Test
+    public void closeExpiredWindowsOnlyClosesExpiredWindows() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        CapturedBeaconRecord first = createRecord(0L);
+        CapturedBeaconRecord second = createRecord(500L);
+        target.open(createKey("first"), first);
+        target.open(createKey("second"), second);
+
+        // when
+        List<CapturedBeaconRecord> obtained = target.closeExpiredWindows(WINDOW + 100L);
+
+        // then
+        assertThat(obtained.size(), is(1));
+        assertThat(obtained.get(0), is(sameInstance(first)));
+        assertThat(target.isEmpty(), is(false));
+    }
+
+    @Test
+    public void closeAllWindowsReturnsAllRecordsInOrder() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        CapturedBeaconRecord first = createRecord(0L);
+        CapturedBeaconRecord second = createRecord(500L);
+        target.open(createKey("first"), first);
+        target.open(createKey("second"), second);
+
+        // when
+        List<CapturedBeaconRecord> obtained = target.closeAllWindows();
+
+        // then
+        assertThat(obtained.size(), is(2));
+        assertThat(obtained.get(0), is(sameInstance(first)));
+        assertThat(obtained.get(1), is(sameInstance(second)));
+        assertThat(target.isEmpty(), is(true));
+    }
+
+    @Test
+    public void clearDiscardsAllWindows() {
+        // given
+        RecordDeduplicator target = new RecordDeduplicator(WINDOW);
+        target.open(createKey("error"), createRecord(0L));
+
+        // when
+        target.clear();
+
+        // then
+        assertThat(target.isEmpty(), is(true));
+        assertThat(target.closeAllWindows(), is(empty()));
+    }
+
+    @Test
+    public void recordKeysAreEqualForIdenticalRecords() {
+        // given
+        RecordDeduplicator.RecordKey key = new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "name", 42, "reason");
+
+        // then
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "name", 42, "reason")), is(true));
+        assertThat(key.hashCode(),
+            is(new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "name", 42, "reason").hashCode()));
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.NAMED_EVENT, 1, "name", 42, "reason")), is(false));
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.ERROR, 2, "name", 42, "reason")), is(false));
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "other", 42, "reason")), is(false));
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "name", 43, "reason")), is(false));
+        assertThat(key.equals(new RecordDeduplicator.RecordKey(EventType.ERROR, 1, "name", 42, null)), is(false));
+    }
+
+    private static RecordDeduplicator.RecordKey createKey(String name) {
+        return new RecordDeduplicator.RecordKey(EventType.ERROR, 1, name, 42, "reason");
+    }
+
+    private static CapturedBeaconRecord createRecord(long timestamp) {
+        return new CapturedBeaconRecord(EventType.ERROR, timestamp) {
+            @Override
+            void serialize(StringBuilder builder) {
+                builder.append("error");
+            }
+        };
+    }
+}
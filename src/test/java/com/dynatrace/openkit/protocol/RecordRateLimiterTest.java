@@ -0,0 +1,126 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol;
+
+import com.dynatrace.openkit.api.Logger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RecordRateLimiterTest {
+
+    private Logger mockLogger;
+
+    @Before
+    public void setUp() {
+        mockLogger = mock(Logger.class);
+        when(mockLogger.isWarnEnabled()).thenReturn(true);
+    }
+
+    @Test
+    public void recordsUpToTheLimitAreAdmitted() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 2);
+
+        // when, then
+        assertThat(target.tryAcquire(0L), is(true));
+        assertThat(target.tryAcquire(10L), is(true));
+        assertThat(target.tryAcquire(20L), is(false));
+        assertThat(target.getNumRejectedRecords(), is(1L));
+    }
+
+    @Test
+    public void limitIsResetAfterOneSecond() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 1);
+        target.tryAcquire(0L);
+
+        // when, then
+        assertThat(target.tryAcquire(999L), is(false));
+        assertThat(target.tryAcquire(1000L), is(true));
+        assertThat(target.tryAcquire(1999L), is(false));
+    }
+
+    @Test
+    public void limitIsResetIfClockGoesBackwards() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 1);
+        target.tryAcquire(5000L);
+
+        // when
+        boolean obtained = target.tryAcquire(1000L);
+
+        // then
+        assertThat(obtained, is(true));
+    }
+
+    @Test
+    public void rejectedRecordsAreLoggedWhenNextWindowStarts() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 1);
+        target.tryAcquire(0L);
+        target.tryAcquire(10L);
+        target.tryAcquire(20L);
+        verify(mockLogger, never()).warning(anyString());
+
+        // when
+        target.tryAcquire(1000L);
+
+        // then
+        verify(mockLogger, times(1)).warning(
+            "RecordRateLimiter - Dropped 2 errors and events exceeding the limit of 1 per second (2 in total)");
+    }
+
+    @Test
+    public void reportRejectedRecordsLogsRejectedRecordsOnlyOnce() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 1);
+        target.tryAcquire(0L);
+        target.tryAcquire(10L);
+
+        // when
+        target.reportRejectedRecords();
+        target.reportRejectedRecords();
+        target.tryAcquire(1000L);
+
+        // then
+        verify(mockLogger, times(1)).warning(anyString());
+        assertThat(target.getNumRejectedRecords(), is(1L));
+    }
+
+    @Test
+    public void nothingIsLoggedIfNoRecordWasRejected() {
+        // given
+        RecordRateLimiter target = new RecordRateLimiter(mockLogger, 1);
+        target.tryAcquire(0L);
+
+        // when
+        target.tryAcquire(1000L);
+        target.reportRejectedRecords();
+
+        // then
+        verify(mockLogger, never()).warning(anyString());
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class HTTPRequestTest {
+
+    @Test
+    public void encodeGetRequest() throws IOException {
+        // given
+        HTTPRequest target = new HTTPRequest("GET", new URL("http://localhost:8080/mbeacon?type=m&srvid=1"));
+
+        // when
+        String obtained = new String(target.encode(), "ISO-8859-1");
+
+        // then
+        assertThat(obtained, is("GET /mbeacon?type=m&srvid=1 HTTP/1.1\r\nHost: localhost:8080\r\n\r\n"));
+    }
+
+    @Test
+    public void encodeOmitsDefaultPortAndUsesRootPath() throws IOException {
+        // given
+        HTTPRequest target = new HTTPRequest("GET", new URL("http://localhost"));
+
+        // when
+        String obtained = new String(target.encode(), "ISO-8859-1");
+
+        // then
+        assertThat(obtained, is("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"));
+    }
+
+    @Test
+    public void encodePostRequestWithHeadersAndBody() throws IOException {
+        // given
+        byte[] data = "xxbodyxx".getBytes("ISO-8859-1");
+        HTTPRequest target = new HTTPRequest("POST", new URL("http://localhost/mbeacon"))
+                .withHeader("Content-Encoding", "gzip")
+                .withBody(data, 2, 4);
+
+        // when
+        String obtained = new String(target.encode(), "ISO-8859-1");
+
+        // then
+        assertThat(obtained, is("POST /mbeacon HTTP/1.1\r\nHost: localhost\r\nContent-Encoding: gzip\r\nContent-Length: 4\r\n\r\nbody"));
+    }
+
+    @Test
+    public void withBodyCopiesTheData() throws IOException {
+        // given
+        byte[] data = "body".getBytes("ISO-8859-1");
+        HTTPRequest target = new HTTPRequest("POST", new URL("http://localhost/"))
+                .withBody(data, 0, data.length);
+
+        // when
+        data[0] = 'x';
+        String obtained = new String(target.encode(), "ISO-8859-1");
+
+        // then
+        assertThat(obtained.endsWith("\r\n\r\nbody"), is(true));
+    }
+
+    @Test
+    public void encodeEmptyPostRequestSendsZeroContentLength() throws IOException {
+        // given
+        HTTPRequest target = new HTTPRequest("POST", new URL("http://localhost/"));
+
+        // when
+        String obtained = new String(target.encode(), "ISO-8859-1");
+
+        // then
+        assertThat(obtained, is("POST / HTTP/1.1\r\nHost: localhost\r\nContent-Length: 0\r\n\r\n"));
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class HTTPResponseDecoderTest {
+
+    private HTTPResponseDecoder target;
+
+    @Before
+    public void setUp() {
+        target = new HTTPResponseDecoder();
+    }
+
+    @Test
+    public void responseWithContentLengthIsDecoded() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nContent-Length: 6\r\nRetry-After: 10\r\n\r\ntype=m");
+
+        // when
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(obtained, is(notNullValue()));
+        assertThat(obtained.getStatusCode(), is(200));
+        assertThat(obtained.getHeaderValue("retry-after"), is("10"));
+        assertThat(body(obtained), is("type=m"));
+        assertThat(obtained.isKeepAlive(), is(true));
+        assertThat(target.hasPartialResponse(), is(false));
+    }
+
+    @Test
+    public void responseFedInPiecesIsDecodedWhenComplete() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nContent-Le");
+        assertThat(target.next(), is(nullValue()));
+        feed("ngth: 6\r\n\r\ntyp");
+        assertThat(target.next(), is(nullValue()));
+        assertThat(target.hasPartialResponse(), is(true));
+
+        // when
+        feed("e=m");
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(body(obtained), is("type=m"));
+    }
+
+    @Test
+    public void pipelinedResponsesAreDecodedInOrder() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nContent-Length: 1\r\n\r\na"
+                + "HTTP/1.1 429 Too Many Requests\r\nContent-Length: 1\r\n\r\nb"
+                + "HTTP/1.1 200 OK\r\nContent-Length: 1\r\n\r\n");
+
+        // when
+        HTTPResponse first = target.next();
+        HTTPResponse second = target.next();
+        HTTPResponse third = target.next();
+
+        // then
+        assertThat(body(first), is("a"));
+        assertThat(second.getStatusCode(), is(429));
+        assertThat(body(second), is("b"));
+        assertThat(third, is(nullValue()));
+        assertThat(target.hasPartialResponse(), is(true));
+    }
+
+    @Test
+    public void chunkedResponseIsDecoded() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n3;ext=1\r\ntyp\r\n3\r\ne=m\r\n0\r\nTrailer: x\r\n\r\n");
+
+        // when
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(body(obtained), is("type=m"));
+        assertThat(target.hasPartialResponse(), is(false));
+    }
+
+    @Test
+    public void interimResponsesAreSkipped() throws IOException {
+        // given
+        feed("HTTP/1.1 100 Continue\r\n\r\nHTTP/1.1 204 No Content\r\n\r\n");
+
+        // when
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(obtained.getStatusCode(), is(204));
+        assertThat(obtained.getBody().length, is(0));
+    }
+
+    @Test
+    public void connectionCloseHeaderDisablesKeepAlive() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+
+        // when
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(obtained.isKeepAlive(), is(false));
+    }
+
+    @Test
+    public void http10ResponseIsNotKeptAliveByDefault() throws IOException {
+        // given
+        feed("HTTP/1.0 200 OK\r\nContent-Length: 0\r\n\r\n");
+
+        // when
+        HTTPResponse obtained = target.next();
+
+        // then
+        assertThat(obtained.isKeepAlive(), is(false));
+    }
+
+    @Test
+    public void responseWithoutLengthEndsWithEndOfStream() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\n\r\ntype=m");
+        assertThat(target.next(), is(nullValue()));
+
+        // when
+        HTTPResponse obtained = target.endOfStream();
+
+        // then
+        assertThat(body(obtained), is("type=m"));
+        assertThat(obtained.isKeepAlive(), is(false));
+    }
+
+    @Test
+    public void endOfStreamWithoutPendingResponseReturnsNull() throws IOException {
+        // when
+        HTTPResponse obtained = target.endOfStream();
+
+        // then
+        assertThat(obtained, is(nullValue()));
+    }
+
+    @Test(expected = EOFException.class)
+    public void endOfStreamWithinResponseThrowsEOFException() throws IOException {
+        // given
+        feed("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\ntype");
+        target.next();
+
+        // when, then
+        target.endOfStream();
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedStatusLineThrowsIOException() throws IOException {
+        // given
+        feed("SSH-2.0-OpenSSH\r\n\r\n");
+
+        // when, then
+        target.next();
+    }
+
+    @Test(expected = IOException.class)
+    public void tooLargeHeaderSectionThrowsIOException() throws IOException {
+        // given
+        StringBuilder header = new StringBuilder("HTTP/1.1 200 OK\r\nX-Large: ");
+        while (header.length() <= HTTPResponseDecoder.MAX_HEADER_SECTION_SIZE) {
+            header.append("aaaaaaaaaa");
+        }
+        feed(header.toString());
+
+        // when, then
+        target.next();
+    }
+
+    private void feed(String data) throws IOException {
+        target.feed(ByteBuffer.wrap(data.getBytes("ISO-8859-1")));
+    }
+
+    private static String body(HTTPResponse response) throws IOException {
+        return new String(response.getBody(), "UTF-8");
+    }
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import com.dynatrace.openkit.api.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class NioHTTPTransportTest {
+
+    private Logger mockLogger;
+    private StubHTTPServer server;
+    private NioHTTPTransport target;
+
+    @Before
+    public void setUp() throws IOException {
+        mockLogger = mock(Logger.class);
+        server = new StubHTTPServer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (target != null) {
+            target.close();
+        }
+        server.close();
+    }
+
+    @Test
+    public void executeReturnsResponseOfServer() throws IOException {
+        // given
+        server.withResponse(200, "type=m&cp=1").withResponseHeader("Retry-After", "5");
+        target = new NioHTTPTransport(mockLogger);
+
+        // when
+        HTTPResponse obtained = target.execute(new HTTPRequest("GET", server.getURL("/mbeacon?type=m")));
+
+        // then
+        assertThat(obtained.getStatusCode(), is(200));
+        assertThat(new String(obtained.getBody(), "UTF-8"), is("type=m&cp=1"));
+        assertThat(obtained.getHeaderValue("retry-after"), is("5"));
+        assertThat(server.getRequests().size(), is(1));
+        assertThat(server.getRequests().get(0).getMethod(), is("GET"));
+        assertThat(server.getRequests().get(0).getTarget(), is("/mbeacon?type=m"));
+    }
+
+    @Test
+    public void executeSendsBodyAndHeaders() throws IOException {
+        // given
+        target = new NioHTTPTransport(mockLogger);
+        byte[] body = "some beacon data".getBytes("UTF-8");
+        HTTPRequest request = new HTTPRequest("POST", server.getURL("/mbeacon"))
+                .withHeader("X-Client-IP", "127.0.0.1")
+                .withBody(body, 0, body.length);
+
+        // when
+        target.execute(request);
+
+        // then
+        StubHTTPServer.Request received = server.getRequests().get(0);
+        assertThat(received.getMethod(), is("POST"));
+        assertThat(received.getHeader("x-client-ip"), is("127.0.0.1"));
+        assertThat(received.getHeader("content-length"), is(String.valueOf(body.length)));
+        assertThat(new String(received.getBody(), "UTF-8"), is("some beacon data"));
+    }
+
+    @Test
+    public void executeDecodesChunkedResponses() throws IOException {
+        // given
+        server.withResponse(200, "type=m&cp=1&si=120").withChunkedResponses();
+        target = new NioHTTPTransport(mockLogger);
+
+        // when
+        HTTPResponse obtained = target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+
+        // then
+        assertThat(new String(obtained.getBody(), "UTF-8"), is("type=m&cp=1&si=120"));
+    }
+
+    @Test
+    public void sequentialRequestsReuseTheConnection() throws IOException {
+        // given
+        target = new NioHTTPTransport(mockLogger);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+        }
+
+        // then
+        assertThat(server.getRequests().size(), is(5));
+        assertThat(server.getNumberOfConnections(), is(1));
+    }
+
+    @Test
+    public void concurrentRequestsShareTheLimitedNumberOfConnections() throws Exception {
+        // given
+        server.withResponseDelay(20);
+        target = new NioHTTPTransport(mockLogger, 2, 8, 1000, 10000);
+
+        // when
+        List<HTTPResponse> obtained = executeConcurrently(16, server.getURL("/mbeacon"));
+
+        // then
+        assertThat(obtained.size(), is(16));
+        for (HTTPResponse response : obtained) {
+            assertThat(response.getStatusCode(), is(200));
+        }
+        assertThat(server.getRequests().size(), is(16));
+        assertThat(server.getNumberOfConnections(), is(lessThanOrEqualTo(2)));
+    }
+
+    @Test
+    public void concurrentRequestsArePipelinedOnASingleConnection() throws Exception {
+        // given
+        server.withResponseDelay(20);
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 10000);
+
+        // when
+        List<HTTPResponse> obtained = executeConcurrently(8, server.getURL("/mbeacon"));
+
+        // then
+        assertThat(obtained.size(), is(8));
+        assertThat(server.getRequests().size(), is(8));
+        assertThat(server.getNumberOfConnections(), is(1));
+    }
+
+    @Test
+    public void pipelinedRequestsAreSentAgainIfServerClosesTheConnection() throws Exception {
+        // given
+        server.withMaxRequestsPerConnection(1);
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 10000);
+
+        // when
+        List<HTTPResponse> obtained = executeConcurrently(4, server.getURL("/mbeacon"));
+
+        // then
+        assertThat(obtained.size(), is(4));
+        for (HTTPResponse response : obtained) {
+            assertThat(response.getStatusCode(), is(200));
+        }
+    }
+
+    @Test
+    public void writtenPostRequestIsNotSentAgainIfConnectionIsDropped() throws IOException {
+        // given
+        server.withConnectionsDroppedAfterRequest();
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 10000);
+        byte[] body = "some beacon data".getBytes("UTF-8");
+
+        // when
+        try {
+            target.execute(new HTTPRequest("POST", server.getURL("/mbeacon")).withBody(body, 0, body.length));
+            fail("UnconfirmedRequestException expected");
+        } catch (UnconfirmedRequestException e) {
+            // then
+            assertThat(server.getRequests().size(), is(1));
+        }
+    }
+
+    @Test
+    public void writtenGetRequestIsSentOnceMoreIfConnectionIsDropped() throws IOException {
+        // given
+        server.withConnectionsDroppedAfterRequest();
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 10000);
+
+        // when
+        try {
+            target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+            fail("IOException expected");
+        } catch (IOException e) {
+            // then
+            assertThat(e, is(not(instanceOf(UnconfirmedRequestException.class))));
+            assertThat(server.getRequests().size(), is(NioHTTPTransport.MAX_ATTEMPTS));
+        }
+    }
+
+    @Test
+    public void writtenPostRequestFailsWithUnconfirmedRequestExceptionIfServerDoesNotRespond() throws IOException {
+        // given
+        server.withoutResponses();
+        target = new NioHTTPTransport(mockLogger, 1, 8, 100, 100);
+        byte[] body = "some beacon data".getBytes("UTF-8");
+
+        // when
+        try {
+            target.execute(new HTTPRequest("POST", server.getURL("/mbeacon")).withBody(body, 0, body.length));
+            fail("UnconfirmedRequestException expected");
+        } catch (UnconfirmedRequestException e) {
+            // then
+            assertThat(e.getCause(), is(instanceOf(SocketTimeoutException.class)));
+        }
+    }
+
+    @Test
+    public void executeThrowsSocketTimeoutExceptionIfServerDoesNotRespond() throws IOException {
+        // given
+        server.withoutResponses();
+        target = new NioHTTPTransport(mockLogger, 1, 8, 100, 100);
+
+        // when
+        try {
+            target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+            fail("SocketTimeoutException expected");
+        } catch (SocketTimeoutException e) {
+            // then expected
+        }
+    }
+
+    @Test
+    public void executeThrowsIOExceptionIfServerIsNotReachable() throws IOException {
+        // given
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 1000);
+
+        // when
+        try {
+            target.execute(new HTTPRequest("GET", new URL("http", "127.0.0.1", port, "/mbeacon")));
+            fail("IOException expected");
+        } catch (IOException e) {
+            // then
+            assertThat(e, is(instanceOf(IOException.class)));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void executeThrowsIOExceptionForHttpsURL() throws IOException {
+        // given
+        target = new NioHTTPTransport(mockLogger);
+
+        // when, then
+        target.execute(new HTTPRequest("GET", new URL("https://localhost/mbeacon")));
+    }
+
+    @Test
+    public void idleConnectionsAreClosed() throws Exception {
+        // given
+        target = new NioHTTPTransport(mockLogger, 1, 8, 1000, 1000, 50);
+        target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+
+        // when
+        Thread.sleep(200);
+        target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+
+        // then
+        assertThat(server.getNumberOfConnections(), is(2));
+    }
+
+    @Test
+    public void closeStopsTheSelectorThread() throws IOException {
+        // given
+        target = new NioHTTPTransport(mockLogger);
+        target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+        assertThat(target.isRunning(), is(true));
+
+        // when
+        target.close();
+
+        // then
+        assertThat(target.isRunning(), is(false));
+    }
+
+    @Test(expected = IOException.class)
+    public void executeThrowsIOExceptionAfterClose() throws IOException {
+        // given
+        target = new NioHTTPTransport(mockLogger);
+        target.close();
+
+        // when, then
+        target.execute(new HTTPRequest("GET", server.getURL("/mbeacon")));
+    }
+
+    private List<HTTPResponse> executeConcurrently(int numberOfRequests, final URL url) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfRequests);
+        try {
+            List<Future<HTTPResponse>> futures = new ArrayList<Future<HTTPResponse>>();
+            for (int i = 0; i < numberOfRequests; i++) {
+                futures.add(executor.submit(new Callable<HTTPResponse>() {
+                    @Override
+                    public HTTPResponse call() throws Exception {
+                        byte[] body = "some beacon data".getBytes("UTF-8");
+                        return target.execute(new HTTPRequest("POST", url).withBody(body, 0, body.length));
+                    }
+                }));
+            }
+
+            List<HTTPResponse> responses = new ArrayList<HTTPResponse>();
+            for (Future<HTTPResponse> future : futures) {
+                responses.add(future.get());
+            }
+            return responses;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
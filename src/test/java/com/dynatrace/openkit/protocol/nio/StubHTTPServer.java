@@ -0,0 +1,332 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.nio;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process HTTP/1.1 server for testing HTTP clients.
+ *
+ * <p>
+ *     Each connection is served by its own thread, which answers the requests in the order they are received,
+ *     so pipelined requests are supported. All requests get the same configurable response.
+ * </p>
+ */
+public class StubHTTPServer implements Closeable {
+
+    private static final String CHARSET = "ISO-8859-1";
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<Socket>());
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<Request>());
+    private final AtomicInteger numberOfConnections = new AtomicInteger(0);
+
+    private volatile int statusCode = 200;
+    private volatile String responseBody = "type=m";
+    private volatile Map<String, String> responseHeaders = new HashMap<String, String>();
+    private volatile boolean chunked = false;
+    private volatile boolean respond = true;
+    private volatile boolean dropConnections = false;
+    private volatile long responseDelayInMillis = 0;
+    private volatile int maxRequestsPerConnection = 0;
+
+    public StubHTTPServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }, StubHTTPServer.class.getSimpleName());
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public URL getURL(String file) throws IOException {
+        return new URL("http", "127.0.0.1", serverSocket.getLocalPort(), file);
+    }
+
+    public StubHTTPServer withResponse(int statusCode, String body) {
+        this.statusCode = statusCode;
+        this.responseBody = body;
+        return this;
+    }
+
+    public StubHTTPServer withResponseHeader(String name, String value) {
+        Map<String, String> headers = new HashMap<String, String>(responseHeaders);
+        headers.put(name, value);
+        responseHeaders = headers;
+        return this;
+    }
+
+    /**
+     * Send response bodies with chunked transfer coding.
+     */
+    public StubHTTPServer withChunkedResponses() {
+        chunked = true;
+        return this;
+    }
+
+    /**
+     * Don't send any response.
+     */
+    public StubHTTPServer withoutResponses() {
+        respond = false;
+        return this;
+    }
+
+    /**
+     * Close each connection without a response, after a request has been received.
+     */
+    public StubHTTPServer withConnectionsDroppedAfterRequest() {
+        dropConnections = true;
+        return this;
+    }
+
+    public StubHTTPServer withResponseDelay(long delayInMillis) {
+        responseDelayInMillis = delayInMillis;
+        return this;
+    }
+
+    /**
+     * Close each connection with {@code Connection: close} after the given number of responses.
+     */
+    public StubHTTPServer withMaxRequestsPerConnection(int maxRequests) {
+        maxRequestsPerConnection = maxRequests;
+        return this;
+    }
+
+    public int getNumberOfConnections() {
+        return numberOfConnections.get();
+    }
+
+    public List<Request> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<Request>(requests);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (sockets) {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        try {
+            acceptThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+            numberOfConnections.incrementAndGet();
+            sockets.add(socket);
+
+            Thread connectionThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    serveConnection(socket);
+                }
+            }, StubHTTPServer.class.getSimpleName() + "-Connection");
+            connectionThread.setDaemon(true);
+            connectionThread.start();
+        }
+    }
+
+    private void serveConnection(Socket socket) {
+        try {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            int servedRequests = 0;
+            Request request;
+            while ((request = readRequest(in)) != null) {
+                requests.add(request);
+                if (dropConnections) {
+                    break;
+                }
+                if (!respond) {
+                    continue;
+                }
+                if (responseDelayInMillis > 0) {
+                    Thread.sleep(responseDelayInMillis);
+                }
+
+                servedRequests++;
+                boolean close = maxRequestsPerConnection > 0 && servedRequests >= maxRequestsPerConnection;
+                writeResponse(out, close);
+                if (close) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // connection closed by the client
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void writeResponse(OutputStream out, boolean close) throws IOException {
+        byte[] body = responseBody.getBytes("UTF-8");
+
+        StringBuilder head = new StringBuilder();
+        head.append("HTTP/1.1 ").append(statusCode).append(" Stub\r\n");
+        for (Map.Entry<String, String> header : responseHeaders.entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        if (close) {
+            head.append("Connection: close\r\n");
+        }
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        if (chunked) {
+            head.append("Transfer-Encoding: chunked\r\n\r\n");
+            response.write(head.toString().getBytes(CHARSET));
+            // split the body into two chunks
+            int half = body.length / 2;
+            writeChunk(response, body, 0, half);
+            writeChunk(response, body, half, body.length - half);
+            response.write("0\r\n\r\n".getBytes(CHARSET));
+        } else {
+            head.append("Content-Length: ").append(body.length).append("\r\n\r\n");
+            response.write(head.toString().getBytes(CHARSET));
+            response.write(body);
+        }
+
+        out.write(response.toByteArray());
+        out.flush();
+    }
+
+    private static void writeChunk(ByteArrayOutputStream response, byte[] data, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        response.write((Integer.toHexString(length) + "\r\n").getBytes(CHARSET));
+        response.write(data, offset, length);
+        response.write("\r\n".getBytes(CHARSET));
+    }
+
+    private static Request readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        if (requestLine == null) {
+            return null;
+        }
+        String[] parts = requestLine.split(" ");
+
+        Map<String, String> headers = new HashMap<String, String>();
+        String line;
+        while ((line = readLine(in)) != null && line.length() > 0) {
+            int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+
+        String contentLength = headers.get("content-length");
+        byte[] body = new byte[contentLength == null ? 0 : Integer.parseInt(contentLength)];
+        int offset = 0;
+        while (offset < body.length) {
+            int bytesRead = in.read(body, offset, body.length - offset);
+            if (bytesRead < 0) {
+                return null;
+            }
+            offset += bytesRead;
+        }
+
+        return new Request(parts[0], parts[1], headers, body);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, CHARSET);
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    /**
+     * A received request.
+     */
+    public static final class Request {
+
+        private final String method;
+        private final String target;
+        private final Map<String, String> headers;
+        private final byte[] body;
+
+        private Request(String method, String target, Map<String, String> headers, byte[] body) {
+            this.method = method;
+            this.target = target;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * Get the value of the given header, whose name is expected in lower case.
+         */
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.protocol.ssl;
+
+import com.dynatrace.openkit.api.SSLTrustManager;
+import org.junit.Test;
+
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.X509TrustManager;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SSLSocketFactoryCacheTest {
+
+    @Test
+    public void getSocketFactoryReturnsSameInstanceForSameTrustManager() throws Exception {
+        // given
+        SSLTrustManager trustManager = createTrustManager(mock(X509TrustManager.class));
+
+        // when
+        SSLSocketFactory first = SSLSocketFactoryCache.getSocketFactory(trustManager);
+        SSLSocketFactory second = SSLSocketFactoryCache.getSocketFactory(trustManager);
+
+        // then
+        assertThat(first, is(notNullValue()));
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void getSocketFactoryReturnsDifferentInstancesForDifferentTrustManagers() throws Exception {
+        // given
+        SSLTrustManager trustManagerOne = createTrustManager(mock(X509TrustManager.class));
+        SSLTrustManager trustManagerTwo = createTrustManager(mock(X509TrustManager.class));
+
+        // when
+        SSLSocketFactory first = SSLSocketFactoryCache.getSocketFactory(trustManagerOne);
+        SSLSocketFactory second = SSLSocketFactoryCache.getSocketFactory(trustManagerTwo);
+
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void getSocketFactoryCreatesNewInstanceIfX509TrustManagerChanged() throws Exception {
+        // given
+        SSLTrustManager trustManager = mock(SSLTrustManager.class);
+        when(trustManager.getX509TrustManager()).thenReturn(mock(X509TrustManager.class), mock(X509TrustManager.class));
+
+        // when
+        SSLSocketFactory first = SSLSocketFactoryCache.getSocketFactory(trustManager);
+        SSLSocketFactory second = SSLSocketFactoryCache.getSocketFactory(trustManager);
+
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void getSocketFactoryUsesSharedDefaultForMissingTrustManager() throws Exception {
+        // given
+        SSLTrustManager trustManagerWithoutX509TrustManager = createTrustManager(null);
+
+        // when
+        SSLSocketFactory first = SSLSocketFactoryCache.getSocketFactory(null);
+        SSLSocketFactory second = SSLSocketFactoryCache.getSocketFactory(trustManagerWithoutX509TrustManager);
+
+        // then
+        assertThat(first, is(notNullValue()));
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    private static SSLTrustManager createTrustManager(X509TrustManager x509TrustManager) {
+        SSLTrustManager trustManager = mock(SSLTrustManager.class);
+        when(trustManager.getX509TrustManager()).thenReturn(x509TrustManager);
+
+        return trustManager;
+    }
+}
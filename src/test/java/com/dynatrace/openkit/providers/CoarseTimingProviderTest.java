@@ -0,0 +1,113 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CoarseTimingProviderTest {
+
+    private CoarseTimingProvider target;
+
+    @After
+    public void tearDown() {
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    @Test
+    public void provideTimeStampInMillisecondsReturnsCurrentTime() {
+        // given
+        long timeBefore = System.currentTimeMillis();
+        target = new CoarseTimingProvider();
+
+        // when
+        long obtained = target.provideTimestampInMilliseconds();
+        long timeAfter = System.currentTimeMillis();
+
+        // then
+        assertThat(obtained, greaterThanOrEqualTo(timeBefore - 1));
+        assertThat(obtained, lessThanOrEqualTo(timeAfter + 1));
+    }
+
+    @Test
+    public void cachedTimestampIsUpdatedByTickerThread() throws Exception {
+        // given
+        target = new CoarseTimingProvider(new MonotonicTimingProvider(), 1L);
+        long initial = target.provideTimestampInMilliseconds();
+
+        // when
+        long obtained = initial;
+        for (int i = 0; i < 1000 && obtained == initial; i++) {
+            Thread.sleep(5);
+            obtained = target.provideTimestampInMilliseconds();
+        }
+
+        // then
+        assertThat(obtained, greaterThan(initial));
+    }
+
+    @Test
+    public void closeStopsTickerThread() throws Exception {
+        // given
+        target = new CoarseTimingProvider(new MonotonicTimingProvider(), 1L);
+
+        // when
+        target.close();
+
+        // then
+        assertThat(target.isTicking(), is(false));
+    }
+
+    @Test
+    public void provideTimestampInMillisecondsDelegatesToUnderlyingProviderAfterClose() throws Exception {
+        // given
+        TimingProvider timingProvider = mock(TimingProvider.class);
+        when(timingProvider.provideTimestampInMilliseconds()).thenReturn(1000L, 2000L);
+        target = new CoarseTimingProvider(timingProvider, 1L);
+        target.close();
+
+        // when
+        long obtained = target.provideTimestampInMilliseconds();
+
+        // then
+        assertThat(obtained, is(2000L));
+    }
+
+    @Test
+    public void sleepDelegatesToUnderlyingProvider() throws Exception {
+        // given
+        TimingProvider timingProvider = mock(TimingProvider.class);
+        target = new CoarseTimingProvider(timingProvider, 1000L);
+
+        // when
+        target.sleep(2);
+
+        // then
+        verify(timingProvider).sleep(2);
+    }
+}
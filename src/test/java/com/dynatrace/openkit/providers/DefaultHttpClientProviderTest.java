@@ -17,13 +17,16 @@
 package com.dynatrace.openkit.providers;
 
 import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.api.SSLTrustManager;
 import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
 import com.dynatrace.openkit.protocol.HTTPClient;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -52,4 +55,70 @@ public class DefaultHttpClientProviderTest {
         // then
         assertThat(obtained, is(notNullValue()));
     }
+
+    @Test
+    public void createClientReturnsSameClientForEqualConfigurations() {
+        // given
+        DefaultHTTPClientProvider target = new DefaultHTTPClientProvider(mockLogger);
+
+        // when
+        HTTPClient first = target.createClient(createConfiguration(1, null));
+        HTTPClient second = target.createClient(createConfiguration(1, null));
+
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(target.getNumberOfCachedClients(), is(1));
+    }
+
+    @Test
+    public void createClientReturnsNewClientIfServerIdChanged() {
+        // given
+        DefaultHTTPClientProvider target = new DefaultHTTPClientProvider(mockLogger);
+
+        // when
+        HTTPClient first = target.createClient(createConfiguration(1, null));
+        HTTPClient second = target.createClient(createConfiguration(2, null));
+
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(target.getNumberOfCachedClients(), is(2));
+    }
+
+    @Test
+    public void createClientReturnsNewClientIfTrustManagerDiffers() {
+        // given
+        DefaultHTTPClientProvider target = new DefaultHTTPClientProvider(mockLogger);
+
+        // when
+        HTTPClient first = target.createClient(createConfiguration(1, mock(SSLTrustManager.class)));
+        HTTPClient second = target.createClient(createConfiguration(1, mock(SSLTrustManager.class)));
+
+        // then
+        assertThat(second, is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void numberOfCachedClientsIsLimited() {
+        // given
+        DefaultHTTPClientProvider target = new DefaultHTTPClientProvider(mockLogger);
+        HTTPClient first = target.createClient(createConfiguration(0, null));
+
+        // when
+        for (int serverId = 1; serverId <= DefaultHTTPClientProvider.MAX_CACHED_CLIENTS; serverId++) {
+            target.createClient(createConfiguration(serverId, null));
+        }
+
+        // then
+        assertThat(target.getNumberOfCachedClients(), is(DefaultHTTPClientProvider.MAX_CACHED_CLIENTS));
+        assertThat(target.createClient(createConfiguration(0, null)), is(not(sameInstance(first))));
+    }
+
+    private static HTTPClientConfiguration createConfiguration(int serverId, SSLTrustManager trustManager) {
+        return new HTTPClientConfiguration.Builder()
+                .withBaseURL("https://localhost:9999/1")
+                .withApplicationID("some cryptic appID")
+                .withServerID(serverId)
+                .withSSLTrustManager(trustManager)
+                .build();
+    }
 }
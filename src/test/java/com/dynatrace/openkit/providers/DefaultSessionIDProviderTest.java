@@ -18,6 +18,11 @@ package com.dynatrace.openkit.providers;
 
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
@@ -74,4 +79,57 @@ public class DefaultSessionIDProviderTest {
         //then
         assertThat(actual, is(equalTo(1)));
     }
+
+    @Test
+    public void aProviderInitializedWithMaxIntValueMinusOneProvidesMaxIntValueAndWrapsAround() {
+        //given
+        DefaultSessionIDProvider provider = new DefaultSessionIDProvider(Integer.MAX_VALUE - 1);
+
+        //when
+        int first = provider.getNextSessionID();
+        int second = provider.getNextSessionID();
+
+        //then
+        assertThat(first, is(equalTo(Integer.MAX_VALUE)));
+        assertThat(second, is(equalTo(1)));
+    }
+
+    @Test
+    public void concurrentlyProvidedSessionIDsAreUnique() throws Exception {
+        // given
+        final int numThreads = 8;
+        final int numSessionIDsPerThread = 1000;
+        final DefaultSessionIDProvider provider = new DefaultSessionIDProvider(0);
+        final Set<Integer> sessionIDs = Collections.synchronizedSet(new HashSet<Integer>());
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                    } catch (Exception e) {
+                        return;
+                    }
+                    for (int j = 0; j < numSessionIDsPerThread; j++) {
+                        sessionIDs.add(provider.getNextSessionID());
+                    }
+                }
+            });
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(sessionIDs.size(), is(equalTo(numThreads * numSessionIDsPerThread)));
+        assertThat(provider.getNextSessionID(), is(equalTo(numThreads * numSessionIDsPerThread + 1)));
+    }
 }
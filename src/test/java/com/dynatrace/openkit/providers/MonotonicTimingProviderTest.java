@@ -0,0 +1,86 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class MonotonicTimingProviderTest {
+
+    @Test
+    public void provideTimeStampInMillisecondsReturnsCurrentTime() {
+        // given
+        MonotonicTimingProvider target = new MonotonicTimingProvider();
+
+        // when
+        long timeBefore = System.currentTimeMillis();
+        long obtained = target.provideTimestampInMilliseconds();
+        long timeAfter = System.currentTimeMillis();
+
+        // then
+        assertThat(obtained, greaterThanOrEqualTo(timeBefore - 1));
+        assertThat(obtained, lessThanOrEqualTo(timeAfter + 1));
+    }
+
+    @Test
+    public void provideTimeStampInMillisecondsAddsElapsedTimeToWallClockAnchor() throws Exception {
+        // given
+        long wallClockAnchor = 1000000L;
+        MonotonicTimingProvider target = new MonotonicTimingProvider(wallClockAnchor, System.nanoTime());
+
+        // when
+        Thread.sleep(5);
+        long obtained = target.provideTimestampInMilliseconds();
+
+        // then
+        assertThat(obtained, greaterThanOrEqualTo(wallClockAnchor + 5));
+    }
+
+    @Test
+    public void provideTimeStampInMillisecondsNeverMovesBackwards() {
+        // given
+        MonotonicTimingProvider target = new MonotonicTimingProvider();
+        long previous = target.provideTimestampInMilliseconds();
+
+        for (int i = 0; i < 10000; i++) {
+            // when
+            long obtained = target.provideTimestampInMilliseconds();
+
+            // then
+            assertThat(obtained, greaterThanOrEqualTo(previous));
+            previous = obtained;
+        }
+    }
+
+    @Test
+    public void sleepSuspendsForSpecifiedTime() throws Exception {
+        // given
+        long sleepTimeInMillis = 2;
+        MonotonicTimingProvider target = new MonotonicTimingProvider();
+
+        // when
+        long timeInMillisBefore = target.provideTimestampInMilliseconds();
+        target.sleep(sleepTimeInMillis);
+        long sleptTimeInMillis = target.provideTimestampInMilliseconds() - timeInMillisBefore;
+
+        // then
+        assertThat(sleptTimeInMillis, greaterThanOrEqualTo(sleepTimeInMillis));
+    }
+}
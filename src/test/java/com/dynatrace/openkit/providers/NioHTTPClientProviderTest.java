@@ -0,0 +1,94 @@
+/**
+ * Copyright 2018-2020 Dynatrace LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.dynatrace.openkit.providers;
+
+import com.dynatrace.openkit.api.Logger;
+import com.dynatrace.openkit.core.configuration.HTTPClientConfiguration;
+import com.dynatrace.openkit.protocol.HTTPClient;
+import com.dynatrace.openkit.protocol.NioHTTPClient;
+import com.dynatrace.openkit.protocol.nio.HTTPRequest;
+import com.dynatrace.openkit.protocol.nio.NioHTTPTransport;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URL;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class NioHTTPClientProviderTest {
+
+    private Logger mockLogger;
+
+    @Before
+    public void setUp() {
+        mockLogger = mock(Logger.class);
+    }
+
+    @Test
+    public void createClientReturnsNioHttpClient() {
+        // given
+        NioHTTPClientProvider target = new NioHTTPClientProvider(mockLogger);
+
+        // when
+        HTTPClient obtained = target.createClient(createConfiguration(1));
+
+        // then
+        assertThat(obtained, is(instanceOf(NioHTTPClient.class)));
+        target.close();
+    }
+
+    @Test
+    public void createClientReturnsSameClientForEqualConfigurations() {
+        // given
+        NioHTTPClientProvider target = new NioHTTPClientProvider(mockLogger);
+
+        // when
+        HTTPClient first = target.createClient(createConfiguration(1));
+        HTTPClient second = target.createClient(createConfiguration(1));
+
+        // then
+        assertThat(second, is(sameInstance(first)));
+        assertThat(target.getNumberOfCachedClients(), is(1));
+        target.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void closeClosesTheTransport() throws IOException {
+        // given
+        NioHTTPTransport transport = new NioHTTPTransport(mockLogger);
+        NioHTTPClientProvider target = new NioHTTPClientProvider(mockLogger, transport);
+
+        // when
+        target.close();
+
+        // then
+        transport.execute(new HTTPRequest("GET", new URL("http://localhost/mbeacon")));
+    }
+
+    private static HTTPClientConfiguration createConfiguration(int serverID) {
+        return new HTTPClientConfiguration.Builder()
+                .withBaseURL("http://localhost:9999/mbeacon")
+                .withApplicationID("some cryptic appID")
+                .withServerID(serverID)
+                .build();
+    }
+}